@@ -1,5 +1,7 @@
 package com.portafolio.app.config;
 
+import com.portafolio.costing.service.KardexReporteService;
+import com.portafolio.costing.service.PosicionActualService;
 import com.portafolio.model.entities.CustodioEntity;
 import com.portafolio.model.entities.EmpresaEntity;
 import com.portafolio.model.entities.MovimientoContableEntity;
@@ -201,137 +203,19 @@ public class DataInitializerConfig {
         return ((Number) result).intValue() > 0;
     }
 
+    /**
+     * saldos_view agrega la tabla posiciones_actuales (último saldo de kardex y de mercado por grupo).
+     */
     private void crearVistaSaldos() {
-        String sql = """
-            CREATE OR REPLACE VIEW saldos_view AS
-            SELECT 
-                `k`.`nemo_id` AS `nemo_id`,
-                `k`.`empresa_id` AS `empresa_id`,
-                `k`.`custodio_id` AS `custodio_id`,
-                SUM(`k`.`saldo_cantidad`) AS `saldo_cantidad`,
-                SUM(`k`.`saldo_valor`) AS `costo_total`,
-                (CASE
-                    WHEN (SUM(`k`.`saldo_cantidad`) > 0) THEN (SUM(`k`.`saldo_valor`) / SUM(`k`.`saldo_cantidad`))
-                    ELSE 0
-                END) AS `costo_unitario`,
-                SUM(`s`.`cantidad`) AS `cantidad_mercado`,
-                SUM(`s`.`saldo_valor`) AS `valor_mercado`
-            FROM
-                ((SELECT 
-                    `kardex_view`.`empresa_id` AS `empresa_id`,
-                        `kardex_view`.`custodio_id` AS `custodio_id`,
-                        `kardex_view`.`nemo_id` AS `nemo_id`,
-                        `kardex_view`.`saldo_cantidad` AS `saldo_cantidad`,
-                        `kardex_view`.`saldo_valor` AS `saldo_valor`
-                FROM
-                    `kardex_view`
-                WHERE
-                    (`kardex_view`.`fecha_tran` = (SELECT 
-                            MAX(`kv`.`fecha_tran`)
-                        FROM
-                            `kardex_view` `kv`
-                        WHERE
-                            ((`kv`.`empresa_id` = `kardex_view`.`empresa_id`)
-                                AND (`kv`.`custodio_id` = `kardex_view`.`custodio_id`)
-                                AND (`kv`.`nemo_id` = `kardex_view`.`nemo_id`))))) `k`
-                LEFT JOIN (SELECT 
-                    `saldos`.`empresa_id` AS `empresa_id`,
-                        `saldos`.`custodio_id` AS `custodio_id`,
-                        `saldos`.`instrumento_id` AS `nemo_id`,
-                        SUM(`saldos`.`cantidad`) AS `cantidad`,
-                        SUM(`saldos`.`monto_clp`) AS `saldo_valor`
-                FROM
-                    `saldos`
-                WHERE
-                    (`saldos`.`fecha` = (SELECT 
-                            MAX(`s2`.`fecha`)
-                        FROM
-                            `saldos` `s2`
-                        WHERE
-                            ((`s2`.`empresa_id` = `saldos`.`empresa_id`)
-                                AND (`s2`.`custodio_id` = `saldos`.`custodio_id`)
-                                AND (`s2`.`instrumento_id` = `saldos`.`instrumento_id`))))
-                GROUP BY `saldos`.`empresa_id` , `saldos`.`custodio_id` , `saldos`.`instrumento_id`) `s` ON (((`k`.`empresa_id` = `s`.`empresa_id`)
-                    AND (`k`.`custodio_id` = `s`.`custodio_id`)
-                    AND (`k`.`nemo_id` = `s`.`nemo_id`))))
-            GROUP BY `k`.`nemo_id` , `k`.`empresa_id` , `k`.`custodio_id`
-            HAVING (`saldo_cantidad` > 0)
-        """;
-
-        entityManager.createNativeQuery(sql).executeUpdate();
+        entityManager.createNativeQuery(PosicionActualService.SQL_VISTA_SALDOS).executeUpdate();
         logger.info("✓ Vista 'saldos_view' creada exitosamente");
     }
     
+    /**
+     * kardex_view lee de la tabla materializada kardex_reporte, que mantiene el motor de costeo.
+     */
     private void crearVistaKardex() {
-        String sql = """
-            CREATE OR REPLACE VIEW `kardex_view` AS
-                SELECT 
-                    `t`.`id` AS `id`,
-                    `t`.`empresa_id` AS `empresa_id`,
-                    `t`.`custodio_id` AS `custodio_id`,
-                    `t`.`cuenta` AS `cuenta`,
-                    `i`.`nemo` AS `nemo`,
-                    `i`.`id` AS `nemo_id`,
-                    `k`.`fecha_transaccion` AS `fecha_tran`,
-                    `tc`.`tipo_contable` AS `tipo_oper`,
-                    (CASE
-                        WHEN (`tc`.`tipo_contable` = 'INGRESO') THEN `k`.`cantidad`
-                        ELSE NULL
-                    END) AS `cant_compra`,
-                    (CASE
-                        WHEN (`tc`.`tipo_contable` = 'INGRESO') THEN `t`.`precio`
-                        ELSE NULL
-                    END) AS `precio_compra`,
-                    (CASE
-                        WHEN (`tc`.`tipo_contable` = 'INGRESO') THEN (`t`.`precio` * `k`.`cantidad`)
-                        ELSE NULL
-                    END) AS `monto_compra`,
-                    (CASE
-                        WHEN (`tc`.`tipo_contable` = 'EGRESO') THEN `k`.`cantidad`
-                        ELSE NULL
-                    END) AS `total_fact`,
-                    (CASE
-                        WHEN (`tc`.`tipo_contable` = 'EGRESO') THEN `dc`.`cantidad_usada`
-                        ELSE NULL
-                    END) AS `cant_usada`,
-                    (CASE
-                        WHEN (`tc`.`tipo_contable` = 'EGRESO') THEN `ti`.`fecha`
-                        ELSE NULL
-                    END) AS `fecha_compra`,
-                    (CASE
-                        WHEN (`tc`.`tipo_contable` = 'EGRESO') THEN `ti`.`precio`
-                        ELSE NULL
-                    END) AS `costo_fifo`,
-                    (CASE
-                        WHEN (`tc`.`tipo_contable` = 'EGRESO') THEN `t`.`precio`
-                        ELSE NULL
-                    END) AS `precio_venta`,
-                    (CASE
-                        WHEN (`tc`.`tipo_contable` = 'EGRESO') THEN (`dc`.`cantidad_usada` * `ti`.`precio`)
-                        ELSE NULL
-                    END) AS `costo_oper`,
-                    (CASE
-                        WHEN (`tc`.`tipo_contable` = 'EGRESO') THEN (`t`.`precio` - `ti`.`precio`)
-                        ELSE NULL
-                    END) AS `margen`,
-                    (CASE
-                        WHEN (`tc`.`tipo_contable` = 'EGRESO') THEN ((`t`.`precio` - `ti`.`precio`) * `dc`.`cantidad_usada`)
-                        ELSE NULL
-                    END) AS `utilidad`,
-                    `k`.`saldo_cantidad` AS `saldo_cantidad`,
-                    `k`.`saldo_valor` AS `saldo_valor`
-                FROM
-                    ((((((`kardex` `k`
-                    JOIN `transacciones` `t` ON ((`k`.`transaccion_id` = `t`.`id`)))
-                    JOIN `instrumentos` `i` ON ((`t`.`instrumento_id` = `i`.`id`)))
-                    JOIN `tipo_movimientos` `tm` ON ((`t`.`movimiento_id` = `tm`.`id`)))
-                    JOIN `tipos_contables` `tc` ON ((`tm`.`movimiento_contable_id` = `tc`.`id`)))
-                    LEFT JOIN `detalle_costeos` `dc` ON ((`t`.`id` = `dc`.`egreso_id`)))
-                    LEFT JOIN `transacciones` `ti` ON ((`dc`.`ingreso_id` = `ti`.`id`)))
-                ORDER BY `t`.`empresa_id` , `t`.`custodio_id` , `t`.`cuenta` , `i`.`id` , `k`.`fecha_transaccion` , `dc`.`ingreso_id`
-            """;
-
-        entityManager.createNativeQuery(sql).executeUpdate();
+        entityManager.createNativeQuery(KardexReporteService.SQL_VISTA_KARDEX).executeUpdate();
         logger.info("✓ Vista 'kardex_view' creada exitosamente");
     }
 }
\ No newline at end of file
@@ -107,11 +107,17 @@ public class CostingGroupDto {
      */
     public void generarClaveAgrupacion() {
         if (empresaId != null && custodioId != null && instrumentoId != null && cuenta != null) {
-            this.claveAgrupacion = String.format("%d|%s|%d|%d", 
-                    empresaId, cuenta, custodioId, instrumentoId);
+            this.claveAgrupacion = construirClave(empresaId, cuenta, custodioId, instrumentoId);
         }
     }
 
+    /**
+     * Clave de agrupación usada por el motor de costeo: empresaId|cuenta|custodioId|instrumentoId.
+     */
+    public static String construirClave(Long empresaId, String cuenta, Long custodioId, Long instrumentoId) {
+        return String.format("%d|%s|%d|%d", empresaId, cuenta, custodioId, instrumentoId);
+    }
+
     /**
      * Descripción amigable del grupo para mostrar en UI.
      */
@@ -0,0 +1,10 @@
+package com.portafolio.model.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Posición de la última fila leída en una consulta paginada por (fecha, id).
+ * La página siguiente empieza en la primera fila posterior a este par.
+ */
+public record CursorKeyset(LocalDate fecha, Long id) {
+}
@@ -0,0 +1,33 @@
+package com.portafolio.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Grupo de transacciones con la misma huella semántica: probable movimiento
+ * cargado más de una vez desde cartolas superpuestas.
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class DuplicadoSospechosoDto {
+
+    private final String huella;
+    private final String razonSocial;
+    private final String custodio;
+    private final String cuenta;
+    private final String instrumentoNemo;
+    private final LocalDate fecha;
+    private final String folio;
+    private final BigDecimal cantidad;
+    private final BigDecimal monto;
+    private final int ocurrencias;
+    private final List<Long> idsTransacciones;
+    /** Transacciones del grupo marcadas como duplicado y excluidas del costeo. */
+    private final List<Long> idsSospechosos;
+    private final List<Long> lotes;
+}
@@ -44,6 +44,7 @@ import lombok.Setter;
 @Builder
 public class KardexReporteDto {
 
+    private Long id;
     private LocalDate fechaTran;
     private String tipoOper;
     private String nemo;
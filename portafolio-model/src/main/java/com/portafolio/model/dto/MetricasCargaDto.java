@@ -0,0 +1,35 @@
+package com.portafolio.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Telemetría de una carga: tiempos por etapa y por hoja, velocidad
+ * e histograma de rechazos con las filas afectadas.
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class MetricasCargaDto {
+
+    private final Map<String, Duration> tiemposPorEtapa;
+    private final Map<String, Duration> tiemposPorHoja;
+    private final Map<String, Integer> rechazosPorCausa;
+    private final List<FilaRechazada> filasRechazadas;
+    private final int totalRechazos;
+    private final int duplicados;
+    private final double filasPorSegundo;
+
+    @Getter
+    @AllArgsConstructor
+    public static class FilaRechazada {
+        private final String hoja;
+        private final int fila;
+        private final String causa;
+        private final String detalle;
+    }
+}
@@ -0,0 +1,29 @@
+package com.portafolio.model.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Página de una consulta paginada por (fecha, id).
+ *
+ * @param filas Filas de la página, en orden.
+ * @param siguiente Cursor para pedir la página siguiente, o {@code null} si no hay más filas.
+ */
+public record PaginaKeyset<T>(List<T> filas, CursorKeyset siguiente) {
+
+    /**
+     * Arma la página a partir de una consulta que pidió {@code tamano + 1} filas:
+     * la fila sobrante solo indica que hay una página siguiente.
+     */
+    public static <T> PaginaKeyset<T> desde(List<T> filas, int tamano, Function<T, CursorKeyset> cursor) {
+        if (filas.size() <= tamano) {
+            return new PaginaKeyset<>(filas, null);
+        }
+        List<T> pagina = filas.subList(0, tamano);
+        return new PaginaKeyset<>(pagina, cursor.apply(pagina.get(tamano - 1)));
+    }
+
+    public boolean hayMas() {
+        return siguiente != null;
+    }
+}
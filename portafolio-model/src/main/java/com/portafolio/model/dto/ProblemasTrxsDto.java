@@ -11,9 +11,11 @@ import lombok.Setter;
 @Getter
 @Setter
 @NoArgsConstructor
+@AllArgsConstructor
 @Builder
 public class ProblemasTrxsDto {
 
+    private Long id;
     private LocalDate fecha;
     private String folio;
     private String tipoMovimiento;
@@ -23,27 +25,4 @@ public class ProblemasTrxsDto {
     private BigDecimal precio;
     private BigDecimal total;
     private boolean costeado;
-    
-    // CONSTRUCTOR REQUERIDO POR LA CONSULTA HQL
-    public ProblemasTrxsDto(
-        LocalDate fecha,
-        String folio,
-        String tipoMovimiento,
-        String instrumentoNemo,
-        BigDecimal compras,
-        BigDecimal ventas,
-        BigDecimal precio,
-        BigDecimal total,
-        boolean costeado
-    ) {
-        this.fecha = fecha;
-        this.folio = folio;
-        this.tipoMovimiento = tipoMovimiento;
-        this.instrumentoNemo = instrumentoNemo;
-        this.compras = compras;
-        this.ventas = ventas;
-        this.precio = precio;
-        this.total = total;
-        this.costeado = costeado;
-    }
 }
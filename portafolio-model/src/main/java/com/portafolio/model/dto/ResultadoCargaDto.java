@@ -10,19 +10,35 @@ public class ResultadoCargaDto {
     private final int filasProcesadas;
     private final Duration duracion;
     private final String mensaje;
+    private final MetricasCargaDto metricas;
+    private final Long loteId;
 
-    private ResultadoCargaDto(boolean exitoso, int filasProcesadas, Duration duracion, String mensaje) {
+    private ResultadoCargaDto(boolean exitoso, int filasProcesadas, Duration duracion, String mensaje,
+                              MetricasCargaDto metricas, Long loteId) {
         this.exitoso = exitoso;
         this.filasProcesadas = filasProcesadas;
         this.duracion = duracion;
         this.mensaje = mensaje;
+        this.metricas = metricas;
+        this.loteId = loteId;
     }
 
     public static ResultadoCargaDto exitoso(int filasProcesadas, Duration duracion, String mensaje) {
-        return new ResultadoCargaDto(true, filasProcesadas, duracion, mensaje);
+        return new ResultadoCargaDto(true, filasProcesadas, duracion, mensaje, null, null);
+    }
+
+    public static ResultadoCargaDto exitoso(int filasProcesadas, Duration duracion, String mensaje, MetricasCargaDto metricas) {
+        return new ResultadoCargaDto(true, filasProcesadas, duracion, mensaje, metricas, null);
     }
 
     public static ResultadoCargaDto fallido(String mensajeDeError) {
-        return new ResultadoCargaDto(false, 0, Duration.ZERO, mensajeDeError);
+        return new ResultadoCargaDto(false, 0, Duration.ZERO, mensajeDeError, null, null);
+    }
+
+    /**
+     * Copia del resultado asociada al lote de carga que lo generó.
+     */
+    public ResultadoCargaDto conLote(Long loteId) {
+        return new ResultadoCargaDto(exitoso, filasProcesadas, duracion, mensaje, metricas, loteId);
     }
 }
\ No newline at end of file
@@ -0,0 +1,87 @@
+package com.portafolio.model.entities;
+
+import com.portafolio.model.enums.EstadoCargaJob;
+import com.portafolio.model.enums.TipoCargaJob;
+import com.portafolio.model.utiles.BaseEntity;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.SuperBuilder;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Trabajo de la cola de carga de cartolas. Los workers de ingesta lo toman desde
+ * la tabla y actualizan su estado y avance, que la UI consulta periódicamente.
+ */
+@Entity
+@Table(name = "carga_jobs", indexes = {
+    @Index(name = "idx_carga_jobs_estado", columnList = "estado, id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@SuperBuilder
+@EqualsAndHashCode(callSuper = true)
+public class CargaJobEntity extends BaseEntity implements Serializable {
+
+    @Column(name = "archivo", nullable = false, length = 1000)
+    private String archivo;
+
+    @Column(name = "custodio", nullable = false, length = 50)
+    private String custodio;
+
+    /** Tipo de registro (S, T, C) de un archivo CSV; en los libros Excel lo determina cada hoja. */
+    @Column(name = "tipo_hoja", length = 1)
+    private String tipoHoja;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "tipo_carga", nullable = false, length = 20)
+    private TipoCargaJob tipoCarga;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "estado", nullable = false, length = 20)
+    @Builder.Default
+    private EstadoCargaJob estado = EstadoCargaJob.EN_COLA;
+
+    /** Limpia las tablas de negocio antes de cargar (primer archivo de una carga inicial). */
+    @Column(name = "limpiar_antes", nullable = false)
+    @Builder.Default
+    private boolean limpiarAntes = false;
+
+    @Column(name = "progreso", nullable = false)
+    @Builder.Default
+    private int progreso = 0;
+
+    /** Lote de carga generado al pasar el archivo a staging. */
+    @Column(name = "lote_id")
+    private Long loteId;
+
+    @Column(name = "filas_procesadas")
+    private Integer filasProcesadas;
+
+    @Column(name = "transacciones_creadas")
+    private Integer transaccionesCreadas;
+
+    @Column(name = "mensaje", length = 1000)
+    private String mensaje;
+
+    @Column(name = "worker", length = 100)
+    private String worker;
+
+    @Column(name = "intentos", nullable = false)
+    @Builder.Default
+    private int intentos = 0;
+
+    @Column(name = "fecha_inicio")
+    private LocalDateTime fechaInicio;
+
+    @Column(name = "fecha_fin")
+    private LocalDateTime fechaFin;
+}
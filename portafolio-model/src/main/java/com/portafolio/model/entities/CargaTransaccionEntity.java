@@ -15,7 +15,9 @@ import lombok.Setter;
 import lombok.experimental.SuperBuilder;
 
 @Entity
-@Table(name = "carga_transacciones")
+@Table(name = "carga_transacciones", indexes = {
+    @Index(name = "idx_carga_transacciones_lote", columnList = "lote_id, procesado")
+})
 @IdClass(Pk.class)
 @Getter
 @Setter
@@ -117,6 +119,10 @@ public class CargaTransaccionEntity implements Serializable {
     @Column(name = "monto_usd")
     private BigDecimal montoUsd;
     
+    /** Lote de carga que insertó la fila (null en filas anteriores a los lotes). */
+    @Column(name = "lote_id")
+    private Long loteId;
+
     @Column(name = "procesado", nullable = false)
     @Builder.Default
     private boolean procesado = false; 
@@ -146,4 +152,4 @@ public class CargaTransaccionEntity implements Serializable {
     protected void onUpdate() {
         this.fechaModificacion = LocalDate.now();
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,61 @@
+package com.portafolio.model.entities;
+
+import com.portafolio.model.utiles.BaseEntity;
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDate;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.SuperBuilder;
+
+/**
+ * Catálogo de grupos de costeo (empresa, custodio, cuenta, instrumento) con el rango de
+ * fechas y la cantidad de movimientos de su kardex. Lo mantiene el motor de costeo, de modo
+ * que listar grupos no agrupe la tabla kardex completa.
+ */
+@Entity
+@Table(name = "grupos_costeo", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"clave_agrupacion"}, name = "uk_grupos_costeo_clave")
+}, indexes = {
+    @Index(name = "idx_grupos_costeo_empresa", columnList = "empresa_id"),
+    @Index(name = "idx_grupos_costeo_instrumento", columnList = "instrumento_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@SuperBuilder
+@EqualsAndHashCode(callSuper = true)
+public class GrupoCosteoEntity extends BaseEntity implements Serializable {
+
+    @Column(name = "clave_agrupacion", length = 255, nullable = false)
+    private String claveAgrupacion;
+
+    @Column(name = "empresa_id", nullable = false)
+    private Long empresaId;
+
+    @Column(name = "custodio_id", nullable = false)
+    private Long custodioId;
+
+    @Column(name = "cuenta", nullable = false)
+    private String cuenta;
+
+    @Column(name = "instrumento_id", nullable = false)
+    private Long instrumentoId;
+
+    @Column(name = "fecha_primera_transaccion")
+    private LocalDate fechaPrimeraTransaccion;
+
+    @Column(name = "fecha_ultima_transaccion")
+    private LocalDate fechaUltimaTransaccion;
+
+    @Column(name = "total_movimientos", nullable = false)
+    private Long totalMovimientos;
+
+    /** Fecha del último costeo que escribió kardex del grupo. */
+    @Column(name = "fecha_ultimo_costeo")
+    private LocalDate fechaUltimoCosteo;
+}
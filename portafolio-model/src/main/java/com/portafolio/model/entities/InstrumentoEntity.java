@@ -27,6 +27,10 @@ public class InstrumentoEntity extends BaseEntity implements Serializable {
     @ManyToOne(fetch = FetchType.LAZY) 
     @JoinColumn(name = "producto_id", referencedColumnName = "id", nullable = false)
     private ProductoEntity producto;
+
+    /** Instrumento existente al que se parece el nemónico; sus transacciones no se costean hasta confirmarlo como nuevo. */
+    @Column(name = "similar_a_id")
+    private Long similarAId;
     
     @OneToMany(mappedBy = "instrumento", fetch = FetchType.LAZY)
     @Builder.Default
@@ -14,7 +14,9 @@ import lombok.Setter;
 import lombok.experimental.SuperBuilder;
 
 @Entity
-@Table(name = "kardex")
+@Table(name = "kardex", indexes = {
+    @Index(name = "idx_kardex_grupo_fecha", columnList = "empresa_id, custodio_id, instrumento_id, cuenta, fecha_transaccion")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,110 @@
+package com.portafolio.model.entities;
+
+import com.portafolio.model.utiles.BaseEntity;
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+/**
+ * Kardex de reporte: una fila por movimiento de kardex y, en los egresos, por cada
+ * ingreso FIFO consumido. Es la materialización de kardex_view; la mantiene el motor
+ * de costeo por grupo y se borra en cascada junto con el kardex.
+ */
+@Entity
+@Table(name = "kardex_reporte", indexes = {
+    @Index(name = "idx_kardex_reporte_grupo", columnList = "empresa_id, custodio_id, cuenta, nemo_id, fecha_tran"),
+    @Index(name = "idx_kardex_reporte_saldo", columnList = "empresa_id, custodio_id, nemo_id, fecha_tran"),
+    @Index(name = "idx_kardex_reporte_clave", columnList = "clave_agrupacion")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@SuperBuilder
+@EqualsAndHashCode(callSuper = true, exclude = {"kardex"})
+public class KardexReporteEntity extends BaseEntity implements Serializable {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "kardex_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private KardexEntity kardex;
+
+    @Column(name = "transaccion_id", nullable = false)
+    private Long transaccionId;
+
+    @Column(name = "clave_agrupacion", length = 255)
+    private String claveAgrupacion;
+
+    @Column(name = "empresa_id", nullable = false)
+    private Long empresaId;
+
+    @Column(name = "custodio_id", nullable = false)
+    private Long custodioId;
+
+    @Column(name = "cuenta")
+    private String cuenta;
+
+    @Column(name = "nemo")
+    private String nemo;
+
+    @Column(name = "nemo_id", nullable = false)
+    private Long nemoId;
+
+    @Column(name = "fecha_tran", nullable = false)
+    private LocalDate fechaTran;
+
+    @Column(name = "tipo_oper", length = 20)
+    private String tipoOper;
+
+    @Column(name = "cant_compra", precision = 19, scale = 6)
+    private BigDecimal cantCompra;
+
+    @Column(name = "precio_compra", precision = 19, scale = 6)
+    private BigDecimal precioCompra;
+
+    @Column(name = "monto_compra", precision = 19, scale = 6)
+    private BigDecimal montoCompra;
+
+    @Column(name = "total_fact", precision = 19, scale = 6)
+    private BigDecimal totalFact;
+
+    @Column(name = "cant_usada", precision = 19, scale = 6)
+    private BigDecimal cantUsada;
+
+    @Column(name = "fecha_compra")
+    private LocalDate fechaCompra;
+
+    @Column(name = "costo_fifo", precision = 19, scale = 6)
+    private BigDecimal costoFifo;
+
+    @Column(name = "precio_venta", precision = 19, scale = 6)
+    private BigDecimal precioVenta;
+
+    @Column(name = "costo_oper", precision = 19, scale = 6)
+    private BigDecimal costoOper;
+
+    @Column(name = "margen", precision = 19, scale = 6)
+    private BigDecimal margen;
+
+    @Column(name = "utilidad", precision = 19, scale = 6)
+    private BigDecimal utilidad;
+
+    @Column(name = "saldo_cantidad", precision = 19, scale = 6)
+    private BigDecimal saldoCantidad;
+
+    @Column(name = "saldo_valor", precision = 19, scale = 6)
+    private BigDecimal saldoValor;
+
+    /** Ingreso FIFO consumido (solo egresos); ordena las filas de un mismo egreso. */
+    @Column(name = "ingreso_id")
+    private Long ingresoId;
+}
@@ -0,0 +1,49 @@
+package com.portafolio.model.entities;
+
+import com.portafolio.model.utiles.BaseEntity;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.SuperBuilder;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Lote de carga: una ingesta de archivo a staging. Su id se graba en cada fila de
+ * carga_transacciones y en las transacciones que se normalizan desde ella, de modo
+ * que purgar o reprocesar una carga opera sobre el índice del lote y no sobre la tabla.
+ */
+@Entity
+@Table(name = "lotes_carga", indexes = {
+    @Index(name = "idx_lotes_carga_fecha", columnList = "fecha_carga")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@SuperBuilder
+@EqualsAndHashCode(callSuper = true)
+public class LoteCargaEntity extends BaseEntity implements Serializable {
+
+    @Column(name = "custodio", nullable = false, length = 50)
+    private String custodio;
+
+    @Column(name = "origen", length = 1000)
+    private String origen;
+
+    @Column(name = "fecha_carga", nullable = false)
+    private LocalDateTime fechaCarga;
+
+    @Column(name = "filas")
+    private Integer filas;
+
+    /** Sus filas de staging ya fueron eliminadas. */
+    @Column(name = "purgado", nullable = false)
+    @Builder.Default
+    private boolean purgado = false;
+}
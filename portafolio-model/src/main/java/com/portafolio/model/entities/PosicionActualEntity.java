@@ -0,0 +1,66 @@
+package com.portafolio.model.entities;
+
+import com.portafolio.model.utiles.BaseEntity;
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.SuperBuilder;
+
+/**
+ * Posición actual por grupo (empresa, custodio, instrumento, cuenta): último saldo del
+ * kardex y último saldo de mercado informado por el custodio. Reemplaza las subconsultas
+ * correlacionadas de saldos_view; la mantienen el motor de costeo y el refresco de saldos.
+ */
+@Entity
+@Table(name = "posiciones_actuales", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"empresa_id", "custodio_id", "instrumento_id", "cuenta"}, name = "uk_posicion_actual_grupo")
+}, indexes = {
+    @Index(name = "idx_posicion_actual_clave", columnList = "clave_agrupacion")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@SuperBuilder
+@EqualsAndHashCode(callSuper = true)
+public class PosicionActualEntity extends BaseEntity implements Serializable {
+
+    @Column(name = "clave_agrupacion", length = 255, nullable = false)
+    private String claveAgrupacion;
+
+    @Column(name = "empresa_id", nullable = false)
+    private Long empresaId;
+
+    @Column(name = "custodio_id", nullable = false)
+    private Long custodioId;
+
+    @Column(name = "instrumento_id", nullable = false)
+    private Long instrumentoId;
+
+    @Column(name = "cuenta", length = 100, nullable = false)
+    private String cuenta;
+
+    @Column(name = "fecha_kardex")
+    private LocalDate fechaKardex;
+
+    @Column(name = "saldo_cantidad", precision = 19, scale = 6)
+    private BigDecimal saldoCantidad;
+
+    @Column(name = "saldo_valor", precision = 19, scale = 6)
+    private BigDecimal saldoValor;
+
+    @Column(name = "fecha_mercado")
+    private LocalDate fechaMercado;
+
+    @Column(name = "cantidad_mercado", precision = 19, scale = 4)
+    private BigDecimal cantidadMercado;
+
+    @Column(name = "valor_mercado", precision = 19, scale = 4)
+    private BigDecimal valorMercado;
+}
@@ -0,0 +1,50 @@
+package com.portafolio.model.entities;
+
+import com.portafolio.model.enums.TipoReglaNormalizacion;
+import com.portafolio.model.utiles.BaseEntity;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.SuperBuilder;
+
+import java.io.Serializable;
+
+/**
+ * Regla de normalización editable por operaciones: alias de custodios, correcciones
+ * de texto, mapeo de tipos de movimiento por custodio y sinónimos de nemónicos.
+ * Se compilan a tablas de búsqueda al inicio de cada normalización.
+ */
+@Entity
+@Table(name = "reglas_normalizacion", indexes = {
+    @Index(name = "idx_reglas_normalizacion_tipo", columnList = "tipo, activa")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@SuperBuilder
+@EqualsAndHashCode(callSuper = true)
+public class ReglaNormalizacionEntity extends BaseEntity implements Serializable {
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "tipo", nullable = false, length = 30)
+    private TipoReglaNormalizacion tipo;
+
+    /** Custodio al que aplica la regla (ya normalizado); null aplica a todos. Solo TIPO_MOVIMIENTO. */
+    @Column(name = "custodio", length = 100)
+    private String custodio;
+
+    @Column(name = "valor_origen", nullable = false, length = 200)
+    private String valorOrigen;
+
+    @Column(name = "valor_destino", nullable = false, length = 200)
+    private String valorDestino;
+
+    @Column(name = "activa", nullable = false)
+    @Builder.Default
+    private boolean activa = true;
+}
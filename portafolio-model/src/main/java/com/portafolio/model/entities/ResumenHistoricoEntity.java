@@ -0,0 +1,63 @@
+package com.portafolio.model.entities;
+
+import com.portafolio.model.utiles.BaseEntity;
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.SuperBuilder;
+
+/**
+ * Resultado realizado acumulado por grupo de costeo (empresa, custodio, cuenta, instrumento):
+ * costo FIFO y utilidad de los egresos, gastos, dividendos y saldo neto del kardex.
+ * Lo mantienen el costeo y la normalización; el resumen histórico solo lo lee.
+ */
+@Entity
+@Table(name = "resumen_historico", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"empresa_id", "custodio_id", "cuenta", "instrumento_id"}, name = "uk_resumen_historico_grupo")
+}, indexes = {
+    @Index(name = "idx_resumen_historico_clave", columnList = "clave_agrupacion")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@SuperBuilder
+@EqualsAndHashCode(callSuper = true)
+public class ResumenHistoricoEntity extends BaseEntity implements Serializable {
+
+    @Column(name = "clave_agrupacion", length = 255, nullable = false)
+    private String claveAgrupacion;
+
+    @Column(name = "empresa_id", nullable = false)
+    private Long empresaId;
+
+    @Column(name = "custodio_id", nullable = false)
+    private Long custodioId;
+
+    @Column(name = "cuenta", nullable = false)
+    private String cuenta;
+
+    @Column(name = "instrumento_id", nullable = false)
+    private Long instrumentoId;
+
+    @Column(name = "costo_fifo", precision = 19, scale = 6)
+    private BigDecimal costoFifo;
+
+    @Column(name = "utilidad", precision = 19, scale = 6)
+    private BigDecimal utilidad;
+
+    @Column(name = "gasto", precision = 19, scale = 6)
+    private BigDecimal gasto;
+
+    @Column(name = "dividendo", precision = 19, scale = 6)
+    private BigDecimal dividendo;
+
+    /** Saldo neto del kardex (ingresos - egresos); mayor que cero es posición abierta. */
+    @Column(name = "saldo_cantidad", precision = 19, scale = 6)
+    private BigDecimal saldoCantidad;
+}
@@ -14,7 +14,9 @@ import lombok.Setter;
 import lombok.experimental.SuperBuilder;
 
 @Entity
-@Table(name = "saldos")
+@Table(name = "saldos", indexes = {
+    @Index(name = "idx_saldos_fecha", columnList = "fecha")
+})
 @Getter
 @Setter
 @NoArgsConstructor
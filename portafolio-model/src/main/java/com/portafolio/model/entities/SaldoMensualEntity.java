@@ -0,0 +1,64 @@
+package com.portafolio.model.entities;
+
+import com.portafolio.model.utiles.BaseEntity;
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.SuperBuilder;
+
+/**
+ * Foto de fin de mes de los saldos de mercado: el saldo de cada posición en la última
+ * fecha con saldos del mes. Alimenta la grilla de saldos mensuales sin recorrer saldos.
+ */
+@Entity
+@Table(name = "saldos_mensuales", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"empresa_id", "custodio_id", "cuenta", "instrumento_id", "anio", "mes"}, name = "uk_saldo_mensual")
+}, indexes = {
+    @Index(name = "idx_saldo_mensual_empresa_anio", columnList = "empresa_id, anio, custodio_id"),
+    @Index(name = "idx_saldo_mensual_periodo", columnList = "anio, mes")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@SuperBuilder
+@EqualsAndHashCode(callSuper = true)
+public class SaldoMensualEntity extends BaseEntity implements Serializable {
+
+    @Column(name = "empresa_id", nullable = false)
+    private Long empresaId;
+
+    @Column(name = "custodio_id", nullable = false)
+    private Long custodioId;
+
+    @Column(name = "cuenta", length = 100, nullable = false)
+    private String cuenta;
+
+    @Column(name = "instrumento_id", nullable = false)
+    private Long instrumentoId;
+
+    @Column(name = "anio", nullable = false)
+    private Integer anio;
+
+    @Column(name = "mes", nullable = false)
+    private Integer mes;
+
+    /** Última fecha con saldos del mes, de la que se tomó la foto. */
+    @Column(name = "fecha_corte", nullable = false)
+    private LocalDate fechaCorte;
+
+    @Column(name = "cantidad", precision = 19, scale = 4)
+    private BigDecimal cantidad;
+
+    @Column(name = "monto_clp", precision = 19, scale = 4)
+    private BigDecimal montoClp;
+
+    @Column(name = "monto_usd", precision = 19, scale = 4)
+    private BigDecimal montoUsd;
+}
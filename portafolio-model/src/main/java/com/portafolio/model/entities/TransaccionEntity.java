@@ -14,7 +14,12 @@ import lombok.Setter;
 import lombok.experimental.SuperBuilder;
 
 @Entity
-@Table(name = "transacciones")
+@Table(name = "transacciones", indexes = {
+    @Index(name = "idx_transacciones_lote", columnList = "lote_id"),
+    @Index(name = "idx_transacciones_huella", columnList = "huella"),
+    @Index(name = "idx_transacciones_duplicado", columnList = "duplicado_sospechoso, huella"),
+    @Index(name = "idx_transacciones_grupo_fecha", columnList = "empresa_id, custodio_id, cuenta, instrumento_id, fecha_transaccion")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -73,6 +78,19 @@ public class TransaccionEntity extends BaseEntity implements Serializable {
     @Builder.Default
     private boolean ignorarEnCosteo = false;
 
+    /** Repite la huella de otra transacción: queda fuera del costeo hasta que se descarte la sospecha. */
+    @Column(name = "duplicado_sospechoso")
+    @Builder.Default
+    private boolean duplicadoSospechoso = false;
+
+    /** Lote de carga del que proviene la transacción (trazabilidad). */
+    @Column(name = "lote_id")
+    private Long loteId;
+
+    /** Huella semántica (empresa, custodio, cuenta, instrumento, fecha, folio, cantidad, monto) para detectar duplicados. */
+    @Column(name = "huella", length = 64)
+    private String huella;
+
     // --- RELACIONES MEJORADAS ---
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "empresa_id", nullable = false)
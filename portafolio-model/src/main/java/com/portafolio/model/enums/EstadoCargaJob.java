@@ -0,0 +1,17 @@
+package com.portafolio.model.enums;
+
+/**
+ * Estados de un trabajo de la cola de carga.
+ */
+public enum EstadoCargaJob {
+    EN_COLA,
+    PARSEANDO,
+    STAGING,
+    NORMALIZANDO,
+    COMPLETADO,
+    FALLIDO;
+
+    public boolean isTerminal() {
+        return this == COMPLETADO || this == FALLIDO;
+    }
+}
@@ -0,0 +1,7 @@
+package com.portafolio.model.enums;
+
+
+public enum TipoCargaJob {
+    DIARIA,
+    INICIAL
+}
@@ -0,0 +1,15 @@
+package com.portafolio.model.enums;
+
+/**
+ * Tipos de regla de normalización aplicados a los registros de staging.
+ */
+public enum TipoReglaNormalizacion {
+    /** Nombre de custodio completo (sin distinguir mayúsculas) -> nombre canónico. */
+    ALIAS_CUSTODIO,
+    /** Fragmento de texto a corregir dentro del nombre de custodio (ej. "Peshing" -> "Pershing"). */
+    CORRECCION_CUSTODIO,
+    /** Tipo de movimiento de la cartola -> tipo de movimiento interno; opcionalmente por custodio. */
+    TIPO_MOVIMIENTO,
+    /** Nemónico alternativo -> nemónico canónico del instrumento. */
+    SINONIMO_NEMO
+}
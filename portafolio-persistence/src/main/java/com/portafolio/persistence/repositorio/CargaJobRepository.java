@@ -0,0 +1,68 @@
+package com.portafolio.persistence.repositorio;
+
+import com.portafolio.model.entities.CargaJobEntity;
+import com.portafolio.model.enums.EstadoCargaJob;
+import com.portafolio.model.enums.TipoCargaJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CargaJobRepository extends JpaRepository<CargaJobEntity, Long> {
+
+    /**
+     * Siguiente trabajo en cola (FIFO por id)
+     */
+    Optional<CargaJobEntity> findFirstByEstadoOrderByIdAsc(EstadoCargaJob estado);
+
+    /**
+     * Trabajos en alguno de los estados indicados
+     */
+    List<CargaJobEntity> findByEstadoInOrderByIdAsc(Collection<EstadoCargaJob> estados);
+
+    /**
+     * Indica si hay trabajos en curso
+     */
+    boolean existsByEstadoIn(Collection<EstadoCargaJob> estados);
+
+    /**
+     * Indica si hay trabajos de un tipo en curso
+     */
+    boolean existsByTipoCargaAndEstadoIn(TipoCargaJob tipoCarga, Collection<EstadoCargaJob> estados);
+
+    /**
+     * Trabajos por id, para el sondeo de avance desde la UI
+     */
+    List<CargaJobEntity> findByIdInOrderByIdAsc(Collection<Long> ids);
+
+    /**
+     * Toma un trabajo en cola para un worker. Retorna 0 si otro worker lo tomó antes.
+     */
+    @Modifying
+    @Query("UPDATE CargaJobEntity j SET j.estado = :nuevo, j.worker = :worker, j.fechaInicio = :ahora, "
+            + "j.intentos = j.intentos + 1 "
+            + "WHERE j.id = :id AND j.estado = :esperado")
+    int tomar(@Param("id") Long id,
+              @Param("esperado") EstadoCargaJob esperado,
+              @Param("nuevo") EstadoCargaJob nuevo,
+              @Param("worker") String worker,
+              @Param("ahora") LocalDateTime ahora);
+
+    /**
+     * Actualiza estado y avance de un trabajo
+     */
+    @Modifying
+    @Query("UPDATE CargaJobEntity j SET j.estado = :estado, j.progreso = :progreso, j.mensaje = :mensaje "
+            + "WHERE j.id = :id")
+    int actualizarEstado(@Param("id") Long id,
+                         @Param("estado") EstadoCargaJob estado,
+                         @Param("progreso") int progreso,
+                         @Param("mensaje") String mensaje);
+}
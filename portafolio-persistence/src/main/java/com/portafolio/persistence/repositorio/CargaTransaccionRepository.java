@@ -13,6 +13,7 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface CargaTransaccionRepository extends JpaRepository<CargaTransaccionEntity, Pk> {
@@ -189,6 +190,32 @@ public interface CargaTransaccionRepository extends JpaRepository<CargaTransacci
      */
     long countByProcesadoTrue();
 
+    /**
+     * Elimina las filas de staging de un lote (usa el índice de lote, sin recorrer la tabla)
+     */
+    @Modifying
+    @Query("DELETE FROM CargaTransaccionEntity c WHERE c.loteId = :loteId")
+    int deleteByLoteId(@Param("loteId") Long loteId);
+
+    /**
+     * Elimina las filas ya normalizadas sin lote (cargadas antes de registrar lotes) creadas antes de la fecha
+     */
+    @Modifying
+    @Query("DELETE FROM CargaTransaccionEntity c WHERE c.loteId IS NULL AND c.procesado = true AND c.fechaCreacion < :fecha")
+    int deleteSinLoteProcesadasAntesDe(@Param("fecha") LocalDate fecha);
+
+    /**
+     * Vuelve a dejar pendientes las filas de un lote para reprocesarlas
+     */
+    @Modifying
+    @Query("UPDATE CargaTransaccionEntity c SET c.procesado = false WHERE c.loteId = :loteId")
+    int resetProcesadoByLoteId(@Param("loteId") Long loteId);
+
+    /**
+     * Filas pendientes de un lote
+     */
+    long countByLoteIdAndProcesadoFalse(Long loteId);
+
     /**
      * Reinicia el estado de procesamiento por rango de fechas
      */
@@ -214,5 +241,107 @@ public interface CargaTransaccionRepository extends JpaRepository<CargaTransacci
     @Modifying
     @Query("DELETE FROM CargaTransaccionEntity c WHERE c.procesado = true AND c.fechaTransaccion < :fechaHasta")
     int deleteByProcesadoTrueAndFechaTransaccionBefore(@Param("fechaHasta") LocalDate fechaHasta);
-    
+
+    /**
+     * Primer lote de registros pendientes, en orden de clave primaria
+     */
+    @Query("""
+        SELECT c FROM CargaTransaccionEntity c
+        WHERE c.procesado = false
+        ORDER BY c.fechaTransaccion, c.rowNum, c.tipoClase
+        """)
+    List<CargaTransaccionEntity> findPrimerLotePendiente(Pageable pageable);
+
+    /**
+     * Siguiente lote de registros pendientes posteriores a la clave indicada (keyset).
+     * A diferencia de un OFFSET, no salta registros cuando el lote anterior dejó
+     * filas sin procesar ni se degrada al avanzar en la tabla.
+     */
+    @Query("""
+        SELECT c FROM CargaTransaccionEntity c
+        WHERE c.procesado = false
+          AND (c.fechaTransaccion > :fecha
+               OR (c.fechaTransaccion = :fecha AND c.rowNum > :rowNum)
+               OR (c.fechaTransaccion = :fecha AND c.rowNum = :rowNum AND c.tipoClase > :tipoClase))
+        ORDER BY c.fechaTransaccion, c.rowNum, c.tipoClase
+        """)
+    List<CargaTransaccionEntity> findLotePendienteDespuesDe(
+            @Param("fecha") LocalDate fecha,
+            @Param("rowNum") Integer rowNum,
+            @Param("tipoClase") String tipoClase,
+            Pageable pageable
+    );
+
+    /**
+     * Fechas con registros pendientes, para repartir la normalización entre workers
+     */
+    @Query("SELECT DISTINCT c.fechaTransaccion FROM CargaTransaccionEntity c WHERE c.procesado = false ORDER BY c.fechaTransaccion")
+    List<LocalDate> findFechasPendientes();
+
+    /**
+     * Siguiente lote de registros pendientes de una fecha, posteriores a (rowNum, tipoClase)
+     */
+    @Query("""
+        SELECT c FROM CargaTransaccionEntity c
+        WHERE c.procesado = false
+          AND c.fechaTransaccion = :fecha
+          AND (c.rowNum > :rowNum OR (c.rowNum = :rowNum AND c.tipoClase > :tipoClase))
+        ORDER BY c.rowNum, c.tipoClase
+        """)
+    List<CargaTransaccionEntity> findLotePendienteDeFecha(
+            @Param("fecha") LocalDate fecha,
+            @Param("rowNum") Integer rowNum,
+            @Param("tipoClase") String tipoClase,
+            Pageable pageable
+    );
+
+    /**
+     * Primer lote de registros pendientes de un lote de carga, en orden de clave primaria
+     */
+    @Query("""
+        SELECT c FROM CargaTransaccionEntity c
+        WHERE c.loteId = :loteId
+          AND c.procesado = false
+        ORDER BY c.fechaTransaccion, c.rowNum, c.tipoClase
+        """)
+    List<CargaTransaccionEntity> findPrimerLotePendienteDeCarga(@Param("loteId") Long loteId, Pageable pageable);
+
+    /**
+     * Siguiente lote de registros pendientes de un lote de carga posteriores a la clave indicada (keyset)
+     */
+    @Query("""
+        SELECT c FROM CargaTransaccionEntity c
+        WHERE c.loteId = :loteId
+          AND c.procesado = false
+          AND (c.fechaTransaccion > :fecha
+               OR (c.fechaTransaccion = :fecha AND c.rowNum > :rowNum)
+               OR (c.fechaTransaccion = :fecha AND c.rowNum = :rowNum AND c.tipoClase > :tipoClase))
+        ORDER BY c.fechaTransaccion, c.rowNum, c.tipoClase
+        """)
+    List<CargaTransaccionEntity> findLotePendienteDeCargaDespuesDe(
+            @Param("loteId") Long loteId,
+            @Param("fecha") LocalDate fecha,
+            @Param("rowNum") Integer rowNum,
+            @Param("tipoClase") String tipoClase,
+            Pageable pageable
+    );
+
+    /**
+     * Fecha más antigua con registros pendientes de normalizar
+     */
+    @Query("SELECT MIN(c.fechaTransaccion) FROM CargaTransaccionEntity c WHERE c.procesado = false")
+    Optional<LocalDate> findMinFechaTransaccionPendiente();
+
+    /**
+     * Lotes con registros pendientes de normalizar
+     */
+    @Query("SELECT DISTINCT c.loteId FROM CargaTransaccionEntity c WHERE c.procesado = false AND c.loteId IS NOT NULL")
+    List<Long> findLoteIdsPendientes();
+
+    /**
+     * Fecha más reciente con registros pendientes de normalizar
+     */
+    @Query("SELECT MAX(c.fechaTransaccion) FROM CargaTransaccionEntity c WHERE c.procesado = false")
+    Optional<LocalDate> findMaxFechaTransaccionPendiente();
+
 }
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -50,6 +51,11 @@ public interface InstrumentoRepository extends JpaRepository<InstrumentoEntity,
             @Param("razonSocial") String razonSocial);
     
     Optional<InstrumentoEntity> findByInstrumentoNemo(String nemo);
+
+    /**
+     * Busca instrumentos por múltiples nemos
+     */
+    List<InstrumentoEntity> findByInstrumentoNemoIn(Collection<String> nemos);
     
     Optional<InstrumentoEntity> findByIdWithProducto(Long id);
     
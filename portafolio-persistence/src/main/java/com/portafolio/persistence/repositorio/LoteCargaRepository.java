@@ -0,0 +1,22 @@
+package com.portafolio.persistence.repositorio;
+
+import com.portafolio.model.entities.LoteCargaEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface LoteCargaRepository extends JpaRepository<LoteCargaEntity, Long> {
+
+    /**
+     * Lotes no purgados cargados antes de la fecha indicada
+     */
+    List<LoteCargaEntity> findByPurgadoFalseAndFechaCargaBeforeOrderByIdAsc(LocalDateTime fecha);
+
+    /**
+     * Últimos lotes que aún conservan sus filas de staging
+     */
+    List<LoteCargaEntity> findTop50ByPurgadoFalseOrderByIdDesc();
+}
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,6 +14,11 @@ import java.util.Optional;
 public interface ProductoRepository extends JpaRepository<ProductoEntity, Long> {
 
     Optional<ProductoEntity> findByProducto(String producto);
+
+    /**
+     * Busca productos por múltiples nombres
+     */
+    List<ProductoEntity> findByProductoIn(Collection<String> productos);
     
     List<ProductoEntity> findByProductoContainingIgnoreCase(String producto);
     
@@ -0,0 +1,16 @@
+package com.portafolio.persistence.repositorio;
+
+import com.portafolio.model.entities.ReglaNormalizacionEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ReglaNormalizacionRepository extends JpaRepository<ReglaNormalizacionEntity, Long> {
+
+    /**
+     * Reglas vigentes, en orden de alta
+     */
+    List<ReglaNormalizacionEntity> findByActivaTrueOrderByIdAsc();
+}
@@ -4,6 +4,8 @@ import com.portafolio.model.entities.TipoMovimientoEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -16,6 +18,11 @@ public interface TipoMovimientoRepository extends JpaRepository<TipoMovimientoEn
      * Busca un tipo de movimiento por su tipo.
      */
     Optional<TipoMovimientoEntity> findByTipoMovimiento(String tipoMovimiento);
+
+    /**
+     * Busca tipos de movimiento por múltiples nombres
+     */
+    List<TipoMovimientoEntity> findByTipoMovimientoIn(Collection<String> tiposMovimiento);
     
     /**
      * Busca tipos de movimiento que sean saldo inicial.
@@ -3,6 +3,7 @@ package com.portafolio.persistence.repositorio;
 import com.portafolio.model.entities.InstrumentoEntity;
 import com.portafolio.model.entities.TransaccionEntity;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Page;
@@ -103,4 +104,16 @@ public interface TransaccionRepository extends JpaRepository<TransaccionEntity,
     @Modifying
     @Query("UPDATE TransaccionEntity t SET t.costeado = false WHERE t.instrumento = :instrumento")
     int marcarParaRecosteo(@Param("instrumento") InstrumentoEntity instrumento);
+
+    /**
+     * Huellas que ya existen entre las indicadas (consulta por el índice de huella)
+     */
+    @Query("SELECT DISTINCT t.huella FROM TransaccionEntity t WHERE t.huella IN :huellas")
+    List<String> findHuellasExistentes(@Param("huellas") Collection<String> huellas);
+
+    /**
+     * Grupos de costeo (empresa, cuenta, custodio, instrumento) con transacciones de los lotes indicados
+     */
+    @Query("SELECT DISTINCT t.empresa.id, t.cuenta, t.custodio.id, t.instrumento.id FROM TransaccionEntity t WHERE t.loteId IN :loteIds")
+    List<Object[]> findGruposDeLotes(@Param("loteIds") Collection<Long> loteIds);
 }
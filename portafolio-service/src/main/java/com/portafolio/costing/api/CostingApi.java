@@ -8,6 +8,7 @@ import com.portafolio.model.enums.TipoAjuste;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Set;
 
 /**
  * API principal del módulo de costeo FIFO.
@@ -23,6 +24,14 @@ public interface CostingApi {
      */
     int procesarCosteo(LocalDate fechaCorte);
 
+    /**
+     * Procesa el costeo solo para los grupos indicados, p. ej. los afectados por una carga.
+     *
+     * @param clavesGrupo Claves de agrupación (empresaId|cuenta|custodioId|instrumentoId)
+     * @return Número de grupos procesados exitosamente
+     */
+    int procesarCosteoGrupos(Set<String> clavesGrupo);
+
     /**
      * Procesa el costeo para un grupo específico.
      *
@@ -105,4 +114,14 @@ public interface CostingApi {
             String cuenta,
             LocalDate fechaDesde
     );
+
+    /**
+     * Elimina las transacciones normalizadas desde un lote de carga, junto con su kardex y
+     * detalle de costeo, y deja los grupos que tocó pendientes de recostear desde la
+     * primera fecha del lote.
+     *
+     * @param loteId ID del lote de carga
+     * @return Transacciones eliminadas
+     */
+    int descartarTransaccionesLote(Long loteId);
 }
\ No newline at end of file
@@ -1,5 +1,10 @@
 package com.portafolio.costing.engine;
 
+import com.portafolio.costing.service.GrupoCosteoCatalogoService;
+import com.portafolio.costing.service.KardexReporteService;
+import com.portafolio.costing.service.PosicionActualService;
+import com.portafolio.costing.service.ResumenHistoricoAgregadoService;
+import com.portafolio.model.dto.CostingGroupDto;
 import com.portafolio.model.entities.TransaccionEntity;
 import com.portafolio.model.enums.TipoEnumsCosteo;
 import com.portafolio.persistence.repositorio.TransaccionRepository;
@@ -12,8 +17,13 @@ import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -30,6 +40,10 @@ public class FifoCostingEngine {
     private final KardexRepository kardexRepository;
     private final SaldoKardexRepository saldoKardexRepository;
     private final TipoMovimientoRepository tipoMovimientoRepository;
+    private final KardexReporteService kardexReporteService;
+    private final PosicionActualService posicionActualService;
+    private final ResumenHistoricoAgregadoService resumenHistoricoAgregadoService;
+    private final GrupoCosteoCatalogoService grupoCosteoCatalogoService;
 
     /**
      * Procesa todas las transacciones pendientes de costeo.
@@ -40,7 +54,31 @@ public class FifoCostingEngine {
         log.info("=== Iniciando proceso de costeo FIFO ===");
         
         // 1. OBTENER TRANSACCIONES NO COSTEADAS
-        List<TransaccionEntity> transacciones = obtenerTransaccionesPendientes();
+        return procesar(obtenerTransaccionesPendientes(null));
+    }
+
+    /**
+     * Procesa solo las transacciones pendientes de los grupos indicados
+     * (claves empresaId|cuenta|custodioId|instrumentoId), sin recorrer el resto.
+     */
+    @Transactional
+    public int procesarCosteo(Collection<String> clavesGrupo) {
+        log.info("=== Iniciando costeo FIFO incremental de {} grupos ===", clavesGrupo.size());
+        if (clavesGrupo.isEmpty()) {
+            return 0;
+        }
+
+        Set<String> claves = new HashSet<>(clavesGrupo);
+        Set<Long> instrumentoIds = claves.stream()
+                .map(clave -> Long.valueOf(clave.substring(clave.lastIndexOf('|') + 1)))
+                .collect(Collectors.toSet());
+        List<TransaccionEntity> transacciones = obtenerTransaccionesPendientes(instrumentoIds).stream()
+                .filter(t -> claves.contains(generarClaveAgrupacion(t)))
+                .toList();
+        return procesar(transacciones);
+    }
+
+    private int procesar(List<TransaccionEntity> transacciones) {
         log.info("Transacciones encontradas para procesar: {}", transacciones.size());
 
         if (transacciones.isEmpty()) {
@@ -56,6 +94,7 @@ public class FifoCostingEngine {
 
         // 3. PROCESAR CADA GRUPO
         int gruposProcesados = 0;
+        List<String> clavesProcesadas = new ArrayList<>();
         for (Map.Entry<String, List<TransaccionEntity>> entry : grupos.entrySet()) {
             String claveGrupo = entry.getKey();
             List<TransaccionEntity> transaccionesGrupo = entry.getValue();
@@ -65,6 +104,7 @@ public class FifoCostingEngine {
             
             try {
                 procesarGrupo(claveGrupo, transaccionesGrupo);
+                clavesProcesadas.add(claveGrupo);
                 gruposProcesados++;
             } catch (Exception e) {
                 log.error("Error procesando grupo {}: {}", claveGrupo, e.getMessage(), e);
@@ -73,6 +113,10 @@ public class FifoCostingEngine {
         }
 
         entityManager.flush();
+        kardexReporteService.refrescarGrupos(clavesProcesadas);
+        posicionActualService.refrescarGrupos(clavesProcesadas);
+        resumenHistoricoAgregadoService.refrescarGrupos(clavesProcesadas);
+        grupoCosteoCatalogoService.refrescarGrupos(clavesProcesadas);
         log.info("=== Proceso de costeo completado: {}/{} grupos procesados ===", 
                 gruposProcesados, grupos.size());
         
@@ -104,9 +148,10 @@ public class FifoCostingEngine {
      * 2. Saldos iniciales primero
      * 3. Ingresos antes que egresos
      * 4. Por ID ascendente
+     * Con {@code instrumentoIds} se limita a esos instrumentos (costeo incremental).
      */
-    private List<TransaccionEntity> obtenerTransaccionesPendientes() {
-        return entityManager.createQuery("""
+    private List<TransaccionEntity> obtenerTransaccionesPendientes(Set<Long> instrumentoIds) {
+        TypedQuery<TransaccionEntity> query = entityManager.createQuery("""
             SELECT t FROM TransaccionEntity t
             JOIN FETCH t.empresa
             JOIN FETCH t.custodio
@@ -117,13 +162,20 @@ public class FifoCostingEngine {
               AND t.costeado = false
               AND t.paraRevision = false
               AND t.ignorarEnCosteo = false
+              AND t.duplicadoSospechoso = false
+              AND t.instrumento.similarAId IS NULL
+              %s
             ORDER BY t.fechaTransaccion ASC,
                      CASE WHEN tm.esSaldoInicial = true THEN 0 ELSE 1 END,
                      CASE WHEN mc.tipoContable = 'INGRESO' THEN 2 ELSE 3 END,
                      t.id ASC
-            """, TransaccionEntity.class)
-                .setParameter("noCostear", TipoEnumsCosteo.NO_COSTEAR)
-                .getResultList();
+            """.formatted(instrumentoIds == null ? "" : "AND t.instrumento.id IN :instrumentos"),
+                        TransaccionEntity.class)
+                .setParameter("noCostear", TipoEnumsCosteo.NO_COSTEAR);
+        if (instrumentoIds != null) {
+            query.setParameter("instrumentos", instrumentoIds);
+        }
+        return query.getResultList();
     }
 
     /**
@@ -131,7 +183,7 @@ public class FifoCostingEngine {
      * Formato: empresaId|cuenta|custodioId|instrumentoId
      */
     private String generarClaveAgrupacion(TransaccionEntity t) {
-        return String.format("%d|%s|%d|%d",
+        return CostingGroupDto.construirClave(
                 t.getEmpresa().getId(),
                 t.getCuenta(),
                 t.getCustodio().getId(),
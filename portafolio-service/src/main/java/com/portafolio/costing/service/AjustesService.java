@@ -1,5 +1,6 @@
 package com.portafolio.costing.service;
 
+import com.portafolio.model.dto.CostingGroupDto;
 import com.portafolio.model.entities.KardexEntity;
 import com.portafolio.model.entities.TipoMovimientoEntity;
 import com.portafolio.model.entities.TransaccionEntity;
@@ -9,8 +10,10 @@ import com.portafolio.persistence.repositorio.KardexRepository;
 import com.portafolio.persistence.repositorio.SaldoKardexRepository;
 import com.portafolio.persistence.repositorio.TipoMovimientoRepository;
 import com.portafolio.persistence.repositorio.TransaccionRepository;
+import com.portafolio.ui.service.cache.DatosReporteModificadosEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -34,6 +37,9 @@ public class AjustesService {
     private final KardexRepository kardexRepository;
     private final SaldoKardexRepository saldoKardexRepository;
     private final TipoMovimientoRepository tipoMovimientoRepository;
+    private final PosicionActualService posicionActualService;
+    private final ResumenHistoricoAgregadoService resumenHistoricoAgregadoService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Propone un ajuste manual para una transacción específica.
@@ -120,6 +126,7 @@ public class AjustesService {
             log.info("Transacción original ID {} desmarcada de revisión", transaccionReferenciaId);
         }
         
+        eventPublisher.publishEvent(new DatosReporteModificadosEvent("ajuste manual creado"));
         log.info("Ajuste manual creado exitosamente - ID: {}, Tipo: {}, Cantidad: {}, Precio: {}", 
                 ajusteGuardado.getId(), tipoAjuste, cantidad, precio);
         
@@ -154,6 +161,8 @@ public class AjustesService {
         
         // Eliminar la transacción de ajuste
         transaccionRepository.delete(ajuste);
+        refrescarTablasDerivadas(ajuste);
+        eventPublisher.publishEvent(new DatosReporteModificadosEvent("ajuste manual eliminado"));
         
         log.warn("Ajuste eliminado exitosamente - ID: {}", ajusteId);
     }
@@ -317,6 +326,16 @@ public class AjustesService {
                 detallesEliminados, kardexEliminados);
     }
 
+    /**
+     * Recalcula las tablas derivadas del kardex para el grupo del ajuste eliminado.
+     */
+    private void refrescarTablasDerivadas(TransaccionEntity ajuste) {
+        List<String> claves = List.of(CostingGroupDto.construirClave(ajuste.getEmpresa().getId(),
+                ajuste.getCuenta(), ajuste.getCustodio().getId(), ajuste.getInstrumento().getId()));
+        posicionActualService.refrescarGrupos(claves);
+        resumenHistoricoAgregadoService.refrescarGrupos(claves);
+    }
+
     /**
      * Resetea todo el costeo de un grupo cuando se elimina un ajuste crítico.
      */
@@ -0,0 +1,42 @@
+package com.portafolio.costing.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serializa los procesos que escriben el kárdex: costeo completo, incremental, por grupo
+ * y reinicios. El candado se libera al terminar la transacción que lo tomó, de modo que
+ * el siguiente costeo lee el kárdex ya confirmado.
+ */
+@Slf4j
+@Component
+public class CandadoCosteo {
+
+    private final ReentrantLock candado = new ReentrantLock();
+
+    /**
+     * Toma el candado hasta el commit o rollback de la transacción en curso. Es reentrante:
+     * un costeo que invoca a otro dentro de la misma transacción no se bloquea.
+     *
+     * @throws IllegalStateException si no hay una transacción activa.
+     */
+    public void adquirirHastaFinDeTransaccion() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("El candado de costeo requiere una transacción activa");
+        }
+        if (!candado.tryLock()) {
+            log.info("Esperando a que termine el costeo en curso...");
+            candado.lock();
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                candado.unlock();
+            }
+        });
+    }
+}
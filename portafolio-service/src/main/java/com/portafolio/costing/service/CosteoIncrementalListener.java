@@ -0,0 +1,40 @@
+package com.portafolio.costing.service;
+
+import com.portafolio.costing.api.CostingApi;
+import com.portafolio.normalizar.event.CargaNormalizadaEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Costea los grupos afectados por una carga recién normalizada, en lugar de
+ * recorrer todas las transacciones pendientes. Se serializa con el resto de los
+ * costeos mediante el {@link CandadoCosteo} que toma el servicio de costeo.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CosteoIncrementalListener {
+
+    private final CostingApi costingService;
+
+    @Value("${portafolio.costeo.incremental:true}")
+    private boolean habilitado;
+
+    @EventListener
+    public void onCargaNormalizada(CargaNormalizadaEvent evento) {
+        if (!habilitado || evento.gruposAfectados().isEmpty()) {
+            return;
+        }
+        try {
+            log.info("Costeo incremental del lote {}: {} grupos afectados",
+                    evento.loteId(), evento.gruposAfectados().size());
+            costingService.procesarCosteoGrupos(evento.gruposAfectados());
+        } catch (Exception e) {
+            // La carga ya quedó normalizada; el grupo se costeará en el próximo costeo completo
+            log.error("Error en el costeo incremental del lote {}: {}", evento.loteId(), e.getMessage(), e);
+        }
+    }
+}
@@ -3,8 +3,9 @@ package com.portafolio.costing.service;
 import com.portafolio.model.dto.AjustePropuestoDto;
 import com.portafolio.model.dto.CostingGroupDto;
 import com.portafolio.model.enums.TipoAjuste;
-import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -13,6 +14,16 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * Servicio orquestador principal que coordina todas las operaciones de costeo.
@@ -21,7 +32,6 @@ import java.util.Map;
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class CostingOrchestratorService {
 
     // Servicios especializados
@@ -30,6 +40,62 @@ public class CostingOrchestratorService {
     private final KardexQueryService kardexQueryService;
     private final TransaccionManagementService transaccionManagementService;
     private final CostingReportsService reportsService;
+    private final CandadoCosteo candadoCosteo;
+
+    // Consultas del dashboard: hilos y cola acotados; si se llenan, ejecuta quien llama
+    private final ExecutorService executorDashboard;
+
+    /**
+     * Sección del dashboard ya calculada: sus valores, o el error si la consulta falló.
+     */
+    public record SeccionDashboard(String nombre, Map<String, Object> valores, String error) {
+        public boolean exitosa() {
+            return error == null;
+        }
+    }
+
+    /**
+     * Reporte completo de estado del sistema: los reportes especializados del período.
+     */
+    public record ReporteEstadoSistema(Long empresaId, LocalDate fechaInicio, LocalDate fechaFin,
+                                       LocalDate fechaGeneracion,
+                                       CostingReportsService.ReporteInventario inventarioValorado,
+                                       CostingReportsService.ReporteMovimientos movimientos,
+                                       CostingReportsService.ReporteUtilidades utilidades,
+                                       CostingReportsService.ReporteRendimiento rendimiento,
+                                       CostingReportsService.ReporteTransaccionesProblematicas transaccionesProblematicas) {
+    }
+
+    public CostingOrchestratorService(CostingServiceImpl costingService,
+                                      AjustesService ajustesService,
+                                      KardexQueryService kardexQueryService,
+                                      TransaccionManagementService transaccionManagementService,
+                                      CostingReportsService reportsService,
+                                      CandadoCosteo candadoCosteo,
+                                      @Value("${portafolio.dashboard.hilos:2}") int hilosDashboard) {
+        this.costingService = costingService;
+        this.ajustesService = ajustesService;
+        this.kardexQueryService = kardexQueryService;
+        this.transaccionManagementService = transaccionManagementService;
+        this.reportsService = reportsService;
+        this.candadoCosteo = candadoCosteo;
+
+        int hilos = Math.max(1, hilosDashboard);
+        AtomicInteger secuencia = new AtomicInteger();
+        this.executorDashboard = new ThreadPoolExecutor(hilos, hilos, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(hilos * 8),
+                r -> {
+                    Thread t = new Thread(r, "dashboard-" + secuencia.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    public void detener() {
+        executorDashboard.shutdownNow();
+    }
 
     // ===== OPERACIONES PRINCIPALES DE COSTEO =====
 
@@ -39,6 +105,8 @@ public class CostingOrchestratorService {
     @Transactional
     public Map<String, Object> ejecutarCosteoCompleto(Long empresaId, LocalDate fechaCorte) {
         log.info("=== INICIANDO COSTEO COMPLETO para empresa {} hasta {} ===", empresaId, fechaCorte);
+        // Antes de las estadísticas iniciales, para que no las altere un costeo incremental en curso
+        candadoCosteo.adquirirHastaFinDeTransaccion();
         
         try {
             LocalDate fechaProceso = fechaCorte != null ? fechaCorte : LocalDate.now();
@@ -267,81 +335,88 @@ public class CostingOrchestratorService {
     /**
      * Obtiene un dashboard completo del estado de costeo para una empresa.
      */
-    @Transactional(readOnly = true)
     public Map<String, Object> obtenerDashboardCosteo(Long empresaId) {
-        log.debug("Generando dashboard de costeo para empresa: {}", empresaId);
-        
         try {
-            // 1. Estadísticas generales
-            Map<String, Long> estadisticasTransacciones = transaccionManagementService
-                    .obtenerEstadisticasTransacciones(empresaId);
-            
-            // 2. Grupos de costeo
-            List<CostingGroupDto> grupos = costingService.obtenerGruposCosteo();
-            
-            // 3. Saldos por empresa
-            var saldosActuales = kardexQueryService.obtenerSaldosPorEmpresa(empresaId);
-            
-            // 4. Transacciones problemáticas (últimas 20)
-            var transaccionesProblematicas = reportsService
-                    .generarReporteTransaccionesProblematicas(empresaId);
-            
-            // 5. Inventario valorizado
-            var inventarioValorado = kardexQueryService.obtenerInventarioValorado(empresaId);
-            
-            // 6. Estadísticas de costeo
-            var estadisticasCosteo = kardexQueryService
-                    .obtenerEstadisticasCosteo(empresaId, LocalDate.now().minusMonths(1), LocalDate.now());
-            
-            return Map.of(
-                    "empresaId", empresaId,
-                    "fechaGeneracion", LocalDate.now(),
-                    "estadisticasTransacciones", estadisticasTransacciones,
-                    "totalGrupos", grupos.size(),
-                    "gruposRecientes", grupos.stream().limit(10).toList(),
-                    "saldosActuales", saldosActuales.stream().limit(20).toList(),
-                    "transaccionesProblematicas", transaccionesProblematicas,
-                    "inventarioValorado", inventarioValorado.stream().limit(15).toList(),
-                    "estadisticasCosteo", estadisticasCosteo
-            );
-            
-        } catch (Exception e) {
+            return obtenerDashboardCosteo(empresaId, seccion -> { }).join();
+        } catch (CompletionException e) {
             log.error("Error generando dashboard para empresa {}: {}", empresaId, e.getMessage(), e);
             return Map.of(
                     "success", false,
-                    "error", e.getMessage()
+                    "error", String.valueOf(e.getCause().getMessage())
             );
         }
     }
 
+    /**
+     * Arma el dashboard ejecutando sus consultas independientes en paralelo. Cada sección
+     * se entrega a {@code alCompletarSeccion} apenas termina (desde un hilo del pool, la UI
+     * debe pasarla a su hilo), para pintarla sin esperar al resto. Una sección que falla
+     * no impide las demás: su error queda en "errores" del resultado final.
+     */
+    public CompletableFuture<Map<String, Object>> obtenerDashboardCosteo(Long empresaId,
+                                                                         Consumer<SeccionDashboard> alCompletarSeccion) {
+        log.debug("Generando dashboard de costeo para empresa: {}", empresaId);
+        long inicio = System.currentTimeMillis();
+
+        Map<String, Object> dashboard = new ConcurrentHashMap<>();
+        Map<String, String> errores = new ConcurrentHashMap<>();
+        dashboard.put("empresaId", empresaId);
+        dashboard.put("fechaGeneracion", LocalDate.now());
+
+        CompletableFuture<?>[] secciones = {
+                seccion("estadisticasTransacciones", () -> Map.of("estadisticasTransacciones",
+                        transaccionManagementService.obtenerEstadisticasTransacciones(empresaId)),
+                        dashboard, errores, alCompletarSeccion),
+                seccion("grupos", () -> {
+                    List<CostingGroupDto> grupos = costingService.obtenerGruposCosteo(empresaId);
+                    return Map.of("totalGrupos", grupos.size(),
+                            "gruposRecientes", grupos.stream().limit(10).toList());
+                }, dashboard, errores, alCompletarSeccion),
+                seccion("saldosActuales", () -> Map.of("saldosActuales",
+                        kardexQueryService.obtenerSaldosPorEmpresa(empresaId).stream().limit(20).toList()),
+                        dashboard, errores, alCompletarSeccion),
+                seccion("transaccionesProblematicas", () -> Map.of("transaccionesProblematicas",
+                        reportsService.generarReporteTransaccionesProblematicas(empresaId)),
+                        dashboard, errores, alCompletarSeccion),
+                seccion("inventarioValorado", () -> Map.of("inventarioValorado",
+                        kardexQueryService.obtenerInventarioValorado(empresaId).stream().limit(15).toList()),
+                        dashboard, errores, alCompletarSeccion),
+                seccion("estadisticasCosteo", () -> Map.of("estadisticasCosteo",
+                        kardexQueryService.obtenerEstadisticasCosteo(empresaId, LocalDate.now().minusMonths(1), LocalDate.now())),
+                        dashboard, errores, alCompletarSeccion)
+        };
+
+        return CompletableFuture.allOf(secciones).thenApply(v -> {
+            if (!errores.isEmpty()) {
+                dashboard.put("errores", Map.copyOf(errores));
+            }
+            log.debug("Dashboard de empresa {} generado en {}ms ({} secciones con error)",
+                    empresaId, System.currentTimeMillis() - inicio, errores.size());
+            return Map.copyOf(dashboard);
+        });
+    }
+
     /**
      * Genera un reporte completo de estado del sistema.
      */
     @Transactional(readOnly = true)
-    public Map<String, Object> generarReporteEstadoSistema(Long empresaId, LocalDate fechaInicio, LocalDate fechaFin) {
+    public ReporteEstadoSistema generarReporteEstadoSistema(Long empresaId, LocalDate fechaInicio, LocalDate fechaFin) {
         log.info("Generando reporte completo del sistema para empresa {} del {} al {}", 
                 empresaId, fechaInicio, fechaFin);
         
         try {
-            return Map.of(
-                    "empresaId", empresaId,
-                    "periodo", Map.of("inicio", fechaInicio, "fin", fechaFin),
-                    "fechaGeneracion", LocalDate.now(),
-                    
-                    // Reportes especializados
-                    "inventarioValorado", reportsService.generarReporteInventarioValorado(empresaId, fechaFin),
-                    "movimientos", reportsService.generarReporteMovimientos(empresaId, fechaInicio, fechaFin, null, null),
-                    "utilidades", reportsService.generarReporteUtilidades(empresaId, fechaInicio, fechaFin),
-                    "rendimiento", reportsService.generarReporteRendimiento(empresaId),
-                    "transaccionesProblematicas", reportsService.generarReporteTransaccionesProblematicas(empresaId)
+            return new ReporteEstadoSistema(
+                    empresaId, fechaInicio, fechaFin, LocalDate.now(),
+                    reportsService.generarReporteInventarioValorado(empresaId, fechaFin),
+                    reportsService.generarReporteMovimientos(empresaId, fechaInicio, fechaFin, null, null),
+                    reportsService.generarReporteUtilidades(empresaId, fechaInicio, fechaFin),
+                    reportsService.generarReporteRendimiento(empresaId),
+                    reportsService.generarReporteTransaccionesProblematicas(empresaId)
             );
             
-        } catch (Exception e) {
+        } catch (RuntimeException e) {
             log.error("Error generando reporte completo para empresa {}: {}", empresaId, e.getMessage(), e);
-            return Map.of(
-                    "success", false,
-                    "error", e.getMessage()
-            );
+            throw e;
         }
     }
 
@@ -359,10 +434,7 @@ public class CostingOrchestratorService {
             List<Map<String, Object>> inconsistenciasDetectadas = new ArrayList<>();
             
             // 1. Verificar consistencia de todos los grupos
-            List<CostingGroupDto> grupos = costingService.obtenerGruposCosteo()
-                    .stream()
-                    .filter(g -> g.getEmpresaId().equals(empresaId))
-                    .toList();
+            List<CostingGroupDto> grupos = costingService.obtenerGruposCosteo(empresaId);
             
             for (CostingGroupDto grupo : grupos) {
                 Map<String, Object> consistencia = kardexQueryService
@@ -419,6 +491,35 @@ public class CostingOrchestratorService {
 
     // ===== MÉTODOS AUXILIARES =====
 
+    /**
+     * Ejecuta una consulta del dashboard en el pool y publica su resultado. Nunca termina
+     * excepcionalmente: los errores se registran en {@code errores}.
+     */
+    private CompletableFuture<Void> seccion(String nombre, Supplier<Map<String, Object>> consulta,
+                                            Map<String, Object> dashboard, Map<String, String> errores,
+                                            Consumer<SeccionDashboard> alCompletarSeccion) {
+        return CompletableFuture.supplyAsync(consulta, executorDashboard)
+                .handle((valores, e) -> {
+                    SeccionDashboard seccion;
+                    if (e == null) {
+                        dashboard.putAll(valores);
+                        seccion = new SeccionDashboard(nombre, valores, null);
+                    } else {
+                        Throwable causa = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                        log.error("Error en la sección '{}' del dashboard: {}", nombre, causa.getMessage(), causa);
+                        String mensaje = String.valueOf(causa.getMessage());
+                        errores.put(nombre, mensaje);
+                        seccion = new SeccionDashboard(nombre, Map.of(), mensaje);
+                    }
+                    try {
+                        alCompletarSeccion.accept(seccion);
+                    } catch (RuntimeException ex) {
+                        log.warn("Error notificando la sección '{}' del dashboard: {}", nombre, ex.getMessage());
+                    }
+                    return null;
+                });
+    }
+
     /**
      * Determina qué tipo de ajuste es más recomendable.
      */
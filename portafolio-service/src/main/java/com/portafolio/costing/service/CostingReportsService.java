@@ -1,8 +1,10 @@
 package com.portafolio.costing.service;
 
 import com.portafolio.model.enums.TipoEnumsCosteo;
+import com.portafolio.ui.service.cache.ReporteCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -10,13 +12,16 @@ import jakarta.persistence.EntityManager;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Servicio Spring para generación de reportes de costeo.
  * Proporciona reportes analíticos, de inventario y de rendimiento del sistema.
+ * Cada reporte es un record inmutable con sus filas tipadas; los reportes de
+ * movimientos y ventas pueden además recorrerse fila a fila sin materializarlos.
  */
 @Slf4j
 @Service
@@ -24,22 +29,118 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class CostingReportsService {
 
+    private static final BigDecimal CIEN = new BigDecimal("100");
+
+    // Con el driver de MySQL las filas de los recorridos llegan una a una, no el resultado completo
+    private static final int FETCH_STREAMING = Integer.MIN_VALUE;
+
     private final EntityManager entityManager;
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private final ReporteCache reporteCache;
+
+    // ===== ESTRUCTURAS DE RESULTADO =====
+
+    /** Posición con saldo del inventario valorizado. */
+    public record ItemInventario(String instrumentoNemo, String instrumentoNombre, String custodioNombre,
+                                 String cuenta, BigDecimal cantidad, BigDecimal costoTotal,
+                                 BigDecimal costoUnitario, LocalDate fechaActualizacion, BigDecimal participacion) {
+    }
+
+    public record ReporteInventario(LocalDate fechaCorte, LocalDate fechaGeneracion, Long empresaId,
+                                    BigDecimal valorTotalInventario, List<ItemInventario> items,
+                                    Map<String, Long> itemsPorInstrumento) {
+        public int totalItems() {
+            return items.size();
+        }
+
+        public int instrumentosDistintos() {
+            return itemsPorInstrumento.size();
+        }
+    }
+
+    /** Movimiento del kardex en el período. */
+    public record MovimientoReporte(LocalDate fecha, String instrumentoNemo, String cuenta, String custodio,
+                                    TipoEnumsCosteo tipo, BigDecimal cantidad, BigDecimal costoUnitario,
+                                    BigDecimal costoTotal, BigDecimal saldoCantidad, BigDecimal saldoValor,
+                                    String folio, String tipoMovimiento) {
+    }
+
+    /** Totales de los movimientos de un tipo contable. */
+    public record ResumenTipo(long movimientos, BigDecimal cantidadTotal, BigDecimal valorTotal) {
+    }
+
+    public record ReporteMovimientos(LocalDate fechaInicio, LocalDate fechaFin, LocalDate fechaGeneracion,
+                                     Long empresaId, String filtroInstrumento, String filtroCuenta,
+                                     List<MovimientoReporte> movimientos,
+                                     Map<TipoEnumsCosteo, ResumenTipo> resumenPorTipo) {
+        public int totalMovimientos() {
+            return movimientos.size();
+        }
+    }
+
+    /** Venta (egreso) con su costo FIFO y utilidad. */
+    public record VentaDetalle(LocalDate fecha, String instrumentoNemo, String cuenta, String custodio,
+                               BigDecimal cantidad, BigDecimal precioVenta, BigDecimal montoVenta,
+                               BigDecimal costoFIFO, BigDecimal utilidad, BigDecimal margenPorcentaje) {
+    }
+
+    public record ReporteUtilidades(LocalDate fechaInicio, LocalDate fechaFin, LocalDate fechaGeneracion,
+                                    Long empresaId, BigDecimal totalVentas, BigDecimal totalCostos,
+                                    BigDecimal utilidadTotal, BigDecimal margenTotal,
+                                    List<VentaDetalle> ventasDetalle) {
+        public int cantidadOperaciones() {
+            return ventasDetalle.size();
+        }
+    }
+
+    public record RendimientoInstrumento(String instrumentoNemo, long totalTransacciones,
+                                         long transaccionesCosteadas, long transaccionesRevision,
+                                         BigDecimal porcentajeCosteado) {
+    }
+
+    public record ActividadMensual(int ano, int mes, long movimientos, long gruposProcesados) {
+        public String periodo() {
+            return String.format("%d-%02d", ano, mes);
+        }
+    }
+
+    public record ReporteRendimiento(LocalDate fechaGeneracion, Long empresaId, long totalTransacciones,
+                                     long transaccionesCosteadas, long transaccionesRevision,
+                                     long transaccionesIgnoradas, long gruposActivos,
+                                     BigDecimal porcentajeCosteado, BigDecimal porcentajeRevision,
+                                     List<RendimientoInstrumento> rendimientoPorInstrumento,
+                                     List<ActividadMensual> actividadMensual) {
+        public long transaccionesPendientes() {
+            return totalTransacciones - transaccionesCosteadas - transaccionesRevision - transaccionesIgnoradas;
+        }
+    }
+
+    /** Transacción para revisión o pendiente de costeo; glosa y folio solo vienen en las de revisión. */
+    public record TransaccionProblematica(Long transaccionId, LocalDate fecha, String instrumentoNemo,
+                                          String cuenta, String custodio, BigDecimal cantidad, BigDecimal precio,
+                                          String tipoMovimiento, String glosa, String folio) {
+        public long diasPendiente() {
+            return ChronoUnit.DAYS.between(fecha, LocalDate.now());
+        }
+    }
+
+    public record ReporteTransaccionesProblematicas(LocalDate fechaGeneracion, Long empresaId,
+                                                    List<TransaccionProblematica> transaccionesParaRevision,
+                                                    List<TransaccionProblematica> transaccionesPendientesAntiguas) {
+    }
 
     // ===== REPORTES DE INVENTARIO =====
 
     /**
      * Genera reporte de inventario valorizado por empresa.
      */
-    public Map<String, Object> generarReporteInventarioValorado(Long empresaId, LocalDate fechaCorte) {
+    public ReporteInventario generarReporteInventarioValorado(Long empresaId, LocalDate fechaCorte) {
         log.info("Generando reporte de inventario valorizado para empresa {} al {}", empresaId, fechaCorte);
-        
+
         List<Object[]> inventario = entityManager.createQuery("""
-            SELECT 
+            SELECT
                 i.instrumentoNemo,
-                i.nombre as instrumentoNombre,
-                c.nombre as custodioNombre,
+                i.instrumentoNombre,
+                c.nombreCustodio,
                 s.cuenta,
                 s.saldoCantidad,
                 s.costoTotal,
@@ -56,52 +157,67 @@ public class CostingReportsService {
                 .setParameter("empresaId", empresaId)
                 .setParameter("fechaCorte", fechaCorte)
                 .getResultList();
-        
-        BigDecimal valorTotal = inventario.stream()
-                .map(row -> (BigDecimal) row[5])
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        List<Map<String, Object>> items = inventario.stream()
-                .map(row -> Map.of(
-                        "instrumentoNemo", row[0],
-                        "instrumentoNombre", row[1],
-                        "custodioNombre", row[2],
-                        "cuenta", row[3],
-                        "cantidad", row[4],
-                        "costoTotal", row[5],
-                        "costoUnitario", row[6],
-                        "fechaActualizacion", row[7],
-                        "participacion", calcularPorcentaje((BigDecimal) row[5], valorTotal)
-                ))
-                .collect(Collectors.toList());
-        
-        return Map.of(
-                "fechaCorte", fechaCorte,
-                "fechaGeneracion", LocalDate.now(),
-                "empresaId", empresaId,
-                "valorTotalInventario", valorTotal,
-                "totalItems", items.size(),
-                "items", items,
-                "resumen", generarResumenInventario(items)
-        );
+
+        BigDecimal valorTotal = BigDecimal.ZERO;
+        for (Object[] row : inventario) {
+            valorTotal = valorTotal.add(valor(row[5]));
+        }
+
+        List<ItemInventario> items = new ArrayList<>(inventario.size());
+        Map<String, Long> itemsPorInstrumento = new LinkedHashMap<>();
+        for (Object[] row : inventario) {
+            BigDecimal costoTotal = valor(row[5]);
+            items.add(new ItemInventario((String) row[0], (String) row[1], (String) row[2], (String) row[3],
+                    (BigDecimal) row[4], costoTotal, (BigDecimal) row[6], (LocalDate) row[7],
+                    calcularPorcentaje(costoTotal, valorTotal)));
+            itemsPorInstrumento.merge((String) row[0], 1L, Long::sum);
+        }
+
+        return new ReporteInventario(fechaCorte, LocalDate.now(), empresaId, valorTotal,
+                Collections.unmodifiableList(items), Collections.unmodifiableMap(itemsPorInstrumento));
     }
 
     /**
      * Genera reporte de movimientos por período.
      */
-    public Map<String, Object> generarReporteMovimientos(
-            Long empresaId, LocalDate fechaInicio, LocalDate fechaFin, 
+    public ReporteMovimientos generarReporteMovimientos(
+            Long empresaId, LocalDate fechaInicio, LocalDate fechaFin,
             String instrumentoNemo, String cuenta) {
-        
-        log.info("Generando reporte de movimientos para empresa {} del {} al {}", 
+
+        log.info("Generando reporte de movimientos para empresa {} del {} al {}",
                 empresaId, fechaInicio, fechaFin);
-        
+
+        List<MovimientoReporte> items = new ArrayList<>();
+        Map<TipoEnumsCosteo, ResumenTipo> resumenPorTipo = new EnumMap<>(TipoEnumsCosteo.class);
+        recorrerMovimientos(empresaId, fechaInicio, fechaFin, instrumentoNemo, cuenta, movimiento -> {
+            items.add(movimiento);
+            resumenPorTipo.merge(movimiento.tipo(),
+                    new ResumenTipo(1, valor(movimiento.cantidad()), valor(movimiento.costoTotal())),
+                    (a, b) -> new ResumenTipo(a.movimientos() + b.movimientos(),
+                            a.cantidadTotal().add(b.cantidadTotal()), a.valorTotal().add(b.valorTotal())));
+        });
+
+        return new ReporteMovimientos(fechaInicio, fechaFin, LocalDate.now(), empresaId,
+                instrumentoNemo != null ? instrumentoNemo : "TODOS",
+                cuenta != null ? cuenta : "TODAS",
+                Collections.unmodifiableList(items), Collections.unmodifiableMap(resumenPorTipo));
+    }
+
+    /**
+     * Entrega los movimientos del período al consumidor a medida que se leen, sin
+     * cargarlos todos en memoria (para exportaciones de períodos largos).
+     */
+    public void recorrerMovimientos(Long empresaId, LocalDate fechaInicio, LocalDate fechaFin,
+                                    String instrumentoNemo, String cuenta, Consumer<MovimientoReporte> consumidor) {
+        boolean filtrarInstrumento = instrumentoNemo != null && !instrumentoNemo.trim().isEmpty();
+        boolean filtrarCuenta = cuenta != null && !cuenta.trim().isEmpty();
+
         StringBuilder jpql = new StringBuilder("""
-            SELECT 
+            SELECT
                 k.fechaTransaccion,
                 i.instrumentoNemo,
                 k.cuenta,
-                c.nombre as custodioNombre,
+                c.nombreCustodio,
                 k.tipoContable,
                 k.cantidad,
                 k.costoUnitario,
@@ -118,82 +234,77 @@ public class CostingReportsService {
             WHERE k.empresa.id = :empresaId
               AND k.fechaTransaccion BETWEEN :fechaInicio AND :fechaFin
             """);
-        
-        if (instrumentoNemo != null && !instrumentoNemo.trim().isEmpty()) {
+
+        if (filtrarInstrumento) {
             jpql.append(" AND i.instrumentoNemo = :instrumentoNemo");
         }
-        if (cuenta != null && !cuenta.trim().isEmpty()) {
+        if (filtrarCuenta) {
             jpql.append(" AND k.cuenta = :cuenta");
         }
-        
+
         jpql.append(" ORDER BY k.fechaTransaccion ASC, k.id ASC");
-        
+
         var query = entityManager.createQuery(jpql.toString(), Object[].class)
                 .setParameter("empresaId", empresaId)
                 .setParameter("fechaInicio", fechaInicio)
-                .setParameter("fechaFin", fechaFin);
-        
-        if (instrumentoNemo != null && !instrumentoNemo.trim().isEmpty()) {
+                .setParameter("fechaFin", fechaFin)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, FETCH_STREAMING);
+
+        if (filtrarInstrumento) {
             query.setParameter("instrumentoNemo", instrumentoNemo);
         }
-        if (cuenta != null && !cuenta.trim().isEmpty()) {
+        if (filtrarCuenta) {
             query.setParameter("cuenta", cuenta);
         }
-        
-        List<Object[]> movimientos = query.getResultList();
-        
-        List<Map<String, Object>> items = movimientos.stream()
-                .map(row -> {
-                    Map<String, Object> map = new HashMap<>();
-                    map.put("fecha", ((LocalDate) row[0]).format(DATE_FORMATTER));
-                    map.put("instrumentoNemo", row[1]);
-                    map.put("cuenta", row[2]);
-                    map.put("custodio", row[3]);
-                    map.put("tipo", row[4]);
-                    map.put("cantidad", row[5]);
-                    map.put("costoUnitario", row[6]);
-                    map.put("costoTotal", row[7]);
-                    map.put("saldoCantidad", row[8]);
-                    map.put("saldoValor", row[9]);
-                    map.put("folio", row[10] != null ? row[10] : "");
-                    map.put("tipoMovimiento", row[11]);
-                    return map;
-                })
-                .collect(Collectors.toList());
-        
-        Map<TipoEnumsCosteo, Map<String, Object>> resumenPorTipo = generarResumenPorTipo(movimientos);
-        
-        return Map.of(
-                "fechaInicio", fechaInicio,
-                "fechaFin", fechaFin,
-                "fechaGeneracion", LocalDate.now(),
-                "empresaId", empresaId,
-                "filtros", Map.of(
-                        "instrumentoNemo", instrumentoNemo != null ? instrumentoNemo : "TODOS",
-                        "cuenta", cuenta != null ? cuenta : "TODAS"
-                ),
-                "totalMovimientos", items.size(),
-                "movimientos", items,
-                "resumenPorTipo", resumenPorTipo
-        );
+
+        try (Stream<Object[]> filas = query.getResultStream()) {
+            filas.map(row -> new MovimientoReporte(
+                            (LocalDate) row[0], (String) row[1], (String) row[2], (String) row[3],
+                            (TipoEnumsCosteo) row[4], (BigDecimal) row[5], (BigDecimal) row[6],
+                            (BigDecimal) row[7], (BigDecimal) row[8], (BigDecimal) row[9],
+                            row[10] != null ? (String) row[10] : "", (String) row[11]))
+                    .forEach(consumidor);
+        }
     }
 
     /**
      * Genera reporte de utilidades FIFO por ventas.
      */
-    public Map<String, Object> generarReporteUtilidades(
+    public ReporteUtilidades generarReporteUtilidades(
             Long empresaId, LocalDate fechaInicio, LocalDate fechaFin) {
-        
-        log.info("Generando reporte de utilidades para empresa {} del {} al {}", 
+
+        log.info("Generando reporte de utilidades para empresa {} del {} al {}",
                 empresaId, fechaInicio, fechaFin);
-        
+
+        List<VentaDetalle> ventasDetalle = new ArrayList<>();
+        BigDecimal[] totales = {BigDecimal.ZERO, BigDecimal.ZERO};
+        recorrerVentas(empresaId, fechaInicio, fechaFin, venta -> {
+            ventasDetalle.add(venta);
+            totales[0] = totales[0].add(venta.montoVenta());
+            totales[1] = totales[1].add(venta.costoFIFO());
+        });
+
+        BigDecimal totalVentas = totales[0];
+        BigDecimal totalCostos = totales[1];
+        BigDecimal utilidadTotal = totalVentas.subtract(totalCostos);
+
+        return new ReporteUtilidades(fechaInicio, fechaFin, LocalDate.now(), empresaId,
+                totalVentas, totalCostos, utilidadTotal, calcularPorcentaje(utilidadTotal, totalVentas),
+                Collections.unmodifiableList(ventasDetalle));
+    }
+
+    /**
+     * Entrega las ventas del período con su costo FIFO al consumidor a medida que se leen.
+     */
+    public void recorrerVentas(Long empresaId, LocalDate fechaInicio, LocalDate fechaFin,
+                               Consumer<VentaDetalle> consumidor) {
         // Obtener los egresos (ventas) con sus detalles de costeo
-        List<Object[]> egresos = entityManager.createQuery("""
-            SELECT 
+        var query = entityManager.createQuery("""
+            SELECT
                 ke.fechaTransaccion,
                 i.instrumentoNemo,
                 ke.cuenta,
-                c.nombre as custodioNombre,
+                c.nombreCustodio,
                 ke.cantidad,
                 te.precio as precioVenta,
                 te.montoTotal as montoVenta,
@@ -213,70 +324,37 @@ public class CostingReportsService {
                 .setParameter("tipoEgreso", TipoEnumsCosteo.EGRESO)
                 .setParameter("fechaInicio", fechaInicio)
                 .setParameter("fechaFin", fechaFin)
-                .getResultList();
-        
-        BigDecimal totalVentas = BigDecimal.ZERO;
-        BigDecimal totalCostos = BigDecimal.ZERO;
-        
-        List<Map<String, Object>> ventasDetalle = new ArrayList<>();
-        
-        for (Object[] row : egresos) {
-            BigDecimal montoVenta = (BigDecimal) row[6];
-            BigDecimal costoFIFO = (BigDecimal) row[7];
-            BigDecimal utilidad = montoVenta.subtract(costoFIFO);
-            BigDecimal margen = montoVenta.compareTo(BigDecimal.ZERO) > 0 
-                    ? utilidad.divide(montoVenta, 4, RoundingMode.HALF_UP).multiply(new BigDecimal("100"))
-                    : BigDecimal.ZERO;
-            
-            totalVentas = totalVentas.add(montoVenta);
-            totalCostos = totalCostos.add(costoFIFO);
-            
-            ventasDetalle.add(Map.of(
-                    "fecha", ((LocalDate) row[0]).format(DATE_FORMATTER),
-                    "instrumentoNemo", row[1],
-                    "cuenta", row[2],
-                    "custodio", row[3],
-                    "cantidad", row[4],
-                    "precioVenta", row[5],
-                    "montoVenta", montoVenta,
-                    "costoFIFO", costoFIFO,
-                    "utilidad", utilidad,
-                    "margenPorcentaje", margen
-            ));
+                .setHint(HibernateHints.HINT_FETCH_SIZE, FETCH_STREAMING);
+
+        try (Stream<Object[]> filas = query.getResultStream()) {
+            filas.map(row -> {
+                        BigDecimal montoVenta = valor(row[6]);
+                        BigDecimal costoFIFO = valor(row[7]);
+                        BigDecimal utilidad = montoVenta.subtract(costoFIFO);
+                        return new VentaDetalle((LocalDate) row[0], (String) row[1], (String) row[2],
+                                (String) row[3], (BigDecimal) row[4], (BigDecimal) row[5], montoVenta,
+                                costoFIFO, utilidad, calcularPorcentaje(utilidad, montoVenta));
+                    })
+                    .forEach(consumidor);
         }
-        
-        BigDecimal utilidadTotal = totalVentas.subtract(totalCostos);
-        BigDecimal margenTotal = totalVentas.compareTo(BigDecimal.ZERO) > 0 
-                ? utilidadTotal.divide(totalVentas, 4, RoundingMode.HALF_UP).multiply(new BigDecimal("100"))
-                : BigDecimal.ZERO;
-        
-        return Map.of(
-                "fechaInicio", fechaInicio,
-                "fechaFin", fechaFin,
-                "fechaGeneracion", LocalDate.now(),
-                "empresaId", empresaId,
-                "resumen", Map.of(
-                        "totalVentas", totalVentas,
-                        "totalCostos", totalCostos,
-                        "utilidadTotal", utilidadTotal,
-                        "margenTotal", margenTotal,
-                        "cantidadOperaciones", ventasDetalle.size()
-                ),
-                "ventasDetalle", ventasDetalle
-        );
     }
 
     // ===== REPORTES DE RENDIMIENTO =====
 
     /**
      * Genera reporte de rendimiento del sistema de costeo.
+     * Se guarda en el caché de reportes hasta la próxima carga o costeo.
      */
-    public Map<String, Object> generarReporteRendimiento(Long empresaId) {
+    public ReporteRendimiento generarReporteRendimiento(Long empresaId) {
+        return reporteCache.obtener("rendimiento", () -> calcularReporteRendimiento(empresaId), empresaId);
+    }
+
+    private ReporteRendimiento calcularReporteRendimiento(Long empresaId) {
         log.info("Generando reporte de rendimiento para empresa: {}", empresaId);
-        
+
         // Estadísticas generales
         Object[] estadisticas = entityManager.createQuery("""
-            SELECT 
+            SELECT
                 COUNT(t.id) as totalTransacciones,
                 SUM(CASE WHEN t.costeado = true THEN 1 ELSE 0 END) as transaccionesCosteadas,
                 SUM(CASE WHEN t.paraRevision = true THEN 1 ELSE 0 END) as transaccionesRevision,
@@ -287,10 +365,10 @@ public class CostingReportsService {
             """, Object[].class)
                 .setParameter("empresaId", empresaId)
                 .getSingleResult();
-        
+
         // Rendimiento por instrumento
-        List<Object[]> rendimientoPorInstrumento = entityManager.createQuery("""
-            SELECT 
+        List<RendimientoInstrumento> rendimientoPorInstrumento = entityManager.createQuery("""
+            SELECT
                 i.instrumentoNemo,
                 COUNT(t.id) as totalTx,
                 SUM(CASE WHEN t.costeado = true THEN 1 ELSE 0 END) as costeadas,
@@ -303,12 +381,15 @@ public class CostingReportsService {
             """, Object[].class)
                 .setParameter("empresaId", empresaId)
                 .setMaxResults(20)
-                .getResultList();
-        
+                .getResultStream()
+                .map(row -> new RendimientoInstrumento((String) row[0], contador(row[1]), contador(row[2]),
+                        contador(row[3]), calcularPorcentaje(contador(row[2]), contador(row[1]))))
+                .toList();
+
         // Actividad por mes (últimos 12 meses)
         LocalDate hace12Meses = LocalDate.now().minusMonths(12);
-        List<Object[]> actividadMensual = entityManager.createQuery("""
-            SELECT 
+        List<ActividadMensual> actividadMensual = entityManager.createQuery("""
+            SELECT
                 FUNCTION('YEAR', k.fechaTransaccion) as ano,
                 FUNCTION('MONTH', k.fechaTransaccion) as mes,
                 COUNT(k.id) as movimientos,
@@ -321,68 +402,36 @@ public class CostingReportsService {
             """, Object[].class)
                 .setParameter("empresaId", empresaId)
                 .setParameter("fechaDesde", hace12Meses)
-                .getResultList();
-        
-        Long totalTransacciones = (Long) estadisticas[0];
-        Long transaccionesCosteadas = (Long) estadisticas[1];
-        Long transaccionesRevision = (Long) estadisticas[2];
-        Long transaccionesIgnoradas = (Long) estadisticas[3];
-        Long gruposActivos = (Long) estadisticas[4];
-        
-        BigDecimal porcentajeCosteado = totalTransacciones > 0 
-                ? new BigDecimal(transaccionesCosteadas).divide(new BigDecimal(totalTransacciones), 4, RoundingMode.HALF_UP).multiply(new BigDecimal("100"))
-                : BigDecimal.ZERO;
-        
-        BigDecimal porcentajeRevision = totalTransacciones > 0 
-                ? new BigDecimal(transaccionesRevision).divide(new BigDecimal(totalTransacciones), 4, RoundingMode.HALF_UP).multiply(new BigDecimal("100"))
-                : BigDecimal.ZERO;
-        
-        return Map.of(
-                "fechaGeneracion", LocalDate.now(),
-                "empresaId", empresaId,
-                "estadisticasGenerales", Map.of(
-                        "totalTransacciones", totalTransacciones,
-                        "transaccionesCosteadas", transaccionesCosteadas,
-                        "transaccionesRevision", transaccionesRevision,
-                        "transaccionesIgnoradas", transaccionesIgnoradas,
-                        "transaccionesPendientes", totalTransacciones - transaccionesCosteadas - transaccionesRevision - transaccionesIgnoradas,
-                        "gruposActivos", gruposActivos,
-                        "porcentajeCosteado", porcentajeCosteado,
-                        "porcentajeRevision", porcentajeRevision
-                ),
-                "rendimientoPorInstrumento", rendimientoPorInstrumento.stream()
-                        .map(row -> Map.of(
-                                "instrumentoNemo", row[0],
-                                "totalTransacciones", row[1],
-                                "transaccionesCosteadas", row[2],
-                                "transaccionesRevision", row[3],
-                                "porcentajeCosteado", calcularPorcentaje((Long) row[2], (Long) row[1])
-                        ))
-                        .collect(Collectors.toList()),
-                "actividadMensual", actividadMensual.stream()
-                        .map(row -> Map.of(
-                                "periodo", String.format("%d-%02d", (Integer) row[0], (Integer) row[1]),
-                                "movimientos", row[2],
-                                "gruposProcesados", row[3]
-                        ))
-                        .collect(Collectors.toList())
-        );
+                .getResultStream()
+                .map(row -> new ActividadMensual(((Number) row[0]).intValue(), ((Number) row[1]).intValue(),
+                        contador(row[2]), contador(row[3])))
+                .toList();
+
+        long totalTransacciones = contador(estadisticas[0]);
+        long transaccionesCosteadas = contador(estadisticas[1]);
+        long transaccionesRevision = contador(estadisticas[2]);
+
+        return new ReporteRendimiento(LocalDate.now(), empresaId, totalTransacciones,
+                transaccionesCosteadas, transaccionesRevision, contador(estadisticas[3]), contador(estadisticas[4]),
+                calcularPorcentaje(transaccionesCosteadas, totalTransacciones),
+                calcularPorcentaje(transaccionesRevision, totalTransacciones),
+                rendimientoPorInstrumento, actividadMensual);
     }
 
     /**
      * Genera reporte de transacciones problemáticas.
      */
-    public Map<String, Object> generarReporteTransaccionesProblematicas(Long empresaId) {
+    public ReporteTransaccionesProblematicas generarReporteTransaccionesProblematicas(Long empresaId) {
         log.info("Generando reporte de transacciones problemáticas para empresa: {}", empresaId);
-        
+
         // Transacciones para revisión
-        List<Object[]> transaccionesRevision = entityManager.createQuery("""
-            SELECT 
+        List<TransaccionProblematica> transaccionesRevision = entityManager.createQuery("""
+            SELECT
                 t.id,
                 t.fechaTransaccion,
                 i.instrumentoNemo,
                 t.cuenta,
-                c.nombre as custodioNombre,
+                c.nombreCustodio,
                 t.cantidad,
                 t.precio,
                 tm.tipoMovimiento,
@@ -398,17 +447,21 @@ public class CostingReportsService {
             """, Object[].class)
                 .setParameter("empresaId", empresaId)
                 .setMaxResults(100)
-                .getResultList();
-        
+                .getResultStream()
+                .map(row -> new TransaccionProblematica((Long) row[0], (LocalDate) row[1], (String) row[2],
+                        (String) row[3], (String) row[4], (BigDecimal) row[5], (BigDecimal) row[6],
+                        (String) row[7], row[8] != null ? (String) row[8] : "", row[9] != null ? (String) row[9] : ""))
+                .toList();
+
         // Transacciones pendientes por mucho tiempo
         LocalDate fechaLimite = LocalDate.now().minusDays(30);
-        List<Object[]> transaccionesPendientesAntiguas = entityManager.createQuery("""
-            SELECT 
+        List<TransaccionProblematica> transaccionesPendientesAntiguas = entityManager.createQuery("""
+            SELECT
                 t.id,
                 t.fechaTransaccion,
                 i.instrumentoNemo,
                 t.cuenta,
-                c.nombre as custodioNombre,
+                c.nombreCustodio,
                 t.cantidad,
                 t.precio,
                 tm.tipoMovimiento
@@ -420,6 +473,8 @@ public class CostingReportsService {
               AND t.costeado = false
               AND t.paraRevision = false
               AND t.ignorarEnCosteo = false
+              AND t.duplicadoSospechoso = false
+              AND t.instrumento.similarAId IS NULL
               AND t.fechaTransaccion <= :fechaLimite
               AND tm.movimientoContable.tipoContable <> :noCostear
             ORDER BY t.fechaTransaccion ASC
@@ -428,47 +483,14 @@ public class CostingReportsService {
                 .setParameter("fechaLimite", fechaLimite)
                 .setParameter("noCostear", TipoEnumsCosteo.NO_COSTEAR)
                 .setMaxResults(50)
-                .getResultList();
-        
-        return Map.of(
-                "fechaGeneracion", LocalDate.now(),
-                "empresaId", empresaId,
-                "transaccionesParaRevision", transaccionesRevision.stream()
-                        .map(row -> {
-                            Map<String, Object> map = new HashMap<>();
-                            map.put("transaccionId", row[0]);
-                            map.put("fecha", ((LocalDate) row[1]).format(DATE_FORMATTER));
-                            map.put("instrumentoNemo", row[2]);
-                            map.put("cuenta", row[3]);
-                            map.put("custodio", row[4]);
-                            map.put("cantidad", row[5]);
-                            map.put("precio", row[6]);
-                            map.put("tipoMovimiento", row[7]);
-                            map.put("glosa", row[8] != null ? row[8] : "");
-                            map.put("folio", row[9] != null ? row[9] : "");
-                            return map;
-                        })
-                        .collect(Collectors.toList()),
-                "transaccionesPendientesAntiguas", transaccionesPendientesAntiguas.stream()
-                        .map(row -> {
-                            Map<String, Object> map = new HashMap<>();
-                            map.put("transaccionId", row[0]);
-                            map.put("fecha", ((LocalDate) row[1]).format(DATE_FORMATTER));
-                            map.put("instrumentoNemo", row[2]);
-                            map.put("cuenta", row[3]);
-                            map.put("custodio", row[4]);
-                            map.put("cantidad", row[5]);
-                            map.put("precio", row[6]);
-                            map.put("tipoMovimiento", row[7]);
-                            map.put("diasPendiente", java.time.temporal.ChronoUnit.DAYS.between((LocalDate) row[1], LocalDate.now()));
-                            return map;
-                        })
-                        .collect(Collectors.toList()),
-                "resumen", Map.of(
-                        "totalParaRevision", transaccionesRevision.size(),
-                        "totalPendientesAntiguas", transaccionesPendientesAntiguas.size()
-                )
-        );
+                .getResultStream()
+                .map(row -> new TransaccionProblematica((Long) row[0], (LocalDate) row[1], (String) row[2],
+                        (String) row[3], (String) row[4], (BigDecimal) row[5], (BigDecimal) row[6],
+                        (String) row[7], null, null))
+                .toList();
+
+        return new ReporteTransaccionesProblematicas(LocalDate.now(), empresaId,
+                transaccionesRevision, transaccionesPendientesAntiguas);
     }
 
     // ===== MÉTODOS AUXILIARES =====
@@ -477,55 +499,19 @@ public class CostingReportsService {
         if (total.compareTo(BigDecimal.ZERO) == 0) {
             return BigDecimal.ZERO;
         }
-        return parte.divide(total, 4, RoundingMode.HALF_UP).multiply(new BigDecimal("100"));
+        return parte.divide(total, 4, RoundingMode.HALF_UP).multiply(CIEN);
     }
 
-    private BigDecimal calcularPorcentaje(Long parte, Long total) {
-        return calcularPorcentaje(new BigDecimal(parte), new BigDecimal(total));
+    private BigDecimal calcularPorcentaje(long parte, long total) {
+        return calcularPorcentaje(BigDecimal.valueOf(parte), BigDecimal.valueOf(total));
     }
 
-    private Map<String, Object> generarResumenInventario(List<Map<String, Object>> items) {
-        int totalItems = items.size();
-        BigDecimal valorTotal = items.stream()
-                .map(item -> (BigDecimal) item.get("costoTotal"))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        Map<String, Long> itemsPorInstrumento = items.stream()
-                .collect(Collectors.groupingBy(
-                        item -> (String) item.get("instrumentoNemo"),
-                        Collectors.counting()
-                ));
-        
-        return Map.of(
-                "totalItems", totalItems,
-                "valorTotal", valorTotal,
-                "instrumentosDistintos", itemsPorInstrumento.size(),
-                "itemsPorInstrumento", itemsPorInstrumento
-        );
+    private static BigDecimal valor(Object valor) {
+        return valor != null ? (BigDecimal) valor : BigDecimal.ZERO;
     }
 
-    private Map<TipoEnumsCosteo, Map<String, Object>> generarResumenPorTipo(List<Object[]> movimientos) {
-        Map<TipoEnumsCosteo, List<Object[]>> movimientosPorTipo = movimientos.stream()
-                .collect(Collectors.groupingBy(row -> (TipoEnumsCosteo) row[4]));
-        
-        return movimientosPorTipo.entrySet().stream()
-                .collect(Collectors.toMap(
-                        Map.Entry::getKey,
-                        entry -> {
-                            List<Object[]> movs = entry.getValue();
-                            BigDecimal cantidadTotal = movs.stream()
-                                    .map(row -> (BigDecimal) row[5])
-                                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-                            BigDecimal valorTotal = movs.stream()
-                                    .map(row -> (BigDecimal) row[7])
-                                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-                            
-                            return Map.of(
-                                    "cantidad", movs.size(),
-                                    "cantidadTotal", cantidadTotal,
-                                    "valorTotal", valorTotal
-                            );
-                        }
-                ));
+    /** Los SUM sobre un conjunto vacío devuelven null. */
+    private static long contador(Object valor) {
+        return valor != null ? ((Number) valor).longValue() : 0L;
     }
-}
\ No newline at end of file
+}
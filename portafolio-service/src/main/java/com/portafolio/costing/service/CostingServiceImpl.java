@@ -13,19 +13,22 @@ import com.portafolio.persistence.repositorio.KardexRepository;
 import com.portafolio.persistence.repositorio.SaldoKardexRepository;
 import com.portafolio.persistence.repositorio.TransaccionRepository;
 import com.portafolio.mapper.KardexMapper;
+import com.portafolio.ui.service.cache.DatosReporteModificadosEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.persistence.EntityManager;
-import jakarta.persistence.criteria.CriteriaBuilder;
-import jakarta.persistence.criteria.CriteriaQuery;
-import jakarta.persistence.criteria.Root;
 import java.math.BigDecimal;
+import java.sql.Date;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Implementación Spring del servicio de costeo FIFO.
@@ -43,6 +46,12 @@ public class CostingServiceImpl implements CostingApi {
     private final KardexRepository kardexRepository;
     private final SaldoKardexRepository saldoKardexRepository;
     private final KardexMapper kardexMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final GrupoCosteoCatalogoService grupoCosteoCatalogoService;
+    private final KardexReporteService kardexReporteService;
+    private final PosicionActualService posicionActualService;
+    private final ResumenHistoricoAgregadoService resumenHistoricoAgregadoService;
+    private final CandadoCosteo candadoCosteo;
 
     /**
      * Procesa el costeo para todas las transacciones pendientes hasta una fecha.
@@ -51,10 +60,12 @@ public class CostingServiceImpl implements CostingApi {
     @Transactional
     public int procesarCosteo(LocalDate fechaCorte) {
         log.info("=== Iniciando proceso de costeo hasta fecha: {} ===", fechaCorte);
+        candadoCosteo.adquirirHastaFinDeTransaccion();
         
         try {
             // El motor ya maneja toda la lógica de costeo
             int gruposProcesados = fifoCostingEngine.procesarCosteo();
+            eventPublisher.publishEvent(new DatosReporteModificadosEvent("costeo"));
             
             log.info("=== Proceso de costeo completado: {} grupos procesados ===", gruposProcesados);
             return gruposProcesados;
@@ -65,6 +76,25 @@ public class CostingServiceImpl implements CostingApi {
         }
     }
 
+    /**
+     * Procesa el costeo solo para los grupos indicados.
+     */
+    @Override
+    @Transactional
+    public int procesarCosteoGrupos(Set<String> clavesGrupo) {
+        candadoCosteo.adquirirHastaFinDeTransaccion();
+        try {
+            int gruposProcesados = fifoCostingEngine.procesarCosteo(clavesGrupo);
+            eventPublisher.publishEvent(new DatosReporteModificadosEvent("costeo incremental"));
+            log.info("=== Costeo incremental completado: {}/{} grupos procesados ===",
+                    gruposProcesados, clavesGrupo.size());
+            return gruposProcesados;
+        } catch (Exception e) {
+            log.error("Error en el costeo incremental: {}", e.getMessage(), e);
+            throw new RuntimeException("Falló el costeo incremental: " + e.getMessage(), e);
+        }
+    }
+
     /**
      * Procesa el costeo para un grupo específico.
      */
@@ -72,6 +102,7 @@ public class CostingServiceImpl implements CostingApi {
     @Transactional
     public void procesarGrupo(CostingGroupDto grupo, LocalDate fechaCorte) {
         log.info("Procesando grupo específico: {}", grupo.getClaveAgrupacion());
+        candadoCosteo.adquirirHastaFinDeTransaccion();
         
         try {
             // 1. Resetear el grupo antes de recostearlo
@@ -85,6 +116,8 @@ public class CostingServiceImpl implements CostingApi {
             
             // 2. Procesar el costeo completo (incluirá este grupo)
             fifoCostingEngine.procesarCosteo();
+            refrescarTablasDerivadas(List.of(grupo.getClaveAgrupacion()));
+            eventPublisher.publishEvent(new DatosReporteModificadosEvent("costeo de grupo"));
             
             log.info("Grupo procesado exitosamente: {}", grupo.getClaveAgrupacion());
             
@@ -165,6 +198,7 @@ public class CostingServiceImpl implements CostingApi {
     @Transactional
     public void reiniciarCosteo(LocalDate fechaDesde) {
         log.warn("=== REINICIANDO COSTEO DESDE FECHA: {} ===", fechaDesde);
+        candadoCosteo.adquirirHastaFinDeTransaccion();
         
         try {
             // 1. Eliminar todos los registros de kardex desde la fecha
@@ -196,6 +230,10 @@ public class CostingServiceImpl implements CostingApi {
             
             // 4. Actualizar saldos kardex
             actualizarSaldosKardexDespuesDeReset(fechaDesde);
+            grupoCosteoCatalogoService.reconstruir();
+            posicionActualService.reconstruir();
+            resumenHistoricoAgregadoService.reconstruir();
+            eventPublisher.publishEvent(new DatosReporteModificadosEvent("reinicio de costeo"));
             
             log.warn("RESET COMPLETADO - Kardex eliminados: {}, Detalles eliminados: {}, Transacciones reset: {}", 
                     kardexEliminados, detallesEliminados, transaccionesReset);
@@ -220,9 +258,12 @@ public class CostingServiceImpl implements CostingApi {
         
         log.warn("=== REINICIANDO GRUPO {}-{}-{}-{} DESDE FECHA: {} ===", 
                 empresaId, custodioId, instrumentoId, cuenta, fechaDesde);
+        candadoCosteo.adquirirHastaFinDeTransaccion();
         
         try {
             resetearGrupo(empresaId, custodioId, instrumentoId, cuenta, fechaDesde);
+            refrescarTablasDerivadas(List.of(CostingGroupDto.construirClave(empresaId, cuenta, custodioId, instrumentoId)));
+            eventPublisher.publishEvent(new DatosReporteModificadosEvent("reinicio de grupo"));
             log.warn("RESET DE GRUPO COMPLETADO");
             
         } catch (Exception e) {
@@ -231,57 +272,87 @@ public class CostingServiceImpl implements CostingApi {
         }
     }
 
+    /**
+     * Descarta lo que produjo un lote de carga ya normalizado, para poder volver a
+     * normalizarlo sin duplicar transacciones.
+     */
+    @Override
+    @Transactional
+    @SuppressWarnings("unchecked")
+    public int descartarTransaccionesLote(Long loteId) {
+        candadoCosteo.adquirirHastaFinDeTransaccion();
+        List<Object[]> grupos = entityManager.createNativeQuery("""
+            SELECT t.empresa_id, t.custodio_id, t.instrumento_id, t.cuenta, MIN(t.fecha_transaccion)
+            FROM transacciones t
+            WHERE t.lote_id = :loteId
+            GROUP BY t.empresa_id, t.custodio_id, t.instrumento_id, t.cuenta
+            """)
+            .setParameter("loteId", loteId)
+            .getResultList();
+        if (grupos.isEmpty()) {
+            return 0;
+        }
+
+        // 1. Resetear cada grupo desde la primera fecha del lote
+        List<String> claves = new ArrayList<>();
+        for (Object[] grupo : grupos) {
+            Long empresaId = ((Number) grupo[0]).longValue();
+            Long custodioId = ((Number) grupo[1]).longValue();
+            Long instrumentoId = ((Number) grupo[2]).longValue();
+            String cuenta = (String) grupo[3];
+            LocalDate fechaDesde = aLocalDate(grupo[4]);
+            resetearGrupo(empresaId, custodioId, instrumentoId, cuenta, fechaDesde);
+            claves.add(CostingGroupDto.construirClave(empresaId, cuenta, custodioId, instrumentoId));
+        }
+
+        // 2. Eliminar lo que aún referencie a las transacciones del lote
+        entityManager.createQuery("""
+            DELETE FROM DetalleCosteoEntity d
+            WHERE d.ingreso.loteId = :loteId OR d.egreso.loteId = :loteId
+            """)
+            .setParameter("loteId", loteId)
+            .executeUpdate();
+        entityManager.createQuery("DELETE FROM KardexEntity k WHERE k.transaccion.loteId = :loteId")
+            .setParameter("loteId", loteId)
+            .executeUpdate();
+        entityManager.createQuery("DELETE FROM PortafolioTransaccionEntity p WHERE p.transaccion.loteId = :loteId")
+            .setParameter("loteId", loteId)
+            .executeUpdate();
+
+        // 3. Eliminar las transacciones y refrescar las tablas derivadas de sus grupos
+        int eliminadas = entityManager.createQuery("DELETE FROM TransaccionEntity t WHERE t.loteId = :loteId")
+            .setParameter("loteId", loteId)
+            .executeUpdate();
+        refrescarTablasDerivadas(claves);
+        eventPublisher.publishEvent(new DatosReporteModificadosEvent("descarte de lote"));
+
+        log.warn("Lote {} descartado: {} transacciones eliminadas en {} grupos", loteId, eliminadas, claves.size());
+        return eliminadas;
+    }
+
     /**
      * Obtiene todos los grupos de costeo existentes.
      */
     @Transactional(readOnly = true)
     public List<CostingGroupDto> obtenerGruposCosteo() {
         log.debug("Obteniendo todos los grupos de costeo");
-        
-        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
-        CriteriaQuery<CostingGroupDto> cq = cb.createQuery(CostingGroupDto.class);
-        
-        Root<KardexEntity> k = cq.from(KardexEntity.class);
-        
-        cq.select(cb.construct(
-                CostingGroupDto.class,
-                k.get("empresa").get("id"),
-                k.get("custodio").get("id"),
-                k.get("instrumento").get("id"),
-                k.get("cuenta"),
-                k.get("claveAgrupacion"),
-                k.get("empresa").get("razonSocial"),
-                k.get("custodio").get("nombre"),
-                k.get("instrumento").get("instrumentoNemo"),
-                cb.min(k.get("fechaTransaccion")),
-                cb.max(k.get("fechaTransaccion")),
-                cb.count(k.get("id"))
-        ));
-        
-        cq.groupBy(
-                k.get("empresa").get("id"),
-                k.get("custodio").get("id"),
-                k.get("instrumento").get("id"),
-                k.get("cuenta"),
-                k.get("claveAgrupacion"),
-                k.get("empresa").get("razonSocial"),
-                k.get("custodio").get("nombre"),
-                k.get("instrumento").get("instrumentoNemo")
-        );
-        
-        cq.orderBy(
-                cb.asc(k.get("empresa").get("razonSocial")),
-                cb.asc(k.get("instrumento").get("instrumentoNemo")),
-                cb.asc(k.get("cuenta"))
-        );
-        
-        return entityManager.createQuery(cq).getResultList();
+        return grupoCosteoCatalogoService.listar(null);
+    }
+
+    /**
+     * Obtiene los grupos de costeo de una empresa desde el catálogo grupos_costeo.
+     */
+    @Transactional(readOnly = true)
+    public List<CostingGroupDto> obtenerGruposCosteo(Long empresaId) {
+        log.debug("Obteniendo grupos de costeo de la empresa {}", empresaId);
+        return grupoCosteoCatalogoService.listar(empresaId);
     }
 
     // ===== MÉTODOS PRIVADOS =====
 
     /**
-     * Resetea un grupo específico eliminando su historial de costeo.
+     * Resetea un grupo específico eliminando su historial de costeo. Quien lo invoca
+     * refresca después las tablas derivadas del grupo.
      */
     private void resetearGrupo(Long empresaId, Long custodioId, Long instrumentoId, 
                               String cuenta, LocalDate fechaDesde) {
@@ -344,6 +415,21 @@ public class CostingServiceImpl implements CostingApi {
                 kardexEliminados, detallesEliminados, transaccionesReset);
     }
 
+    /**
+     * Recalcula kardex de reporte, posiciones, resumen histórico y catálogo de los grupos.
+     */
+    private void refrescarTablasDerivadas(Collection<String> claves) {
+        entityManager.flush();
+        kardexReporteService.refrescarGrupos(claves);
+        posicionActualService.refrescarGrupos(claves);
+        resumenHistoricoAgregadoService.refrescarGrupos(claves);
+        grupoCosteoCatalogoService.refrescarGrupos(claves);
+    }
+
+    private LocalDate aLocalDate(Object valor) {
+        return valor instanceof Date fecha ? fecha.toLocalDate() : (LocalDate) valor;
+    }
+
     /**
      * Actualiza los saldos consolidados después de un reset.
      */
@@ -0,0 +1,154 @@
+package com.portafolio.costing.service;
+
+import com.portafolio.masterdata.event.InstrumentoFusionadoEvent;
+import com.portafolio.model.dto.CostingGroupDto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Mantiene grupos_costeo: una fila por grupo con el rango de fechas, la cantidad de
+ * movimientos y la fecha del último costeo de su kardex. El motor la refresca solo para
+ * los grupos que procesa, de modo que listar grupos (y recorrerlos en mantenimiento)
+ * cuesta tantas filas como grupos y no como movimientos de kardex.
+ */
+@Slf4j
+@Service
+public class GrupoCosteoCatalogoService {
+
+    private static final String SQL_INSERTAR = """
+        INSERT INTO grupos_costeo (clave_agrupacion, empresa_id, custodio_id, cuenta, instrumento_id,
+                                   fecha_primera_transaccion, fecha_ultima_transaccion, total_movimientos,
+                                   fecha_ultimo_costeo, fecha_creacion, creado_por)
+        SELECT k.clave_agrupacion, k.empresa_id, k.custodio_id, COALESCE(k.cuenta, ''), k.instrumento_id,
+               MIN(k.fecha_transaccion), MAX(k.fecha_transaccion), COUNT(*), MAX(k.fecha_costeo),
+               CURRENT_DATE, 'sistema'
+        FROM kardex k
+        %s
+        GROUP BY k.clave_agrupacion, k.empresa_id, k.custodio_id, COALESCE(k.cuenta, ''), k.instrumento_id
+        """;
+
+    private static final String SQL_LISTAR = """
+        SELECT g.empresa_id, g.custodio_id, g.instrumento_id, g.cuenta, g.clave_agrupacion,
+               e.razonsocial, c.custodio, i.nemo,
+               g.fecha_primera_transaccion, g.fecha_ultima_transaccion, g.total_movimientos
+        FROM grupos_costeo g
+        JOIN empresas e ON g.empresa_id = e.id
+        JOIN custodios c ON g.custodio_id = c.id
+        JOIN instrumentos i ON g.instrumento_id = i.id
+        %s
+        ORDER BY e.razonsocial, i.nemo, g.cuenta
+        """;
+
+    private static final int TAMANO_BLOQUE = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Grupos de costeo de la empresa indicada, o de todas si es {@code null}.
+     */
+    @Transactional(readOnly = true)
+    @SuppressWarnings("unchecked")
+    public List<CostingGroupDto> listar(Long empresaId) {
+        Query query = entityManager.createNativeQuery(SQL_LISTAR.formatted(
+                empresaId != null ? "WHERE g.empresa_id = :empresaId" : ""));
+        if (empresaId != null) {
+            query.setParameter("empresaId", empresaId);
+        }
+        List<Object[]> filas = query.getResultList();
+        return filas.stream()
+                .map(fila -> new CostingGroupDto(
+                        ((Number) fila[0]).longValue(),
+                        ((Number) fila[1]).longValue(),
+                        ((Number) fila[2]).longValue(),
+                        (String) fila[3],
+                        (String) fila[4],
+                        (String) fila[5],
+                        (String) fila[6],
+                        (String) fila[7],
+                        aLocalDate(fila[8]),
+                        aLocalDate(fila[9]),
+                        ((Number) fila[10]).longValue()))
+                .toList();
+    }
+
+    /**
+     * Recalcula la fila de los grupos indicados (claves empresaId|cuenta|custodioId|instrumentoId).
+     * Un grupo que quedó sin kardex sale del catálogo.
+     */
+    @Transactional
+    public void refrescarGrupos(Collection<String> clavesGrupo) {
+        if (clavesGrupo.isEmpty()) {
+            return;
+        }
+        entityManager.flush();
+        List<String> claves = new ArrayList<>(clavesGrupo);
+        for (int desde = 0; desde < claves.size(); desde += TAMANO_BLOQUE) {
+            List<String> bloque = claves.subList(desde, Math.min(desde + TAMANO_BLOQUE, claves.size()));
+            entityManager.createNativeQuery("DELETE FROM grupos_costeo WHERE clave_agrupacion IN (:claves)")
+                    .setParameter("claves", bloque)
+                    .executeUpdate();
+            entityManager.createNativeQuery(SQL_INSERTAR.formatted("WHERE k.clave_agrupacion IN (:claves)"))
+                    .setParameter("claves", bloque)
+                    .executeUpdate();
+        }
+        log.debug("Catálogo de grupos refrescado para {} grupos", claves.size());
+    }
+
+    /**
+     * Regenera el catálogo completo desde el kardex.
+     */
+    @Transactional
+    public void reconstruir() {
+        entityManager.flush();
+        entityManager.createNativeQuery("DELETE FROM grupos_costeo").executeUpdate();
+        int filas = entityManager.createNativeQuery(SQL_INSERTAR.formatted("")).executeUpdate();
+        log.info("Catálogo de grupos de costeo reconstruido: {} grupos", filas);
+    }
+
+    /**
+     * Tras fusionar un instrumento se descartan los grupos de ambos, cuyo kardex se limpió;
+     * los del instrumento que absorbe al otro se agregan al recostearse.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void alFusionarInstrumento(InstrumentoFusionadoEvent evento) {
+        entityManager.createNativeQuery("DELETE FROM grupos_costeo WHERE instrumento_id IN (:ids)")
+                .setParameter("ids", List.of(evento.instrumentoAntiguoId(), evento.instrumentoNuevoId()))
+                .executeUpdate();
+    }
+
+    /**
+     * Al iniciar llena el catálogo si está vacío y ya hay kardex (base anterior a él).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void inicializar() {
+        Number grupos = (Number) entityManager.createNativeQuery("SELECT COUNT(*) FROM grupos_costeo").getSingleResult();
+        if (grupos.longValue() == 0) {
+            Number kardex = (Number) entityManager.createNativeQuery("SELECT COUNT(*) FROM kardex").getSingleResult();
+            if (kardex.longValue() > 0) {
+                reconstruir();
+            }
+        }
+    }
+
+    private LocalDate aLocalDate(Object valor) {
+        if (valor == null) return null;
+        return valor instanceof Date fecha ? fecha.toLocalDate() : (LocalDate) valor;
+    }
+}
@@ -1,6 +1,8 @@
 package com.portafolio.costing.service;
 
+import com.portafolio.model.dto.CursorKeyset;
 import com.portafolio.model.dto.KardexDto;
+import com.portafolio.model.dto.PaginaKeyset;
 import com.portafolio.model.dto.SaldoKardexDto;
 import com.portafolio.model.entities.KardexEntity;
 import com.portafolio.model.entities.SaldoKardexEntity;
@@ -112,6 +114,40 @@ public class KardexQueryService {
         return kardexPage.map(kardexMapper::toDto);
     }
 
+    /**
+     * Obtiene una página del kardex de un grupo posterior al cursor (fecha, id), o la primera
+     * si el cursor es null. A diferencia de la paginación por offset, el costo de cada página
+     * no crece con la posición.
+     */
+    public PaginaKeyset<KardexDto> obtenerKardexPagina(
+            Long empresaId, Long custodioId, Long instrumentoId, String cuenta,
+            CursorKeyset despues, int tamano) {
+        
+        var query = entityManager.createQuery("""
+            SELECT k FROM KardexEntity k
+            WHERE k.empresa.id = :empresaId
+              AND k.custodio.id = :custodioId
+              AND k.instrumento.id = :instrumentoId
+              AND k.cuenta = :cuenta
+              %s
+            ORDER BY k.fechaTransaccion ASC, k.id ASC
+            """.formatted(despues != null
+                        ? "AND (k.fechaTransaccion > :fecha OR (k.fechaTransaccion = :fecha AND k.id > :id))"
+                        : ""), KardexEntity.class)
+                .setParameter("empresaId", empresaId)
+                .setParameter("custodioId", custodioId)
+                .setParameter("instrumentoId", instrumentoId)
+                .setParameter("cuenta", cuenta)
+                .setMaxResults(tamano + 1);
+        if (despues != null) {
+            query.setParameter("fecha", despues.fecha())
+                    .setParameter("id", despues.id());
+        }
+        
+        List<KardexDto> filas = kardexMapper.toDtoList(query.getResultList());
+        return PaginaKeyset.desde(filas, tamano, fila -> new CursorKeyset(fila.getFechaTransaccion(), fila.getId()));
+    }
+
     /**
      * Obtiene solo los ingresos disponibles para consumo FIFO en un grupo.
      */
@@ -0,0 +1,158 @@
+package com.portafolio.costing.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Mantiene la tabla kardex_reporte, versión materializada del antiguo join de kardex_view
+ * (kardex, transacciones, instrumentos, tipos y detalle FIFO). El motor de costeo la
+ * refresca solo para los grupos que procesa; los borrados de kardex la limpian en cascada.
+ * kardex_view pasa a ser una proyección simple de esta tabla.
+ */
+@Slf4j
+@Service
+public class KardexReporteService {
+
+    /**
+     * Definición de kardex_view sobre la tabla materializada (mismas columnas que la vista original).
+     */
+    public static final String SQL_VISTA_KARDEX = """
+        CREATE OR REPLACE VIEW `kardex_view` AS
+            SELECT
+                `r`.`transaccion_id` AS `id`,
+                `r`.`empresa_id` AS `empresa_id`,
+                `r`.`custodio_id` AS `custodio_id`,
+                `r`.`cuenta` AS `cuenta`,
+                `r`.`nemo` AS `nemo`,
+                `r`.`nemo_id` AS `nemo_id`,
+                `r`.`fecha_tran` AS `fecha_tran`,
+                `r`.`tipo_oper` AS `tipo_oper`,
+                `r`.`cant_compra` AS `cant_compra`,
+                `r`.`precio_compra` AS `precio_compra`,
+                `r`.`monto_compra` AS `monto_compra`,
+                `r`.`total_fact` AS `total_fact`,
+                `r`.`cant_usada` AS `cant_usada`,
+                `r`.`fecha_compra` AS `fecha_compra`,
+                `r`.`costo_fifo` AS `costo_fifo`,
+                `r`.`precio_venta` AS `precio_venta`,
+                `r`.`costo_oper` AS `costo_oper`,
+                `r`.`margen` AS `margen`,
+                `r`.`utilidad` AS `utilidad`,
+                `r`.`saldo_cantidad` AS `saldo_cantidad`,
+                `r`.`saldo_valor` AS `saldo_valor`
+            FROM `kardex_reporte` `r`
+        """;
+
+    /**
+     * Se inserta en orden de kardex, de modo que el id de kardex_reporte sirve de
+     * desempate dentro de una fecha para la paginación por (fecha_tran, id).
+     */
+    private static final String SQL_INSERTAR = """
+        INSERT INTO kardex_reporte (kardex_id, transaccion_id, clave_agrupacion, empresa_id, custodio_id, cuenta,
+                                    nemo, nemo_id, fecha_tran, tipo_oper, cant_compra, precio_compra, monto_compra,
+                                    total_fact, cant_usada, fecha_compra, costo_fifo, precio_venta, costo_oper,
+                                    margen, utilidad, saldo_cantidad, saldo_valor, ingreso_id,
+                                    fecha_creacion, creado_por)
+        SELECT k.id, t.id, k.clave_agrupacion, t.empresa_id, t.custodio_id, t.cuenta,
+               i.nemo, i.id, k.fecha_transaccion, tc.tipo_contable,
+               CASE WHEN tc.tipo_contable = 'INGRESO' THEN k.cantidad END,
+               CASE WHEN tc.tipo_contable = 'INGRESO' THEN t.precio END,
+               CASE WHEN tc.tipo_contable = 'INGRESO' THEN t.precio * k.cantidad END,
+               CASE WHEN tc.tipo_contable = 'EGRESO' THEN k.cantidad END,
+               CASE WHEN tc.tipo_contable = 'EGRESO' THEN dc.cantidad_usada END,
+               CASE WHEN tc.tipo_contable = 'EGRESO' THEN ti.fecha_transaccion END,
+               CASE WHEN tc.tipo_contable = 'EGRESO' THEN ti.precio END,
+               CASE WHEN tc.tipo_contable = 'EGRESO' THEN t.precio END,
+               CASE WHEN tc.tipo_contable = 'EGRESO' THEN dc.cantidad_usada * ti.precio END,
+               CASE WHEN tc.tipo_contable = 'EGRESO' THEN t.precio - ti.precio END,
+               CASE WHEN tc.tipo_contable = 'EGRESO' THEN (t.precio - ti.precio) * dc.cantidad_usada END,
+               k.saldo_cantidad, k.saldo_valor, dc.ingreso_id,
+               CURRENT_DATE, 'sistema'
+        FROM kardex k
+        JOIN transacciones t ON k.transaccion_id = t.id
+        JOIN instrumentos i ON t.instrumento_id = i.id
+        JOIN tipo_movimientos tm ON t.movimiento_id = tm.id
+        JOIN tipos_contables tc ON tm.movimiento_contable_id = tc.id
+        LEFT JOIN detalle_costeos dc ON t.id = dc.egreso_id
+        LEFT JOIN transacciones ti ON dc.ingreso_id = ti.id
+        %s
+        ORDER BY k.fecha_transaccion, k.id, dc.id
+        """;
+
+    private static final int TAMANO_BLOQUE = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Vuelve a generar las filas de reporte de los grupos indicados
+     * (claves empresaId|cuenta|custodioId|instrumentoId). Debe llamarse con el
+     * kardex del grupo ya escrito, dentro de la transacción del costeo.
+     */
+    @Transactional
+    public void refrescarGrupos(Collection<String> clavesGrupo) {
+        if (clavesGrupo.isEmpty()) {
+            return;
+        }
+        entityManager.flush();
+        List<String> claves = new ArrayList<>(clavesGrupo);
+        int filas = 0;
+        for (int desde = 0; desde < claves.size(); desde += TAMANO_BLOQUE) {
+            List<String> bloque = claves.subList(desde, Math.min(desde + TAMANO_BLOQUE, claves.size()));
+            entityManager.createNativeQuery("DELETE FROM kardex_reporte WHERE clave_agrupacion IN (:claves)")
+                    .setParameter("claves", bloque)
+                    .executeUpdate();
+            filas += entityManager.createNativeQuery(SQL_INSERTAR.formatted("WHERE k.clave_agrupacion IN (:claves)"))
+                    .setParameter("claves", bloque)
+                    .executeUpdate();
+        }
+        log.debug("Kardex de reporte refrescado: {} grupos, {} filas", claves.size(), filas);
+    }
+
+    /**
+     * Regenera la tabla completa desde el kardex.
+     */
+    @Transactional
+    public int reconstruir() {
+        entityManager.flush();
+        entityManager.createNativeQuery("DELETE FROM kardex_reporte").executeUpdate();
+        int filas = entityManager.createNativeQuery(SQL_INSERTAR.formatted("")).executeUpdate();
+        log.info("Kardex de reporte reconstruido: {} filas", filas);
+        return filas;
+    }
+
+    /**
+     * Al iniciar: si la tabla está vacía pero hay kardex (base anterior a la tabla) la
+     * llena, y redefine kardex_view sobre ella si todavía usa el join original.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void inicializar() {
+        Number reporte = (Number) entityManager.createNativeQuery("SELECT COUNT(*) FROM kardex_reporte").getSingleResult();
+        if (reporte.longValue() == 0) {
+            Number kardex = (Number) entityManager.createNativeQuery("SELECT COUNT(*) FROM kardex").getSingleResult();
+            if (kardex.longValue() > 0) {
+                reconstruir();
+            }
+        }
+
+        Number materializada = (Number) entityManager.createNativeQuery("""
+                SELECT COUNT(*) FROM information_schema.VIEWS
+                WHERE TABLE_NAME = 'kardex_view' AND TABLE_SCHEMA = DATABASE()
+                  AND VIEW_DEFINITION LIKE '%kardex_reporte%'
+                """).getSingleResult();
+        if (materializada.intValue() == 0) {
+            entityManager.createNativeQuery(SQL_VISTA_KARDEX).executeUpdate();
+            log.info("Vista 'kardex_view' redefinida sobre kardex_reporte");
+        }
+    }
+}
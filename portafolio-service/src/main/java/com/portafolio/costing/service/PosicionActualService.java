@@ -0,0 +1,196 @@
+package com.portafolio.costing.service;
+
+import com.portafolio.masterdata.event.InstrumentoFusionadoEvent;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Mantiene posiciones_actuales: una fila por grupo con el último saldo del kardex y el
+ * último saldo de mercado. saldos_view pasa a agregar esta tabla en lugar de buscar la
+ * fecha máxima con subconsultas correlacionadas sobre todo el historial.
+ */
+@Slf4j
+@Service
+public class PosicionActualService {
+
+    /**
+     * Definición de saldos_view sobre posiciones_actuales (mismas columnas que la vista original).
+     */
+    public static final String SQL_VISTA_SALDOS = """
+        CREATE OR REPLACE VIEW saldos_view AS
+            SELECT
+                `p`.`instrumento_id` AS `nemo_id`,
+                `p`.`empresa_id` AS `empresa_id`,
+                `p`.`custodio_id` AS `custodio_id`,
+                SUM(`p`.`saldo_cantidad`) AS `saldo_cantidad`,
+                SUM(`p`.`saldo_valor`) AS `costo_total`,
+                (CASE
+                    WHEN (SUM(`p`.`saldo_cantidad`) > 0) THEN (SUM(`p`.`saldo_valor`) / SUM(`p`.`saldo_cantidad`))
+                    ELSE 0
+                END) AS `costo_unitario`,
+                SUM(`p`.`cantidad_mercado`) AS `cantidad_mercado`,
+                SUM(`p`.`valor_mercado`) AS `valor_mercado`
+            FROM `posiciones_actuales` `p`
+            GROUP BY `p`.`instrumento_id`, `p`.`empresa_id`, `p`.`custodio_id`
+            HAVING (`saldo_cantidad` > 0)
+        """;
+
+    /**
+     * Último movimiento de kardex de cada grupo (por fecha e id).
+     */
+    private static final String SQL_UPSERT_KARDEX = """
+        INSERT INTO posiciones_actuales (clave_agrupacion, empresa_id, custodio_id, instrumento_id, cuenta,
+                                         fecha_kardex, saldo_cantidad, saldo_valor, fecha_creacion, creado_por)
+        SELECT u.clave_agrupacion, u.empresa_id, u.custodio_id, u.instrumento_id, COALESCE(u.cuenta, ''),
+               u.fecha_transaccion, u.saldo_cantidad, u.saldo_valor, CURRENT_DATE, 'sistema'
+        FROM (
+            SELECT k.clave_agrupacion, k.empresa_id, k.custodio_id, k.instrumento_id, k.cuenta,
+                   k.fecha_transaccion, k.saldo_cantidad, k.saldo_valor,
+                   ROW_NUMBER() OVER (PARTITION BY k.empresa_id, k.custodio_id, k.instrumento_id, k.cuenta
+                                      ORDER BY k.fecha_transaccion DESC, k.id DESC) AS rn
+            FROM kardex k
+            %s
+        ) u
+        WHERE u.rn = 1
+        ON DUPLICATE KEY UPDATE
+            fecha_kardex = VALUES(fecha_kardex),
+            saldo_cantidad = VALUES(saldo_cantidad),
+            saldo_valor = VALUES(saldo_valor),
+            fecha_modificacion = CURRENT_DATE,
+            modificado_por = 'sistema'
+        """;
+
+    /**
+     * Saldos de mercado de la última fecha de cada grupo (sumados si hay más de uno ese día).
+     */
+    private static final String SQL_UPSERT_MERCADO = """
+        INSERT INTO posiciones_actuales (clave_agrupacion, empresa_id, custodio_id, instrumento_id, cuenta,
+                                         fecha_mercado, cantidad_mercado, valor_mercado, fecha_creacion, creado_por)
+        SELECT CONCAT_WS('|', u.empresa_id, u.cuenta, u.custodio_id, u.instrumento_id),
+               u.empresa_id, u.custodio_id, u.instrumento_id, u.cuenta,
+               u.fecha, SUM(u.cantidad), SUM(u.monto_clp), CURRENT_DATE, 'sistema'
+        FROM (
+            SELECT s.empresa_id, s.custodio_id, s.instrumento_id, s.cuenta, s.fecha, s.cantidad, s.monto_clp,
+                   RANK() OVER (PARTITION BY s.empresa_id, s.custodio_id, s.instrumento_id, s.cuenta
+                                ORDER BY s.fecha DESC) AS rk
+            FROM saldos s
+        ) u
+        WHERE u.rk = 1
+        GROUP BY u.empresa_id, u.custodio_id, u.instrumento_id, u.cuenta, u.fecha
+        ON DUPLICATE KEY UPDATE
+            fecha_mercado = VALUES(fecha_mercado),
+            cantidad_mercado = VALUES(cantidad_mercado),
+            valor_mercado = VALUES(valor_mercado),
+            fecha_modificacion = CURRENT_DATE,
+            modificado_por = 'sistema'
+        """;
+
+    private static final int TAMANO_BLOQUE = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Actualiza el saldo de kardex de los grupos recién costeados. Un grupo que quedó
+     * sin kardex conserva su fila con saldo cero.
+     */
+    @Transactional
+    public void refrescarGrupos(Collection<String> clavesGrupo) {
+        if (clavesGrupo.isEmpty()) {
+            return;
+        }
+        entityManager.flush();
+        List<String> claves = new ArrayList<>(clavesGrupo);
+        for (int desde = 0; desde < claves.size(); desde += TAMANO_BLOQUE) {
+            List<String> bloque = claves.subList(desde, Math.min(desde + TAMANO_BLOQUE, claves.size()));
+            entityManager.createNativeQuery("""
+                    UPDATE posiciones_actuales
+                    SET fecha_kardex = NULL, saldo_cantidad = 0, saldo_valor = 0
+                    WHERE clave_agrupacion IN (:claves)
+                    """)
+                    .setParameter("claves", bloque)
+                    .executeUpdate();
+            entityManager.createNativeQuery(SQL_UPSERT_KARDEX.formatted("WHERE k.clave_agrupacion IN (:claves)"))
+                    .setParameter("claves", bloque)
+                    .executeUpdate();
+        }
+        log.debug("Posiciones actuales refrescadas para {} grupos", claves.size());
+    }
+
+    /**
+     * Recalcula el último saldo de mercado de todos los grupos desde la tabla saldos.
+     * Debe invocarse después de cargar saldos.
+     */
+    @Transactional
+    public void refrescarMercado() {
+        entityManager.createNativeQuery("""
+                UPDATE posiciones_actuales
+                SET fecha_mercado = NULL, cantidad_mercado = NULL, valor_mercado = NULL
+                """).executeUpdate();
+        entityManager.createNativeQuery(SQL_UPSERT_MERCADO).executeUpdate();
+        log.info("Saldos de mercado de posiciones actuales refrescados");
+    }
+
+    /**
+     * Regenera la tabla completa desde kardex y saldos.
+     */
+    @Transactional
+    public void reconstruir() {
+        entityManager.flush();
+        entityManager.createNativeQuery("DELETE FROM posiciones_actuales").executeUpdate();
+        entityManager.createNativeQuery(SQL_UPSERT_KARDEX.formatted("")).executeUpdate();
+        entityManager.createNativeQuery(SQL_UPSERT_MERCADO).executeUpdate();
+        Number filas = (Number) entityManager.createNativeQuery("SELECT COUNT(*) FROM posiciones_actuales").getSingleResult();
+        log.info("Posiciones actuales reconstruidas: {} grupos", filas);
+    }
+
+    /**
+     * Tras una fusión se descartan las posiciones de ambos instrumentos (el kardex de los dos
+     * se limpió) y se recalculan los saldos de mercado, reasignados al que absorbe.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void alFusionarInstrumento(InstrumentoFusionadoEvent evento) {
+        entityManager.createNativeQuery("DELETE FROM posiciones_actuales WHERE instrumento_id IN (:ids)")
+                .setParameter("ids", List.of(evento.instrumentoAntiguoId(), evento.instrumentoNuevoId()))
+                .executeUpdate();
+        refrescarMercado();
+    }
+
+    /**
+     * Al iniciar: llena la tabla si está vacía (base anterior a ella), refresca los saldos
+     * de mercado (se cargan fuera de la aplicación) y redefine saldos_view sobre la tabla
+     * si todavía usa las subconsultas originales.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void inicializar() {
+        Number posiciones = (Number) entityManager.createNativeQuery("SELECT COUNT(*) FROM posiciones_actuales").getSingleResult();
+        if (posiciones.longValue() == 0) {
+            reconstruir();
+        } else {
+            refrescarMercado();
+        }
+
+        Number materializada = (Number) entityManager.createNativeQuery("""
+                SELECT COUNT(*) FROM information_schema.VIEWS
+                WHERE TABLE_NAME = 'saldos_view' AND TABLE_SCHEMA = DATABASE()
+                  AND VIEW_DEFINITION LIKE '%posiciones_actuales%'
+                """).getSingleResult();
+        if (materializada.intValue() == 0) {
+            entityManager.createNativeQuery(SQL_VISTA_SALDOS).executeUpdate();
+            log.info("Vista 'saldos_view' redefinida sobre posiciones_actuales");
+        }
+    }
+}
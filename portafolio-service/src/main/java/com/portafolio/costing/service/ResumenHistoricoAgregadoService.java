@@ -0,0 +1,148 @@
+package com.portafolio.costing.service;
+
+import com.portafolio.masterdata.event.InstrumentoFusionadoEvent;
+import com.portafolio.normalizar.event.CargaNormalizadaEvent;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Mantiene resumen_historico: por grupo de costeo, el costo FIFO, la utilidad y los gastos
+ * de los egresos, los dividendos y el saldo neto del kardex. Se recalcula solo para los
+ * grupos que costea el motor o que reciben transacciones en una carga (dividendos), de modo
+ * que el resumen histórico no recorra kardex y detalle de costeo en cada consulta.
+ */
+@Slf4j
+@Service
+public class ResumenHistoricoAgregadoService {
+
+    private static final String SQL_INSERTAR = """
+        INSERT INTO resumen_historico (clave_agrupacion, empresa_id, custodio_id, cuenta, instrumento_id,
+                                       costo_fifo, utilidad, gasto, dividendo, saldo_cantidad,
+                                       fecha_creacion, creado_por)
+        SELECT CONCAT_WS('|', x.empresa_id, COALESCE(x.cuenta, ''), x.custodio_id, x.instrumento_id),
+               x.empresa_id, x.custodio_id, COALESCE(x.cuenta, ''), x.instrumento_id,
+               SUM(x.costo_fifo), SUM(x.utilidad), SUM(x.gasto), SUM(x.dividendo), SUM(x.saldo_cantidad),
+               CURRENT_DATE, 'sistema'
+        FROM (
+            SELECT t.empresa_id, t.custodio_id, t.cuenta, t.instrumento_id,
+                   ti.precio * dc.cantidad_usada AS costo_fifo,
+                   (t.precio - ti.precio) * dc.cantidad_usada AS utilidad,
+                   COALESCE(t.gasto, 0) + COALESCE(t.comision, 0) + COALESCE(t.iva, 0) AS gasto,
+                   0 AS dividendo,
+                   0 AS saldo_cantidad
+            FROM detalle_costeos dc
+            JOIN transacciones t ON dc.egreso_id = t.id
+            JOIN transacciones ti ON dc.ingreso_id = ti.id
+            JOIN tipo_movimientos tm ON t.movimiento_id = tm.id
+            JOIN tipos_contables tc ON tm.movimiento_contable_id = tc.id
+            WHERE tc.tipo_contable = 'EGRESO' %1$s
+            UNION ALL
+            SELECT k.empresa_id, k.custodio_id, k.cuenta, k.instrumento_id, 0, 0, 0, 0,
+                   CASE WHEN k.tipo_contable = 'INGRESO' THEN k.cantidad ELSE -k.cantidad END
+            FROM kardex k
+            %2$s
+            UNION ALL
+            SELECT t.empresa_id, t.custodio_id, t.cuenta, t.instrumento_id, 0, 0, 0, COALESCE(t.monto_clp, 0), 0
+            FROM transacciones t
+            JOIN tipo_movimientos tm ON t.movimiento_id = tm.id
+            WHERE tm.tipo_movimiento LIKE '%%Dividendo%%' %3$s
+        ) x
+        GROUP BY x.empresa_id, x.custodio_id, COALESCE(x.cuenta, ''), x.instrumento_id
+        """;
+
+    private static final int TAMANO_BLOQUE = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Recalcula el resumen de los grupos indicados (claves empresaId|cuenta|custodioId|instrumentoId).
+     */
+    @Transactional
+    public void refrescarGrupos(Collection<String> clavesGrupo) {
+        if (clavesGrupo.isEmpty()) {
+            return;
+        }
+        entityManager.flush();
+        List<String> claves = new ArrayList<>(clavesGrupo);
+        for (int desde = 0; desde < claves.size(); desde += TAMANO_BLOQUE) {
+            List<String> bloque = claves.subList(desde, Math.min(desde + TAMANO_BLOQUE, claves.size()));
+            Set<Long> instrumentos = bloque.stream()
+                    .map(clave -> Long.valueOf(clave.substring(clave.lastIndexOf('|') + 1)))
+                    .collect(Collectors.toSet());
+
+            entityManager.createNativeQuery("DELETE FROM resumen_historico WHERE clave_agrupacion IN (:claves)")
+                    .setParameter("claves", bloque)
+                    .executeUpdate();
+            entityManager.createNativeQuery(SQL_INSERTAR.formatted(
+                            "AND dc.clave_agrupacion IN (:claves)",
+                            "WHERE k.clave_agrupacion IN (:claves)",
+                            "AND t.instrumento_id IN (:instrumentos) "
+                                    + "AND CONCAT_WS('|', t.empresa_id, t.cuenta, t.custodio_id, t.instrumento_id) IN (:claves)"))
+                    .setParameter("claves", bloque)
+                    .setParameter("instrumentos", instrumentos)
+                    .executeUpdate();
+        }
+        log.debug("Resumen histórico refrescado para {} grupos", claves.size());
+    }
+
+    /**
+     * Regenera la tabla completa.
+     */
+    @Transactional
+    public void reconstruir() {
+        entityManager.flush();
+        entityManager.createNativeQuery("DELETE FROM resumen_historico").executeUpdate();
+        int filas = entityManager.createNativeQuery(SQL_INSERTAR.formatted("", "", "")).executeUpdate();
+        log.info("Resumen histórico reconstruido: {} grupos", filas);
+    }
+
+    /**
+     * Una carga normalizada puede traer dividendos, que no pasan por el costeo.
+     */
+    @EventListener
+    @Transactional
+    public void onCargaNormalizada(CargaNormalizadaEvent evento) {
+        refrescarGrupos(evento.gruposAfectados());
+    }
+
+    /**
+     * Tras fusionar un instrumento se descartan las filas de ambos; el instrumento que
+     * absorbe al otro se recalcula al recostearse.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void alFusionarInstrumento(InstrumentoFusionadoEvent evento) {
+        entityManager.createNativeQuery("DELETE FROM resumen_historico WHERE instrumento_id IN (:ids)")
+                .setParameter("ids", List.of(evento.instrumentoAntiguoId(), evento.instrumentoNuevoId()))
+                .executeUpdate();
+    }
+
+    /**
+     * Al iniciar llena la tabla si está vacía y ya hay transacciones (base anterior a ella).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void inicializar() {
+        Number filas = (Number) entityManager.createNativeQuery("SELECT COUNT(*) FROM resumen_historico").getSingleResult();
+        if (filas.longValue() == 0) {
+            Number transacciones = (Number) entityManager.createNativeQuery("SELECT COUNT(*) FROM transacciones").getSingleResult();
+            if (transacciones.longValue() > 0) {
+                reconstruir();
+            }
+        }
+    }
+}
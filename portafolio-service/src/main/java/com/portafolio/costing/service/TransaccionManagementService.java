@@ -5,8 +5,10 @@ import com.portafolio.model.entities.TransaccionEntity;
 import com.portafolio.model.enums.TipoEnumsCosteo;
 import com.portafolio.persistence.repositorio.TransaccionRepository;
 import com.portafolio.mapper.TransaccionMapper;
+import com.portafolio.ui.service.cache.DatosReporteModificadosEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -32,6 +34,7 @@ public class TransaccionManagementService {
     private final EntityManager entityManager;
     private final TransaccionRepository transaccionRepository;
     private final TransaccionMapper transaccionMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     // ===== CONSULTAS DE TRANSACCIONES =====
 
@@ -54,6 +57,8 @@ public class TransaccionManagementService {
               AND t.costeado = false
               AND t.paraRevision = false
               AND t.ignorarEnCosteo = false
+              AND t.duplicadoSospechoso = false
+              AND t.instrumento.similarAId IS NULL
             ORDER BY t.fechaTransaccion ASC,
                      CASE WHEN tm.esSaldoInicial = true THEN 0 ELSE 1 END,
                      CASE WHEN mc.tipoContable = 'INGRESO' THEN 2 ELSE 3 END,
@@ -213,6 +218,7 @@ public class TransaccionManagementService {
                 .executeUpdate();
         
         log.info("Marcadas {} transacciones para revisión", transaccionesActualizadas);
+        publicarCambio(transaccionesActualizadas, "marcado para revisión");
         return transaccionesActualizadas;
     }
 
@@ -237,6 +243,7 @@ public class TransaccionManagementService {
                 .executeUpdate();
         
         log.info("Desmarcadas {} transacciones de revisión", transaccionesActualizadas);
+        publicarCambio(transaccionesActualizadas, "desmarcado de revisión");
         return transaccionesActualizadas;
     }
 
@@ -271,6 +278,7 @@ public class TransaccionManagementService {
                 .executeUpdate();
         
         log.info("Ignoradas {} transacciones en costeo", transaccionesActualizadas);
+        publicarCambio(transaccionesActualizadas, "transacciones ignoradas en costeo");
         return transaccionesActualizadas;
     }
 
@@ -296,9 +304,19 @@ public class TransaccionManagementService {
                 .executeUpdate();
         
         log.info("Restauradas {} transacciones al proceso de costeo", transaccionesActualizadas);
+        publicarCambio(transaccionesActualizadas, "transacciones restauradas al costeo");
         return transaccionesActualizadas;
     }
 
+    /**
+     * Los cambios de estado alteran los reportes de transacciones y problemas: invalida sus cachés.
+     */
+    private void publicarCambio(int transaccionesActualizadas, String origen) {
+        if (transaccionesActualizadas > 0) {
+            eventPublisher.publishEvent(new DatosReporteModificadosEvent(origen));
+        }
+    }
+
     // ===== CONSULTAS ESPECIALIZADAS =====
 
     /**
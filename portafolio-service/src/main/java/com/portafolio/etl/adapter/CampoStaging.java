@@ -0,0 +1,72 @@
+package com.portafolio.etl.adapter;
+
+import com.portafolio.etl.interfaces.RegistroFuente;
+import com.portafolio.model.entities.CargaTransaccionEntity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.function.BiConsumer;
+
+/**
+ * Campos de carga_transacciones que un adaptador de custodio puede poblar.
+ */
+public enum CampoStaging {
+
+    FECHA_TRANSACCION(TipoValor.FECHA, (e, v) -> e.setFechaTransaccion((LocalDate) v)),
+    RAZON_SOCIAL(TipoValor.TEXTO, (e, v) -> e.setRazonSocial((String) v)),
+    RUT(TipoValor.TEXTO, (e, v) -> e.setRut((String) v)),
+    CUENTA(TipoValor.TEXTO, (e, v) -> e.setCuenta((String) v)),
+    CUSTODIO(TipoValor.TEXTO, (e, v) -> e.setCustodioNombre((String) v)),
+    FOLIO(TipoValor.TEXTO, (e, v) -> e.setFolio((String) v)),
+    TIPO_MOVIMIENTO(TipoValor.TEXTO, (e, v) -> e.setTipoMovimiento((String) v)),
+    MOVIMIENTO_CAJA(TipoValor.TEXTO, (e, v) -> e.setMovimientoCaja((String) v)),
+    PRODUCTO(TipoValor.TEXTO, (e, v) -> e.setProducto((String) v)),
+    GLOSA(TipoValor.TEXTO, (e, v) -> e.setGlosa((String) v)),
+    INSTRUMENTO_NEMO(TipoValor.TEXTO, (e, v) -> e.setInstrumentoNemo((String) v)),
+    INSTRUMENTO_NOMBRE(TipoValor.TEXTO, (e, v) -> e.setInstrumentoNombre((String) v)),
+    MONEDA(TipoValor.TEXTO, (e, v) -> e.setMoneda((String) v)),
+    CANTIDAD(TipoValor.DECIMAL, (e, v) -> e.setCantidad((BigDecimal) v)),
+    PRECIO(TipoValor.DECIMAL, (e, v) -> e.setPrecio((BigDecimal) v)),
+    MONTO(TipoValor.DECIMAL, (e, v) -> e.setMonto((BigDecimal) v)),
+    MONTO_TOTAL(TipoValor.DECIMAL, (e, v) -> e.setMontoTotal((BigDecimal) v)),
+    COMISION(TipoValor.DECIMAL, (e, v) -> e.setComision((BigDecimal) v)),
+    GASTOS(TipoValor.DECIMAL, (e, v) -> e.setGastos((BigDecimal) v)),
+    IVA(TipoValor.DECIMAL, (e, v) -> e.setIva((BigDecimal) v)),
+    CUENTA_PSH(TipoValor.TEXTO, (e, v) -> e.setCuentaPsh((String) v)),
+    CANT_LIBRE(TipoValor.DECIMAL, (e, v) -> e.setCantLibre((BigDecimal) v)),
+    CANT_GARANTIA(TipoValor.DECIMAL, (e, v) -> e.setCantGarantia((BigDecimal) v)),
+    CANT_PLAZO(TipoValor.DECIMAL, (e, v) -> e.setCantPlazo((BigDecimal) v)),
+    CANT_VC(TipoValor.DECIMAL, (e, v) -> e.setCantVc((BigDecimal) v)),
+    CANT_TOTAL(TipoValor.DECIMAL, (e, v) -> e.setCantTotal((BigDecimal) v)),
+    MONTO_CLP(TipoValor.DECIMAL, (e, v) -> e.setMontoClp((BigDecimal) v)),
+    MONTO_USD(TipoValor.DECIMAL, (e, v) -> e.setMontoUsd((BigDecimal) v));
+
+    public enum TipoValor { TEXTO, DECIMAL, FECHA }
+
+    private final TipoValor tipo;
+    private final BiConsumer<CargaTransaccionEntity, Object> setter;
+
+    CampoStaging(TipoValor tipo, BiConsumer<CargaTransaccionEntity, Object> setter) {
+        this.tipo = tipo;
+        this.setter = setter;
+    }
+
+    public TipoValor getTipo() {
+        return tipo;
+    }
+
+    /**
+     * Lee la columna del registro según el tipo del campo.
+     */
+    public Object leer(RegistroFuente registro, int columna, OpcionesParseo opciones) {
+        return switch (tipo) {
+            case TEXTO -> registro.getString(columna);
+            case DECIMAL -> registro.getBigDecimal(columna, opciones);
+            case FECHA -> registro.getLocalDate(columna, opciones);
+        };
+    }
+
+    public void asignar(CargaTransaccionEntity entidad, Object valor) {
+        setter.accept(entidad, valor);
+    }
+}
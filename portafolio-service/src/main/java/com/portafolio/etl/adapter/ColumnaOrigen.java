@@ -0,0 +1,35 @@
+package com.portafolio.etl.adapter;
+
+import lombok.Getter;
+
+/**
+ * Ubicación de una columna en el archivo: por nombre de encabezado o por índice fijo.
+ */
+@Getter
+public final class ColumnaOrigen {
+
+    private final String encabezado;
+    private final int indice;
+
+    private ColumnaOrigen(String encabezado, int indice) {
+        this.encabezado = encabezado;
+        this.indice = indice;
+    }
+
+    public static ColumnaOrigen porEncabezado(String encabezado) {
+        return new ColumnaOrigen(encabezado, -1);
+    }
+
+    public static ColumnaOrigen porIndice(int indice) {
+        return new ColumnaOrigen(null, indice);
+    }
+
+    public boolean esPorEncabezado() {
+        return encabezado != null;
+    }
+
+    @Override
+    public String toString() {
+        return esPorEncabezado() ? "'" + encabezado + "'" : "#" + indice;
+    }
+}
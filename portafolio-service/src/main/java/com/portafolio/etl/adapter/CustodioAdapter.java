@@ -0,0 +1,41 @@
+package com.portafolio.etl.adapter;
+
+import java.util.Map;
+
+/**
+ * SPI para incorporar un custodio sin tocar el núcleo del ETL.
+ * Cada implementación registrada como bean se descubre al iniciar la aplicación.
+ */
+public interface CustodioAdapter {
+
+    /**
+     * Clave del custodio en minúsculas (ej. "pershing").
+     */
+    String getClave();
+
+    /**
+     * Tipo de registro de la hoja (S, T, C) o vacío si la hoja se omite.
+     */
+    String determinarTipoHoja(int indiceHoja, String nombreHoja);
+
+    /**
+     * Índice (base 0) de la fila de encabezado; los datos comienzan en la fila siguiente.
+     */
+    int getFilaEncabezado(String tipoHoja);
+
+    /**
+     * Columnas del archivo para cada campo de staging del tipo de hoja indicado.
+     */
+    Map<CampoStaging, ColumnaOrigen> getColumnas(String tipoHoja);
+
+    /**
+     * Valores constantes para campos que el archivo no trae (ej. nombre del custodio).
+     */
+    default Map<CampoStaging, Object> getValoresFijos(String tipoHoja) {
+        return Map.of();
+    }
+
+    default OpcionesParseo getOpciones() {
+        return OpcionesParseo.POR_DEFECTO;
+    }
+}
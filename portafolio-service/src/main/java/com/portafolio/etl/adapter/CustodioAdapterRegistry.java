@@ -0,0 +1,54 @@
+package com.portafolio.etl.adapter;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Registro de adaptadores de custodio descubiertos en el contexto de Spring.
+ * Valida al iniciar que las claves sean únicas y que las columnas por índice sean válidas.
+ */
+@Slf4j
+@Component
+public class CustodioAdapterRegistry {
+
+    private final Map<String, CustodioAdapter> adaptadores = new HashMap<>();
+
+    public CustodioAdapterRegistry(List<CustodioAdapter> adapters) {
+        for (CustodioAdapter adapter : adapters) {
+            String clave = adapter.getClave().toLowerCase();
+            if (adaptadores.putIfAbsent(clave, adapter) != null) {
+                throw new IllegalStateException("Adaptador de custodio duplicado: " + clave);
+            }
+            validar(adapter);
+        }
+        log.info("Adaptadores de custodio registrados: {}", adaptadores.keySet());
+    }
+
+    public Optional<CustodioAdapter> buscar(String clave) {
+        return clave == null ? Optional.empty() : Optional.ofNullable(adaptadores.get(clave.toLowerCase()));
+    }
+
+    public Set<String> getClaves() {
+        return Collections.unmodifiableSet(adaptadores.keySet());
+    }
+
+    // ===== MÉTODOS PRIVADOS =====
+
+    private void validar(CustodioAdapter adapter) {
+        for (String tipo : List.of("S", "T", "C")) {
+            adapter.getColumnas(tipo).forEach((campo, origen) -> {
+                if (!origen.esPorEncabezado() && origen.getIndice() < 0) {
+                    throw new IllegalStateException(String.format("Índice de columna inválido en %s/%s para %s",
+                            adapter.getClave(), tipo, campo));
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.portafolio.etl.adapter;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.math.BigDecimal;
+
+/**
+ * Definiciones de los custodios con los que opera la aplicación. Un custodio nuevo
+ * se incorpora agregando aquí (o en cualquier otra configuración) su DefinicionCustodio.
+ */
+@Configuration
+public class CustodiosConfig {
+
+    /**
+     * Fynsa: hoja "Stock" con saldos y dos hojas "Mvto", la primera de caja y la segunda
+     * de transacciones. El encabezado está en la primera fila.
+     */
+    @Bean
+    public CustodioAdapter fynsa() {
+        DefinicionCustodio.Builder builder = DefinicionCustodio.builder("fynsa")
+                .hoja("S", DefinicionCustodio.nombreEmpiezaCon("stock"))
+                .hoja("C", DefinicionCustodio.nombreEmpiezaCon("mvto").and(DefinicionCustodio.indiceHoja(0)))
+                .hoja("T", DefinicionCustodio.nombreEmpiezaCon("mvto").and(DefinicionCustodio.indiceHoja(1)));
+
+        for (String tipo : new String[]{"S", "T", "C"}) {
+            builder.filaEncabezado(tipo, 0)
+                    .columna(tipo, CampoStaging.FECHA_TRANSACCION, ColumnaOrigen.porEncabezado("Fecha"))
+                    .columna(tipo, CampoStaging.RAZON_SOCIAL, ColumnaOrigen.porEncabezado("Razón Social"))
+                    .columna(tipo, CampoStaging.RUT, ColumnaOrigen.porEncabezado("Rut"))
+                    .columna(tipo, CampoStaging.CUENTA, ColumnaOrigen.porEncabezado("Cuenta"))
+                    .columna(tipo, CampoStaging.CUSTODIO, ColumnaOrigen.porEncabezado("Custodio"))
+                    .columna(tipo, CampoStaging.INSTRUMENTO_NEMO, ColumnaOrigen.porEncabezado("Nemotécnico"))
+                    .columna(tipo, CampoStaging.INSTRUMENTO_NOMBRE, ColumnaOrigen.porEncabezado("Instrumento"))
+                    .columna(tipo, CampoStaging.MONEDA, ColumnaOrigen.porEncabezado("Moneda"))
+                    .columna(tipo, CampoStaging.PRECIO, ColumnaOrigen.porEncabezado("Precio"));
+        }
+
+        builder.valorFijo("S", CampoStaging.TIPO_MOVIMIENTO, "SALDO")
+                .columna("S", CampoStaging.CUENTA_PSH, ColumnaOrigen.porEncabezado("Cuenta PSH"))
+                .columna("S", CampoStaging.CANTIDAD, ColumnaOrigen.porEncabezado("Cantidad Total"))
+                .columna("S", CampoStaging.CANT_TOTAL, ColumnaOrigen.porEncabezado("Cantidad Total"))
+                .columna("S", CampoStaging.CANT_LIBRE, ColumnaOrigen.porEncabezado("Cantidad Libre"))
+                .columna("S", CampoStaging.CANT_GARANTIA, ColumnaOrigen.porEncabezado("Cantidad Garantía"))
+                .columna("S", CampoStaging.CANT_PLAZO, ColumnaOrigen.porEncabezado("Cantidad Plazo"))
+                .columna("S", CampoStaging.CANT_VC, ColumnaOrigen.porEncabezado("Cantidad VC"))
+                .columna("S", CampoStaging.MONTO_CLP, ColumnaOrigen.porEncabezado("Monto CLP"))
+                .columna("S", CampoStaging.MONTO_USD, ColumnaOrigen.porEncabezado("Monto USD"));
+
+        for (String tipo : new String[]{"T", "C"}) {
+            builder.columna(tipo, CampoStaging.TIPO_MOVIMIENTO, ColumnaOrigen.porEncabezado("Tipo Movimiento"))
+                    .columna(tipo, CampoStaging.FOLIO, ColumnaOrigen.porEncabezado("Folio"))
+                    .columna(tipo, CampoStaging.CANTIDAD, ColumnaOrigen.porEncabezado("Cantidad"))
+                    .columna(tipo, CampoStaging.MONTO, ColumnaOrigen.porEncabezado("Monto"));
+        }
+        builder.columna("T", CampoStaging.COMISION, ColumnaOrigen.porEncabezado("Comisiones"))
+                .columna("T", CampoStaging.GASTOS, ColumnaOrigen.porEncabezado("Gastos"))
+                .columna("T", CampoStaging.MONTO_TOTAL, ColumnaOrigen.porEncabezado("Monto Total"));
+
+        // Los movimientos de caja no tienen cobros: el total es el monto
+        return builder.valorFijo("C", CampoStaging.COMISION, BigDecimal.ZERO)
+                .valorFijo("C", CampoStaging.GASTOS, BigDecimal.ZERO)
+                .columna("C", CampoStaging.MONTO_TOTAL, ColumnaOrigen.porEncabezado("Monto"))
+                .build();
+    }
+
+    /**
+     * BanChile: la primera hoja trae los saldos y el resto, movimientos. El encabezado
+     * está en la cuarta fila, bajo el membrete de la cartola.
+     */
+    @Bean
+    public CustodioAdapter banChile() {
+        return DefinicionCustodio.builder("banchile")
+                .hoja("S", DefinicionCustodio.indiceHoja(0))
+                .hoja("T", (indice, nombre) -> true)
+                .filaEncabezado("S", 3)
+                .filaEncabezado("T", 3)
+
+                .valorFijo("S", CampoStaging.CUSTODIO, "BanChile")
+                .valorFijo("S", CampoStaging.TIPO_MOVIMIENTO, "Saldo")
+                .valorFijo("S", CampoStaging.MOVIMIENTO_CAJA, "Saldo")
+                .columna("S", CampoStaging.FECHA_TRANSACCION, ColumnaOrigen.porEncabezado("Fecha Saldo"))
+                .columna("S", CampoStaging.RAZON_SOCIAL, ColumnaOrigen.porEncabezado("Cliente"))
+                .columna("S", CampoStaging.CUENTA, ColumnaOrigen.porEncabezado("Cuenta"))
+                .columna("S", CampoStaging.PRODUCTO, ColumnaOrigen.porEncabezado("Producto"))
+                .columna("S", CampoStaging.INSTRUMENTO_NEMO, ColumnaOrigen.porEncabezado("Instrumento"))
+                .columna("S", CampoStaging.INSTRUMENTO_NOMBRE, ColumnaOrigen.porEncabezado("Nombre"))
+                .columna("S", CampoStaging.MONEDA, ColumnaOrigen.porEncabezado("Moneda Origen"))
+                .columna("S", CampoStaging.CANTIDAD, ColumnaOrigen.porEncabezado("Nominales Final"))
+                .columna("S", CampoStaging.PRECIO, ColumnaOrigen.porEncabezado("Precio/Tasa"))
+                .columna("S", CampoStaging.MONTO, ColumnaOrigen.porEncabezado("Monto Final Origen"))
+                .columna("S", CampoStaging.MONTO_CLP, ColumnaOrigen.porEncabezado("Monto Final CLP"))
+
+                .valorFijo("T", CampoStaging.CUSTODIO, "BanChile")
+                .columna("T", CampoStaging.FECHA_TRANSACCION, ColumnaOrigen.porEncabezado("Fecha Movimiento"))
+                .columna("T", CampoStaging.RAZON_SOCIAL, ColumnaOrigen.porEncabezado("Cliente"))
+                .columna("T", CampoStaging.RUT, ColumnaOrigen.porEncabezado("Rut"))
+                .columna("T", CampoStaging.CUENTA, ColumnaOrigen.porEncabezado("Cuenta"))
+                .columna("T", CampoStaging.PRODUCTO, ColumnaOrigen.porEncabezado("Producto"))
+                .columna("T", CampoStaging.MOVIMIENTO_CAJA, ColumnaOrigen.porEncabezado("Movimiento Caja"))
+                .columna("T", CampoStaging.TIPO_MOVIMIENTO, ColumnaOrigen.porEncabezado("Operación"))
+                .columna("T", CampoStaging.INSTRUMENTO_NEMO, ColumnaOrigen.porEncabezado("Nemotécnico"))
+                .columna("T", CampoStaging.INSTRUMENTO_NOMBRE, ColumnaOrigen.porEncabezado("Instrumento"))
+                .columna("T", CampoStaging.GLOSA, ColumnaOrigen.porEncabezado("Detalle"))
+                .columna("T", CampoStaging.CANTIDAD, ColumnaOrigen.porEncabezado("Cantidad"))
+                .columna("T", CampoStaging.MONEDA, ColumnaOrigen.porEncabezado("Moneda Origen"))
+                .columna("T", CampoStaging.PRECIO, ColumnaOrigen.porEncabezado("Precio"))
+                .columna("T", CampoStaging.COMISION, ColumnaOrigen.porEncabezado("Comisión"))
+                .columna("T", CampoStaging.IVA, ColumnaOrigen.porEncabezado("IVA"))
+                .columna("T", CampoStaging.MONTO, ColumnaOrigen.porEncabezado("Monto Transado MO"))
+                .columna("T", CampoStaging.MONTO_CLP, ColumnaOrigen.porEncabezado("Monto Transado CLP"))
+                .columna("T", CampoStaging.MONTO_TOTAL, ColumnaOrigen.porEncabezado("Monto Transado CLP"))
+                .build();
+    }
+}
@@ -0,0 +1,133 @@
+package com.portafolio.etl.adapter;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiPredicate;
+
+/**
+ * Adaptador declarativo: describe un custodio solo con datos, sin código propio.
+ * <pre>
+ * DefinicionCustodio.builder("pershing")
+ *     .hoja("S", DefinicionCustodio.nombreEmpiezaCon("holdings"))
+ *     .filaEncabezado("S", 0)
+ *     .columna("S", CampoStaging.FECHA_TRANSACCION, ColumnaOrigen.porEncabezado("As Of"))
+ *     .build();
+ * </pre>
+ */
+public class DefinicionCustodio implements CustodioAdapter {
+
+    private final String clave;
+    private final List<ReglaHoja> reglasHoja;
+    private final Map<String, Integer> filasEncabezado;
+    private final Map<String, Map<CampoStaging, ColumnaOrigen>> columnas;
+    private final Map<String, Map<CampoStaging, Object>> valoresFijos;
+    private final OpcionesParseo opciones;
+
+    private DefinicionCustodio(Builder builder) {
+        this.clave = builder.clave;
+        this.reglasHoja = List.copyOf(builder.reglasHoja);
+        this.filasEncabezado = Map.copyOf(builder.filasEncabezado);
+        this.columnas = Map.copyOf(builder.columnas);
+        this.valoresFijos = Map.copyOf(builder.valoresFijos);
+        this.opciones = builder.opciones;
+    }
+
+    public static Builder builder(String clave) {
+        return new Builder(clave.toLowerCase());
+    }
+
+    public static BiPredicate<Integer, String> nombreEmpiezaCon(String prefijo) {
+        String p = prefijo.toLowerCase();
+        return (indice, nombre) -> nombre != null && nombre.toLowerCase().startsWith(p);
+    }
+
+    public static BiPredicate<Integer, String> indiceHoja(int indiceEsperado) {
+        return (indice, nombre) -> indice == indiceEsperado;
+    }
+
+    @Override
+    public String getClave() {
+        return clave;
+    }
+
+    @Override
+    public String determinarTipoHoja(int indiceHoja, String nombreHoja) {
+        for (ReglaHoja regla : reglasHoja) {
+            if (regla.condicion().test(indiceHoja, nombreHoja)) {
+                return regla.tipo();
+            }
+        }
+        return "";
+    }
+
+    @Override
+    public int getFilaEncabezado(String tipoHoja) {
+        return filasEncabezado.getOrDefault(tipoHoja, 0);
+    }
+
+    @Override
+    public Map<CampoStaging, ColumnaOrigen> getColumnas(String tipoHoja) {
+        return columnas.getOrDefault(tipoHoja, Map.of());
+    }
+
+    @Override
+    public Map<CampoStaging, Object> getValoresFijos(String tipoHoja) {
+        return valoresFijos.getOrDefault(tipoHoja, Map.of());
+    }
+
+    @Override
+    public OpcionesParseo getOpciones() {
+        return opciones;
+    }
+
+    private record ReglaHoja(String tipo, BiPredicate<Integer, String> condicion) {
+    }
+
+    public static class Builder {
+        private final String clave;
+        private final List<ReglaHoja> reglasHoja = new ArrayList<>();
+        private final Map<String, Integer> filasEncabezado = new HashMap<>();
+        private final Map<String, Map<CampoStaging, ColumnaOrigen>> columnas = new HashMap<>();
+        private final Map<String, Map<CampoStaging, Object>> valoresFijos = new HashMap<>();
+        private OpcionesParseo opciones = OpcionesParseo.POR_DEFECTO;
+
+        private Builder(String clave) {
+            this.clave = clave;
+        }
+
+        /**
+         * Las reglas se evalúan en el orden en que se declaran.
+         */
+        public Builder hoja(String tipo, BiPredicate<Integer, String> condicion) {
+            reglasHoja.add(new ReglaHoja(tipo, condicion));
+            return this;
+        }
+
+        public Builder filaEncabezado(String tipo, int fila) {
+            filasEncabezado.put(tipo, fila);
+            return this;
+        }
+
+        public Builder columna(String tipo, CampoStaging campo, ColumnaOrigen origen) {
+            columnas.computeIfAbsent(tipo, k -> new EnumMap<>(CampoStaging.class)).put(campo, origen);
+            return this;
+        }
+
+        public Builder valorFijo(String tipo, CampoStaging campo, Object valor) {
+            valoresFijos.computeIfAbsent(tipo, k -> new EnumMap<>(CampoStaging.class)).put(campo, valor);
+            return this;
+        }
+
+        public Builder opciones(OpcionesParseo opciones) {
+            this.opciones = opciones;
+            return this;
+        }
+
+        public DefinicionCustodio build() {
+            return new DefinicionCustodio(this);
+        }
+    }
+}
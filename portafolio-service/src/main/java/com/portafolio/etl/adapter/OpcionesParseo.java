@@ -0,0 +1,70 @@
+package com.portafolio.etl.adapter;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * Opciones de lectura de valores propias de cada custodio.
+ */
+@Getter
+public class OpcionesParseo {
+
+    public static final OpcionesParseo POR_DEFECTO = OpcionesParseo.builder().build();
+
+    private final boolean comaDecimal;
+    private final char separador;
+    private final Charset charset;
+    private final List<DateTimeFormatter> formatosFecha;
+
+    /**
+     * @param comaDecimal true si los montos vienen como 1.234,56 (por defecto).
+     * @param separador Separador de columnas para archivos CSV (por defecto ';').
+     * @param charset Codificación de archivos planos (por defecto ISO-8859-1).
+     * @param formatosFecha Patrones de fecha a probar en orden.
+     */
+    @Builder
+    private OpcionesParseo(Boolean comaDecimal, Character separador, Charset charset, List<String> formatosFecha) {
+        this.comaDecimal = comaDecimal == null || comaDecimal;
+        this.separador = separador != null ? separador : ';';
+        this.charset = charset != null ? charset : StandardCharsets.ISO_8859_1;
+        List<String> patrones = formatosFecha != null ? formatosFecha : List.of("yyyy-MM-dd", "dd/MM/yyyy", "dd-MM-yyyy");
+        this.formatosFecha = patrones.stream().map(DateTimeFormatter::ofPattern).toList();
+    }
+
+    public BigDecimal parseDecimal(String valor) {
+        if (valor == null || valor.isBlank()) {
+            return null;
+        }
+        String limpio = valor.trim();
+        limpio = comaDecimal
+                ? limpio.replace(".", "").replace(",", ".")
+                : limpio.replace(",", "");
+        try {
+            return new BigDecimal(limpio);
+        } catch (NumberFormatException ignored) {
+            return null;
+        }
+    }
+
+    public LocalDate parseFecha(String valor) {
+        if (valor == null || valor.isBlank()) {
+            return null;
+        }
+        String limpio = valor.trim();
+        for (DateTimeFormatter formatter : formatosFecha) {
+            try {
+                return LocalDate.parse(limpio, formatter);
+            } catch (DateTimeParseException ignored) {
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,111 @@
+package com.portafolio.etl.adapter;
+
+import com.portafolio.etl.interfaces.RegistroFuente;
+import com.portafolio.model.entities.CargaTransaccionEntity;
+import org.hibernate.MappingException;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Mapeo compilado de un tipo de hoja: los encabezados se resuelven una sola vez
+ * a índices de columna y cada fila solo recorre arreglos.
+ */
+public final class PlanMapeo {
+
+    private final String tipoHoja;
+    private final CampoStaging[] campos;
+    private final int[] indices;
+    private final Map<CampoStaging, Object> valoresFijos;
+    private final OpcionesParseo opciones;
+
+    private PlanMapeo(String tipoHoja, CampoStaging[] campos, int[] indices,
+                      Map<CampoStaging, Object> valoresFijos, OpcionesParseo opciones) {
+        this.tipoHoja = tipoHoja;
+        this.campos = campos;
+        this.indices = indices;
+        this.valoresFijos = valoresFijos;
+        this.opciones = opciones;
+    }
+
+    /**
+     * Compila el plan a partir de la fila de encabezado (puede ser null si todas las columnas son por índice).
+     *
+     * @throws IllegalStateException si un encabezado declarado no existe en el archivo.
+     */
+    public static PlanMapeo compilar(CustodioAdapter adapter, String tipoHoja, RegistroFuente encabezado) {
+        Map<String, Integer> posiciones = new HashMap<>();
+        if (encabezado != null) {
+            for (int i = 0; i < encabezado.getNumeroColumnas(); i++) {
+                String nombre = encabezado.getString(i);
+                if (nombre != null && !nombre.isBlank()) {
+                    posiciones.putIfAbsent(normalizarEncabezado(nombre), i);
+                }
+            }
+        }
+
+        Map<CampoStaging, ColumnaOrigen> columnas = adapter.getColumnas(tipoHoja);
+        List<CampoStaging> campos = new ArrayList<>(columnas.size());
+        int[] indices = new int[columnas.size()];
+        List<String> faltantes = new ArrayList<>();
+
+        for (Map.Entry<CampoStaging, ColumnaOrigen> entry : columnas.entrySet()) {
+            ColumnaOrigen origen = entry.getValue();
+            Integer indice = origen.esPorEncabezado()
+                    ? posiciones.get(normalizarEncabezado(origen.getEncabezado()))
+                    : Integer.valueOf(origen.getIndice());
+            if (indice == null) {
+                faltantes.add(entry.getKey() + "=" + origen);
+                continue;
+            }
+            indices[campos.size()] = indice;
+            campos.add(entry.getKey());
+        }
+
+        if (!faltantes.isEmpty()) {
+            throw new IllegalStateException(String.format("Encabezados no encontrados para %s/%s: %s",
+                    adapter.getClave(), tipoHoja, faltantes));
+        }
+        return new PlanMapeo(tipoHoja, campos.toArray(CampoStaging[]::new), indices,
+                adapter.getValoresFijos(tipoHoja), adapter.getOpciones());
+    }
+
+    /**
+     * Convierte el registro en una fila de staging lista para guardar.
+     */
+    public CargaTransaccionEntity mapear(RegistroFuente registro) throws MappingException {
+        CargaTransaccionEntity entidad = CargaTransaccionEntity.builder()
+                .rowNum(registro.getNumeroFila())
+                .tipoClase(tipoHoja)
+                .procesado(false)
+                .build();
+
+        valoresFijos.forEach((campo, valor) -> campo.asignar(entidad, valor));
+        for (int i = 0; i < campos.length; i++) {
+            campos[i].asignar(entidad, campos[i].leer(registro, indices[i], opciones));
+        }
+
+        if (entidad.getFechaTransaccion() == null) {
+            throw new MappingException("Fecha de transacción vacía o inválida en la fila " + registro.getNumeroFila());
+        }
+        return entidad;
+    }
+
+    /**
+     * Indica si el plan necesita la fila de encabezado para resolverse.
+     */
+    public static boolean requiereEncabezado(CustodioAdapter adapter, String tipoHoja) {
+        return adapter.getColumnas(tipoHoja).values().stream().anyMatch(ColumnaOrigen::esPorEncabezado);
+    }
+
+    /**
+     * Los encabezados se comparan sin tildes, espacios repetidos ni mayúsculas.
+     */
+    private static String normalizarEncabezado(String nombre) {
+        String sinTildes = Normalizer.normalize(nombre, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return sinTildes.trim().replaceAll("\\s+", " ").toUpperCase();
+    }
+}
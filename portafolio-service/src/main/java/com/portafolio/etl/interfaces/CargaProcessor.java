@@ -1,5 +1,20 @@
 package com.portafolio.etl.interfaces;
 
+import com.portafolio.etl.util.MedidorCarga;
+import com.portafolio.model.entities.CargaTransaccionEntity;
+
 public interface CargaProcessor<T> {
     void procesar(T dto);
-}
\ No newline at end of file
+
+    /**
+     * Variante instrumentada. Por defecto mide todo el procesamiento como escritura.
+     */
+    default void procesar(T dto, MedidorCarga medidor) {
+        medidor.ejecutar(MedidorCarga.ETAPA_ESCRITURA, () -> procesar(dto));
+    }
+
+    /**
+     * Convierte el DTO a la fila de staging sin persistirla (usado por la carga masiva).
+     */
+    CargaTransaccionEntity convertir(T dto);
+}
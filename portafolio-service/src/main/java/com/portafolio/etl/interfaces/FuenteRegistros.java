@@ -0,0 +1,17 @@
+package com.portafolio.etl.interfaces;
+
+import java.io.IOException;
+
+/**
+ * Origen secuencial de registros independiente del formato del archivo.
+ */
+public interface FuenteRegistros extends Iterable<RegistroFuente>, AutoCloseable {
+
+    /**
+     * Nombre descriptivo del origen (archivo u hoja) para logs y auditoría.
+     */
+    String getNombre();
+
+    @Override
+    void close() throws IOException;
+}
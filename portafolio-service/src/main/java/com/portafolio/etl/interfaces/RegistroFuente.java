@@ -0,0 +1,43 @@
+package com.portafolio.etl.interfaces;
+
+import com.portafolio.etl.adapter.OpcionesParseo;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Registro leído desde cualquier formato de origen (Excel o CSV).
+ * Los mappers acceden por índice de columna sin depender de POI.
+ */
+public interface RegistroFuente {
+
+    /**
+     * Número de fila en el archivo original (base 1).
+     */
+    int getNumeroFila();
+
+    int getNumeroColumnas();
+
+    /**
+     * Valor de la columna como texto sin espacios, o null si no existe.
+     */
+    String getString(int columna);
+
+    /**
+     * Convierte usando las opciones de parseo del custodio (separador decimal, formatos de fecha).
+     */
+    default BigDecimal getBigDecimal(int columna, OpcionesParseo opciones) {
+        return opciones.parseDecimal(getString(columna));
+    }
+
+    default LocalDate getLocalDate(int columna, OpcionesParseo opciones) {
+        return opciones.parseFecha(getString(columna));
+    }
+
+    /**
+     * Indica si el registro debe ignorarse (primera columna vacía).
+     */
+    default boolean isVacio() {
+        String primera = getString(0);
+        return primera == null || primera.isBlank();
+    }
+}
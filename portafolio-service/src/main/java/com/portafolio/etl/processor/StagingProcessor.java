@@ -0,0 +1,61 @@
+package com.portafolio.etl.processor;
+
+import com.portafolio.etl.interfaces.CargaProcessor;
+import com.portafolio.etl.util.LoteCargaContexto;
+import com.portafolio.etl.util.MedidorCarga;
+import com.portafolio.etl.util.StagingBatchWriter;
+import com.portafolio.model.entities.CargaTransaccionEntity;
+import com.portafolio.model.utiles.Pk;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Procesador genérico para custodios con adaptador declarativo:
+ * recibe la fila de staging ya mapeada por el PlanMapeo. La escritura usa INSERT IGNORE,
+ * de modo que una clave repetida (incluso escrita por otro worker en paralelo) se cuenta
+ * como duplicado en lugar de abortar la carga.
+ */
+@Service("stagingProcessor")
+public class StagingProcessor implements CargaProcessor<CargaTransaccionEntity> {
+
+    private static final Logger logger = LoggerFactory.getLogger(StagingProcessor.class);
+
+    private final StagingBatchWriter stagingWriter;
+
+    @Autowired
+    public StagingProcessor(StagingBatchWriter stagingWriter) {
+        this.stagingWriter = stagingWriter;
+    }
+
+    @Override
+    @Transactional
+    public void procesar(CargaTransaccionEntity entity) {
+        procesar(entity, MedidorCarga.sinMedicion());
+    }
+
+    @Override
+    @Transactional
+    public void procesar(CargaTransaccionEntity entity, MedidorCarga medidor) {
+        if (entity == null) {
+            return;
+        }
+
+        entity.setLoteId(LoteCargaContexto.actual());
+        int insertadas = medidor.medir(MedidorCarga.ETAPA_ESCRITURA, () -> stagingWriter.escribir(List.of(entity)));
+        if (insertadas == 0) {
+            medidor.registrarDuplicados(1);
+            logger.info("Registro ya existe en staging, omitiendo: {}",
+                    new Pk(entity.getFechaTransaccion(), entity.getRowNum(), entity.getTipoClase()));
+        }
+    }
+
+    @Override
+    public CargaTransaccionEntity convertir(CargaTransaccionEntity entity) {
+        return entity;
+    }
+}
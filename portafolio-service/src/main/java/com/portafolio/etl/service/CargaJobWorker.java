@@ -0,0 +1,199 @@
+package com.portafolio.etl.service;
+
+import com.portafolio.model.dto.ResultadoCargaDto;
+import com.portafolio.model.entities.CargaJobEntity;
+import com.portafolio.model.enums.EstadoCargaJob;
+import com.portafolio.model.enums.TipoCargaJob;
+import com.portafolio.normalizar.service.NormalizationService;
+import com.portafolio.normalizar.service.NormalizationService.NormalizationResult;
+import com.portafolio.ui.service.BorrarContenidoTablasService;
+import com.portafolio.ui.service.cache.DatosReporteModificadosEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Workers de ingesta en segundo plano. Cada worker sondea la tabla carga_jobs, toma el
+ * siguiente trabajo y lo lleva por las etapas de lectura, staging y normalización,
+ * registrando el avance para que la UI lo consulte.
+ */
+@Slf4j
+@Component
+public class CargaJobWorker {
+
+    private final ColaCargaService colaCargaService;
+    private final EtlService etlService;
+    private final NormalizationService normalizationService;
+    private final BorrarContenidoTablasService limpiezaService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int numeroWorkers;
+    private final long intervaloSondeoMs;
+
+    // La normalización procesa todo lo pendiente en staging: nunca dos a la vez
+    private final ReentrantLock candadoNormalizacion = new ReentrantLock();
+    private final Object candadoToma = new Object();
+    private final AtomicInteger secuenciaWorkers = new AtomicInteger();
+
+    private ExecutorService executor;
+    private volatile boolean activo;
+
+    public CargaJobWorker(ColaCargaService colaCargaService,
+                          EtlService etlService,
+                          NormalizationService normalizationService,
+                          BorrarContenidoTablasService limpiezaService,
+                          ApplicationEventPublisher eventPublisher,
+                          @Value("${portafolio.carga.workers:2}") int numeroWorkers,
+                          @Value("${portafolio.carga.intervalo-sondeo-ms:1000}") long intervaloSondeoMs) {
+        this.colaCargaService = colaCargaService;
+        this.etlService = etlService;
+        this.normalizationService = normalizationService;
+        this.limpiezaService = limpiezaService;
+        this.eventPublisher = eventPublisher;
+        this.numeroWorkers = Math.max(1, numeroWorkers);
+        this.intervaloSondeoMs = intervaloSondeoMs;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        colaCargaService.recuperarInterrumpidos();
+        activo = true;
+        executor = Executors.newFixedThreadPool(numeroWorkers, r -> {
+            Thread t = new Thread(r, "carga-worker-" + secuenciaWorkers.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        for (int i = 0; i < numeroWorkers; i++) {
+            executor.submit(this::sondear);
+        }
+        log.info("Iniciados {} workers de carga (sondeo cada {} ms)", numeroWorkers, intervaloSondeoMs);
+    }
+
+    @PreDestroy
+    public void detener() {
+        activo = false;
+        if (executor == null) {
+            return;
+        }
+        executor.shutdownNow();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("Los workers de carga no terminaron a tiempo; sus trabajos se reencolarán al reiniciar");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ===== MÉTODOS PRIVADOS =====
+
+    private void sondear() {
+        String worker = Thread.currentThread().getName();
+        while (activo && !Thread.currentThread().isInterrupted()) {
+            try {
+                Optional<CargaJobEntity> job;
+                synchronized (candadoToma) {
+                    job = colaCargaService.tomarSiguiente(worker);
+                }
+                if (job.isPresent()) {
+                    ejecutar(job.get());
+                } else {
+                    Thread.sleep(intervaloSondeoMs);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.error("Error en el worker de carga {}", worker, e);
+            }
+        }
+    }
+
+    private void ejecutar(CargaJobEntity job) {
+        Long id = job.getId();
+        Path archivo = Path.of(job.getArchivo());
+        log.info("Trabajo de carga {} tomado: {} ({})", id, archivo.getFileName(), job.getCustodio());
+        try {
+            if (!Files.isReadable(archivo)) {
+                colaCargaService.fallar(id, "No se puede leer el archivo: " + archivo);
+                return;
+            }
+            if (job.isLimpiarAntes()) {
+                colaCargaService.avanzar(id, EstadoCargaJob.PARSEANDO, 5, "Limpiando tablas de negocio");
+                limpiezaService.limpiarDatosDeNegocio();
+            }
+
+            colaCargaService.avanzar(id, EstadoCargaJob.STAGING, 20, "Cargando " + archivo.getFileName());
+            ResultadoCargaDto carga = cargarStaging(job, archivo);
+            if (!carga.isExitoso()) {
+                colaCargaService.fallar(id, carga.getMensaje());
+                return;
+            }
+            colaCargaService.registrarLote(id, carga.getLoteId());
+
+            colaCargaService.avanzar(id, EstadoCargaJob.NORMALIZANDO, 60,
+                    carga.getFilasProcesadas() + " filas en staging, normalizando");
+            NormalizationResult normalizacion = normalizar(job.getTipoCarga(), carga.getLoteId());
+            if (normalizacion.isError()) {
+                colaCargaService.fallar(id, normalizacion.getMensaje());
+                return;
+            }
+
+            colaCargaService.completar(id, carga.getFilasProcesadas(), normalizacion.getExitosos(),
+                    carga.getMensaje() + " Normalizadas: " + normalizacion.getExitosos()
+                            + ", fallidas: " + normalizacion.getFallidos() + ".");
+            eventPublisher.publishEvent(new DatosReporteModificadosEvent("carga " + id));
+            log.info("Trabajo de carga {} completado", id);
+        } catch (Exception e) {
+            log.error("Trabajo de carga {} fallido", id, e);
+            colaCargaService.fallar(id, "Error inesperado: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Los CSV se leen con el adaptador del custodio según el tipo de registro del trabajo;
+     * el resto de los archivos, como libro Excel. En la carga inicial el libro se escribe
+     * en staging por lotes JDBC.
+     */
+    private ResultadoCargaDto cargarStaging(CargaJobEntity job, Path archivo) throws IOException {
+        if (archivo.getFileName().toString().toLowerCase().endsWith(".csv")) {
+            return etlService.procesarArchivoCsv(archivo, job.getCustodio(), job.getTipoHoja());
+        }
+        try (InputStream is = Files.newInputStream(archivo)) {
+            return job.getTipoCarga() == TipoCargaJob.INICIAL
+                    ? etlService.procesarArchivoMasivo(is, job.getCustodio())
+                    : etlService.procesarArchivo(is, job.getCustodio());
+        }
+    }
+
+    /**
+     * Las cargas diarias normalizan solo su lote; la inicial usa la normalización masiva por
+     * conjuntos y una carga sin lote recorre todo el staging.
+     */
+    private NormalizationResult normalizar(TipoCargaJob tipoCarga, Long loteId) {
+        candadoNormalizacion.lock();
+        try {
+            if (tipoCarga == TipoCargaJob.INICIAL) {
+                return normalizationService.ejecutarCargaInicialMasiva();
+            }
+            return loteId != null
+                    ? normalizationService.normalizarCarga(loteId, false)
+                    : normalizationService.ejecutarNormalizacion();
+        } finally {
+            candadoNormalizacion.unlock();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.portafolio.etl.service;
+
+import com.portafolio.model.entities.CargaJobEntity;
+import com.portafolio.model.enums.EstadoCargaJob;
+import com.portafolio.model.enums.TipoCargaJob;
+import com.portafolio.persistence.repositorio.CargaJobRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Cola persistente de cargas de cartolas. La UI encola archivos y consulta el avance;
+ * los trabajos los ejecuta {@link CargaJobWorker} en segundo plano.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ColaCargaService {
+
+    private static final int MAX_INTENTOS = 3;
+    private static final int LARGO_MAXIMO_MENSAJE = 1000;
+    private static final EnumSet<EstadoCargaJob> EN_CURSO =
+            EnumSet.of(EstadoCargaJob.PARSEANDO, EstadoCargaJob.STAGING, EstadoCargaJob.NORMALIZANDO);
+
+    private final CargaJobRepository cargaJobRepository;
+
+    /**
+     * Encola un trabajo por archivo, respetando el orden recibido. En una carga inicial
+     * solo el primer trabajo limpia las tablas de negocio.
+     *
+     * @param tipoHoja Tipo de registro de los archivos CSV (S, T, C); null si solo hay libros Excel.
+     */
+    @Transactional
+    public List<CargaJobEntity> encolar(String claveCustodio, List<Path> archivos, TipoCargaJob tipoCarga,
+                                        String tipoHoja) {
+        List<CargaJobEntity> jobs = new ArrayList<>();
+        for (int i = 0; i < archivos.size(); i++) {
+            jobs.add(CargaJobEntity.builder()
+                    .archivo(archivos.get(i).toAbsolutePath().toString())
+                    .custodio(claveCustodio.toLowerCase())
+                    .tipoHoja(tipoHoja)
+                    .tipoCarga(tipoCarga)
+                    .limpiarAntes(tipoCarga == TipoCargaJob.INICIAL && i == 0)
+                    .mensaje("En cola")
+                    .build());
+        }
+        List<CargaJobEntity> guardados = cargaJobRepository.saveAll(jobs);
+        log.info("Encolados {} trabajos de carga {} para {}", guardados.size(), tipoCarga, claveCustodio);
+        return guardados;
+    }
+
+    @Transactional(readOnly = true)
+    public List<CargaJobEntity> consultar(Collection<Long> ids) {
+        return cargaJobRepository.findByIdInOrderByIdAsc(ids);
+    }
+
+    @Transactional(readOnly = true)
+    public List<CargaJobEntity> listarPendientes() {
+        EnumSet<EstadoCargaJob> pendientes = EnumSet.copyOf(EN_CURSO);
+        pendientes.add(EstadoCargaJob.EN_COLA);
+        return cargaJobRepository.findByEstadoInOrderByIdAsc(pendientes);
+    }
+
+    // ===== OPERACIONES DE LOS WORKERS =====
+
+    /**
+     * Toma el siguiente trabajo en cola. El UPDATE condicionado al estado garantiza que
+     * dos workers no tomen el mismo trabajo. Una carga inicial borra las tablas de negocio,
+     * por lo que se ejecuta sola: espera a que no haya trabajos en curso y, mientras corre,
+     * no se toma ningún otro.
+     */
+    @Transactional
+    public Optional<CargaJobEntity> tomarSiguiente(String worker) {
+        Optional<CargaJobEntity> candidato = cargaJobRepository.findFirstByEstadoOrderByIdAsc(EstadoCargaJob.EN_COLA);
+        if (candidato.isEmpty()
+                || cargaJobRepository.existsByTipoCargaAndEstadoIn(TipoCargaJob.INICIAL, EN_CURSO)) {
+            return Optional.empty();
+        }
+        if (candidato.get().getTipoCarga() == TipoCargaJob.INICIAL && cargaJobRepository.existsByEstadoIn(EN_CURSO)) {
+            return Optional.empty();
+        }
+        Long id = candidato.get().getId();
+        int tomados = cargaJobRepository.tomar(id, EstadoCargaJob.EN_COLA, EstadoCargaJob.PARSEANDO,
+                worker, LocalDateTime.now());
+        if (tomados == 0) {
+            return Optional.empty();
+        }
+        return cargaJobRepository.findById(id);
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void avanzar(Long id, EstadoCargaJob estado, int progreso, String mensaje) {
+        cargaJobRepository.actualizarEstado(id, estado, progreso, recortar(mensaje));
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void registrarLote(Long id, Long loteId) {
+        cargaJobRepository.findById(id).ifPresent(job -> job.setLoteId(loteId));
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void completar(Long id, int filasProcesadas, int transaccionesCreadas, String mensaje) {
+        cargaJobRepository.findById(id).ifPresent(job -> {
+            job.setEstado(EstadoCargaJob.COMPLETADO);
+            job.setProgreso(100);
+            job.setFilasProcesadas(filasProcesadas);
+            job.setTransaccionesCreadas(transaccionesCreadas);
+            job.setMensaje(recortar(mensaje));
+            job.setFechaFin(LocalDateTime.now());
+        });
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void fallar(Long id, String mensaje) {
+        cargaJobRepository.findById(id).ifPresent(job -> {
+            job.setEstado(EstadoCargaJob.FALLIDO);
+            job.setMensaje(recortar(mensaje));
+            job.setFechaFin(LocalDateTime.now());
+        });
+    }
+
+    /**
+     * Los trabajos que quedaron en curso al cerrarse la aplicación vuelven a la cola,
+     * salvo que ya hayan agotado sus intentos.
+     */
+    @Transactional
+    public int recuperarInterrumpidos() {
+        List<CargaJobEntity> interrumpidos = cargaJobRepository.findByEstadoInOrderByIdAsc(EN_CURSO);
+        for (CargaJobEntity job : interrumpidos) {
+            if (job.getIntentos() >= MAX_INTENTOS) {
+                job.setEstado(EstadoCargaJob.FALLIDO);
+                job.setMensaje("Interrumpido tras " + job.getIntentos() + " intentos");
+                job.setFechaFin(LocalDateTime.now());
+            } else {
+                job.setEstado(EstadoCargaJob.EN_COLA);
+                job.setProgreso(0);
+                job.setMensaje("Reencolado tras interrupción");
+            }
+        }
+        if (!interrumpidos.isEmpty()) {
+            log.warn("Recuperados {} trabajos de carga interrumpidos", interrumpidos.size());
+        }
+        return interrumpidos.size();
+    }
+
+    private String recortar(String mensaje) {
+        if (mensaje == null || mensaje.length() <= LARGO_MAXIMO_MENSAJE) {
+            return mensaje;
+        }
+        return mensaje.substring(0, LARGO_MAXIMO_MENSAJE);
+    }
+}
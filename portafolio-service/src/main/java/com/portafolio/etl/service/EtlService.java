@@ -3,6 +3,8 @@ package com.portafolio.etl.service;
 import com.portafolio.model.dto.ResultadoCargaDto;
 import com.portafolio.model.enums.ListaEnumsCustodios;
 import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Set;
 
 public interface EtlService {
 
@@ -15,4 +17,48 @@ public interface EtlService {
      * @return Un objeto ResultadoCargaDto con el resumen de la operación.
      */
     ResultadoCargaDto procesarArchivo(InputStream inputStream, ListaEnumsCustodios custodio);
-}
\ No newline at end of file
+
+    /**
+     * Procesa un archivo Excel identificando al custodio por su clave. Permite cargar
+     * custodios definidos solo mediante un CustodioAdapter, sin constante en ListaEnumsCustodios.
+     *
+     * @param inputStream El flujo de datos del archivo a procesar.
+     * @param claveCustodio Clave del custodio (ej. "fynsa", "pershing").
+     * @return Un objeto ResultadoCargaDto con el resumen de la operación.
+     */
+    ResultadoCargaDto procesarArchivo(InputStream inputStream, String claveCustodio);
+
+    /**
+     * Procesa un CSV de un custodio con adaptador, usando sus opciones de parseo.
+     *
+     * @param archivo Ruta del archivo CSV.
+     * @param claveCustodio Clave del custodio con adaptador registrado.
+     * @param tipoHoja Tipo de registro contenido en el archivo (S, T, C).
+     * @return Un objeto ResultadoCargaDto con el resumen de la operación.
+     */
+    ResultadoCargaDto procesarArchivoCsv(Path archivo, String claveCustodio, String tipoHoja);
+
+    /**
+     * Claves de los custodios incorporados mediante adaptador.
+     */
+    Set<String> obtenerCustodiosConAdaptador();
+
+    /**
+     * Variante para cargas iniciales de varios años: las filas se escriben en staging
+     * por lotes JDBC, sin entidades administradas ni verificación fila a fila.
+     *
+     * @param inputStream El flujo de datos del archivo a procesar.
+     * @param custodio El enum que identifica al custodio (banco).
+     * @return Un objeto ResultadoCargaDto con el resumen de la operación.
+     */
+    ResultadoCargaDto procesarArchivoMasivo(InputStream inputStream, ListaEnumsCustodios custodio);
+
+    /**
+     * Carga masiva identificando al custodio por la clave de su adaptador.
+     *
+     * @param inputStream El flujo de datos del archivo a procesar.
+     * @param claveCustodio Clave del custodio (ej. "fynsa", "pershing").
+     * @return Un objeto ResultadoCargaDto con el resumen de la operación.
+     */
+    ResultadoCargaDto procesarArchivoMasivo(InputStream inputStream, String claveCustodio);
+}
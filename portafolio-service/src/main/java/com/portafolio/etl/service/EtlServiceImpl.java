@@ -2,8 +2,20 @@ package com.portafolio.etl.service;
 
 import com.portafolio.model.dto.ResultadoCargaDto;
 import com.portafolio.model.enums.ListaEnumsCustodios;
-import com.portafolio.etl.interfaces.CargaMapperInterfaz;
-import com.portafolio.etl.interfaces.CargaProcessor;
+import com.portafolio.etl.adapter.CustodioAdapter;
+import com.portafolio.etl.adapter.CustodioAdapterRegistry;
+import com.portafolio.etl.adapter.OpcionesParseo;
+import com.portafolio.etl.adapter.PlanMapeo;
+import com.portafolio.etl.interfaces.FuenteRegistros;
+import com.portafolio.etl.interfaces.RegistroFuente;
+import com.portafolio.etl.processor.StagingProcessor;
+import com.portafolio.etl.source.LectorCsvMapeado;
+import com.portafolio.etl.source.RegistroExcel;
+import com.portafolio.etl.util.ExcelRowUtils;
+import com.portafolio.etl.util.LoteCargaContexto;
+import com.portafolio.etl.util.MedidorCarga;
+import com.portafolio.etl.util.StagingBatchWriter;
+import com.portafolio.model.entities.CargaTransaccionEntity;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
@@ -15,103 +27,290 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.InputStream;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 @Service
 public class EtlServiceImpl implements EtlService {
 
     private static final Logger logger = LoggerFactory.getLogger(EtlServiceImpl.class);
-    private final EtlStrategyFactory strategyFactory;
+
+    private static final int TAMANO_LOTE_STAGING = 1000;
+    private static final String ARCHIVO_ORIGEN_APP = "cargado_desde_app";
+
+    private final ExcelRowUtils excelRowUtils;
+    private final StagingBatchWriter stagingWriter;
+    private final MetricasCargaService metricasService;
+    private final CustodioAdapterRegistry adapterRegistry;
+    private final StagingProcessor stagingProcessor;
+    private final LoteCargaService loteCargaService;
 
     @Autowired
-    public EtlServiceImpl(EtlStrategyFactory strategyFactory) {
-        this.strategyFactory = strategyFactory;
+    public EtlServiceImpl(ExcelRowUtils excelRowUtils, StagingBatchWriter stagingWriter,
+                          MetricasCargaService metricasService, CustodioAdapterRegistry adapterRegistry,
+                          StagingProcessor stagingProcessor, LoteCargaService loteCargaService) {
+        this.excelRowUtils = excelRowUtils;
+        this.stagingWriter = stagingWriter;
+        this.metricasService = metricasService;
+        this.adapterRegistry = adapterRegistry;
+        this.stagingProcessor = stagingProcessor;
+        this.loteCargaService = loteCargaService;
     }
 
     @Override
     @Transactional
     public ResultadoCargaDto procesarArchivo(InputStream inputStream, ListaEnumsCustodios custodio) {
-        String bankKey = custodio.name().toLowerCase();
-        logger.info("Iniciando procesamiento de archivo para el custodio: {}", bankKey);
-        
+        return procesarArchivo(inputStream, custodio.name());
+    }
+
+    @Override
+    @Transactional
+    public ResultadoCargaDto procesarArchivo(InputStream inputStream, String claveCustodio) {
+        CustodioAdapter adapter = adapterRegistry.buscar(claveCustodio).orElse(null);
+        if (adapter == null) {
+            return ResultadoCargaDto.fallido("No existe adaptador para el custodio: " + claveCustodio);
+        }
+        logger.info("Iniciando procesamiento de archivo para el custodio: {}", adapter.getClave());
+        return enLote(adapter.getClave(), ARCHIVO_ORIGEN_APP, () -> cargarArchivoCustodio(inputStream, adapter));
+    }
+
+    @Override
+    public Set<String> obtenerCustodiosConAdaptador() {
+        return adapterRegistry.getClaves();
+    }
+
+    private ResultadoCargaDto cargarArchivoCustodio(InputStream inputStream, CustodioAdapter adapter) {
+        MedidorCarga medidor = new MedidorCarga();
+        ResultadoCargaDto resultado = procesarLibro(inputStream, adapter, medidor,
+                fila -> stagingProcessor.procesar(fila, medidor));
+
+        metricasService.registrar(adapter.getClave(), ARCHIVO_ORIGEN_APP, resultado);
+        return resultado;
+    }
+
+    @Override
+    @Transactional
+    public ResultadoCargaDto procesarArchivoMasivo(InputStream inputStream, ListaEnumsCustodios custodio) {
+        return procesarArchivoMasivo(inputStream, custodio.name());
+    }
+
+    @Override
+    @Transactional
+    public ResultadoCargaDto procesarArchivoMasivo(InputStream inputStream, String claveCustodio) {
+        CustodioAdapter adapter = adapterRegistry.buscar(claveCustodio).orElse(null);
+        if (adapter == null) {
+            return ResultadoCargaDto.fallido("No existe adaptador para el custodio: " + claveCustodio);
+        }
+        logger.info("Iniciando carga masiva de archivo para el custodio: {}", adapter.getClave());
+        return enLote(adapter.getClave(), ARCHIVO_ORIGEN_APP, () -> cargarArchivoMasivo(inputStream, adapter));
+    }
+
+    private ResultadoCargaDto cargarArchivoMasivo(InputStream inputStream, CustodioAdapter adapter) {
+        Long loteId = LoteCargaContexto.actual();
+        MedidorCarga medidor = new MedidorCarga();
+        List<CargaTransaccionEntity> lote = new ArrayList<>(TAMANO_LOTE_STAGING);
+        int[] insertadas = {0};
+
+        ResultadoCargaDto resultado = procesarLibro(inputStream, adapter, medidor, fila -> {
+            fila.setLoteId(loteId);
+            lote.add(fila);
+            if (lote.size() >= TAMANO_LOTE_STAGING) {
+                insertadas[0] += medidor.medir(MedidorCarga.ETAPA_ESCRITURA, () -> stagingWriter.escribir(lote));
+                lote.clear();
+            }
+        });
+        if (!resultado.isExitoso()) {
+            return resultado;
+        }
+        insertadas[0] += medidor.medir(MedidorCarga.ETAPA_ESCRITURA, () -> stagingWriter.escribir(lote));
+
+        // INSERT IGNORE descarta las claves repetidas; la diferencia son los duplicados
+        medidor.registrarDuplicados(resultado.getFilasProcesadas() - insertadas[0]);
+        resultado = ResultadoCargaDto.exitoso(resultado.getFilasProcesadas(), resultado.getDuracion(),
+                resultado.getMensaje(), medidor.toDto(resultado.getFilasProcesadas(), resultado.getDuracion()));
+
+        logger.info("Carga masiva a staging: {} filas leídas, {} insertadas", resultado.getFilasProcesadas(), insertadas[0]);
+        metricasService.registrar(adapter.getClave(), ARCHIVO_ORIGEN_APP, resultado);
+        return resultado;
+    }
+
+    /**
+     * Registra un lote de carga y ejecuta la ingesta con él como lote en curso, para
+     * que cada fila de staging quede asociada a su carga.
+     */
+    private ResultadoCargaDto enLote(String bankKey, String origen, Supplier<ResultadoCargaDto> carga) {
+        Long loteId = loteCargaService.abrir(bankKey, origen);
+        ResultadoCargaDto resultado = LoteCargaContexto.ejecutar(loteId, carga);
+        loteCargaService.cerrar(loteId, resultado.getFilasProcesadas());
+        return resultado.conLote(loteId);
+    }
+
+    /**
+     * Recorre todas las hojas del libro y entrega cada fila mapeada al destino indicado.
+     */
+    private ResultadoCargaDto procesarLibro(InputStream inputStream, CustodioAdapter adapter,
+                                            MedidorCarga medidor, Consumer<CargaTransaccionEntity> destino) {
         Instant inicio = Instant.now();
         int filasProcesadas = 0;
         int errores = 0;
 
+        long inicioLectura = System.nanoTime();
         try (Workbook workbook = WorkbookFactory.create(inputStream)) {
-            // Obtenemos el procesador una sola vez, ya que es el mismo para todo el archivo del banco.
-            CargaProcessor processor = strategyFactory.getProcessor(bankKey);
+            medidor.acumular(MedidorCarga.ETAPA_LECTURA, System.nanoTime() - inicioLectura);
 
             for (int i = 0; i < workbook.getNumberOfSheets(); i++) {
                 Sheet sheet = workbook.getSheetAt(i);
-                
-                // Determinamos qué tipo de hoja es (S, T, C, etc.)
-                String sheetType = determineSheetType(bankKey, i, sheet.getSheetName());
-                if (sheetType.isBlank()) {
+
+                // El adaptador determina qué tipo de hoja es (S, T, C) y cómo mapear sus filas
+                HojaPreparada hoja = prepararHoja(adapter, i, sheet);
+                if (hoja == null) {
                     logger.warn("Omitiendo hoja '{}' porque no tiene un tipo definido.", sheet.getSheetName());
                     continue;
                 }
-                
-                logger.info("Procesando hoja '{}' (tipo: {})", sheet.getSheetName(), sheetType);
-                String mapperKey = bankKey + "_" + sheetType; // ej: "banchile_S", "fynsa_T"
-
-                // Obtenemos el mapper específico para esta hoja
-                CargaMapperInterfaz mapper = strategyFactory.getMapper(mapperKey);
+                logger.info("Procesando hoja '{}' (tipo: {})", sheet.getSheetName(), hoja.tipo());
 
-                int headerRowIndex = getHeaderRowIndexFor(bankKey, sheetType);
-                for (int j = headerRowIndex; j <= sheet.getLastRowNum(); j++) {
+                medidor.iniciarHoja(sheet.getSheetName());
+                for (int j = hoja.primeraFila(); j <= sheet.getLastRowNum(); j++) {
                     Row row = sheet.getRow(j);
                     if (row == null) continue;
 
+                    int numeroFila = j + 1;
                     try {
-                        Object dto = mapper.map(row, j + 1, "cargado_desde_app");
-                        if (dto != null) {
-                            processor.procesar(dto);
+                        CargaTransaccionEntity fila = medidor.medir(MedidorCarga.ETAPA_MAPEO,
+                                () -> hoja.mapeador().apply(row, numeroFila));
+                        if (fila != null) {
+                            destino.accept(fila);
                             filasProcesadas++;
                         }
                     } catch (Exception e) {
                         errores++;
-                        logger.error("Error al procesar la fila {} de la hoja '{}': {}", j + 1, sheet.getSheetName(), e.getMessage());
+                        medidor.registrarRechazo(numeroFila, e.getClass().getSimpleName(), e.getMessage());
+                        logger.error("Error al procesar la fila {} de la hoja '{}': {}", numeroFila, sheet.getSheetName(), e.getMessage());
                     }
                 }
+                medidor.terminarHoja();
             }
         } catch (Exception e) {
-            logger.error("Error crítico al procesar el archivo para {}: {}", bankKey, e.getMessage(), e);
+            logger.error("Error crítico al procesar el archivo para {}: {}", adapter.getClave(), e.getMessage(), e);
             return ResultadoCargaDto.fallido("Error al procesar el archivo: " + e.getMessage());
         }
         
         Duration duracion = Duration.between(inicio, Instant.now());
         String mensaje = String.format("Carga a staging completada. Filas procesadas: %d, Errores: %d.", filasProcesadas, errores);
-        return ResultadoCargaDto.exitoso(filasProcesadas, duracion, mensaje);
+        return ResultadoCargaDto.exitoso(filasProcesadas, duracion, mensaje, medidor.toDto(filasProcesadas, duracion));
+    }
+
+    @Override
+    @Transactional
+    public ResultadoCargaDto procesarArchivoCsv(Path archivo, String claveCustodio, String tipoHoja) {
+        CustodioAdapter adapter = adapterRegistry.buscar(claveCustodio).orElse(null);
+        if (adapter == null) {
+            return ResultadoCargaDto.fallido("No existe adaptador para el custodio: " + claveCustodio);
+        }
+        if (tipoHoja == null || adapter.getColumnas(tipoHoja).isEmpty()) {
+            return ResultadoCargaDto.fallido(String.format("El adaptador de %s no define columnas para el tipo de registro %s",
+                    adapter.getClave(), tipoHoja));
+        }
+        OpcionesParseo opciones = adapter.getOpciones();
+
+        long inicioLectura = System.nanoTime();
+        // Se omiten las líneas previas al encabezado; la primera línea leída es el encabezado
+        try (FuenteRegistros fuente = new LectorCsvMapeado(archivo, opciones.getCharset(), opciones.getSeparador(),
+                adapter.getFilaEncabezado(tipoHoja))) {
+            long nanosApertura = System.nanoTime() - inicioLectura;
+            Iterator<RegistroFuente> registros = fuente.iterator();
+            RegistroFuente encabezado = registros.hasNext() ? registros.next() : null;
+            if (encabezado == null && PlanMapeo.requiereEncabezado(adapter, tipoHoja)) {
+                return ResultadoCargaDto.fallido("El archivo no tiene fila de encabezado: " + fuente.getNombre());
+            }
+            PlanMapeo plan = PlanMapeo.compilar(adapter, tipoHoja, encabezado);
+
+            return procesarFuente(fuente.getNombre(), () -> registros, adapter.getClave(), nanosApertura, plan::mapear);
+        } catch (Exception e) {
+            logger.error("Error crítico al procesar el CSV {} para {}: {}", archivo, claveCustodio, e.getMessage(), e);
+            return ResultadoCargaDto.fallido("Error al procesar el archivo: " + e.getMessage());
+        }
     }
 
     /**
-     * Centraliza la lógica para determinar el tipo de hoja.
+     * Recorre registros de formato plano y los guarda en staging.
      */
-    private String determineSheetType(String bankKey, int sheetIndex, String sheetName) {
-        if ("fynsa".equalsIgnoreCase(bankKey)) {
-            if (sheetName.toLowerCase().startsWith("stock")) return "S";
-            if (sheetName.toLowerCase().startsWith("mvto")) {
-                if (sheetIndex == 0) return "C"; // Asumiendo un orden específico si los nombres son iguales
-                if (sheetIndex == 1) return "T";
+    private ResultadoCargaDto procesarFuente(String nombreFuente, Iterable<RegistroFuente> registros, String bankKey,
+                                             long nanosApertura, Function<RegistroFuente, CargaTransaccionEntity> mapeador) {
+        return enLote(bankKey, nombreFuente,
+                () -> recorrerFuente(nombreFuente, registros, bankKey, nanosApertura, mapeador));
+    }
+
+    private ResultadoCargaDto recorrerFuente(String nombreFuente, Iterable<RegistroFuente> registros, String bankKey,
+                                             long nanosApertura, Function<RegistroFuente, CargaTransaccionEntity> mapeador) {
+        Instant inicio = Instant.now();
+        int filasProcesadas = 0;
+        int errores = 0;
+        MedidorCarga medidor = new MedidorCarga();
+        medidor.acumular(MedidorCarga.ETAPA_LECTURA, nanosApertura);
+        medidor.iniciarHoja(nombreFuente);
+
+        for (RegistroFuente registro : registros) {
+            if (registro.isVacio()) continue;
+            try {
+                CargaTransaccionEntity fila = medidor.medir(MedidorCarga.ETAPA_MAPEO, () -> mapeador.apply(registro));
+                if (fila != null) {
+                    stagingProcessor.procesar(fila, medidor);
+                    filasProcesadas++;
+                }
+            } catch (Exception e) {
+                errores++;
+                medidor.registrarRechazo(registro.getNumeroFila(), e.getClass().getSimpleName(), e.getMessage());
+                logger.error("Error al procesar la fila {} de '{}': {}", registro.getNumeroFila(), nombreFuente, e.getMessage());
             }
-            return "";
-        } else if ("banchile".equalsIgnoreCase(bankKey)) {
-            if (sheetIndex == 0) return "S";
-            if (sheetIndex == 1) return "T";
-            return "T"; // Valor por defecto para otras hojas de BanChile
         }
-        return "";
+        medidor.terminarHoja();
+
+        Duration duracion = Duration.between(inicio, Instant.now());
+        String mensaje = String.format("Carga a staging completada. Filas procesadas: %d, Errores: %d.", filasProcesadas, errores);
+        ResultadoCargaDto resultado = ResultadoCargaDto.exitoso(filasProcesadas, duracion, mensaje, medidor.toDto(filasProcesadas, duracion));
+
+        metricasService.registrar(bankKey, nombreFuente, resultado);
+        return resultado;
+    }
+
+    /**
+     * Hoja lista para recorrer: tipo de registro, primera fila de datos y mapeo de filas a staging.
+     */
+    private record HojaPreparada(String tipo, int primeraFila,
+                                 BiFunction<Row, Integer, CargaTransaccionEntity> mapeador) {
     }
 
     /**
-     * Centraliza la lógica para saber en qué fila empiezan los datos.
+     * Compila el plan de columnas una vez por hoja a partir de su fila de encabezado.
+     * Devuelve null si el adaptador no reconoce la hoja.
      */
-    private int getHeaderRowIndexFor(String bankKey, String sheetType) {
-        if ("banchile".equals(bankKey)) {
-            return 4; 
+    private HojaPreparada prepararHoja(CustodioAdapter adapter, int indiceHoja, Sheet sheet) {
+        String tipo = adapter.determinarTipoHoja(indiceHoja, sheet.getSheetName());
+        if (tipo == null || tipo.isBlank()) {
+            return null;
         }
-        return 1; 
+        int filaEncabezado = adapter.getFilaEncabezado(tipo);
+        Row encabezado = sheet.getRow(filaEncabezado);
+        if (encabezado == null && PlanMapeo.requiereEncabezado(adapter, tipo)) {
+            throw new IllegalStateException(String.format("La hoja '%s' no tiene encabezado en la fila %d",
+                    sheet.getSheetName(), filaEncabezado + 1));
+        }
+        PlanMapeo plan = PlanMapeo.compilar(adapter, tipo,
+                encabezado != null ? new RegistroExcel(encabezado, filaEncabezado + 1, excelRowUtils) : null);
+
+        return new HojaPreparada(tipo, filaEncabezado + 1, (row, numeroFila) -> {
+            RegistroExcel registro = new RegistroExcel(row, numeroFila, excelRowUtils);
+            return registro.isVacio() ? null : plan.mapear(registro);
+        });
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,121 @@
+package com.portafolio.etl.service;
+
+import com.portafolio.costing.api.CostingApi;
+import com.portafolio.model.entities.LoteCargaEntity;
+import com.portafolio.persistence.repositorio.CargaTransaccionRepository;
+import com.portafolio.persistence.repositorio.LoteCargaRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Registro de lotes de carga y operaciones de staging por lote: purgar o reprocesar
+ * una carga usa el índice lote_id en vez de recorrer carga_transacciones por fechas.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LoteCargaService {
+
+    private final LoteCargaRepository loteCargaRepository;
+    private final CargaTransaccionRepository cargaTransaccionRepository;
+    private final CostingApi costingApi;
+
+    /**
+     * Registra un nuevo lote para la ingesta que comienza.
+     *
+     * @return Id del lote.
+     */
+    @Transactional
+    public Long abrir(String custodio, String origen) {
+        LoteCargaEntity lote = loteCargaRepository.save(LoteCargaEntity.builder()
+                .custodio(custodio)
+                .origen(origen)
+                .fechaCarga(LocalDateTime.now())
+                .build());
+        log.debug("Lote de carga {} abierto ({} - {})", lote.getId(), custodio, origen);
+        return lote.getId();
+    }
+
+    /**
+     * Registra la cantidad de filas que el lote llevó a staging.
+     */
+    @Transactional
+    public void cerrar(Long loteId, int filas) {
+        loteCargaRepository.findById(loteId).ifPresent(lote -> lote.setFilas(filas));
+    }
+
+    /**
+     * Últimos lotes con filas de staging, para elegir cuál reprocesar o purgar.
+     */
+    @Transactional(readOnly = true)
+    public List<LoteCargaEntity> listarVigentes() {
+        return loteCargaRepository.findTop50ByPurgadoFalseOrderByIdDesc();
+    }
+
+    /**
+     * Elimina las filas de staging del lote. Las transacciones ya normalizadas se conservan
+     * y mantienen su lote_id como trazabilidad.
+     *
+     * @return Filas eliminadas.
+     */
+    @Transactional
+    public int purgar(Long loteId) {
+        int eliminadas = cargaTransaccionRepository.deleteByLoteId(loteId);
+        loteCargaRepository.findById(loteId).ifPresent(lote -> lote.setPurgado(true));
+        log.info("Lote de carga {} purgado: {} filas de staging eliminadas", loteId, eliminadas);
+        return eliminadas;
+    }
+
+    /**
+     * Deja pendientes las filas del lote para que la próxima normalización las vuelva a procesar.
+     * Antes elimina las transacciones que el lote ya generó, con su kardex y filas derivadas,
+     * para que la nueva normalización no las duplique.
+     *
+     * @return Filas reiniciadas.
+     */
+    @Transactional
+    public int reprocesar(Long loteId) {
+        LoteCargaEntity lote = loteCargaRepository.findById(loteId)
+                .orElseThrow(() -> new IllegalArgumentException("No existe el lote de carga " + loteId));
+        if (lote.isPurgado()) {
+            throw new IllegalStateException("El lote de carga " + loteId + " ya fue purgado; no hay filas que reprocesar");
+        }
+        int descartadas = costingApi.descartarTransaccionesLote(loteId);
+        int reiniciadas = cargaTransaccionRepository.resetProcesadoByLoteId(loteId);
+        log.warn("Lote de carga {} marcado para reprocesar: {} filas ({} transacciones descartadas)",
+                loteId, reiniciadas, descartadas);
+        return reiniciadas;
+    }
+
+    /**
+     * Purga los lotes cargados antes de la fecha cuyas filas ya fueron todas normalizadas.
+     * Las filas sin lote, anteriores al registro de lotes, se purgan por fecha de carga
+     * si ya fueron normalizadas.
+     *
+     * @return Filas de staging eliminadas.
+     */
+    @Transactional
+    public int purgarAnterioresA(LocalDate fecha) {
+        List<LoteCargaEntity> lotes = loteCargaRepository
+                .findByPurgadoFalseAndFechaCargaBeforeOrderByIdAsc(fecha.atStartOfDay());
+        int eliminadas = 0;
+        for (LoteCargaEntity lote : lotes) {
+            if (cargaTransaccionRepository.countByLoteIdAndProcesadoFalse(lote.getId()) > 0) {
+                log.debug("Lote {} con filas pendientes, no se purga", lote.getId());
+                continue;
+            }
+            eliminadas += cargaTransaccionRepository.deleteByLoteId(lote.getId());
+            lote.setPurgado(true);
+        }
+        int sinLote = cargaTransaccionRepository.deleteSinLoteProcesadasAntesDe(fecha);
+        log.info("Purgados lotes de carga anteriores a {}: {} filas de staging eliminadas ({} sin lote)",
+                fecha, eliminadas + sinLote, sinLote);
+        return eliminadas + sinLote;
+    }
+}
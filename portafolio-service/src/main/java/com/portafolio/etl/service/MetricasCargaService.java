@@ -0,0 +1,146 @@
+package com.portafolio.etl.service;
+
+import com.portafolio.model.dto.MetricasCargaDto;
+import com.portafolio.model.dto.ResultadoCargaDto;
+import com.portafolio.model.entities.AuditoriaEntity;
+import com.portafolio.persistence.repositorio.AuditoriaRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Publica la telemetría de cada carga: métricas Micrometer y registros en auditorias.
+ */
+@Slf4j
+@Service
+public class MetricasCargaService {
+
+    public static final String TIPO_ENTIDAD_CARGA = "CARGA_ETL";
+    public static final String TIPO_ENTIDAD_FILA_RECHAZADA = "CARGA_ETL_FILA";
+
+    private static final int LARGO_MAXIMO_TEXTO = 1000;
+
+    private final AuditoriaRepository auditoriaRepository;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate transaccionAuditoria;
+
+    public MetricasCargaService(AuditoriaRepository auditoriaRepository, ObjectProvider<MeterRegistry> meterRegistryProvider,
+                                PlatformTransactionManager transactionManager) {
+        this.auditoriaRepository = auditoriaRepository;
+        // La auditoría va en su propia transacción: si falla, la carga no queda marcada para rollback
+        this.transaccionAuditoria = new TransactionTemplate(transactionManager);
+        this.transaccionAuditoria.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        // Sin actuator no hay registro en el contexto; se usa el registro global de Micrometer
+        this.meterRegistry = meterRegistryProvider.getIfAvailable(() -> Metrics.globalRegistry);
+    }
+
+    /**
+     * Exporta y persiste las métricas de la carga. Los registros de auditoría se confirman
+     * en una transacción independiente; un error aquí nunca interrumpe ni revierte la carga.
+     */
+    public void registrar(String custodio, String archivoOrigen, ResultadoCargaDto resultado) {
+        MetricasCargaDto metricas = resultado.getMetricas();
+        if (metricas == null) {
+            return;
+        }
+        try {
+            exportar(custodio, resultado, metricas);
+            transaccionAuditoria.executeWithoutResult(status -> persistirAuditoria(custodio, archivoOrigen, resultado, metricas));
+        } catch (Exception e) {
+            log.warn("No se pudieron registrar las métricas de la carga de {}: {}", custodio, e.getMessage());
+        }
+    }
+
+    // ===== MÉTODOS PRIVADOS =====
+
+    private void exportar(String custodio, ResultadoCargaDto resultado, MetricasCargaDto metricas) {
+        metricas.getTiemposPorEtapa().forEach((etapa, duracion) -> Timer.builder("portafolio.etl.etapa")
+                .description("Tiempo acumulado por etapa de la carga")
+                .tag("custodio", custodio)
+                .tag("etapa", etapa)
+                .register(meterRegistry)
+                .record(duracion));
+
+        Timer.builder("portafolio.etl.carga")
+                .description("Duración total de la carga")
+                .tag("custodio", custodio)
+                .register(meterRegistry)
+                .record(resultado.getDuracion());
+
+        Counter.builder("portafolio.etl.filas")
+                .tag("custodio", custodio)
+                .register(meterRegistry)
+                .increment(resultado.getFilasProcesadas());
+
+        metricas.getRechazosPorCausa().forEach((causa, cantidad) -> Counter.builder("portafolio.etl.rechazos")
+                .tag("custodio", custodio)
+                .tag("causa", causa)
+                .register(meterRegistry)
+                .increment(cantidad));
+    }
+
+    private void persistirAuditoria(String custodio, String archivoOrigen, ResultadoCargaDto resultado, MetricasCargaDto metricas) {
+        List<AuditoriaEntity> auditorias = new ArrayList<>();
+
+        int duplicados = metricas.getDuplicados();
+        int rechazados = metricas.getTotalRechazos() - duplicados;
+        auditorias.add(AuditoriaEntity.builder()
+                .tipoEntidad(TIPO_ENTIDAD_CARGA)
+                .valorClave(custodio)
+                .archivoOrigen(archivoOrigen)
+                .filaNumero(0)
+                .motivo("Resumen de carga")
+                .descripcion(recortar(construirResumen(resultado, metricas)))
+                .registrosInsertados(Math.max(resultado.getFilasProcesadas() - duplicados, 0))
+                .registrosRechazados(rechazados)
+                .registrosDuplicados(duplicados)
+                .build());
+
+        for (MetricasCargaDto.FilaRechazada fila : metricas.getFilasRechazadas()) {
+            auditorias.add(AuditoriaEntity.builder()
+                    .tipoEntidad(TIPO_ENTIDAD_FILA_RECHAZADA)
+                    .valorClave(fila.getHoja())
+                    .archivoOrigen(archivoOrigen)
+                    .filaNumero(fila.getFila())
+                    .motivo(recortar(fila.getCausa()))
+                    .descripcion(recortar(fila.getDetalle()))
+                    .registrosRechazados(1)
+                    .build());
+        }
+        auditoriaRepository.saveAll(auditorias);
+    }
+
+    private String construirResumen(ResultadoCargaDto resultado, MetricasCargaDto metricas) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Filas: %d, %.1f filas/s, duración %d ms. Etapas:",
+                resultado.getFilasProcesadas(), metricas.getFilasPorSegundo(), resultado.getDuracion().toMillis()));
+        metricas.getTiemposPorEtapa().forEach((etapa, d) -> sb.append(' ').append(etapa).append('=').append(d.toMillis()).append("ms"));
+        sb.append(". Hojas:");
+        metricas.getTiemposPorHoja().forEach((hoja, d) -> sb.append(' ').append(hoja).append('=').append(d.toMillis()).append("ms"));
+        if (!metricas.getRechazosPorCausa().isEmpty()) {
+            sb.append(". Rechazos:");
+            for (Map.Entry<String, Integer> e : metricas.getRechazosPorCausa().entrySet()) {
+                sb.append(' ').append(e.getKey()).append('=').append(e.getValue());
+            }
+        }
+        return sb.toString();
+    }
+
+    private String recortar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        return texto.length() > LARGO_MAXIMO_TEXTO ? texto.substring(0, LARGO_MAXIMO_TEXTO) : texto;
+    }
+}
@@ -0,0 +1,128 @@
+package com.portafolio.etl.source;
+
+import com.portafolio.etl.interfaces.FuenteRegistros;
+import com.portafolio.etl.interfaces.RegistroFuente;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Base para lectores de archivos planos mapeados en memoria.
+ * Recorre el archivo por offsets de bytes y solo decodifica texto
+ * cuando el mapper solicita el valor de una columna.
+ */
+public abstract class LectorArchivoMapeado implements FuenteRegistros {
+
+    private static final byte SALTO_LINEA = '\n';
+    private static final byte RETORNO_CARRO = '\r';
+
+    protected final MappedByteBuffer buffer;
+    protected final Charset charset;
+    private final String nombre;
+    private final int lineasOmitidas;
+    private final byte comilla;
+
+    /**
+     * @param lineasOmitidas Líneas de encabezado a saltar al inicio del archivo.
+     * @param comilla Carácter de comilla que protege saltos de línea, o 0 si no aplica.
+     */
+    protected LectorArchivoMapeado(Path archivo, Charset charset, int lineasOmitidas, byte comilla) throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            long tamano = canal.size();
+            if (tamano > Integer.MAX_VALUE) {
+                throw new IOException("Archivo demasiado grande para mapear en memoria: " + archivo);
+            }
+            // El mapeo sigue siendo válido después de cerrar el canal
+            this.buffer = canal.map(FileChannel.MapMode.READ_ONLY, 0, tamano);
+        }
+        this.charset = charset;
+        this.nombre = archivo.getFileName().toString();
+        this.lineasOmitidas = lineasOmitidas;
+        this.comilla = comilla;
+    }
+
+    /**
+     * Construye el registro para la línea [inicio, fin) del buffer.
+     */
+    protected abstract RegistroFuente crearRegistro(int inicio, int fin, int numeroFila);
+
+    /**
+     * Decodifica el rango [inicio, fin) del buffer como texto.
+     */
+    protected String decodificar(int inicio, int fin) {
+        byte[] bytes = new byte[fin - inicio];
+        buffer.get(inicio, bytes);
+        return new String(bytes, charset);
+    }
+
+    @Override
+    public String getNombre() {
+        return nombre;
+    }
+
+    @Override
+    public Iterator<RegistroFuente> iterator() {
+        return new Iterator<>() {
+            private int posicion = 0;
+            private int numeroLinea = 0;
+            private RegistroFuente siguiente = avanzar();
+
+            private RegistroFuente avanzar() {
+                int limite = buffer.limit();
+                while (posicion < limite) {
+                    int inicio = posicion;
+                    int fin = buscarFinDeLinea(inicio, limite);
+                    posicion = fin < limite ? fin + 1 : limite;
+                    numeroLinea++;
+
+                    if (fin > inicio && buffer.get(fin - 1) == RETORNO_CARRO) {
+                        fin--;
+                    }
+                    if (numeroLinea <= lineasOmitidas || fin == inicio) {
+                        continue;
+                    }
+                    return crearRegistro(inicio, fin, numeroLinea);
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return siguiente != null;
+            }
+
+            @Override
+            public RegistroFuente next() {
+                if (siguiente == null) {
+                    throw new NoSuchElementException();
+                }
+                RegistroFuente actual = siguiente;
+                siguiente = avanzar();
+                return actual;
+            }
+        };
+    }
+
+    private int buscarFinDeLinea(int inicio, int limite) {
+        boolean entreComillas = false;
+        for (int i = inicio; i < limite; i++) {
+            byte b = buffer.get(i);
+            if (comilla != 0 && b == comilla) {
+                entreComillas = !entreComillas;
+            } else if (b == SALTO_LINEA && !entreComillas) {
+                return i;
+            }
+        }
+        return limite;
+    }
+
+    @Override
+    public void close() throws IOException {
+        // El buffer mapeado se libera junto con el objeto; no hay canal abierto que cerrar.
+    }
+}
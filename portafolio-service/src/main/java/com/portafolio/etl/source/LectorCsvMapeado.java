@@ -0,0 +1,90 @@
+package com.portafolio.etl.source;
+
+import com.portafolio.etl.interfaces.RegistroFuente;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Lector CSV sobre un archivo mapeado en memoria.
+ * Cada registro guarda solo los offsets de sus columnas; el texto se decodifica bajo demanda.
+ */
+public class LectorCsvMapeado extends LectorArchivoMapeado {
+
+    private static final byte COMILLA = '"';
+
+    private final byte separador;
+
+    public LectorCsvMapeado(Path archivo, Charset charset, char separador, int lineasEncabezado) throws IOException {
+        super(archivo, charset, lineasEncabezado, COMILLA);
+        this.separador = (byte) separador;
+    }
+
+    @Override
+    protected RegistroFuente crearRegistro(int inicio, int fin, int numeroFila) {
+        // offsets[2k] = inicio de la columna k, offsets[2k+1] = fin (exclusivo)
+        int[] offsets = new int[16];
+        int columnas = 0;
+        int inicioColumna = inicio;
+        boolean entreComillas = false;
+
+        for (int i = inicio; i <= fin; i++) {
+            boolean finDeColumna = i == fin;
+            if (!finDeColumna) {
+                byte b = buffer.get(i);
+                if (b == COMILLA) {
+                    entreComillas = !entreComillas;
+                } else if (b == separador && !entreComillas) {
+                    finDeColumna = true;
+                }
+            }
+            if (finDeColumna) {
+                if (2 * columnas + 1 >= offsets.length) {
+                    offsets = Arrays.copyOf(offsets, offsets.length * 2);
+                }
+                offsets[2 * columnas] = inicioColumna;
+                offsets[2 * columnas + 1] = i;
+                columnas++;
+                inicioColumna = i + 1;
+            }
+        }
+        return new RegistroCsv(numeroFila, offsets, columnas);
+    }
+
+    private final class RegistroCsv implements RegistroFuente {
+
+        private final int numeroFila;
+        private final int[] offsets;
+        private final int columnas;
+
+        private RegistroCsv(int numeroFila, int[] offsets, int columnas) {
+            this.numeroFila = numeroFila;
+            this.offsets = offsets;
+            this.columnas = columnas;
+        }
+
+        @Override
+        public int getNumeroFila() {
+            return numeroFila;
+        }
+
+        @Override
+        public int getNumeroColumnas() {
+            return columnas;
+        }
+
+        @Override
+        public String getString(int columna) {
+            if (columna < 0 || columna >= columnas) {
+                return null;
+            }
+            int inicio = offsets[2 * columna];
+            int fin = offsets[2 * columna + 1];
+            if (fin - inicio >= 2 && buffer.get(inicio) == COMILLA && buffer.get(fin - 1) == COMILLA) {
+                return decodificar(inicio + 1, fin - 1).replace("\"\"", "\"").trim();
+            }
+            return decodificar(inicio, fin).trim();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.portafolio.etl.source;
+
+import com.portafolio.etl.adapter.OpcionesParseo;
+import com.portafolio.etl.interfaces.RegistroFuente;
+import com.portafolio.etl.util.ExcelRowUtils;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+
+/**
+ * Adaptador de una fila POI al contrato RegistroFuente, para que los
+ * mappers por registro también sirvan para las cartolas Excel.
+ */
+public class RegistroExcel implements RegistroFuente {
+
+    private final Row row;
+    private final int numeroFila;
+    private final ExcelRowUtils utils;
+
+    public RegistroExcel(Row row, int numeroFila, ExcelRowUtils utils) {
+        this.row = row;
+        this.numeroFila = numeroFila;
+        this.utils = utils;
+    }
+
+    @Override
+    public int getNumeroFila() {
+        return numeroFila;
+    }
+
+    @Override
+    public int getNumeroColumnas() {
+        return Math.max(row.getLastCellNum(), 0);
+    }
+
+    @Override
+    public String getString(int columna) {
+        return utils.getString(row.getCell(columna));
+    }
+
+    /**
+     * Las celdas numéricas se leen directamente; las de texto usan las opciones del custodio.
+     */
+    @Override
+    public BigDecimal getBigDecimal(int columna, OpcionesParseo opciones) {
+        Cell cell = row.getCell(columna);
+        if (cell != null && cell.getCellType() == CellType.NUMERIC) {
+            return BigDecimal.valueOf(cell.getNumericCellValue());
+        }
+        return opciones.parseDecimal(getString(columna));
+    }
+
+    @Override
+    public LocalDate getLocalDate(int columna, OpcionesParseo opciones) {
+        Cell cell = row.getCell(columna);
+        if (cell != null && cell.getCellType() == CellType.NUMERIC) {
+            return utils.getLocalDate(cell);
+        }
+        return opciones.parseFecha(getString(columna));
+    }
+
+    @Override
+    public boolean isVacio() {
+        return utils.shouldSkipRow(row);
+    }
+}
@@ -0,0 +1,39 @@
+package com.portafolio.etl.util;
+
+import java.util.function.Supplier;
+
+/**
+ * Lote de carga en curso en el hilo actual. EtlServiceImpl lo fija mientras recorre
+ * un archivo y los procesadores lo graban en cada fila de staging que persisten.
+ */
+public final class LoteCargaContexto {
+
+    private static final ThreadLocal<Long> ACTUAL = new ThreadLocal<>();
+
+    private LoteCargaContexto() {
+    }
+
+    /**
+     * Id del lote en curso, o null fuera de una carga.
+     */
+    public static Long actual() {
+        return ACTUAL.get();
+    }
+
+    /**
+     * Ejecuta la acción con el lote indicado como lote en curso.
+     */
+    public static <T> T ejecutar(Long loteId, Supplier<T> accion) {
+        Long anterior = ACTUAL.get();
+        ACTUAL.set(loteId);
+        try {
+            return accion.get();
+        } finally {
+            if (anterior == null) {
+                ACTUAL.remove();
+            } else {
+                ACTUAL.set(anterior);
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.portafolio.etl.util;
+
+import com.portafolio.model.dto.MetricasCargaDto;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Acumula tiempos y rechazos durante una carga. Una instancia por archivo; no es thread-safe.
+ */
+public class MedidorCarga {
+
+    public static final String ETAPA_LECTURA = "lectura";
+    public static final String ETAPA_MAPEO = "mapeo";
+    public static final String ETAPA_ESCRITURA = "escritura";
+
+    public static final String CAUSA_DUPLICADO = "DUPLICADO";
+
+    // Evita que un archivo completamente inválido llene la memoria y la auditoría
+    private static final int MAX_FILAS_RECHAZADAS = 500;
+
+    private static final MedidorCarga SIN_MEDICION = new MedidorCarga(false);
+
+    private final boolean activo;
+    private final Map<String, Long> nanosPorEtapa = new LinkedHashMap<>();
+    private final Map<String, Long> nanosPorHoja = new LinkedHashMap<>();
+    private final Map<String, Integer> rechazosPorCausa = new LinkedHashMap<>();
+    private final List<MetricasCargaDto.FilaRechazada> filasRechazadas = new ArrayList<>();
+
+    private String hojaActual;
+    private long inicioHoja;
+
+    public MedidorCarga() {
+        this(true);
+    }
+
+    private MedidorCarga(boolean activo) {
+        this.activo = activo;
+    }
+
+    /**
+     * Medidor que no registra nada, para llamadas sin telemetría.
+     */
+    public static MedidorCarga sinMedicion() {
+        return SIN_MEDICION;
+    }
+
+    public <T> T medir(String etapa, Supplier<T> accion) {
+        if (!activo) {
+            return accion.get();
+        }
+        long inicio = System.nanoTime();
+        try {
+            return accion.get();
+        } finally {
+            acumular(etapa, System.nanoTime() - inicio);
+        }
+    }
+
+    public void ejecutar(String etapa, Runnable accion) {
+        medir(etapa, () -> {
+            accion.run();
+            return null;
+        });
+    }
+
+    public void acumular(String etapa, long nanos) {
+        if (activo) {
+            nanosPorEtapa.merge(etapa, nanos, Long::sum);
+        }
+    }
+
+    public void iniciarHoja(String hoja) {
+        hojaActual = hoja;
+        inicioHoja = System.nanoTime();
+    }
+
+    public void terminarHoja() {
+        if (activo && hojaActual != null) {
+            nanosPorHoja.merge(hojaActual, System.nanoTime() - inicioHoja, Long::sum);
+        }
+        hojaActual = null;
+    }
+
+    /**
+     * Registra una fila rechazada. La causa agrupa el histograma (ej. tipo de excepción).
+     * Los duplicados no pasan por aquí: se cuentan con {@link #registrarDuplicados(int)}
+     * para que no ocupen el detalle, que queda para los rechazos reales.
+     */
+    public void registrarRechazo(int fila, String causa, String detalle) {
+        if (!activo) {
+            return;
+        }
+        rechazosPorCausa.merge(causa, 1, Integer::sum);
+        if (filasRechazadas.size() < MAX_FILAS_RECHAZADAS) {
+            filasRechazadas.add(new MetricasCargaDto.FilaRechazada(hojaActual, fila, causa, detalle));
+        }
+    }
+
+    /**
+     * Suma duplicados al contador agregado, sin detalle por fila.
+     */
+    public void registrarDuplicados(int cantidad) {
+        if (activo && cantidad > 0) {
+            rechazosPorCausa.merge(CAUSA_DUPLICADO, cantidad, Integer::sum);
+        }
+    }
+
+    public MetricasCargaDto toDto(int filasProcesadas, Duration total) {
+        long millis = total.toMillis();
+        return MetricasCargaDto.builder()
+                .tiemposPorEtapa(aDuraciones(nanosPorEtapa))
+                .tiemposPorHoja(aDuraciones(nanosPorHoja))
+                .rechazosPorCausa(new LinkedHashMap<>(rechazosPorCausa))
+                .filasRechazadas(List.copyOf(filasRechazadas))
+                .totalRechazos(rechazosPorCausa.values().stream().mapToInt(Integer::intValue).sum())
+                .duplicados(rechazosPorCausa.getOrDefault(CAUSA_DUPLICADO, 0))
+                .filasPorSegundo(millis > 0 ? filasProcesadas * 1000.0 / millis : filasProcesadas)
+                .build();
+    }
+
+    private static Map<String, Duration> aDuraciones(Map<String, Long> nanos) {
+        Map<String, Duration> resultado = new LinkedHashMap<>();
+        nanos.forEach((clave, valor) -> resultado.put(clave, Duration.ofNanos(valor)));
+        return resultado;
+    }
+}
@@ -0,0 +1,88 @@
+package com.portafolio.etl.util;
+
+import com.portafolio.model.entities.CargaTransaccionEntity;
+import java.sql.Date;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Escritura por lotes JDBC en carga_transacciones, sin pasar por el contexto de persistencia.
+ * Los registros con la misma clave (fecha, fila, tipo) se omiten igual que en los procesadores.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StagingBatchWriter {
+
+    private static final String INSERT_STAGING = """
+        INSERT IGNORE INTO carga_transacciones (
+            fecha_transaccion, rowNum, tipoClase, razon_social, rut, cuenta, custodio, folio,
+            tipo_movimiento, movimiento_caja, producto, glosa, instrumento_nemo, instrumento_nombre,
+            moneda, cantidad, precio, monto, monto_total, comision, gastos, iva, cuenta_psh,
+            cant_libre, cant_garantia, cant_plazo, cant_vc, cant_total, monto_clp, monto_usd,
+            lote_id, procesado, fecha_creacion, creado_por, modificado_por
+        ) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, false, ?, 'sistema', 'sistema')
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserta el lote y devuelve la cantidad de filas efectivamente agregadas.
+     */
+    public int escribir(List<CargaTransaccionEntity> filas) {
+        if (filas.isEmpty()) {
+            return 0;
+        }
+        Date hoy = Date.valueOf(LocalDate.now());
+
+        int[][] resultados = jdbcTemplate.batchUpdate(INSERT_STAGING, filas, filas.size(), (ps, f) -> {
+            ps.setObject(1, f.getFechaTransaccion());
+            ps.setObject(2, f.getRowNum());
+            ps.setString(3, f.getTipoClase());
+            ps.setString(4, f.getRazonSocial());
+            ps.setString(5, f.getRut());
+            ps.setString(6, f.getCuenta());
+            ps.setString(7, f.getCustodioNombre());
+            ps.setString(8, f.getFolio());
+            ps.setString(9, f.getTipoMovimiento());
+            ps.setString(10, f.getMovimientoCaja());
+            ps.setString(11, f.getProducto());
+            ps.setString(12, f.getGlosa());
+            ps.setString(13, f.getInstrumentoNemo());
+            ps.setString(14, f.getInstrumentoNombre());
+            ps.setString(15, f.getMoneda());
+            ps.setBigDecimal(16, f.getCantidad());
+            ps.setBigDecimal(17, f.getPrecio());
+            ps.setBigDecimal(18, f.getMonto());
+            ps.setBigDecimal(19, f.getMontoTotal());
+            ps.setBigDecimal(20, f.getComision());
+            ps.setBigDecimal(21, f.getGastos());
+            ps.setBigDecimal(22, f.getIva());
+            ps.setString(23, f.getCuentaPsh());
+            ps.setBigDecimal(24, f.getCantLibre());
+            ps.setBigDecimal(25, f.getCantGarantia());
+            ps.setBigDecimal(26, f.getCantPlazo());
+            ps.setBigDecimal(27, f.getCantVc());
+            ps.setBigDecimal(28, f.getCantTotal());
+            ps.setBigDecimal(29, f.getMontoClp());
+            ps.setBigDecimal(30, f.getMontoUsd());
+            ps.setObject(31, f.getLoteId(), Types.BIGINT);
+            ps.setDate(32, hoy);
+        });
+
+        int insertadas = 0;
+        for (int[] lote : resultados) {
+            for (int r : lote) {
+                // Con rewriteBatchedStatements el driver puede devolver SUCCESS_NO_INFO (-2)
+                insertadas += r > 0 ? r : (r == java.sql.Statement.SUCCESS_NO_INFO ? 1 : 0);
+            }
+        }
+        log.debug("Lote de staging escrito: {} de {} filas", insertadas, filas.size());
+        return insertadas;
+    }
+}
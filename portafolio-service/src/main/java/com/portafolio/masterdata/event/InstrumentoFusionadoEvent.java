@@ -0,0 +1,12 @@
+package com.portafolio.masterdata.event;
+
+/**
+ * Se publica al fusionar un instrumento en otro, para que las tablas derivadas del kardex
+ * descarten las filas de ambos: el antiguo deja de existir y el nuevo queda por recostear.
+ * Editar un instrumento publica solo MaestroModificadoEvent y no las toca.
+ *
+ * @param instrumentoAntiguoId Id del instrumento eliminado por la fusión.
+ * @param instrumentoNuevoId Id del instrumento que absorbe sus transacciones.
+ */
+public record InstrumentoFusionadoEvent(Long instrumentoAntiguoId, Long instrumentoNuevoId) {
+}
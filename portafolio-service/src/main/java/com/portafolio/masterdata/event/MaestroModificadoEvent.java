@@ -0,0 +1,11 @@
+package com.portafolio.masterdata.event;
+
+/**
+ * Se publica cuando se edita, elimina o fusiona un dato maestro, para que los
+ * cachés que lo referencian se invaliden.
+ *
+ * @param tipoEntidad Clase de la entidad modificada (ej. InstrumentoEntity.class).
+ * @param id Id de la entidad modificada, o null si el cambio afecta a varias.
+ */
+public record MaestroModificadoEvent(Class<?> tipoEntidad, Long id) {
+}
@@ -7,11 +7,13 @@ import com.portafolio.model.entities.CustodioEntity;
 import com.portafolio.persistence.repositorio.CuentaRepository;
 import com.portafolio.persistence.repositorio.CustodioRepository;
 import com.portafolio.mapper.CustodioMapper;
+import com.portafolio.masterdata.event.MaestroModificadoEvent;
 import com.portafolio.masterdata.interfaces.CustodioService;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -28,6 +30,7 @@ public class CustodioServiceImpl implements CustodioService {
     private final CustodioRepository custodioRepository;
     private final CuentaRepository cuentaRepository;
     private final CustodioMapper custodioMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     // --- OPERACIONES CRUD ---
 
@@ -52,6 +55,7 @@ public class CustodioServiceImpl implements CustodioService {
         custodio.setNombreCustodio(actualizarDto.getNombreCustodio());
         
         CustodioEntity custodioActualizado = custodioRepository.save(custodio);
+        eventPublisher.publishEvent(new MaestroModificadoEvent(CustodioEntity.class, id));
         return custodioMapper.toDtoComplete(custodioActualizado);
     }
 
@@ -61,6 +65,7 @@ public class CustodioServiceImpl implements CustodioService {
             throw new EntityNotFoundException("Custodio no encontrado con id: " + id);
         }
         custodioRepository.deleteById(id);
+        eventPublisher.publishEvent(new MaestroModificadoEvent(CustodioEntity.class, id));
         logger.info("Custodio con ID {} eliminado.", id);
     }
 
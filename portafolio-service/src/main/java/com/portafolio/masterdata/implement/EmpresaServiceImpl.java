@@ -9,9 +9,11 @@ import com.portafolio.model.entities.GrupoEmpresaEntity;
 import com.portafolio.persistence.repositorio.CustodioRepository;
 import com.portafolio.persistence.repositorio.EmpresaRepository;
 import com.portafolio.persistence.repositorio.GrupoEmpresaRepository;
+import com.portafolio.masterdata.event.MaestroModificadoEvent;
 import com.portafolio.masterdata.interfaces.EmpresaService;
 import com.portafolio.mapper.EmpresaMapper;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -26,15 +28,18 @@ public class EmpresaServiceImpl implements EmpresaService {
     private final CustodioRepository custodioRepository;
     private final GrupoEmpresaRepository grupoEmpresaRepository;
     private final EmpresaMapper empresaMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     public EmpresaServiceImpl(EmpresaRepository empresaRepository,
                               CustodioRepository custodioRepository,
                               GrupoEmpresaRepository grupoEmpresaRepository,
-                              EmpresaMapper empresaMapper) {
+                              EmpresaMapper empresaMapper,
+                              ApplicationEventPublisher eventPublisher) {
         this.empresaRepository = empresaRepository;
         this.custodioRepository = custodioRepository;
         this.grupoEmpresaRepository = grupoEmpresaRepository;
         this.empresaMapper = empresaMapper;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -96,6 +101,7 @@ public class EmpresaServiceImpl implements EmpresaService {
         }
         
         empresaRepository.save(empresa);
+        eventPublisher.publishEvent(new MaestroModificadoEvent(EmpresaEntity.class, id));
         return empresaMapper.toDtoComplete(empresa);
     }
 
@@ -106,6 +112,7 @@ public class EmpresaServiceImpl implements EmpresaService {
         }
         // Aquí podrías añadir lógica para verificar si la empresa tiene transacciones antes de borrarla
         empresaRepository.deleteById(id);
+        eventPublisher.publishEvent(new MaestroModificadoEvent(EmpresaEntity.class, id));
     }
 
     @Override
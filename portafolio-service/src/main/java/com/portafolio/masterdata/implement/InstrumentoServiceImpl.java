@@ -8,11 +8,13 @@ import com.portafolio.model.entities.ProductoEntity;
 import com.portafolio.persistence.repositorio.InstrumentoRepository;
 import com.portafolio.persistence.repositorio.ProductoRepository;
 import com.portafolio.mapper.InstrumentoMapper;
+import com.portafolio.masterdata.event.MaestroModificadoEvent;
 import com.portafolio.masterdata.interfaces.InstrumentoService;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -29,6 +31,7 @@ public class InstrumentoServiceImpl implements InstrumentoService {
     private final InstrumentoRepository instrumentoRepository;
     private final ProductoRepository productoRepository;
     private final InstrumentoMapper instrumentoMapper; // Inyectamos el mapper
+    private final ApplicationEventPublisher eventPublisher;
 
     // --- OPERACIONES CRUD ---
     @Override
@@ -66,6 +69,7 @@ public class InstrumentoServiceImpl implements InstrumentoService {
         }
 
         InstrumentoEntity instrumentoActualizado = instrumentoRepository.save(instrumento);
+        eventPublisher.publishEvent(new MaestroModificadoEvent(InstrumentoEntity.class, id));
         return instrumentoMapper.toDtoComplete(instrumentoActualizado);
     }
 
@@ -76,6 +80,7 @@ public class InstrumentoServiceImpl implements InstrumentoService {
         }
         // A futuro, añadir validación para no borrar instrumentos con transacciones asociadas
         instrumentoRepository.deleteById(id);
+        eventPublisher.publishEvent(new MaestroModificadoEvent(InstrumentoEntity.class, id));
         logger.info("Instrumento con ID {} eliminado.", id);
     }
 
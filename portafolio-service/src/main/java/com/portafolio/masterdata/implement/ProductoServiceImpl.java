@@ -5,9 +5,11 @@ import com.portafolio.model.dto.CrearProductoDto;
 import com.portafolio.model.dto.ProductoDto;
 import com.portafolio.model.entities.ProductoEntity;
 import com.portafolio.persistence.repositorio.ProductoRepository;
+import com.portafolio.masterdata.event.MaestroModificadoEvent;
 import com.portafolio.masterdata.interfaces.ProductoService;
 import com.portafolio.mapper.ProductoMapper;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -19,10 +21,13 @@ public class ProductoServiceImpl implements ProductoService {
 
     private final ProductoRepository productoRepository;
     private final ProductoMapper productoMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public ProductoServiceImpl(ProductoRepository productoRepository, ProductoMapper productoMapper) {
+    public ProductoServiceImpl(ProductoRepository productoRepository, ProductoMapper productoMapper,
+                               ApplicationEventPublisher eventPublisher) {
         this.productoRepository = productoRepository;
         this.productoMapper = productoMapper;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -60,6 +65,7 @@ public class ProductoServiceImpl implements ProductoService {
         productoMapper.updateEntityFromDto(actualizarDto, producto);
 
         ProductoEntity productoActualizado = productoRepository.save(producto);
+        eventPublisher.publishEvent(new MaestroModificadoEvent(ProductoEntity.class, id));
         return productoMapper.toDto(productoActualizado);
     }
 
@@ -73,6 +79,7 @@ public class ProductoServiceImpl implements ProductoService {
         }
 
         productoRepository.delete(producto);
+        eventPublisher.publishEvent(new MaestroModificadoEvent(ProductoEntity.class, id));
     }
 
     @Override
@@ -8,9 +8,11 @@ import com.portafolio.model.entities.TipoMovimientoEntity;
 import com.portafolio.persistence.repositorio.MovimientoContableRepository;
 import com.portafolio.persistence.repositorio.TipoMovimientoRepository;
 import com.portafolio.persistence.repositorio.TransaccionRepository;
+import com.portafolio.masterdata.event.MaestroModificadoEvent;
 import com.portafolio.masterdata.interfaces.TipoMovimientoService;
 import com.portafolio.mapper.TipoMovimientoMapper;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,15 +26,18 @@ public class TipoMovimientoServiceImpl implements TipoMovimientoService {
     private final MovimientoContableRepository movimientoContableRepository;
     private final TransaccionRepository transaccionRepository; // Necesario para la regla de eliminación
     private final TipoMovimientoMapper tipoMovimientoMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     public TipoMovimientoServiceImpl(TipoMovimientoRepository tipoMovimientoRepository,
             MovimientoContableRepository movimientoContableRepository,
             TransaccionRepository transaccionRepository,
-            TipoMovimientoMapper tipoMovimientoMapper) {
+            TipoMovimientoMapper tipoMovimientoMapper,
+            ApplicationEventPublisher eventPublisher) {
         this.tipoMovimientoRepository = tipoMovimientoRepository;
         this.movimientoContableRepository = movimientoContableRepository;
         this.transaccionRepository = transaccionRepository;
         this.tipoMovimientoMapper = tipoMovimientoMapper;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -78,6 +83,7 @@ public class TipoMovimientoServiceImpl implements TipoMovimientoService {
         entidad.setMovimientoContable(contable);
 
         TipoMovimientoEntity entidadActualizada = tipoMovimientoRepository.save(entidad);
+        eventPublisher.publishEvent(new MaestroModificadoEvent(TipoMovimientoEntity.class, id));
         return tipoMovimientoMapper.toDto(entidadActualizada);
     }
 
@@ -93,6 +99,7 @@ public class TipoMovimientoServiceImpl implements TipoMovimientoService {
         }
 
         tipoMovimientoRepository.deleteById(id);
+        eventPublisher.publishEvent(new MaestroModificadoEvent(TipoMovimientoEntity.class, id));
     }
 
     @Override
@@ -0,0 +1,13 @@
+package com.portafolio.normalizar.event;
+
+import java.util.Set;
+
+/**
+ * Se publica al terminar una normalización (de un lote de carga o de todo lo pendiente),
+ * con los grupos de costeo que recibieron transacciones nuevas, para costear solo esos grupos.
+ *
+ * @param loteId Lote de carga normalizado, o null si se normalizó todo lo pendiente.
+ * @param gruposAfectados Claves de agrupación (empresaId|cuenta|custodioId|instrumentoId).
+ */
+public record CargaNormalizadaEvent(Long loteId, Set<String> gruposAfectados) {
+}
@@ -0,0 +1,228 @@
+package com.portafolio.normalizar.processor;
+
+import com.portafolio.normalizar.reglas.ReglasCompiladas;
+import com.portafolio.normalizar.reglas.ReglasNormalizacionService;
+import com.portafolio.ui.service.cache.DatosReporteModificadosEvent;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+/**
+ * Normalización por conjuntos para cargas iniciales masivas.
+ * Resuelve datos maestros y crea transacciones con INSERT ... SELECT,
+ * aplicando las mismas reglas que EntityCacheManager y NormalizationProcessor.
+ * Las reglas de reglas_normalizacion se traducen a expresiones SQL en cada rango.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BulkNormalizationProcessor {
+
+    // ===== EXPRESIONES DE NORMALIZACIÓN (equivalentes a EntityCacheManager) =====
+    private static final String RUT_NORMALIZADO =
+            "UPPER(TRIM(REPLACE(REPLACE(COALESCE(c.rut, ''), '.', ''), '-', '')))";
+    private static final String CUSTODIO_RECORTADO = "TRIM(COALESCE(c.custodio, ''))";
+    private static final String NEMO_RECORTADO = "TRIM(c.instrumento_nemo)";
+    private static final String TIPO_MOVIMIENTO_REGULAR =
+            "COALESCE(NULLIF(TRIM(c.tipo_movimiento), ''), 'MOVIMIENTO')";
+    private static final String TIPO_SALDO_INICIAL = "'SALDO INICIAL'";
+
+    private static final String HUELLA = HuellaTransaccion.expresionSql(
+            "e.id", "cu.id", "c.cuenta", "i.id", "c.fecha_transaccion", "c.folio", "c.cantidad", "c.monto");
+
+    private static final String FILTRO_PENDIENTES =
+            "c.procesado = false AND c.fecha_transaccion BETWEEN :desde AND :hasta";
+
+    private final ReglasNormalizacionService reglasService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Normaliza todos los registros pendientes del rango en una transacción propia.
+     *
+     * @return Cantidad de transacciones creadas.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int normalizarRango(LocalDate desde, LocalDate hasta, boolean esCargaInicial) {
+        Expresiones expr = expresiones(reglasService.vigentes(), esCargaInicial);
+
+        int empresas = crearEmpresasFaltantes(desde, hasta);
+        int custodios = crearCustodiosFaltantes(desde, hasta, expr);
+        int productos = crearProductosFaltantes(desde, hasta);
+        int instrumentos = crearInstrumentosFaltantes(desde, hasta, expr);
+        int tipos = crearTiposMovimientoFaltantes(desde, hasta, expr, esCargaInicial);
+        log.debug("Maestros creados {}-{}: empresas={}, custodios={}, productos={}, instrumentos={}, tipos={}",
+                desde, hasta, empresas, custodios, productos, instrumentos, tipos);
+
+        int insertadas = insertarTransacciones(desde, hasta, expr);
+        int marcadas = marcarProcesados(desde, hasta, expr);
+        if (insertadas != marcadas) {
+            log.warn("Diferencia entre transacciones creadas ({}) y registros marcados ({}) en {}-{}",
+                    insertadas, marcadas, desde, hasta);
+        }
+        if (insertadas > 0) {
+            eventPublisher.publishEvent(new DatosReporteModificadosEvent("normalización masiva"));
+        }
+        return insertadas;
+    }
+
+    /**
+     * Expresiones SQL de custodio, tipo de movimiento y nemónico normalizados.
+     */
+    private record Expresiones(String custodio, String tipoMovimiento, String nemo) {
+    }
+
+    // ===== MÉTODOS PRIVADOS =====
+
+    private Expresiones expresiones(ReglasCompiladas reglas, boolean esCargaInicial) {
+        String custodio = reglas.sqlCustodio(CUSTODIO_RECORTADO);
+        String tipoMovimiento = esCargaInicial
+                ? TIPO_SALDO_INICIAL
+                : reglas.sqlTipoMovimiento(TIPO_MOVIMIENTO_REGULAR, custodio);
+        return new Expresiones(custodio, tipoMovimiento, reglas.sqlNemo(NEMO_RECORTADO));
+    }
+
+    private int crearEmpresasFaltantes(LocalDate desde, LocalDate hasta) {
+        String sql = """
+            INSERT INTO empresas (rut, razonsocial, fecha_creacion, creado_por)
+            SELECT x.rut, MAX(x.razon_social), CURRENT_DATE, 'sistema'
+            FROM (
+                SELECT %s AS rut, TRIM(COALESCE(c.razon_social, '')) AS razon_social
+                FROM carga_transacciones c
+                WHERE %s
+            ) x
+            WHERE x.rut <> ''
+              AND NOT EXISTS (SELECT 1 FROM empresas e WHERE e.rut = x.rut)
+            GROUP BY x.rut
+            """.formatted(RUT_NORMALIZADO, FILTRO_PENDIENTES);
+        return ejecutar(sql, desde, hasta);
+    }
+
+    private int crearCustodiosFaltantes(LocalDate desde, LocalDate hasta, Expresiones expr) {
+        String sql = """
+            INSERT INTO custodios (custodio, fecha_creacion, creado_por)
+            SELECT DISTINCT x.nombre, CURRENT_DATE, 'sistema'
+            FROM (
+                SELECT %s AS nombre
+                FROM carga_transacciones c
+                WHERE %s
+            ) x
+            WHERE NOT EXISTS (SELECT 1 FROM custodios cu WHERE cu.custodio = x.nombre)
+            """.formatted(expr.custodio(), FILTRO_PENDIENTES);
+        return ejecutar(sql, desde, hasta);
+    }
+
+    private int crearProductosFaltantes(LocalDate desde, LocalDate hasta) {
+        String sql = """
+            INSERT INTO productos (producto, fecha_creacion, creado_por)
+            SELECT DISTINCT TRIM(c.producto), CURRENT_DATE, 'sistema'
+            FROM carga_transacciones c
+            WHERE %s
+              AND NULLIF(TRIM(c.producto), '') IS NOT NULL
+              AND NOT EXISTS (SELECT 1 FROM productos p WHERE p.producto = TRIM(c.producto))
+            """.formatted(FILTRO_PENDIENTES);
+        return ejecutar(sql, desde, hasta);
+    }
+
+    /**
+     * Los instrumentos requieren producto; los registros sin producto solo se
+     * normalizan si el nemo ya existe en el maestro.
+     */
+    private int crearInstrumentosFaltantes(LocalDate desde, LocalDate hasta, Expresiones expr) {
+        String sql = """
+            INSERT INTO instrumentos (nemo, instrumento, producto_id, fecha_creacion, creado_por)
+            SELECT x.nemo, MAX(x.nombre), MIN(x.producto_id), CURRENT_DATE, 'sistema'
+            FROM (
+                SELECT %s AS nemo, TRIM(COALESCE(c.instrumento_nombre, '')) AS nombre, p.id AS producto_id
+                FROM carga_transacciones c
+                JOIN productos p ON p.producto = TRIM(c.producto)
+                WHERE %s
+                  AND NULLIF(TRIM(c.instrumento_nemo), '') IS NOT NULL
+            ) x
+            WHERE NOT EXISTS (SELECT 1 FROM instrumentos i WHERE i.nemo = x.nemo)
+            GROUP BY x.nemo
+            """.formatted(expr.nemo(), FILTRO_PENDIENTES);
+        return ejecutar(sql, desde, hasta);
+    }
+
+    private int crearTiposMovimientoFaltantes(LocalDate desde, LocalDate hasta, Expresiones expr, boolean esCargaInicial) {
+        String descripcion = esCargaInicial ? "'Carga de Saldo Inicial'" : "'Normalizado desde carga'";
+        String sql = """
+            INSERT INTO tipo_movimientos (tipo_movimiento, descripcion, es_saldo_inicial, fecha_creacion, creado_por)
+            SELECT DISTINCT x.tipo, %s, false, CURRENT_DATE, 'sistema'
+            FROM (
+                SELECT %s AS tipo
+                FROM carga_transacciones c
+                WHERE %s
+            ) x
+            WHERE NOT EXISTS (SELECT 1 FROM tipo_movimientos tm WHERE tm.tipo_movimiento = x.tipo)
+            """.formatted(descripcion, expr.tipoMovimiento(), FILTRO_PENDIENTES);
+        return ejecutar(sql, desde, hasta);
+    }
+
+    /**
+     * Une staging con los maestros. Custodios no tiene nombre único, por lo que se toma el menor id.
+     */
+    private String joinsMaestros(Expresiones expr) {
+        return """
+            JOIN empresas e ON e.rut = %s
+            JOIN (SELECT custodio, MIN(id) AS id FROM custodios GROUP BY custodio) cu ON cu.custodio = %s
+            JOIN instrumentos i ON i.nemo = %s
+            JOIN tipo_movimientos tm ON tm.tipo_movimiento = %s
+            """.formatted(RUT_NORMALIZADO, expr.custodio(), expr.nemo(), expr.tipoMovimiento());
+    }
+
+    /**
+     * Crea las transacciones. El monto total replica TransaccionEntity.calcularTotal() y la
+     * huella, HuellaTransaccion; los duplicados se marcan después por lote (DuplicadosService).
+     */
+    private int insertarTransacciones(LocalDate desde, LocalDate hasta, Expresiones expr) {
+        String sql = """
+            INSERT INTO transacciones (
+                fecha_transaccion, folio, cuenta, glosa, cantidad, precio, comision, gasto, iva,
+                monto_total, monto, monto_clp, moneda, costeado, para_revision, ignorar_en_costeo, duplicado_sospechoso,
+                empresa_id, instrumento_id, custodio_id, movimiento_id, lote_id, huella, fecha_creacion, creado_por
+            )
+            SELECT c.fecha_transaccion, c.folio, c.cuenta,
+                   CONCAT('Normalizado automáticamente',
+                          COALESCE(CONCAT(' - ', NULLIF(TRIM(c.tipo_movimiento), '')), ''),
+                          COALESCE(CONCAT(' (', NULLIF(TRIM(c.custodio), ''), ')'), '')),
+                   COALESCE(c.cantidad, 0), COALESCE(c.precio, 0), COALESCE(c.comision, 0),
+                   COALESCE(c.gastos, 0), COALESCE(c.iva, 0),
+                   COALESCE(c.cantidad, 0) * COALESCE(c.precio, 0),
+                   COALESCE(c.monto, 0), COALESCE(c.monto_clp, 0), c.moneda,
+                   false, false, false, false,
+                   e.id, i.id, cu.id, tm.id, c.lote_id, %s, CURRENT_DATE, 'sistema'
+            FROM carga_transacciones c
+            %s
+            WHERE %s
+            """.formatted(HUELLA, joinsMaestros(expr), FILTRO_PENDIENTES);
+        return ejecutar(sql, desde, hasta);
+    }
+
+    private int marcarProcesados(LocalDate desde, LocalDate hasta, Expresiones expr) {
+        String sql = """
+            UPDATE carga_transacciones c
+            %s
+            SET c.procesado = true
+            WHERE %s
+            """.formatted(joinsMaestros(expr), FILTRO_PENDIENTES);
+        return ejecutar(sql, desde, hasta);
+    }
+
+    private int ejecutar(String sql, LocalDate desde, LocalDate hasta) {
+        return entityManager.createNativeQuery(sql)
+                .setParameter("desde", desde)
+                .setParameter("hasta", hasta)
+                .executeUpdate();
+    }
+}
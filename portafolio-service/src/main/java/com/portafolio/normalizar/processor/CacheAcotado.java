@@ -0,0 +1,78 @@
+package com.portafolio.normalizar.processor;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Mapa concurrente con un máximo de entradas. Al superarlo se descartan las claves
+ * más antiguas (orden de inserción). Lleva contadores de aciertos, fallos y descartes.
+ */
+public class CacheAcotado<K, V> {
+
+    private final int maxEntradas;
+    private final Map<K, V> valores = new ConcurrentHashMap<>();
+    private final Queue<K> ordenInsercion = new ConcurrentLinkedQueue<>();
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+    private final LongAdder descartes = new LongAdder();
+
+    public CacheAcotado(int maxEntradas) {
+        this.maxEntradas = Math.max(1, maxEntradas);
+    }
+
+    public V get(K clave) {
+        V valor = valores.get(clave);
+        if (valor != null) {
+            aciertos.increment();
+        } else {
+            fallos.increment();
+        }
+        return valor;
+    }
+
+    /**
+     * Consulta sin afectar las estadísticas (doble verificación bajo candado).
+     */
+    public V peek(K clave) {
+        return valores.get(clave);
+    }
+
+    public void put(K clave, V valor) {
+        if (valores.put(clave, valor) == null) {
+            ordenInsercion.add(clave);
+            while (valores.size() > maxEntradas) {
+                K antigua = ordenInsercion.poll();
+                if (antigua == null) {
+                    break;
+                }
+                if (valores.remove(antigua) != null) {
+                    descartes.increment();
+                }
+            }
+        }
+    }
+
+    public void limpiar() {
+        valores.clear();
+        ordenInsercion.clear();
+    }
+
+    public int size() {
+        return valores.size();
+    }
+
+    public long getAciertos() {
+        return aciertos.sum();
+    }
+
+    public long getFallos() {
+        return fallos.sum();
+    }
+
+    public long getDescartes() {
+        return descartes.sum();
+    }
+}
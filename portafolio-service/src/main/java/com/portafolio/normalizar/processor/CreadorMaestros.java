@@ -0,0 +1,221 @@
+package com.portafolio.normalizar.processor;
+
+import com.portafolio.model.entities.CustodioEntity;
+import com.portafolio.model.entities.TipoMovimientoEntity;
+import com.portafolio.model.entities.EmpresaEntity;
+import com.portafolio.model.entities.InstrumentoEntity;
+import com.portafolio.model.entities.ProductoEntity;
+import com.portafolio.persistence.repositorio.ProductoRepository;
+import com.portafolio.persistence.repositorio.InstrumentoRepository;
+import com.portafolio.persistence.repositorio.CustodioRepository;
+import com.portafolio.persistence.repositorio.TipoMovimientoRepository;
+import com.portafolio.persistence.repositorio.EmpresaRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Búsqueda o creación de datos maestros durante la normalización. Retorna solo ids:
+ * las entidades no salen de la transacción que las cargó.
+ * Cada operación confirma en su propia transacción: un maestro nuevo queda visible
+ * de inmediato para los demás workers, que pueden referenciarlo sin esperar a que
+ * termine el lote que lo creó.
+ */
+@Component
+@RequiredArgsConstructor
+public class CreadorMaestros {
+
+    private final EmpresaRepository empresaRepository;
+    private final CustodioRepository custodioRepository;
+    private final ProductoRepository productoRepository;
+    private final InstrumentoRepository instrumentoRepository;
+    private final TipoMovimientoRepository tipoMovimientoRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Long findOrCreateEmpresa(String razonSocial, String rut) {
+        // Buscar por RUT primero
+        return empresaRepository.findByRut(rut)
+                .orElseGet(() -> {
+                    // Si no existe, crear nueva empresa
+                    EmpresaEntity nueva = EmpresaEntity.builder()
+                            .rut(rut)
+                            .razonSocial(razonSocial != null ? razonSocial.trim() : "")
+                            .build();
+                    return empresaRepository.save(nueva);
+                })
+                .getId();
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Long findOrCreateCustodio(String nombre) {
+        return custodioRepository.findByNombre(nombre)
+                .orElseGet(() -> {
+                    CustodioEntity nuevo = CustodioEntity.builder()
+                            .nombreCustodio(nombre)
+                            .build();
+                    return custodioRepository.save(nuevo);
+                })
+                .getId();
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Long findOrCreateProducto(String cuenta) {
+        return productoRepository.findByProducto(cuenta)
+                .orElseGet(() -> {
+                    ProductoEntity nuevo = ProductoEntity.builder()
+                            .producto(cuenta)
+                            .build();
+                    return productoRepository.save(nuevo);
+                })
+                .getId();
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Long findOrCreateInstrumento(String nemo, String nombre, Long productoId) {
+        ProductoEntity producto = (productoId != null) ? productoRepository.getReferenceById(productoId) : null;
+        return instrumentoRepository.findByInstrumentoNemo(nemo)
+                .orElseGet(() -> {
+                    InstrumentoEntity nuevo = InstrumentoEntity.builder()
+                            .instrumentoNemo(nemo != null ? nemo.trim() : "")
+                            .instrumentoNombre(nombre != null ? nombre.trim() : "")
+                            .producto(producto)
+                            .build();
+                    return instrumentoRepository.save(nuevo);
+                })
+                .getId();
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Long findOrCreateTipoMovimiento(String tipo, String descripcion) {
+        return tipoMovimientoRepository.findByTipoMovimiento(tipo)
+                .orElseGet(() -> {
+                    TipoMovimientoEntity nuevo = TipoMovimientoEntity.builder()
+                            .tipoMovimiento(tipo)
+                            .descripcion(descripcion != null ? descripcion : tipo)
+                            .build();
+                    return tipoMovimientoRepository.save(nuevo);
+                })
+                .getId();
+    }
+
+    // ===== RESOLUCIÓN EN BLOQUE =====
+
+    /**
+     * Resuelve varias empresas con una consulta IN e inserta por lote las que faltan.
+     *
+     * @param razonSocialPorRut RUT normalizado -> razón social.
+     * @return RUT -> id.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Map<String, Long> findOrCreateEmpresas(Map<String, String> razonSocialPorRut) {
+        return resolverEnBloque(razonSocialPorRut.keySet(),
+                ruts -> empresaRepository.findByRutsIn(ruts), EmpresaEntity::getRut, EmpresaEntity::getId,
+                faltantes -> insertar("INSERT INTO empresas (rut, razonsocial, fecha_creacion, creado_por) VALUES (?, ?, CURRENT_DATE, 'sistema')",
+                        faltantes, rut -> new Object[]{rut, razonSocialPorRut.getOrDefault(rut, "")}));
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Map<String, Long> findOrCreateCustodios(Collection<String> nombres) {
+        return resolverEnBloque(nombres,
+                lista -> custodioRepository.findByNombresIn(lista), CustodioEntity::getNombreCustodio, CustodioEntity::getId,
+                faltantes -> insertar("INSERT INTO custodios (custodio, fecha_creacion, creado_por) VALUES (?, CURRENT_DATE, 'sistema')",
+                        faltantes, nombre -> new Object[]{nombre}));
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Map<String, Long> findOrCreateProductos(Collection<String> productos) {
+        return resolverEnBloque(productos,
+                lista -> productoRepository.findByProductoIn(lista), ProductoEntity::getProducto, ProductoEntity::getId,
+                faltantes -> insertar("INSERT INTO productos (producto, fecha_creacion, creado_por) VALUES (?, CURRENT_DATE, 'sistema')",
+                        faltantes, producto -> new Object[]{producto}));
+    }
+
+    /**
+     * Los instrumentos requieren producto: los nemos sin producto resuelto no se crean aquí
+     * y quedan para la resolución fila a fila.
+     *
+     * @param nemos Nemos a resolver.
+     * @param nombrePorNemo Nemo -> nombre del instrumento.
+     * @param productoIdPorNemo Nemo -> id del producto, para los que haya que crear.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Map<String, Long> findOrCreateInstrumentos(Collection<String> nemos, Map<String, String> nombrePorNemo,
+                                                      Map<String, Long> productoIdPorNemo) {
+        return resolverEnBloque(nemos,
+                lista -> instrumentoRepository.findByInstrumentoNemoIn(lista), InstrumentoEntity::getInstrumentoNemo, InstrumentoEntity::getId,
+                faltantes -> insertar("INSERT INTO instrumentos (nemo, instrumento, producto_id, fecha_creacion, creado_por) VALUES (?, ?, ?, CURRENT_DATE, 'sistema')",
+                        faltantes.stream().filter(productoIdPorNemo::containsKey).toList(),
+                        nemo -> new Object[]{nemo, nombrePorNemo.getOrDefault(nemo, ""), productoIdPorNemo.get(nemo)}));
+    }
+
+    /**
+     * @param descripcionPorTipo Nombre del tipo -> descripción para los que haya que crear.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Map<String, Long> findOrCreateTiposMovimiento(Map<String, String> descripcionPorTipo) {
+        return resolverEnBloque(descripcionPorTipo.keySet(),
+                lista -> tipoMovimientoRepository.findByTipoMovimientoIn(lista), TipoMovimientoEntity::getTipoMovimiento, TipoMovimientoEntity::getId,
+                faltantes -> insertar("INSERT INTO tipo_movimientos (tipo_movimiento, descripcion, es_saldo_inicial, fecha_creacion, creado_por) VALUES (?, ?, false, CURRENT_DATE, 'sistema')",
+                        faltantes, tipo -> new Object[]{tipo, descripcionPorTipo.getOrDefault(tipo, tipo)}));
+    }
+
+    /**
+     * Consulta IN, inserción por lote de las claves ausentes y segunda consulta IN para
+     * obtener sus ids. La comparación de claves ignora mayúsculas, igual que la collation
+     * de MySQL, para no intentar insertar un maestro que ya existe con otra capitalización.
+     */
+    private <E> Map<String, Long> resolverEnBloque(Collection<String> claves,
+                                                   Function<List<String>, List<E>> buscar,
+                                                   Function<E, String> claveDe,
+                                                   Function<E, Long> idDe,
+                                                   Consumer<List<String>> insertarFaltantes) {
+        Map<String, Long> resultado = new HashMap<>();
+        if (claves.isEmpty()) {
+            return resultado;
+        }
+        List<String> pendientes = new ArrayList<>(claves);
+        asignarIds(pendientes, buscar.apply(pendientes), claveDe, idDe, resultado);
+
+        List<String> faltantes = pendientes.stream().filter(c -> !resultado.containsKey(c)).toList();
+        if (!faltantes.isEmpty()) {
+            // Una sola inserción por clave aunque llegue con distinta capitalización
+            Map<String, String> unicos = new LinkedHashMap<>();
+            faltantes.forEach(c -> unicos.putIfAbsent(c.toLowerCase(), c));
+            insertarFaltantes.accept(new ArrayList<>(unicos.values()));
+            asignarIds(faltantes, buscar.apply(faltantes), claveDe, idDe, resultado);
+        }
+        return resultado;
+    }
+
+    private <E> void asignarIds(List<String> claves, List<E> encontrados, Function<E, String> claveDe,
+                                Function<E, Long> idDe, Map<String, Long> resultado) {
+        Map<String, Long> idPorClave = new HashMap<>();
+        for (E entidad : encontrados) {
+            idPorClave.putIfAbsent(claveDe.apply(entidad).trim().toLowerCase(), idDe.apply(entidad));
+        }
+        for (String clave : claves) {
+            Long id = idPorClave.get(clave.toLowerCase());
+            if (id != null) {
+                resultado.put(clave, id);
+            }
+        }
+    }
+
+    private void insertar(String sql, List<String> claves, Function<String, Object[]> parametros) {
+        if (!claves.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, claves.stream().map(parametros).toList());
+        }
+    }
+}
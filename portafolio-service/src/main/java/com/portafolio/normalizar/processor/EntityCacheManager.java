@@ -1,43 +1,77 @@
 package com.portafolio.normalizar.processor;
 
+import com.portafolio.masterdata.event.MaestroModificadoEvent;
+import com.portafolio.model.entities.CargaTransaccionEntity;
 import com.portafolio.model.entities.CustodioEntity;
 import com.portafolio.model.entities.TipoMovimientoEntity;
 import com.portafolio.model.entities.EmpresaEntity;
 import com.portafolio.model.entities.InstrumentoEntity;
 import com.portafolio.model.entities.ProductoEntity;
-import com.portafolio.persistence.repositorio.ProductoRepository;
-import com.portafolio.persistence.repositorio.InstrumentoRepository;
-import com.portafolio.persistence.repositorio.CustodioRepository;
-import com.portafolio.persistence.repositorio.TipoMovimientoRepository;
-import com.portafolio.persistence.repositorio.EmpresaRepository;
-import lombok.RequiredArgsConstructor;
+import com.portafolio.model.entities.ReglaNormalizacionEntity;
+import com.portafolio.normalizar.reglas.ReglasNormalizacionService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Gestor de caché para entidades durante el proceso de normalización.
  * Migración Spring del EntidadCacheManager original.
+ * Guarda solo ids, nunca entidades administradas: cada llamada entrega una referencia
+ * del contexto de persistencia de quien la pide. Se precarga al iniciar la aplicación,
+ * se mantiene entre normalizaciones y se invalida al editar datos maestros.
+ * Es seguro para varios workers: las lecturas no se bloquean y solo la búsqueda
+ * o creación de un maestro ausente se serializa.
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class EntityCacheManager {
 
-    private final EmpresaRepository empresaRepository;
-    private final CustodioRepository custodioRepository;
-    private final ProductoRepository productoRepository;
-    private final InstrumentoRepository instrumentoRepository;
-    private final TipoMovimientoRepository tipoMovimientoRepository;
+    private final CreadorMaestros creadorMaestros;
+    private final ReglasNormalizacionService reglasService;
+    private final IndiceInstrumentos indiceInstrumentos;
 
-    // Cachés en memoria para evitar consultas repetidas
-    private final Map<String, EmpresaEntity> empresaCache = new HashMap<>();
-    private final Map<String, CustodioEntity> custodioCache = new HashMap<>();
-    private final Map<String, ProductoEntity> productoCache = new HashMap<>();
-    private final Map<String, InstrumentoEntity> instrumentoCache = new HashMap<>();
-    private final Map<String, TipoMovimientoEntity> tipoMovimientoCache = new HashMap<>();
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Cachés en memoria (clave de negocio -> id) para evitar consultas repetidas
+    private final CacheAcotado<String, Long> empresaCache;
+    private final CacheAcotado<String, Long> custodioCache;
+    private final CacheAcotado<String, Long> productoCache;
+    private final CacheAcotado<String, Long> instrumentoCache;
+    private final CacheAcotado<String, Long> tipoMovimientoCache;
+
+    // Evita que dos workers creen el mismo maestro a la vez
+    private final Object candadoCreacion = new Object();
+
+    public EntityCacheManager(CreadorMaestros creadorMaestros,
+                              ReglasNormalizacionService reglasService,
+                              IndiceInstrumentos indiceInstrumentos,
+                              @Value("${portafolio.cache.maestros.max-entradas:50000}") int maxEntradas) {
+        this.creadorMaestros = creadorMaestros;
+        this.reglasService = reglasService;
+        this.indiceInstrumentos = indiceInstrumentos;
+        this.empresaCache = new CacheAcotado<>(maxEntradas);
+        this.custodioCache = new CacheAcotado<>(maxEntradas);
+        this.productoCache = new CacheAcotado<>(maxEntradas);
+        this.instrumentoCache = new CacheAcotado<>(maxEntradas);
+        this.tipoMovimientoCache = new CacheAcotado<>(maxEntradas);
+    }
 
     /**
      * Obtiene o crea una empresa por RUT y razón social.
@@ -50,10 +84,11 @@ public class EntityCacheManager {
             return null;
         }
 
-        return empresaCache.computeIfAbsent(rutNormalizado, k -> {
+        Long id = resolver(empresaCache, rutNormalizado, () -> {
             log.debug("Buscando/creando empresa con RUT: {}", rutNormalizado);
-            return findOrCreateEmpresa(razonSocial, rutNormalizado);
+            return creadorMaestros.findOrCreateEmpresa(razonSocial, rutNormalizado);
         });
+        return referencia(EmpresaEntity.class, id);
     }
 
     /**
@@ -61,11 +96,12 @@ public class EntityCacheManager {
      */
     public CustodioEntity getCustodio(String nombre) {
         String nombreNormalizado = normalizarNombreCustodio(nombre);
-        
-        return custodioCache.computeIfAbsent(nombreNormalizado, k -> {
+
+        Long id = resolver(custodioCache, nombreNormalizado, () -> {
             log.debug("Buscando/creando custodio: {}", nombreNormalizado);
-            return findOrCreateCustodio(nombreNormalizado);
+            return creadorMaestros.findOrCreateCustodio(nombreNormalizado);
         });
+        return referencia(CustodioEntity.class, id);
     }
 
     /**
@@ -75,23 +111,35 @@ public class EntityCacheManager {
         if (cuenta == null || cuenta.trim().isEmpty()) {
             return null;
         }
-        
-        return productoCache.computeIfAbsent(cuenta.trim(), k -> {
+
+        Long id = resolver(productoCache, cuenta.trim(), () -> {
             log.debug("Buscando/creando producto: {}", cuenta);
-            return findOrCreateProducto(cuenta.trim());
+            return creadorMaestros.findOrCreateProducto(cuenta.trim());
         });
+        return referencia(ProductoEntity.class, id);
     }
 
     /**
      * Obtiene o crea un instrumento por nemónico, nombre y producto.
+     * La búsqueda es por nemónico canónico, por lo que también lo es la clave del caché.
+     * Antes de crearlo se consulta el índice de instrumentos (ver {@link #resolverInstrumentos}).
      */
     public InstrumentoEntity getInstrumento(String nemo, String nombre, ProductoEntity producto) {
-        String key = construirClaveInstrumento(nemo, nombre, producto);
-        
-        return instrumentoCache.computeIfAbsent(key, k -> {
-            log.debug("Buscando/creando instrumento: {} - {}", nemo, nombre);
-            return findOrCreateInstrumento(nemo, nombre, producto);
+        String key = reglasService.vigentes().nemo(nemo);
+        Long productoId = (producto != null) ? producto.getId() : null;
+
+        Long id = resolver(instrumentoCache, key, () -> {
+            log.debug("Buscando/creando instrumento: {} - {}", key, nombre);
+            Optional<IndiceInstrumentos.Coincidencia> coincidencia = indiceInstrumentos.buscar(key);
+            Long existente = existente(key, coincidencia);
+            if (existente != null) {
+                return existente;
+            }
+            Long nuevo = creadorMaestros.findOrCreateInstrumento(key, nombre, productoId);
+            registrarInstrumento(key, nuevo, coincidencia);
+            return nuevo;
         });
+        return referencia(InstrumentoEntity.class, id);
     }
 
     /**
@@ -101,113 +149,263 @@ public class EntityCacheManager {
         if (tipoMovimiento == null || tipoMovimiento.trim().isEmpty()) {
             return null;
         }
-        
-        return tipoMovimientoCache.computeIfAbsent(tipoMovimiento.trim(), k -> {
+
+        Long id = resolver(tipoMovimientoCache, tipoMovimiento.trim(), () -> {
             log.debug("Buscando/creando tipo movimiento: {}", tipoMovimiento);
-            return findOrCreateTipoMovimiento(tipoMovimiento.trim(), descripcion);
+            return creadorMaestros.findOrCreateTipoMovimiento(tipoMovimiento.trim(), descripcion);
         });
+        return referencia(TipoMovimientoEntity.class, id);
+    }
+
+    /**
+     * Pre-pasada de un lote: reúne las claves de maestros que no están en caché y las
+     * resuelve con una consulta IN por tipo, insertando por lote las que faltan. Tras
+     * ella, el procesamiento fila a fila no consulta la base de datos por maestros.
+     *
+     * @param registros Registros de staging del lote.
+     * @param descripcionPorTipo Tipos de movimiento que usará el lote -> descripción.
+     */
+    public void resolverEnBloque(List<CargaTransaccionEntity> registros, Map<String, String> descripcionPorTipo) {
+        Map<String, String> empresas = new HashMap<>();
+        Set<String> custodios = new HashSet<>();
+        Set<String> productos = new HashSet<>();
+        Map<String, String> nombrePorNemo = new HashMap<>();
+        Map<String, String> productoPorNemo = new HashMap<>();
+
+        for (CargaTransaccionEntity carga : registros) {
+            String rut = normalizarRut(carga.getRut());
+            if (!rut.isEmpty() && empresaCache.peek(rut) == null) {
+                empresas.putIfAbsent(rut, carga.getRazonSocial() != null ? carga.getRazonSocial().trim() : "");
+            }
+            String custodio = normalizarNombreCustodio(carga.getCustodioNombre());
+            if (custodioCache.peek(custodio) == null) {
+                custodios.add(custodio);
+            }
+            String producto = carga.getProducto() != null ? carga.getProducto().trim() : "";
+            if (!producto.isEmpty() && productoCache.peek(producto) == null) {
+                productos.add(producto);
+            }
+            String nemo = reglasService.vigentes().nemo(carga.getInstrumentoNemo());
+            if (!nemo.isEmpty() && instrumentoCache.peek(nemo) == null) {
+                nombrePorNemo.putIfAbsent(nemo, carga.getInstrumentoNombre() != null ? carga.getInstrumentoNombre().trim() : "");
+                if (!producto.isEmpty()) {
+                    productoPorNemo.putIfAbsent(nemo, producto);
+                }
+            }
+        }
+        Map<String, String> tipos = new HashMap<>();
+        descripcionPorTipo.forEach((tipo, descripcion) -> {
+            if (tipoMovimientoCache.peek(tipo.trim()) == null) {
+                tipos.put(tipo.trim(), descripcion);
+            }
+        });
+
+        if (empresas.isEmpty() && custodios.isEmpty() && productos.isEmpty() && nombrePorNemo.isEmpty() && tipos.isEmpty()) {
+            return;
+        }
+
+        synchronized (candadoCreacion) {
+            if (!empresas.isEmpty()) {
+                creadorMaestros.findOrCreateEmpresas(empresas).forEach(empresaCache::put);
+            }
+            if (!custodios.isEmpty()) {
+                creadorMaestros.findOrCreateCustodios(custodios).forEach(custodioCache::put);
+            }
+            if (!productos.isEmpty()) {
+                creadorMaestros.findOrCreateProductos(productos).forEach(productoCache::put);
+            }
+            if (!nombrePorNemo.isEmpty()) {
+                Map<String, Long> productoIdPorNemo = new HashMap<>();
+                productoPorNemo.forEach((nemo, producto) -> {
+                    Long productoId = productoCache.peek(producto);
+                    if (productoId != null) {
+                        productoIdPorNemo.put(nemo, productoId);
+                    }
+                });
+                resolverInstrumentos(nombrePorNemo, productoIdPorNemo).forEach(instrumentoCache::put);
+            }
+            if (!tipos.isEmpty()) {
+                creadorMaestros.findOrCreateTiposMovimiento(tipos).forEach(tipoMovimientoCache::put);
+            }
+        }
+        log.debug("Pre-pasada de maestros: {} empresas, {} custodios, {} productos, {} instrumentos, {} tipos",
+                empresas.size(), custodios.size(), productos.size(), nombrePorNemo.size(), tipos.size());
+    }
+
+    /**
+     * Carga en bloque las claves e ids de todos los datos maestros.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void precargar() {
+        long inicio = System.currentTimeMillis();
+        precargar(empresaCache, "SELECT e.rut, e.id FROM EmpresaEntity e", this::normalizarRut);
+        precargar(custodioCache, "SELECT c.nombreCustodio, c.id FROM CustodioEntity c", this::normalizarNombreCustodio);
+        precargar(productoCache, "SELECT p.producto, p.id FROM ProductoEntity p", String::trim);
+        precargar(instrumentoCache, "SELECT i.instrumentoNemo, i.id FROM InstrumentoEntity i", String::trim);
+        precargar(tipoMovimientoCache, "SELECT t.tipoMovimiento, t.id FROM TipoMovimientoEntity t", String::trim);
+        log.info("Caché de maestros precargado en {}ms: {}", System.currentTimeMillis() - inicio, getEstadisticasCache());
+    }
+
+    /**
+     * Invalida el caché del tipo de maestro editado, una vez confirmado el cambio.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alModificarMaestro(MaestroModificadoEvent evento) {
+        if (evento.tipoEntidad() == ReglaNormalizacionEntity.class) {
+            // Las claves de custodios, instrumentos y tipos dependen de las reglas
+            custodioCache.limpiar();
+            instrumentoCache.limpiar();
+            tipoMovimientoCache.limpiar();
+            log.info("Cachés de custodios, instrumentos y tipos invalidados por cambio de reglas");
+            return;
+        }
+        CacheAcotado<String, Long> cache = cachePorTipo(evento.tipoEntidad());
+        if (cache != null) {
+            cache.limpiar();
+            log.info("Caché de {} invalidado por modificación (id={})",
+                    evento.tipoEntidad().getSimpleName(), evento.id());
+        }
     }
 
     /**
      * Limpia todos los cachés. Útil entre procesamiento de archivos grandes.
      */
     public void limpiarCache() {
-        empresaCache.clear();
-        custodioCache.clear();
-        productoCache.clear();
-        instrumentoCache.clear();
-        tipoMovimientoCache.clear();
+        empresaCache.limpiar();
+        custodioCache.limpiar();
+        productoCache.limpiar();
+        instrumentoCache.limpiar();
+        tipoMovimientoCache.limpiar();
         log.info("Cachés de entidades limpiados");
     }
 
     /**
-     * Obtiene estadísticas de uso del caché.
+     * Obtiene estadísticas de uso del caché: entradas, aciertos, fallos y descartes por tipo.
      */
-    public Map<String, Integer> getEstadisticasCache() {
-        return Map.of(
-                "empresas", empresaCache.size(),
-                "custodios", custodioCache.size(),
-                "productos", productoCache.size(),
-                "instrumentos", instrumentoCache.size(),
-                "tiposMovimiento", tipoMovimientoCache.size()
-        );
+    public Map<String, Map<String, Long>> getEstadisticasCache() {
+        Map<String, Map<String, Long>> estadisticas = new LinkedHashMap<>();
+        estadisticas.put("empresas", estadisticas(empresaCache));
+        estadisticas.put("custodios", estadisticas(custodioCache));
+        estadisticas.put("productos", estadisticas(productoCache));
+        estadisticas.put("instrumentos", estadisticas(instrumentoCache));
+        estadisticas.put("tiposMovimiento", estadisticas(tipoMovimientoCache));
+        return estadisticas;
     }
 
     // ===== MÉTODOS PRIVADOS =====
 
-    private String normalizarRut(String rut) {
-        if (rut == null) return "";
-        return rut.replace(".", "").replace("-", "").trim().toUpperCase();
+    /**
+     * Resuelve los nemónicos ausentes del caché. Los que coinciden con un instrumento
+     * existente por nemónico exacto o normalizado lo reutilizan; el resto se crea, y los
+     * parecidos a uno existente quedan marcados para revisión en el índice.
+     */
+    private Map<String, Long> resolverInstrumentos(Map<String, String> nombrePorNemo, Map<String, Long> productoIdPorNemo) {
+        Map<String, Long> resueltos = new HashMap<>();
+        Map<String, Optional<IndiceInstrumentos.Coincidencia>> coincidencias = new HashMap<>();
+        Map<String, String> porCrear = new HashMap<>();
+        nombrePorNemo.forEach((nemo, nombre) -> {
+            Optional<IndiceInstrumentos.Coincidencia> coincidencia = indiceInstrumentos.buscar(nemo);
+            Long existente = existente(nemo, coincidencia);
+            if (existente != null) {
+                resueltos.put(nemo, existente);
+            } else {
+                coincidencias.put(nemo, coincidencia);
+                porCrear.put(nemo, nombre);
+            }
+        });
+        if (!porCrear.isEmpty()) {
+            creadorMaestros.findOrCreateInstrumentos(porCrear.keySet(), porCrear, productoIdPorNemo)
+                    .forEach((nemo, id) -> {
+                        resueltos.put(nemo, id);
+                        registrarInstrumento(nemo, id, coincidencias.get(nemo));
+                    });
+        }
+        return resueltos;
     }
 
-    private String normalizarNombreCustodio(String nombre) {
-        if (nombre == null) return "";
-        return nombre.trim()
-                .replace("Peshing", "Pershing") // Corrección común
-                .replace("  ", " "); // Espacios dobles
-    }
-
-    private String construirClaveInstrumento(String nemo, String nombre, ProductoEntity producto) {
-        String productoId = (producto != null) ? producto.getId().toString() : "null";
-        return String.format("%s|%s|%s", 
-                nemo != null ? nemo.trim() : "",
-                nombre != null ? nombre.trim() : "",
-                productoId);
-    }
-
-    private EmpresaEntity findOrCreateEmpresa(String razonSocial, String rut) {
-        // Buscar por RUT primero
-        return empresaRepository.findByRut(rut)
-                .orElseGet(() -> {
-                    // Si no existe, crear nueva empresa
-                    EmpresaEntity nueva = EmpresaEntity.builder()
-                            .rut(rut)
-                            .razonSocial(razonSocial != null ? razonSocial.trim() : "")
-                            .build();
-                    return empresaRepository.save(nueva);
-                });
+    /**
+     * Id del instrumento a reutilizar si la coincidencia es exacta o normalizada.
+     */
+    private Long existente(String nemo, Optional<IndiceInstrumentos.Coincidencia> coincidencia) {
+        if (coincidencia.isEmpty() || coincidencia.get().tipo() == IndiceInstrumentos.TipoCoincidencia.SIMILAR) {
+            return null;
+        }
+        if (coincidencia.get().tipo() == IndiceInstrumentos.TipoCoincidencia.NORMALIZADA) {
+            log.info("Nemónico '{}' resuelto al instrumento existente '{}' (id={})",
+                    nemo, coincidencia.get().nemo(), coincidencia.get().instrumentoId());
+        }
+        return coincidencia.get().instrumentoId();
     }
 
-    private CustodioEntity findOrCreateCustodio(String nombre) {
-        return custodioRepository.findByNombre(nombre)
-                .orElseGet(() -> {
-                    CustodioEntity nuevo = CustodioEntity.builder()
-                            .nombreCustodio(nombre)
-                            .build();
-                    return custodioRepository.save(nuevo);
-                });
+    private void registrarInstrumento(String nemo, Long id, Optional<IndiceInstrumentos.Coincidencia> similar) {
+        if (id == null) {
+            return;
+        }
+        indiceInstrumentos.registrar(nemo, id);
+        if (similar != null) {
+            similar.ifPresent(coincidencia -> indiceInstrumentos.marcarSimilar(id, coincidencia));
+        }
     }
 
-    private ProductoEntity findOrCreateProducto(String cuenta) {
-        return productoRepository.findByProducto(cuenta)
-                .orElseGet(() -> {
-                    ProductoEntity nuevo = ProductoEntity.builder()
-                            .producto(cuenta)
-                            .build();
-                    return productoRepository.save(nuevo);
-                });
+    /**
+     * Lectura sin bloqueo; ante una ausencia, la búsqueda o creación se serializa y se
+     * vuelve a consultar el caché por si otro worker ya resolvió la misma clave.
+     */
+    private Long resolver(CacheAcotado<String, Long> cache, String clave, Supplier<Long> buscarOCrear) {
+        Long id = cache.get(clave);
+        if (id != null) {
+            return id;
+        }
+        synchronized (candadoCreacion) {
+            id = cache.peek(clave);
+            if (id == null) {
+                id = buscarOCrear.get();
+                if (id != null) {
+                    cache.put(clave, id);
+                }
+            }
+            return id;
+        }
     }
 
-    private InstrumentoEntity findOrCreateInstrumento(String nemo, String nombre, ProductoEntity producto) {
-        return instrumentoRepository.findByInstrumentoNemo(nemo)
-                .orElseGet(() -> {
-                    InstrumentoEntity nuevo = InstrumentoEntity.builder()
-                            .instrumentoNemo(nemo != null ? nemo.trim() : "")
-                            .instrumentoNombre(nombre != null ? nombre.trim() : "")
-                            .producto(producto)
-                            .build();
-                    return instrumentoRepository.save(nuevo);
-                });
+    private <T> T referencia(Class<T> tipo, Long id) {
+        return (id != null) ? entityManager.getReference(tipo, id) : null;
     }
 
-    private TipoMovimientoEntity findOrCreateTipoMovimiento(String tipo, String descripcion) {
-        return tipoMovimientoRepository.findByTipoMovimiento(tipo)
-                .orElseGet(() -> {
-                    TipoMovimientoEntity nuevo = TipoMovimientoEntity.builder()
-                            .tipoMovimiento(tipo)
-                            .descripcion(descripcion != null ? descripcion : tipo)
-                            .build();
-                    return tipoMovimientoRepository.save(nuevo);
-                });
+    private void precargar(CacheAcotado<String, Long> cache, String jpql, Function<String, String> normalizar) {
+        List<Object[]> filas = entityManager.createQuery(jpql, Object[].class).getResultList();
+        for (Object[] fila : filas) {
+            if (fila[0] != null) {
+                cache.put(normalizar.apply((String) fila[0]), (Long) fila[1]);
+            }
+        }
+    }
+
+    private CacheAcotado<String, Long> cachePorTipo(Class<?> tipo) {
+        if (tipo == EmpresaEntity.class) return empresaCache;
+        if (tipo == CustodioEntity.class) return custodioCache;
+        if (tipo == ProductoEntity.class) return productoCache;
+        if (tipo == InstrumentoEntity.class) return instrumentoCache;
+        if (tipo == TipoMovimientoEntity.class) return tipoMovimientoCache;
+        return null;
+    }
+
+    private Map<String, Long> estadisticas(CacheAcotado<String, Long> cache) {
+        Map<String, Long> datos = new LinkedHashMap<>();
+        datos.put("entradas", (long) cache.size());
+        datos.put("aciertos", cache.getAciertos());
+        datos.put("fallos", cache.getFallos());
+        datos.put("descartes", cache.getDescartes());
+        return datos;
+    }
+
+    private String normalizarRut(String rut) {
+        if (rut == null) return "";
+        return rut.replace(".", "").replace("-", "").trim().toUpperCase();
+    }
+
+    private String normalizarNombreCustodio(String nombre) {
+        return reglasService.vigentes().custodio(nombre);
     }
-}
\ No newline at end of file
+}
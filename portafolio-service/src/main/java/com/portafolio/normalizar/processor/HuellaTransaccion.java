@@ -0,0 +1,70 @@
+package com.portafolio.normalizar.processor;
+
+import com.portafolio.model.entities.TransaccionEntity;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.HexFormat;
+import java.util.Locale;
+
+/**
+ * Huella semántica de una transacción: SHA-256 de empresa, custodio, cuenta, instrumento,
+ * fecha, folio, cantidad y monto. A diferencia de la clave de staging (fecha, fila, tipo),
+ * no depende de la posición en la cartola, por lo que identifica el mismo movimiento
+ * aunque llegue en dos archivos superpuestos.
+ * {@link #expresionSql} produce exactamente el mismo valor en MySQL.
+ */
+public final class HuellaTransaccion {
+
+    // Misma escala que las columnas numéricas de transacciones
+    private static final int ESCALA = 6;
+
+    private HuellaTransaccion() {
+    }
+
+    public static String calcular(TransaccionEntity t) {
+        return calcular(t.getEmpresa().getId(), t.getCustodio().getId(), t.getCuenta(), t.getInstrumento().getId(),
+                t.getFechaTransaccion(), t.getFolio(), t.getCantidad(), t.getMonto());
+    }
+
+    public static String calcular(Long empresaId, Long custodioId, String cuenta, Long instrumentoId,
+                                  LocalDate fecha, String folio, BigDecimal cantidad, BigDecimal monto) {
+        String contenido = String.join("|",
+                String.valueOf(empresaId),
+                String.valueOf(custodioId),
+                texto(cuenta),
+                String.valueOf(instrumentoId),
+                String.valueOf(fecha),
+                texto(folio),
+                decimal(cantidad),
+                decimal(monto));
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(contenido.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    /**
+     * Expresión SQL equivalente a {@link #calcular} sobre las columnas indicadas.
+     */
+    public static String expresionSql(String empresaId, String custodioId, String cuenta, String instrumentoId,
+                                      String fecha, String folio, String cantidad, String monto) {
+        return ("SHA2(CONCAT_WS('|', %s, %s, UPPER(TRIM(COALESCE(%s, ''))), %s, %s, UPPER(TRIM(COALESCE(%s, ''))), "
+                + "CAST(COALESCE(%s, 0) AS DECIMAL(19,6)), CAST(COALESCE(%s, 0) AS DECIMAL(19,6))), 256)")
+                .formatted(empresaId, custodioId, cuenta, instrumentoId, fecha, folio, cantidad, monto);
+    }
+
+    private static String texto(String valor) {
+        return valor == null ? "" : valor.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static String decimal(BigDecimal valor) {
+        return (valor == null ? BigDecimal.ZERO : valor).setScale(ESCALA, RoundingMode.HALF_UP).toPlainString();
+    }
+}
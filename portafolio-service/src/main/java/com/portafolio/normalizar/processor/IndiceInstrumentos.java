@@ -0,0 +1,289 @@
+package com.portafolio.normalizar.processor;
+
+import com.portafolio.masterdata.event.MaestroModificadoEvent;
+import com.portafolio.model.entities.InstrumentoEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice en memoria de los nemónicos de instrumentos para resolver variantes antes de
+ * crear un instrumento nuevo. Busca en tres niveles: nemónico exacto, clave normalizada
+ * (sin acentos, espacios ni puntuación, en mayúsculas) y similitud por trigramas (Dice).
+ * Los instrumentos creados con un nemónico parecido a uno existente quedan marcados en
+ * instrumentos.similar_a_id, y sus transacciones quedan fuera del costeo hasta confirmarlos
+ * como nuevos, en lugar de costearse y luego tener que fusionarse.
+ * Se construye en el primer uso y se reconstruye tras editar o fusionar instrumentos.
+ */
+@Slf4j
+@Component
+public class IndiceInstrumentos {
+
+    /** Tipo de coincidencia encontrada para un nemónico. */
+    public enum TipoCoincidencia { EXACTA, NORMALIZADA, SIMILAR }
+
+    /**
+     * Instrumento existente que coincide con un nemónico buscado.
+     */
+    public record Coincidencia(Long instrumentoId, String nemo, TipoCoincidencia tipo, double similitud) {
+    }
+
+    /**
+     * Instrumento creado con un nemónico parecido a otro, pendiente de confirmar como nuevo.
+     */
+    public record SimilarPendiente(Long instrumentoId, String nemo, Coincidencia sugerido) {
+    }
+
+    /**
+     * Estado del índice; se reemplaza completo al reconstruir.
+     */
+    private static final class Estado {
+        private final Map<String, Long> exactos = new ConcurrentHashMap<>();
+        private final Map<String, Long> normalizados = new ConcurrentHashMap<>();
+        /** Trigrama -> claves normalizadas que lo contienen. */
+        private final Map<String, Set<String>> trigramas = new ConcurrentHashMap<>();
+        /** Clave normalizada -> nemónico original. */
+        private final Map<String, String> nemoPorClave = new ConcurrentHashMap<>();
+    }
+
+    private final double umbralSimilitud;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile Estado estado;
+
+    public IndiceInstrumentos(@Value("${portafolio.instrumentos.umbral-similitud:0.8}") double umbralSimilitud) {
+        this.umbralSimilitud = umbralSimilitud;
+    }
+
+    /**
+     * Busca un instrumento existente para el nemónico: exacto, normalizado o, si supera
+     * el umbral de similitud, el más parecido.
+     */
+    public Optional<Coincidencia> buscar(String nemo) {
+        if (nemo == null || nemo.isBlank()) {
+            return Optional.empty();
+        }
+        Estado actual = estado();
+        String recortado = nemo.trim();
+        Long id = actual.exactos.get(recortado);
+        if (id != null) {
+            return Optional.of(new Coincidencia(id, recortado, TipoCoincidencia.EXACTA, 1.0));
+        }
+        String clave = normalizar(recortado);
+        id = actual.normalizados.get(clave);
+        if (id != null) {
+            return Optional.of(new Coincidencia(id, actual.nemoPorClave.get(clave), TipoCoincidencia.NORMALIZADA, 1.0));
+        }
+        List<Coincidencia> similares = similares(actual, clave, 1);
+        return similares.isEmpty() ? Optional.empty() : Optional.of(similares.get(0));
+    }
+
+    /**
+     * Instrumentos más parecidos al nemónico, de mayor a menor similitud (para la UI).
+     */
+    public List<Coincidencia> sugerencias(String nemo, int maximo) {
+        if (nemo == null || nemo.isBlank()) {
+            return List.of();
+        }
+        return similares(estado(), normalizar(nemo.trim()), maximo);
+    }
+
+    /**
+     * Agrega al índice un instrumento recién resuelto o creado.
+     */
+    public void registrar(String nemo, Long id) {
+        if (nemo == null || nemo.isBlank() || id == null) {
+            return;
+        }
+        agregar(estado(), nemo.trim(), id);
+    }
+
+    /**
+     * Marca un instrumento recién creado como variante probable de otro existente. Se guarda
+     * en su propia transacción, igual que la creación del instrumento.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void marcarSimilar(Long instrumentoId, Coincidencia sugerido) {
+        entityManager.createQuery("UPDATE InstrumentoEntity i SET i.similarAId = :sugerido WHERE i.id = :id")
+                .setParameter("sugerido", sugerido.instrumentoId())
+                .setParameter("id", instrumentoId)
+                .executeUpdate();
+        log.warn("Instrumento {} creado con nemónico parecido a '{}' (id={}, similitud {}); sus transacciones quedan fuera del costeo",
+                instrumentoId, sugerido.nemo(), sugerido.instrumentoId(), String.format(Locale.ROOT, "%.2f", sugerido.similitud()));
+    }
+
+    /**
+     * Confirma que el instrumento es realmente nuevo: sus transacciones vuelven al costeo.
+     */
+    @Transactional
+    public void confirmarNuevo(Long instrumentoId) {
+        entityManager.createQuery("UPDATE InstrumentoEntity i SET i.similarAId = null WHERE i.id = :id")
+                .setParameter("id", instrumentoId)
+                .executeUpdate();
+        log.info("Instrumento {} confirmado como nuevo", instrumentoId);
+    }
+
+    /**
+     * Instrumentos nuevos pendientes de confirmar, con el instrumento existente sugerido. Si el
+     * sugerido ya no existe (fue fusionado o eliminado) la coincidencia llega sin nemónico.
+     */
+    @Transactional(readOnly = true)
+    public List<SimilarPendiente> getSimilaresPendientes() {
+        List<Object[]> filas = entityManager.createQuery("""
+            SELECT i.id, i.instrumentoNemo, i.similarAId, s.instrumentoNemo
+            FROM InstrumentoEntity i
+            LEFT JOIN InstrumentoEntity s ON s.id = i.similarAId
+            WHERE i.similarAId IS NOT NULL
+            ORDER BY i.instrumentoNemo
+            """, Object[].class).getResultList();
+        List<SimilarPendiente> pendientes = new ArrayList<>();
+        for (Object[] fila : filas) {
+            String nemo = (String) fila[1];
+            String sugerido = (String) fila[3];
+            double similitud = sugerido == null ? 0.0 : similitud(normalizar(nemo), normalizar(sugerido));
+            pendientes.add(new SimilarPendiente((Long) fila[0], nemo,
+                    new Coincidencia((Long) fila[2], sugerido, TipoCoincidencia.SIMILAR, similitud)));
+        }
+        return pendientes;
+    }
+
+    /**
+     * Tras editar, fusionar o eliminar instrumentos, el índice se reconstruye en el próximo uso.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alModificarMaestro(MaestroModificadoEvent evento) {
+        if (evento.tipoEntidad() == InstrumentoEntity.class) {
+            estado = null;
+        }
+    }
+
+    // ===== MÉTODOS PRIVADOS =====
+
+    private Estado estado() {
+        Estado actual = estado;
+        if (actual == null) {
+            synchronized (this) {
+                if (estado == null) {
+                    estado = construir();
+                }
+                actual = estado;
+            }
+        }
+        return actual;
+    }
+
+    private Estado construir() {
+        long inicio = System.currentTimeMillis();
+        Estado nuevo = new Estado();
+        List<Object[]> filas = entityManager.createQuery(
+                "SELECT i.instrumentoNemo, i.id FROM InstrumentoEntity i", Object[].class).getResultList();
+        for (Object[] fila : filas) {
+            if (fila[0] != null) {
+                agregar(nuevo, ((String) fila[0]).trim(), (Long) fila[1]);
+            }
+        }
+        log.info("Índice de instrumentos construido en {}ms: {} nemónicos, {} trigramas",
+                System.currentTimeMillis() - inicio, nuevo.exactos.size(), nuevo.trigramas.size());
+        return nuevo;
+    }
+
+    private void agregar(Estado destino, String nemo, Long id) {
+        destino.exactos.put(nemo, id);
+        String clave = normalizar(nemo);
+        if (clave.isEmpty()) {
+            return;
+        }
+        // Si dos nemónicos comparten clave normalizada se conserva el primero
+        if (destino.normalizados.putIfAbsent(clave, id) == null) {
+            destino.nemoPorClave.put(clave, nemo);
+            for (String trigrama : trigramas(clave)) {
+                destino.trigramas.computeIfAbsent(trigrama, t -> ConcurrentHashMap.newKeySet()).add(clave);
+            }
+        }
+    }
+
+    /**
+     * Candidatos que comparten trigramas con la clave, puntuados con el coeficiente de Dice.
+     */
+    private List<Coincidencia> similares(Estado actual, String clave, int maximo) {
+        Set<String> propios = trigramas(clave);
+        if (propios.isEmpty()) {
+            return List.of();
+        }
+        Map<String, Integer> compartidos = new HashMap<>();
+        for (String trigrama : propios) {
+            Set<String> claves = actual.trigramas.get(trigrama);
+            if (claves != null) {
+                for (String candidata : claves) {
+                    compartidos.merge(candidata, 1, Integer::sum);
+                }
+            }
+        }
+
+        List<Coincidencia> resultado = new ArrayList<>();
+        compartidos.forEach((candidata, comunes) -> {
+            double similitud = 2.0 * comunes / (propios.size() + trigramas(candidata).size());
+            if (similitud >= umbralSimilitud && !candidata.equals(clave)) {
+                resultado.add(new Coincidencia(actual.normalizados.get(candidata), actual.nemoPorClave.get(candidata),
+                        TipoCoincidencia.SIMILAR, similitud));
+            }
+        });
+        resultado.sort(Comparator.comparingDouble(Coincidencia::similitud).reversed());
+        return resultado.size() > maximo ? resultado.subList(0, maximo) : resultado;
+    }
+
+    /**
+     * Coeficiente de Dice entre los trigramas de dos claves normalizadas.
+     */
+    private static double similitud(String clave, String otra) {
+        Set<String> propios = trigramas(clave);
+        Set<String> ajenos = trigramas(otra);
+        if (propios.isEmpty() || ajenos.isEmpty()) {
+            return 0.0;
+        }
+        long comunes = propios.stream().filter(ajenos::contains).count();
+        return 2.0 * comunes / (propios.size() + ajenos.size());
+    }
+
+    /**
+     * Clave de comparación: sin acentos, solo letras y dígitos, en mayúsculas.
+     */
+    static String normalizar(String nemo) {
+        String sinAcentos = Normalizer.normalize(nemo, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return sinAcentos.toUpperCase(Locale.ROOT).replaceAll("[^A-Z0-9]", "");
+    }
+
+    /**
+     * Trigramas de la clave con bordes marcados, para que los prefijos y sufijos pesen.
+     */
+    private static Set<String> trigramas(String clave) {
+        if (clave.isEmpty()) {
+            return Set.of();
+        }
+        String conBordes = "  " + clave + " ";
+        Set<String> resultado = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= conBordes.length(); i++) {
+            resultado.add(conBordes.substring(i, i + 3));
+        }
+        return resultado;
+    }
+}
@@ -1,5 +1,6 @@
 package com.portafolio.normalizar.processor;
 
+import com.portafolio.model.dto.CostingGroupDto;
 import com.portafolio.model.entities.CustodioEntity;
 import com.portafolio.model.entities.TipoMovimientoEntity;
 import com.portafolio.model.entities.EmpresaEntity;
@@ -7,15 +8,30 @@ import com.portafolio.model.entities.InstrumentoEntity;
 import com.portafolio.model.entities.TransaccionEntity;
 import com.portafolio.model.entities.ProductoEntity;
 import com.portafolio.model.entities.CargaTransaccionEntity;
+import com.portafolio.model.utiles.Pk;
+import com.portafolio.normalizar.reglas.ReglasCompiladas;
+import com.portafolio.normalizar.reglas.ReglasNormalizacionService;
 import com.portafolio.normalizar.service.NormalizationService.NormalizationResult;
+import com.portafolio.persistence.repositorio.CargaTransaccionRepository;
 import com.portafolio.persistence.repositorio.TransaccionRepository;
+import com.portafolio.ui.service.cache.DatosReporteModificadosEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Procesador que contiene la lógica de normalización de datos.
@@ -27,7 +43,77 @@ import java.util.Optional;
 public class NormalizationProcessor {
 
     private final EntityCacheManager cacheManager;
+    private final CargaTransaccionRepository cargaTransaccionRepository;
     private final TransaccionRepository transaccionRepository;
+    private final TransaccionBatchWriter transaccionBatchWriter;
+    private final ReglasNormalizacionService reglasService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Normaliza el siguiente lote de registros pendientes posteriores a {@code desde}
+     * (o desde el inicio si es null) en su propia transacción. Al confirmar, el contexto
+     * de persistencia se descarta junto con las entidades del lote.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public ResultadoLote procesarLote(Pk desde, int tamanoLote, boolean esCargaInicial) {
+        PageRequest pagina = PageRequest.of(0, tamanoLote);
+        List<CargaTransaccionEntity> lote = (desde == null)
+                ? cargaTransaccionRepository.findPrimerLotePendiente(pagina)
+                : cargaTransaccionRepository.findLotePendienteDespuesDe(
+                        desde.getFechaTransaccion(), desde.getRowNum(), desde.getTipoClase(), pagina);
+
+        if (lote.isEmpty()) {
+            return new ResultadoLote(0, null, NormalizationResult.builder().build());
+        }
+
+        NormalizationResult resultado = procesarRegistros(lote, esCargaInicial);
+        CargaTransaccionEntity ultimo = lote.get(lote.size() - 1);
+        Pk ultimaClave = new Pk(ultimo.getFechaTransaccion(), ultimo.getRowNum(), ultimo.getTipoClase());
+        return new ResultadoLote(lote.size(), ultimaClave, resultado);
+    }
+
+    /**
+     * Variante de {@link #procesarLote} restringida a una fecha, usada por los workers
+     * de la normalización paralela. {@code desde} null comienza por la primera fila.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public ResultadoLote procesarLoteFecha(LocalDate fecha, Pk desde, int tamanoLote, boolean esCargaInicial) {
+        List<CargaTransaccionEntity> lote = cargaTransaccionRepository.findLotePendienteDeFecha(
+                fecha,
+                desde == null ? Integer.MIN_VALUE : desde.getRowNum(),
+                desde == null ? "" : desde.getTipoClase(),
+                PageRequest.of(0, tamanoLote));
+
+        if (lote.isEmpty()) {
+            return new ResultadoLote(0, null, NormalizationResult.builder().build());
+        }
+
+        NormalizationResult resultado = procesarRegistros(lote, esCargaInicial);
+        CargaTransaccionEntity ultimo = lote.get(lote.size() - 1);
+        Pk ultimaClave = new Pk(ultimo.getFechaTransaccion(), ultimo.getRowNum(), ultimo.getTipoClase());
+        return new ResultadoLote(lote.size(), ultimaClave, resultado);
+    }
+
+    /**
+     * Variante de {@link #procesarLote} restringida a un lote de carga (normalización incremental).
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public ResultadoLote procesarLoteDeCarga(Long loteId, Pk desde, int tamanoLote, boolean esCargaInicial) {
+        PageRequest pagina = PageRequest.of(0, tamanoLote);
+        List<CargaTransaccionEntity> lote = (desde == null)
+                ? cargaTransaccionRepository.findPrimerLotePendienteDeCarga(loteId, pagina)
+                : cargaTransaccionRepository.findLotePendienteDeCargaDespuesDe(
+                        loteId, desde.getFechaTransaccion(), desde.getRowNum(), desde.getTipoClase(), pagina);
+
+        if (lote.isEmpty()) {
+            return new ResultadoLote(0, null, NormalizationResult.builder().build());
+        }
+
+        NormalizationResult resultado = procesarRegistros(lote, esCargaInicial);
+        CargaTransaccionEntity ultimo = lote.get(lote.size() - 1);
+        Pk ultimaClave = new Pk(ultimo.getFechaTransaccion(), ultimo.getRowNum(), ultimo.getTipoClase());
+        return new ResultadoLote(lote.size(), ultimaClave, resultado);
+    }
 
     /**
      * Procesa una lista de registros de carga convirtiéndolos en transacciones.
@@ -38,16 +124,25 @@ public class NormalizationProcessor {
 
         log.info("Procesando {} registros (carga inicial: {})", registros.size(), esCargaInicial);
 
+        // Pre-pasada: resuelve en bloque los maestros del lote antes del ciclo fila a fila
+        Map<String, String> tiposMovimiento = new HashMap<>();
+        for (CargaTransaccionEntity carga : registros) {
+            tiposMovimiento.putIfAbsent(nombreTipoMovimiento(carga, esCargaInicial), descripcionTipoMovimiento(esCargaInicial));
+        }
+        cacheManager.resolverEnBloque(registros, tiposMovimiento);
+
         int exitosos = 0;
         int fallidos = 0;
+        List<TransaccionEntity> normalizadas = new ArrayList<>(registros.size());
+        List<Pk> procesados = new ArrayList<>(registros.size());
 
         for (CargaTransaccionEntity carga : registros) {
             try {
                 TransaccionEntity transaccion = normalizarRegistro(carga, esCargaInicial);
                 
                 if (transaccion != null) {
-                    transaccionRepository.save(transaccion);
-                    marcarComoProcesado(carga);
+                    normalizadas.add(transaccion);
+                    procesados.add(new Pk(carga.getFechaTransaccion(), carga.getRowNum(), carga.getTipoClase()));
                     exitosos++;
                     
                     if (exitosos % 100 == 0) {
@@ -67,9 +162,26 @@ public class NormalizationProcessor {
             }
         }
 
+        marcarDuplicadosSospechosos(normalizadas);
+
+        // Escritura del lote: INSERT por lotes JDBC y un único UPDATE de las filas de staging
+        transaccionBatchWriter.escribir(normalizadas);
+        if (!procesados.isEmpty()) {
+            cargaTransaccionRepository.markAsProcessed(procesados);
+            eventPublisher.publishEvent(new DatosReporteModificadosEvent("normalización"));
+        }
+
+        // Grupos de costeo que recibieron transacciones nuevas
+        Set<String> gruposAfectados = new HashSet<>();
+        for (TransaccionEntity transaccion : normalizadas) {
+            gruposAfectados.add(CostingGroupDto.construirClave(transaccion.getEmpresa().getId(), transaccion.getCuenta(),
+                    transaccion.getCustodio().getId(), transaccion.getInstrumento().getId()));
+        }
+
         return NormalizationResult.builder()
                 .exitosos(exitosos)
                 .fallidos(fallidos)
+                .gruposAfectados(gruposAfectados)
                 .mensaje(String.format("Procesados %d exitosos, %d fallidos", exitosos, fallidos))
                 .build();
     }
@@ -105,16 +217,26 @@ public class NormalizationProcessor {
      * Determina el tipo de movimiento según el contexto.
      */
     private TipoMovimientoEntity determinarTipoMovimiento(CargaTransaccionEntity carga, boolean esCargaInicial) {
+        return cacheManager.getTipoMovimiento(nombreTipoMovimiento(carga, esCargaInicial),
+                descripcionTipoMovimiento(esCargaInicial));
+    }
+
+    private String nombreTipoMovimiento(CargaTransaccionEntity carga, boolean esCargaInicial) {
         if (esCargaInicial) {
-            return cacheManager.getTipoMovimiento("SALDO INICIAL", "Carga de Saldo Inicial");
-        } else {
-            String tipo = carga.getTipoMovimiento();
-            if (tipo == null || tipo.trim().isEmpty()) {
-                // Tipo por defecto si no se especifica
-                tipo = "MOVIMIENTO";
-            }
-            return cacheManager.getTipoMovimiento(tipo, "Normalizado desde carga");
+            return "SALDO INICIAL";
         }
+        String tipo = carga.getTipoMovimiento();
+        if (tipo == null || tipo.trim().isEmpty()) {
+            // Tipo por defecto si no se especifica
+            tipo = "MOVIMIENTO";
+        }
+        // Mapeo por custodio desde reglas_normalizacion
+        ReglasCompiladas reglas = reglasService.vigentes();
+        return reglas.tipoMovimiento(reglas.custodio(carga.getCustodioNombre()), tipo);
+    }
+
+    private String descripcionTipoMovimiento(boolean esCargaInicial) {
+        return esCargaInicial ? "Carga de Saldo Inicial" : "Normalizado desde carga";
     }
 
     /**
@@ -135,6 +257,7 @@ public class NormalizationProcessor {
                 .fechaTransaccion(carga.getFechaTransaccion()) // Campo directo
                 .folio(carga.getFolio())
                 .cuenta(carga.getCuenta())
+                .loteId(carga.getLoteId())
                 
                 // Asignación segura de valores numéricos con valores por defecto
                 .cantidad(obtenerValorSeguro(carga.getCantidad()))
@@ -150,7 +273,8 @@ public class NormalizationProcessor {
                 .moneda(carga.getMoneda())
                 .glosa(construirGlosa(carga))
                 
-                // Estados iniciales
+                // Estados iniciales; si el instrumento es parecido a otro existente, el costeo
+                // lo excluye por instrumentos.similar_a_id hasta confirmarlo como nuevo
                 .costeado(false)
                 .paraRevision(false)
                 .ignorarEnCosteo(false)
@@ -187,11 +311,36 @@ public class NormalizationProcessor {
     }
 
     /**
-     * Marca un registro como procesado exitosamente.
+     * Calcula la huella de cada transacción del lote y marca como duplicado sospechoso las que
+     * repiten una ya existente o una anterior del mismo lote (una consulta IN por lote). Así quedan
+     * fuera del costeo hasta que se descarte la sospecha, en lugar de provocar un saldo insuficiente.
+     * Se usa una marca propia y no para_revision, que el recosteo de un grupo limpia.
      */
-    private void marcarComoProcesado(CargaTransaccionEntity carga) {
-        carga.setProcesado(true);
-        // CargaTransaccionEntity no tiene campo observaciones, solo marcamos como procesado
+    private void marcarDuplicadosSospechosos(List<TransaccionEntity> transacciones) {
+        if (transacciones.isEmpty()) {
+            return;
+        }
+        Set<String> huellas = new HashSet<>();
+        for (TransaccionEntity transaccion : transacciones) {
+            String huella = HuellaTransaccion.calcular(transaccion);
+            transaccion.setHuella(huella);
+            huellas.add(huella);
+        }
+
+        Set<String> vistas = new HashSet<>(transaccionRepository.findHuellasExistentes(huellas));
+        int sospechosas = 0;
+        for (TransaccionEntity transaccion : transacciones) {
+            if (!vistas.add(transaccion.getHuella())) {
+                transaccion.setDuplicadoSospechoso(true);
+                sospechosas++;
+                log.warn("Posible transacción duplicada: fecha={}, folio={}, cuenta={}, cantidad={}, monto={}",
+                        transaccion.getFechaTransaccion(), transaccion.getFolio(), transaccion.getCuenta(),
+                        transaccion.getCantidad(), transaccion.getMonto());
+            }
+        }
+        if (sospechosas > 0) {
+            log.warn("{} transacciones del lote marcadas como posible duplicado", sospechosas);
+        }
     }
 
     /**
@@ -203,4 +352,10 @@ public class NormalizationProcessor {
         // solo logueamos el error y mantenemos procesado = false
         log.warn("Error procesando registro folio {}: {}", carga.getFolio(), mensajeError);
     }
-}
\ No newline at end of file
+
+    /**
+     * Resultado de un lote: registros leídos, última clave (punto de reanudación) y conteos.
+     */
+    public record ResultadoLote(int leidos, Pk ultimaClave, NormalizationResult resultado) {
+    }
+}
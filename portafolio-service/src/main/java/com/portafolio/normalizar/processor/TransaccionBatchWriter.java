@@ -0,0 +1,90 @@
+package com.portafolio.normalizar.processor;
+
+import com.portafolio.model.entities.TransaccionEntity;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Inserta transacciones normalizadas por lotes JDBC. Con ids IDENTITY Hibernate no
+ * agrupa los INSERT, por lo que la normalización escribe por aquí en lugar de save().
+ * Participa de la transacción en curso.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TransaccionBatchWriter {
+
+    private static final String INSERT_TRANSACCION = """
+        INSERT INTO transacciones (
+            fecha_transaccion, folio, cuenta, glosa, cantidad, precio, comision, gasto, iva,
+            monto_total, monto, monto_clp, moneda, costeado, para_revision, ignorar_en_costeo, duplicado_sospechoso,
+            empresa_id, instrumento_id, custodio_id, movimiento_id, lote_id, huella, fecha_creacion, creado_por
+        ) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 'sistema')
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserta el lote completo.
+     *
+     * @return Cantidad de transacciones escritas.
+     */
+    public int escribir(List<TransaccionEntity> transacciones) {
+        if (transacciones.isEmpty()) {
+            return 0;
+        }
+        Date hoy = Date.valueOf(LocalDate.now());
+
+        jdbcTemplate.batchUpdate(INSERT_TRANSACCION, transacciones, transacciones.size(), (ps, t) -> {
+            ps.setObject(1, t.getFechaTransaccion());
+            ps.setString(2, t.getFolio());
+            ps.setString(3, t.getCuenta());
+            ps.setString(4, t.getGlosa());
+            ps.setBigDecimal(5, t.getCantidad());
+            ps.setBigDecimal(6, t.getPrecio());
+            ps.setBigDecimal(7, t.getComision());
+            ps.setBigDecimal(8, t.getGastos());
+            ps.setBigDecimal(9, t.getIva());
+            ps.setBigDecimal(10, montoTotal(t));
+            ps.setBigDecimal(11, t.getMonto());
+            ps.setBigDecimal(12, t.getMontoClp());
+            ps.setString(13, t.getMoneda());
+            ps.setBoolean(14, t.isCosteado());
+            ps.setBoolean(15, t.isParaRevision());
+            ps.setBoolean(16, t.isIgnorarEnCosteo());
+            ps.setBoolean(17, t.isDuplicadoSospechoso());
+            ps.setLong(18, t.getEmpresa().getId());
+            ps.setLong(19, t.getInstrumento().getId());
+            ps.setLong(20, t.getCustodio().getId());
+            if (t.getTipoMovimiento() != null) {
+                ps.setLong(21, t.getTipoMovimiento().getId());
+            } else {
+                ps.setNull(21, Types.BIGINT);
+            }
+            ps.setObject(22, t.getLoteId(), Types.BIGINT);
+            ps.setString(23, t.getHuella());
+            ps.setDate(24, hoy);
+        });
+
+        log.debug("Escritas {} transacciones por lote", transacciones.size());
+        return transacciones.size();
+    }
+
+    /**
+     * Replica TransaccionEntity.calcularTotal(), que no se ejecuta fuera de JPA.
+     */
+    private BigDecimal montoTotal(TransaccionEntity t) {
+        if (t.getCantidad() != null && t.getPrecio() != null) {
+            return t.getCantidad().multiply(t.getPrecio());
+        }
+        return t.getMontoTotal() != null ? t.getMontoTotal() : BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,112 @@
+package com.portafolio.normalizar.reglas;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reemplazo de múltiples fragmentos en una sola pasada (autómata Aho-Corasick).
+ * Distingue mayúsculas, igual que REPLACE en SQL. Ante coincidencias solapadas
+ * gana la que empieza antes y, a igual inicio, la más larga. Inmutable tras construirse.
+ */
+public final class MatcherAhoCorasick {
+
+    private static final class Nodo {
+        private final Map<Character, Nodo> hijos = new HashMap<>();
+        private Nodo falla;
+        /** Patrones que terminan en este nodo (incluidos los heredados por el enlace de falla). */
+        private final List<String> salidas = new ArrayList<>();
+    }
+
+    private final Nodo raiz = new Nodo();
+    private final Map<String, String> reemplazos;
+
+    /**
+     * @throws IllegalArgumentException si algún patrón es vacío (coincidiría en todas
+     *         las posiciones sin avanzar)
+     */
+    public MatcherAhoCorasick(Map<String, String> reemplazos) {
+        this.reemplazos = Map.copyOf(reemplazos);
+        for (String patron : this.reemplazos.keySet()) {
+            if (patron.isEmpty()) {
+                throw new IllegalArgumentException("El matcher no admite patrones vacíos");
+            }
+            Nodo nodo = raiz;
+            for (char c : patron.toCharArray()) {
+                nodo = nodo.hijos.computeIfAbsent(c, k -> new Nodo());
+            }
+            nodo.salidas.add(patron);
+        }
+        construirEnlacesDeFalla();
+    }
+
+    public boolean isVacio() {
+        return reemplazos.isEmpty();
+    }
+
+    /**
+     * Aplica todos los reemplazos sobre el texto.
+     */
+    public String reemplazar(String texto) {
+        if (texto == null || reemplazos.isEmpty()) {
+            return texto;
+        }
+
+        // inicio -> largo de la coincidencia más larga que comienza ahí
+        Map<Integer, Integer> coincidencias = new HashMap<>();
+        Nodo nodo = raiz;
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            while (nodo != raiz && !nodo.hijos.containsKey(c)) {
+                nodo = nodo.falla;
+            }
+            nodo = nodo.hijos.getOrDefault(c, raiz);
+            for (String patron : nodo.salidas) {
+                coincidencias.merge(i - patron.length() + 1, patron.length(), Math::max);
+            }
+        }
+        if (coincidencias.isEmpty()) {
+            return texto;
+        }
+
+        StringBuilder resultado = new StringBuilder(texto.length());
+        int i = 0;
+        while (i < texto.length()) {
+            Integer largo = coincidencias.get(i);
+            if (largo != null) {
+                resultado.append(reemplazos.get(texto.substring(i, i + largo)));
+                i += largo;
+            } else {
+                resultado.append(texto.charAt(i));
+                i++;
+            }
+        }
+        return resultado.toString();
+    }
+
+    private void construirEnlacesDeFalla() {
+        Deque<Nodo> cola = new ArrayDeque<>();
+        for (Nodo hijo : raiz.hijos.values()) {
+            hijo.falla = raiz;
+            cola.add(hijo);
+        }
+        while (!cola.isEmpty()) {
+            Nodo actual = cola.poll();
+            for (Map.Entry<Character, Nodo> entrada : actual.hijos.entrySet()) {
+                char c = entrada.getKey();
+                Nodo hijo = entrada.getValue();
+                Nodo falla = actual.falla;
+                while (falla != raiz && !falla.hijos.containsKey(c)) {
+                    falla = falla.falla;
+                }
+                Nodo destino = falla.hijos.get(c);
+                hijo.falla = (destino != null && destino != hijo) ? destino : raiz;
+                hijo.salidas.addAll(hijo.falla.salidas);
+                cola.add(hijo);
+            }
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.portafolio.normalizar.reglas;
+
+import com.portafolio.model.entities.ReglaNormalizacionEntity;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reglas de normalización compiladas a tablas hash y un matcher Aho-Corasick.
+ * Inmutable: se reemplaza completa al recargar, por lo que los workers pueden
+ * usarla sin sincronización. Expone además las expresiones SQL equivalentes para
+ * la normalización masiva, de modo que ambos caminos apliquen las mismas reglas.
+ */
+public final class ReglasCompiladas {
+
+    /** Clave de custodio para reglas de tipo de movimiento que aplican a todos. */
+    private static final String TODOS = "";
+
+    public static final ReglasCompiladas VACIAS = new ReglasCompiladas(List.of());
+
+    private final MatcherAhoCorasick correccionesCustodio;
+    private final Map<String, String> correcciones = new LinkedHashMap<>();
+    private final Map<String, String> aliasCustodio = new HashMap<>();
+    private final Map<String, String> tiposMovimiento = new HashMap<>();
+    private final Map<String, String> sinonimosNemo = new HashMap<>();
+    private final int cantidad;
+    private final int descartadas;
+
+    /**
+     * Las reglas sin valor de origen se descartan: una corrección vacía no tiene qué
+     * reemplazar y un alias, tipo o sinónimo vacío calzaría con cualquier valor en blanco.
+     */
+    public ReglasCompiladas(List<ReglaNormalizacionEntity> reglas) {
+        int sinOrigen = 0;
+        for (ReglaNormalizacionEntity regla : reglas) {
+            String origen = regla.getValorOrigen();
+            if (origen == null || origen.isBlank()) {
+                sinOrigen++;
+                continue;
+            }
+            String destino = regla.getValorDestino().trim();
+            switch (regla.getTipo()) {
+                case CORRECCION_CUSTODIO -> correcciones.putIfAbsent(origen, destino);
+                case ALIAS_CUSTODIO -> aliasCustodio.putIfAbsent(clave(origen), destino);
+                case TIPO_MOVIMIENTO -> tiposMovimiento.putIfAbsent(
+                        claveTipo(regla.getCustodio() == null ? TODOS : regla.getCustodio(), origen), destino);
+                case SINONIMO_NEMO -> sinonimosNemo.putIfAbsent(clave(origen), destino);
+            }
+        }
+        this.correccionesCustodio = new MatcherAhoCorasick(correcciones);
+        this.cantidad = reglas.size() - sinOrigen;
+        this.descartadas = sinOrigen;
+    }
+
+    public int getCantidad() {
+        return cantidad;
+    }
+
+    /**
+     * Reglas activas ignoradas por no tener valor de origen.
+     */
+    public int getDescartadas() {
+        return descartadas;
+    }
+
+    /**
+     * Nombre canónico del custodio: recorta, corrige fragmentos, colapsa espacios dobles
+     * y aplica el alias si existe.
+     */
+    public String custodio(String nombre) {
+        if (nombre == null) return "";
+        String corregido = correccionesCustodio.reemplazar(nombre.trim()).replace("  ", " ");
+        return aliasCustodio.getOrDefault(clave(corregido), corregido);
+    }
+
+    /**
+     * Tipo de movimiento interno para el de la cartola: primero la regla del custodio,
+     * luego la general; sin regla se conserva el original.
+     */
+    public String tipoMovimiento(String custodioNormalizado, String tipo) {
+        String destino = tiposMovimiento.get(claveTipo(custodioNormalizado, tipo));
+        if (destino == null) {
+            destino = tiposMovimiento.get(claveTipo(TODOS, tipo));
+        }
+        return destino != null ? destino : tipo;
+    }
+
+    /**
+     * Nemónico canónico (recortado).
+     */
+    public String nemo(String nemo) {
+        if (nemo == null) return "";
+        String recortado = nemo.trim();
+        return sinonimosNemo.getOrDefault(clave(recortado), recortado);
+    }
+
+    // ===== EQUIVALENTES SQL (normalización masiva) =====
+
+    /**
+     * Expresión SQL equivalente a {@link #custodio(String)} sobre {@code expresion} ya recortada.
+     * Los reemplazos se anidan del más largo al más corto para aproximar la preferencia del matcher.
+     */
+    public String sqlCustodio(String expresion) {
+        String sql = expresion;
+        List<Map.Entry<String, String>> ordenadas = correcciones.entrySet().stream()
+                .sorted(Comparator.comparingInt((Map.Entry<String, String> e) -> e.getKey().length()).reversed())
+                .toList();
+        for (Map.Entry<String, String> correccion : ordenadas) {
+            sql = "REPLACE(%s, %s, %s)".formatted(sql, literal(correccion.getKey()), literal(correccion.getValue()));
+        }
+        sql = "REPLACE(%s, '  ', ' ')".formatted(sql);
+        if (aliasCustodio.isEmpty()) {
+            return sql;
+        }
+        StringBuilder caso = new StringBuilder("CASE UPPER(").append(sql).append(")");
+        aliasCustodio.forEach((origen, destino) ->
+                caso.append(" WHEN ").append(literal(origen)).append(" THEN ").append(literal(destino)));
+        return caso.append(" ELSE ").append(sql).append(" END").toString();
+    }
+
+    /**
+     * Expresión SQL equivalente a {@link #tipoMovimiento(String, String)}.
+     */
+    public String sqlTipoMovimiento(String expresionTipo, String expresionCustodio) {
+        if (tiposMovimiento.isEmpty()) {
+            return expresionTipo;
+        }
+        StringBuilder porCustodio = new StringBuilder();
+        StringBuilder generales = new StringBuilder();
+        tiposMovimiento.forEach((claveTipo, destino) -> {
+            int separador = claveTipo.indexOf('|');
+            String custodio = claveTipo.substring(0, separador);
+            String tipo = claveTipo.substring(separador + 1);
+            if (custodio.isEmpty()) {
+                generales.append(" WHEN UPPER(").append(expresionTipo).append(") = ").append(literal(tipo))
+                        .append(" THEN ").append(literal(destino));
+            } else {
+                porCustodio.append(" WHEN UPPER(").append(expresionCustodio).append(") = ").append(literal(custodio))
+                        .append(" AND UPPER(").append(expresionTipo).append(") = ").append(literal(tipo))
+                        .append(" THEN ").append(literal(destino));
+            }
+        });
+        return "CASE" + porCustodio + generales + " ELSE " + expresionTipo + " END";
+    }
+
+    /**
+     * Expresión SQL equivalente a {@link #nemo(String)} sobre {@code expresion} ya recortada.
+     */
+    public String sqlNemo(String expresion) {
+        if (sinonimosNemo.isEmpty()) {
+            return expresion;
+        }
+        StringBuilder caso = new StringBuilder("CASE UPPER(").append(expresion).append(")");
+        sinonimosNemo.forEach((origen, destino) ->
+                caso.append(" WHEN ").append(literal(origen)).append(" THEN ").append(literal(destino)));
+        return caso.append(" ELSE ").append(expresion).append(" END").toString();
+    }
+
+    // ===== MÉTODOS PRIVADOS =====
+
+    private static String clave(String valor) {
+        return valor == null ? "" : valor.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static String claveTipo(String custodio, String tipo) {
+        return clave(custodio) + "|" + clave(tipo);
+    }
+
+    private static String literal(String valor) {
+        return "'" + valor.replace("\\", "\\\\").replace("'", "''") + "'";
+    }
+}
@@ -0,0 +1,101 @@
+package com.portafolio.normalizar.reglas;
+
+import com.portafolio.masterdata.event.MaestroModificadoEvent;
+import com.portafolio.model.entities.ReglaNormalizacionEntity;
+import com.portafolio.model.enums.TipoReglaNormalizacion;
+import com.portafolio.persistence.repositorio.ReglaNormalizacionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Mantiene las reglas de normalización vigentes, compiladas desde la tabla
+ * reglas_normalizacion. Se recargan al inicio de cada normalización, así una
+ * corrección hecha por operaciones aplica sin reiniciar ni desplegar.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReglasNormalizacionService {
+
+    private final ReglaNormalizacionRepository reglaRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private volatile ReglasCompiladas vigentes;
+    private volatile List<String> firmaVigente = List.of();
+
+    /**
+     * Compila las reglas al iniciar, antes de que el caché de maestros precargue sus
+     * claves (que dependen de ellas) y fuera de cualquier transacción de solo lectura.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void inicializar() {
+        recargar();
+    }
+
+    /**
+     * Reglas compiladas vigentes; se compilan en el primer uso.
+     */
+    public ReglasCompiladas vigentes() {
+        ReglasCompiladas reglas = vigentes;
+        if (reglas == null) {
+            synchronized (this) {
+                if (vigentes == null) {
+                    recargar();
+                }
+                reglas = vigentes;
+            }
+        }
+        return reglas;
+    }
+
+    /**
+     * Vuelve a leer y compilar la tabla. Si las reglas cambiaron, publica un
+     * evento para que el caché de maestros descarte claves calculadas con las anteriores.
+     */
+    public synchronized ReglasCompiladas recargar() {
+        List<ReglaNormalizacionEntity> reglas = reglaRepository.findByActivaTrueOrderByIdAsc();
+        if (reglas.isEmpty() && reglaRepository.count() == 0) {
+            reglas = sembrarReglasIniciales();
+        }
+
+        List<String> firma = reglas.stream()
+                .map(r -> r.getTipo() + "|" + r.getCustodio() + "|" + r.getValorOrigen() + "|" + r.getValorDestino())
+                .toList();
+        boolean cambiaron = vigentes != null && !firma.equals(firmaVigente);
+
+        vigentes = new ReglasCompiladas(reglas);
+        firmaVigente = firma;
+        log.debug("Reglas de normalización compiladas: {}", vigentes.getCantidad());
+        if (vigentes.getDescartadas() > 0) {
+            log.warn("{} reglas de normalización sin valor de origen fueron ignoradas", vigentes.getDescartadas());
+        }
+
+        if (cambiaron) {
+            log.info("Reglas de normalización modificadas ({} vigentes); se invalida el caché de maestros", reglas.size());
+            eventPublisher.publishEvent(new MaestroModificadoEvent(ReglaNormalizacionEntity.class, null));
+        }
+        return vigentes;
+    }
+
+    /**
+     * Reglas que antes estaban escritas en el código.
+     */
+    private List<ReglaNormalizacionEntity> sembrarReglasIniciales() {
+        log.info("Tabla reglas_normalizacion vacía; se cargan las reglas por defecto");
+        return reglaRepository.saveAll(List.of(
+                ReglaNormalizacionEntity.builder()
+                        .tipo(TipoReglaNormalizacion.CORRECCION_CUSTODIO)
+                        .valorOrigen("Peshing")
+                        .valorDestino("Pershing")
+                        .build()));
+    }
+}
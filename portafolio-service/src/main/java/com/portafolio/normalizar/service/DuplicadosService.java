@@ -0,0 +1,177 @@
+package com.portafolio.normalizar.service;
+
+import com.portafolio.model.dto.DuplicadoSospechosoDto;
+import com.portafolio.normalizar.processor.HuellaTransaccion;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Transacciones sospechosas de estar duplicadas: grupos que comparten la huella semántica
+ * calculada al normalizar (ver HuellaTransaccion). La carga masiva las marca por lote en
+ * duplicado_sospechoso, igual que la normalización fila a fila, para dejarlas fuera del costeo.
+ */
+@Slf4j
+@Service
+public class DuplicadosService {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private static final String SQL_COMPLETAR_HUELLAS = """
+        UPDATE transacciones t
+        SET t.huella = %s
+        WHERE t.huella IS NULL
+          %s
+        """;
+
+    /**
+     * Calcula la huella de las transacciones del lote que no la tienen, con la misma
+     * expresión que el proceso masivo.
+     *
+     * @return Transacciones actualizadas.
+     */
+    @Transactional
+    public int completarHuellasFaltantes(Long loteId) {
+        return entityManager.createNativeQuery(sqlCompletarHuellas("AND t.lote_id = :loteId"))
+                .setParameter("loteId", loteId)
+                .executeUpdate();
+    }
+
+    /**
+     * Marca como duplicado sospechoso cada transacción del lote cuya huella ya tenía otra
+     * transacción anterior (de otro lote o del mismo).
+     *
+     * @return Transacciones marcadas.
+     */
+    @Transactional
+    public int marcarDuplicadosLote(Long loteId) {
+        completarHuellasFaltantes(loteId);
+        int marcadas = entityManager.createNativeQuery("""
+            UPDATE transacciones t
+            JOIN transacciones o ON o.huella = t.huella AND o.id < t.id
+            SET t.duplicado_sospechoso = true
+            WHERE t.lote_id = :loteId
+              AND t.duplicado_sospechoso = false
+            """)
+                .setParameter("loteId", loteId)
+                .executeUpdate();
+        if (marcadas > 0) {
+            log.warn("{} transacciones del lote {} marcadas como posible duplicado", marcadas, loteId);
+        }
+        return marcadas;
+    }
+
+    /**
+     * Descarta la sospecha de duplicado: las transacciones vuelven a quedar pendientes de costeo.
+     */
+    @Transactional
+    public int descartarSospecha(Collection<Long> transaccionIds) {
+        if (transaccionIds.isEmpty()) {
+            return 0;
+        }
+        int actualizadas = entityManager.createQuery("""
+            UPDATE TransaccionEntity t
+            SET t.duplicadoSospechoso = false,
+                t.costeado = false
+            WHERE t.id IN :ids
+            """)
+                .setParameter("ids", transaccionIds)
+                .executeUpdate();
+        log.info("Sospecha de duplicado descartada en {} transacciones", actualizadas);
+        return actualizadas;
+    }
+
+    /**
+     * Al iniciar calcula una sola vez la huella de las transacciones que no la tienen
+     * (anteriores a la huella o creadas fuera de la normalización).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void inicializar() {
+        int actualizadas = entityManager.createNativeQuery(sqlCompletarHuellas("")).executeUpdate();
+        if (actualizadas > 0) {
+            log.info("Huella calculada para {} transacciones existentes", actualizadas);
+        }
+    }
+
+    /**
+     * Grupos con la misma huella que aún tienen transacciones marcadas como duplicado,
+     * de la más reciente a la más antigua. Los grupos cuya sospecha ya se descartó no aparecen.
+     */
+    @Transactional(readOnly = true)
+    public List<DuplicadoSospechosoDto> obtenerDuplicadosSospechosos() {
+        @SuppressWarnings("unchecked")
+        List<Object[]> filas = entityManager.createNativeQuery("""
+            SELECT t.huella, MIN(e.razonsocial), MIN(cu.custodio), MIN(t.cuenta), MIN(i.nemo),
+                   MIN(t.fecha_transaccion), MIN(t.folio), MIN(t.cantidad), MIN(t.monto), COUNT(*),
+                   GROUP_CONCAT(t.id ORDER BY t.id), GROUP_CONCAT(DISTINCT t.lote_id ORDER BY t.lote_id),
+                   GROUP_CONCAT(CASE WHEN t.duplicado_sospechoso THEN t.id END ORDER BY t.id)
+            FROM transacciones t
+            JOIN empresas e ON e.id = t.empresa_id
+            JOIN custodios cu ON cu.id = t.custodio_id
+            JOIN instrumentos i ON i.id = t.instrumento_id
+            WHERE t.huella IN (
+                SELECT d.huella FROM (
+                    SELECT DISTINCT huella FROM transacciones
+                    WHERE duplicado_sospechoso = true
+                      AND huella IS NOT NULL
+                ) d
+            )
+            GROUP BY t.huella
+            ORDER BY MIN(t.fecha_transaccion) DESC
+            """).getResultList();
+
+        return filas.stream().map(this::mapear).toList();
+    }
+
+    private String sqlCompletarHuellas(String filtro) {
+        return SQL_COMPLETAR_HUELLAS.formatted(HuellaTransaccion.expresionSql("t.empresa_id", "t.custodio_id",
+                "t.cuenta", "t.instrumento_id", "t.fecha_transaccion", "t.folio", "t.cantidad", "t.monto"), filtro);
+    }
+
+    private DuplicadoSospechosoDto mapear(Object[] fila) {
+        return DuplicadoSospechosoDto.builder()
+                .huella((String) fila[0])
+                .razonSocial((String) fila[1])
+                .custodio((String) fila[2])
+                .cuenta((String) fila[3])
+                .instrumentoNemo((String) fila[4])
+                .fecha(aFecha(fila[5]))
+                .folio((String) fila[6])
+                .cantidad((BigDecimal) fila[7])
+                .monto((BigDecimal) fila[8])
+                .ocurrencias(((Number) fila[9]).intValue())
+                .idsTransacciones(aIds(fila[10]))
+                .lotes(aIds(fila[11]))
+                .idsSospechosos(aIds(fila[12]))
+                .build();
+    }
+
+    private LocalDate aFecha(Object valor) {
+        if (valor instanceof LocalDate fecha) return fecha;
+        if (valor instanceof Date fecha) return fecha.toLocalDate();
+        return null;
+    }
+
+    private List<Long> aIds(Object valor) {
+        // GROUP_CONCAT puede llegar como binario según la versión del driver
+        String texto = valor instanceof byte[] bytes ? new String(bytes, StandardCharsets.UTF_8) : String.valueOf(valor);
+        if (valor == null || texto.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(texto.split(",")).map(String::trim).map(Long::valueOf).toList();
+    }
+}
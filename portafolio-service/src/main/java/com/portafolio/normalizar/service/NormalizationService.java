@@ -1,19 +1,35 @@
 package com.portafolio.normalizar.service;
 
+import com.portafolio.etl.service.LoteCargaService;
+import com.portafolio.model.dto.CostingGroupDto;
 import com.portafolio.model.entities.CargaTransaccionEntity;
 import com.portafolio.model.entities.TransaccionEntity;
+import com.portafolio.model.utiles.Pk;
+import com.portafolio.normalizar.event.CargaNormalizadaEvent;
+import com.portafolio.normalizar.processor.BulkNormalizationProcessor;
 import com.portafolio.normalizar.processor.EntityCacheManager;
 import com.portafolio.normalizar.processor.NormalizationProcessor;
+import com.portafolio.normalizar.reglas.ReglasNormalizacionService;
 import com.portafolio.persistence.repositorio.CargaTransaccionRepository;
 import com.portafolio.persistence.repositorio.TransaccionRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Servicio Spring para normalización de datos.
@@ -28,11 +44,21 @@ public class NormalizationService {
     private final TransaccionRepository transaccionRepository;
     private final EntityCacheManager cacheManager;
     private final NormalizationProcessor processor;
+    private final BulkNormalizationProcessor bulkProcessor;
+    private final ReglasNormalizacionService reglasService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LoteCargaService loteCargaService;
+    private final DuplicadosService duplicadosService;
+
+    @Value("${portafolio.normalizacion.tamano-lote:1000}")
+    private int tamanoLote;
+
+    @Value("${portafolio.normalizacion.hilos:1}")
+    private int hilosNormalizacion;
 
     /**
      * Ejecuta la normalización completa de registros no procesados.
      */
-    @Transactional
     public NormalizationResult ejecutarNormalizacion() {
         return ejecutarNormalizacion(false);
     }
@@ -40,63 +66,266 @@ public class NormalizationService {
     /**
      * Ejecuta la normalización como carga inicial (saldos iniciales).
      */
-    @Transactional
     public NormalizationResult ejecutarCargaInicial() {
         return ejecutarNormalizacion(true);
     }
 
     /**
      * Ejecuta la normalización con configuración específica.
+     * Los registros se recorren por lotes en orden de clave primaria (keyset); cada lote
+     * se confirma en su propia transacción, de modo que el contexto de persistencia nunca
+     * retiene más de un lote. Si el proceso se interrumpe, lo confirmado queda marcado
+     * como procesado y la siguiente ejecución continúa desde los registros pendientes.
+     * Las reglas de normalización se recargan al comenzar, para tomar cambios de operaciones.
      */
-    @Transactional
     public NormalizationResult ejecutarNormalizacion(boolean esCargaInicial) {
+        reglasService.recargar();
+        if (hilosNormalizacion > 1) {
+            return ejecutarNormalizacionParalela(esCargaInicial);
+        }
         long startTime = System.currentTimeMillis();
         
-        log.info("=== INICIANDO NORMALIZACIÓN {} ===", 
-                esCargaInicial ? "CARGA INICIAL" : "REGULAR");
+        log.info("=== INICIANDO NORMALIZACIÓN {} (lotes de {}) ===",
+                esCargaInicial ? "CARGA INICIAL" : "REGULAR", tamanoLote);
+
+        int exitosos = 0;
+        int fallidos = 0;
+        int lotes = 0;
+        Set<String> gruposAfectados = new HashSet<>();
+        Pk cursor = null;
+        try {
+            while (true) {
+                NormalizationProcessor.ResultadoLote lote = processor.procesarLote(cursor, tamanoLote, esCargaInicial);
+                if (lote.leidos() == 0) {
+                    break;
+                }
+                lotes++;
+                exitosos += lote.resultado().getExitosos();
+                fallidos += lote.resultado().getFallidos();
+                gruposAfectados.addAll(lote.resultado().getGruposAfectados());
+                cursor = lote.ultimaClave();
+                log.info("Lote {} confirmado: {} registros hasta {}|{}|{} ({} exitosos acumulados)",
+                        lotes, lote.leidos(), cursor.getFechaTransaccion(), cursor.getRowNum(),
+                        cursor.getTipoClase(), exitosos);
+                if (lote.leidos() < tamanoLote) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            log.error("Error durante la normalización; lotes confirmados: {}, último registro confirmado: {}",
+                    lotes, cursor != null ? cursor.getFechaTransaccion() + "|" + cursor.getRowNum() + "|" + cursor.getTipoClase() : "-", e);
+            // Los lotes confirmados antes del error ya dejaron sus transacciones
+            publicarGruposAfectados(null, gruposAfectados);
+            return NormalizationResult.builder()
+                    .exitosos(exitosos)
+                    .fallidos(fallidos)
+                    .duracionMs(System.currentTimeMillis() - startTime)
+                    .mensaje("Error durante normalización: " + e.getMessage())
+                    .error(true)
+                    .build();
+        }
+
+        long duracion = System.currentTimeMillis() - startTime;
+        if (lotes == 0) {
+            log.info("No hay registros pendientes de normalizar");
+            return NormalizationResult.builder()
+                    .exitosos(0)
+                    .fallidos(0)
+                    .duracionMs(duracion)
+                    .mensaje("No hay registros pendientes")
+                    .build();
+        }
 
+        log.info("=== NORMALIZACIÓN COMPLETADA: {} exitosos, {} fallidos en {} lotes, {}ms ===",
+                exitosos, fallidos, lotes, duracion);
+        publicarGruposAfectados(null, gruposAfectados);
+
+        return NormalizationResult.builder()
+                .exitosos(exitosos)
+                .fallidos(fallidos)
+                .duracionMs(duracion)
+                .mensaje(String.format("Procesados %d exitosos, %d fallidos", exitosos, fallidos))
+                .build();
+    }
+
+    /**
+     * Normalización incremental: procesa solo las filas pendientes del lote de carga indicado,
+     * por lotes keyset como la normalización completa, y publica los grupos de costeo afectados
+     * para que el costeo se limite a ellos.
+     */
+    public NormalizationResult normalizarCarga(Long loteId, boolean esCargaInicial) {
+        reglasService.recargar();
+        long startTime = System.currentTimeMillis();
+        log.info("=== INICIANDO NORMALIZACIÓN DEL LOTE DE CARGA {} ===", loteId);
+
+        int exitosos = 0;
+        int fallidos = 0;
+        Set<String> gruposAfectados = new HashSet<>();
+        Pk cursor = null;
         try {
-            // 1. Obtener registros pendientes de procesar
-            List<CargaTransaccionEntity> registrosPendientes = 
-                    cargaTransaccionRepository.findByProcesadoFalse();
-
-            if (registrosPendientes.isEmpty()) {
-                log.info("No hay registros pendientes de normalizar");
-                return NormalizationResult.builder()
-                        .exitosos(0)
-                        .fallidos(0)
-                        .duracionMs(System.currentTimeMillis() - startTime)
-                        .mensaje("No hay registros pendientes")
-                        .build();
+            while (true) {
+                NormalizationProcessor.ResultadoLote lote =
+                        processor.procesarLoteDeCarga(loteId, cursor, tamanoLote, esCargaInicial);
+                if (lote.leidos() == 0) {
+                    break;
+                }
+                exitosos += lote.resultado().getExitosos();
+                fallidos += lote.resultado().getFallidos();
+                gruposAfectados.addAll(lote.resultado().getGruposAfectados());
+                cursor = lote.ultimaClave();
+                if (lote.leidos() < tamanoLote) {
+                    break;
+                }
             }
+        } catch (Exception e) {
+            log.error("Error normalizando el lote de carga {}", loteId, e);
+            return NormalizationResult.builder()
+                    .exitosos(exitosos)
+                    .fallidos(fallidos)
+                    .gruposAfectados(gruposAfectados)
+                    .duracionMs(System.currentTimeMillis() - startTime)
+                    .mensaje("Error durante normalización: " + e.getMessage())
+                    .error(true)
+                    .build();
+        }
+
+        long duracion = System.currentTimeMillis() - startTime;
+        log.info("=== LOTE DE CARGA {} NORMALIZADO: {} exitosos, {} fallidos, {} grupos afectados, {}ms ===",
+                loteId, exitosos, fallidos, gruposAfectados.size(), duracion);
+        publicarGruposAfectados(loteId, gruposAfectados);
+
+        return NormalizationResult.builder()
+                .exitosos(exitosos)
+                .fallidos(fallidos)
+                .gruposAfectados(gruposAfectados)
+                .duracionMs(duracion)
+                .mensaje(String.format("Procesados %d exitosos, %d fallidos", exitosos, fallidos))
+                .build();
+    }
+
+    /**
+     * Normalización repartida por fecha entre varios workers. Las filas de fechas distintas
+     * solo se relacionan a través de los datos maestros, cuya creación serializa
+     * EntityCacheManager; dentro de una fecha se conserva el orden de clave primaria,
+     * de modo que el orden de ids de las transacciones del día no cambia.
+     */
+    public NormalizationResult ejecutarNormalizacionParalela(boolean esCargaInicial) {
+        long startTime = System.currentTimeMillis();
+        List<LocalDate> fechas = cargaTransaccionRepository.findFechasPendientes();
+        if (fechas.isEmpty()) {
+            log.info("No hay registros pendientes de normalizar");
+            return NormalizationResult.builder()
+                    .duracionMs(System.currentTimeMillis() - startTime)
+                    .mensaje("No hay registros pendientes")
+                    .build();
+        }
 
-            log.info("Encontrados {} registros para normalizar", registrosPendientes.size());
+        int hilos = Math.min(hilosNormalizacion, fechas.size());
+        log.info("=== INICIANDO NORMALIZACIÓN PARALELA {}: {} fechas, {} workers ===",
+                esCargaInicial ? "CARGA INICIAL" : "REGULAR", fechas.size(), hilos);
 
-            // 2. Procesar registros
-            NormalizationResult resultado = processor.procesarRegistros(
-                    registrosPendientes, esCargaInicial);
+        AtomicInteger secuencia = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(hilos,
+                r -> new Thread(r, "normalizacion-" + secuencia.incrementAndGet()));
+        int exitosos = 0;
+        int fallidos = 0;
+        Set<String> gruposAfectados = new HashSet<>();
+        List<String> errores = new ArrayList<>();
+        try {
+            List<Future<NormalizationResult>> futuros = new ArrayList<>();
+            for (LocalDate fecha : fechas) {
+                futuros.add(executor.submit(() -> normalizarFechaPorLotes(fecha, esCargaInicial)));
+            }
+            for (int i = 0; i < futuros.size(); i++) {
+                try {
+                    NormalizationResult parcial = futuros.get(i).get();
+                    exitosos += parcial.getExitosos();
+                    fallidos += parcial.getFallidos();
+                    gruposAfectados.addAll(parcial.getGruposAfectados());
+                } catch (ExecutionException e) {
+                    log.error("Error normalizando la fecha {}", fechas.get(i), e.getCause());
+                    errores.add(fechas.get(i) + ": " + e.getCause().getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            errores.add("Normalización interrumpida");
+        } finally {
+            executor.shutdownNow();
+        }
 
-            // 3. Limpiar caché después del procesamiento
-            cacheManager.limpiarCache();
+        long duracion = System.currentTimeMillis() - startTime;
+        log.info("=== NORMALIZACIÓN PARALELA COMPLETADA: {} exitosos, {} fallidos, {} fechas con error en {}ms ===",
+                exitosos, fallidos, errores.size(), duracion);
+        publicarGruposAfectados(null, gruposAfectados);
 
-            long duracion = System.currentTimeMillis() - startTime;
-            resultado.setDuracionMs(duracion);
+        String mensaje = String.format("Procesados %d exitosos, %d fallidos", exitosos, fallidos);
+        return NormalizationResult.builder()
+                .exitosos(exitosos)
+                .fallidos(fallidos)
+                .duracionMs(duracion)
+                .mensaje(errores.isEmpty() ? mensaje : mensaje + ". Fechas con error: " + String.join("; ", errores))
+                .error(!errores.isEmpty())
+                .build();
+    }
 
-            log.info("=== NORMALIZACIÓN COMPLETADA: {} exitosos, {} fallidos en {}ms ===",
-                    resultado.getExitosos(), resultado.getFallidos(), duracion);
+    /**
+     * Carga inicial masiva: normaliza por conjuntos (INSERT ... SELECT), un año por transacción.
+     * Pensada para cargas de varios años donde el proceso fila a fila es demasiado lento.
+     * Al terminar marca los duplicados sospechosos de cada lote normalizado y publica los
+     * grupos de costeo que recibieron transacciones, igual que la normalización fila a fila.
+     */
+    public NormalizationResult ejecutarCargaInicialMasiva() {
+        long startTime = System.currentTimeMillis();
+        log.info("=== INICIANDO NORMALIZACIÓN MASIVA (CARGA INICIAL) ===");
+        reglasService.recargar();
 
-            return resultado;
+        LocalDate desde = cargaTransaccionRepository.findMinFechaTransaccionPendiente().orElse(null);
+        LocalDate hasta = cargaTransaccionRepository.findMaxFechaTransaccionPendiente().orElse(null);
+        if (desde == null || hasta == null) {
+            return NormalizationResult.builder()
+                    .duracionMs(System.currentTimeMillis() - startTime)
+                    .mensaje("No hay registros pendientes")
+                    .build();
+        }
+        List<Long> lotes = cargaTransaccionRepository.findLoteIdsPendientes();
 
+        int exitosos = 0;
+        try {
+            for (int anio = desde.getYear(); anio <= hasta.getYear(); anio++) {
+                int creadas = bulkProcessor.normalizarRango(
+                        LocalDate.of(anio, 1, 1), LocalDate.of(anio, 12, 31), true);
+                exitosos += creadas;
+                log.info("Año {} normalizado: {} transacciones", anio, creadas);
+            }
+            lotes.forEach(duplicadosService::marcarDuplicadosLote);
         } catch (Exception e) {
-            log.error("Error durante la normalización", e);
+            log.error("Error durante la normalización masiva", e);
+            // Los años confirmados antes del error ya dejaron sus transacciones
+            publicarGruposAfectados(null, gruposDeLotes(lotes));
             return NormalizationResult.builder()
-                    .exitosos(0)
-                    .fallidos(0)
+                    .exitosos(exitosos)
                     .duracionMs(System.currentTimeMillis() - startTime)
-                    .mensaje("Error durante normalización: " + e.getMessage())
+                    .mensaje("Error durante normalización masiva: " + e.getMessage())
                     .error(true)
                     .build();
         }
+
+        // Los registros que no resolvieron sus maestros quedan pendientes
+        int fallidos = (int) cargaTransaccionRepository.countByProcesadoFalse();
+        long duracion = System.currentTimeMillis() - startTime;
+        Set<String> gruposAfectados = gruposDeLotes(lotes);
+        log.info("=== NORMALIZACIÓN MASIVA COMPLETADA: {} exitosos, {} pendientes, {} grupos afectados en {}ms ===",
+                exitosos, fallidos, gruposAfectados.size(), duracion);
+        publicarGruposAfectados(null, gruposAfectados);
+
+        return NormalizationResult.builder()
+                .exitosos(exitosos)
+                .fallidos(fallidos)
+                .gruposAfectados(gruposAfectados)
+                .duracionMs(duracion)
+                .mensaje(String.format("Procesados %d exitosos, %d fallidos", exitosos, fallidos))
+                .build();
     }
 
     /**
@@ -117,7 +346,9 @@ public class NormalizationService {
                     .build();
         }
 
-        return processor.procesarRegistros(registrosFecha, esCargaInicial);
+        NormalizationResult resultado = processor.procesarRegistros(registrosFecha, esCargaInicial);
+        publicarGruposAfectados(null, resultado.getGruposAfectados());
+        return resultado;
     }
 
     /**
@@ -129,7 +360,7 @@ public class NormalizationService {
         long procesados = cargaTransaccionRepository.countByProcesadoTrue();
         long pendientes = cargaTransaccionRepository.countByProcesadoFalse();
 
-        Map<String, Integer> estadisticasCache = cacheManager.getEstadisticasCache();
+        Map<String, Map<String, Long>> estadisticasCache = cacheManager.getEstadisticasCache();
 
         return Map.of(
                 "totalRegistrosCarga", totalRegistros,
@@ -141,31 +372,70 @@ public class NormalizationService {
     }
 
     /**
-     * Reinicia el estado de procesamiento para registros específicos.
+     * Reinicia el procesamiento de un lote de carga y lo vuelve a normalizar. Las transacciones
+     * que el lote ya había generado se descartan antes, para no duplicarlas.
      */
-    @Transactional
-    public int reiniciarProcesamiento(LocalDate fechaDesde, LocalDate fechaHasta) {
-        log.warn("Reiniciando procesamiento de registros desde {} hasta {}", fechaDesde, fechaHasta);
-
-        int registrosReiniciados = cargaTransaccionRepository
-                .resetProcesadoByFechaRange(fechaDesde, fechaHasta);
-
-        log.info("Reiniciados {} registros para reprocesamiento", registrosReiniciados);
-        return registrosReiniciados;
+    public NormalizationResult reiniciarProcesamiento(Long loteId) {
+        log.warn("Reiniciando procesamiento del lote de carga {}", loteId);
+        int registrosReiniciados = loteCargaService.reprocesar(loteId);
+        log.info("Reiniciados {} registros del lote {} para reprocesamiento", registrosReiniciados, loteId);
+        return normalizarCarga(loteId, false);
     }
 
     /**
-     * Limpia registros procesados antiguos para liberar espacio.
+     * Limpia el staging de los lotes cargados antes de la fecha que ya fueron normalizados por completo.
      */
-    @Transactional
     public int limpiarRegistrosAntiguos(LocalDate fechaHasta) {
-        log.info("Limpiando registros procesados hasta: {}", fechaHasta);
+        log.info("Limpiando lotes de carga normalizados hasta: {}", fechaHasta);
+        return loteCargaService.purgarAnterioresA(fechaHasta);
+    }
+
+    /**
+     * Recorre por lotes los registros pendientes de una fecha; cada lote en su transacción.
+     */
+    private NormalizationResult normalizarFechaPorLotes(LocalDate fecha, boolean esCargaInicial) {
+        int exitosos = 0;
+        int fallidos = 0;
+        Set<String> gruposAfectados = new HashSet<>();
+        Pk cursor = null;
+        while (true) {
+            NormalizationProcessor.ResultadoLote lote =
+                    processor.procesarLoteFecha(fecha, cursor, tamanoLote, esCargaInicial);
+            exitosos += lote.resultado().getExitosos();
+            fallidos += lote.resultado().getFallidos();
+            gruposAfectados.addAll(lote.resultado().getGruposAfectados());
+            if (lote.leidos() < tamanoLote) {
+                break;
+            }
+            cursor = lote.ultimaClave();
+        }
+        log.debug("Fecha {} normalizada: {} exitosos, {} fallidos", fecha, exitosos, fallidos);
+        return NormalizationResult.builder().exitosos(exitosos).fallidos(fallidos).gruposAfectados(gruposAfectados).build();
+    }
 
-        int registrosEliminados = cargaTransaccionRepository
-                .deleteByProcesadoTrueAndIdFechaTransaccionBefore(fechaHasta);
+    /**
+     * Grupos de costeo con transacciones de los lotes indicados; la normalización masiva
+     * no recorre las filas, así que los obtiene de las transacciones ya creadas.
+     */
+    private Set<String> gruposDeLotes(List<Long> loteIds) {
+        Set<String> grupos = new HashSet<>();
+        if (loteIds.isEmpty()) {
+            return grupos;
+        }
+        for (Object[] fila : transaccionRepository.findGruposDeLotes(loteIds)) {
+            grupos.add(CostingGroupDto.construirClave((Long) fila[0], (String) fila[1], (Long) fila[2], (Long) fila[3]));
+        }
+        return grupos;
+    }
 
-        log.info("Eliminados {} registros procesados antiguos", registrosEliminados);
-        return registrosEliminados;
+    /**
+     * Publica los grupos que recibieron transacciones, para que el resumen histórico, los
+     * cachés de reportes y el costeo incremental se actualicen con cualquier vía de normalización.
+     */
+    private void publicarGruposAfectados(Long loteId, Set<String> gruposAfectados) {
+        if (gruposAfectados != null && !gruposAfectados.isEmpty()) {
+            eventPublisher.publishEvent(new CargaNormalizadaEvent(loteId, Set.copyOf(gruposAfectados)));
+        }
     }
 
     /**
@@ -181,6 +451,12 @@ public class NormalizationService {
         private long duracionMs;
         private String mensaje;
         private boolean error;
+
+        /**
+         * Grupos de costeo (empresaId|cuenta|custodioId|instrumentoId) con transacciones nuevas.
+         */
+        @lombok.Builder.Default
+        private Set<String> gruposAfectados = new HashSet<>();
         
         /**
          * Calcula el porcentaje de éxito.
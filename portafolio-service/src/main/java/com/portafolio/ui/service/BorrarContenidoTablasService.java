@@ -1,9 +1,12 @@
 package com.portafolio.ui.service;
 
+import com.portafolio.ui.service.cache.DatosReporteModificadosEvent;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -12,10 +15,13 @@ import org.springframework.transaction.annotation.Transactional;
  * Utiliza la gestión de transacciones de Spring para garantizar la atomicidad.
  */
 @Service
+@RequiredArgsConstructor
 public class BorrarContenidoTablasService {
 
     private static final Logger logger = LoggerFactory.getLogger(BorrarContenidoTablasService.class);
 
+    private final ApplicationEventPublisher eventPublisher;
+
     // Spring inyecta el EntityManager, que nos da acceso directo a la base de datos.
     @PersistenceContext
     private EntityManager entityManager;
@@ -35,14 +41,23 @@ public class BorrarContenidoTablasService {
             entityManager.createNativeQuery("SET FOREIGN_KEY_CHECKS = 0;").executeUpdate();
 
             // Se vacían TODAS las tablas de negocio.
-            logger.debug("Truncando tablas: detalle_costeos, kardex, saldos_kardex, transacciones, saldos_diarios, saldos, carga_transacciones...");
+            logger.debug("Truncando tablas: detalle_costeos, kardex_reporte, kardex, saldos_kardex, posiciones_actuales, resumen_historico, grupos_costeo, transacciones, saldos_diarios, saldos, saldos_mensuales, carga_transacciones, lotes_carga...");
             entityManager.createNativeQuery("TRUNCATE TABLE detalle_costeos").executeUpdate();
+            entityManager.createNativeQuery("TRUNCATE TABLE kardex_reporte").executeUpdate();
             entityManager.createNativeQuery("TRUNCATE TABLE kardex").executeUpdate();
             entityManager.createNativeQuery("TRUNCATE TABLE saldos_kardex").executeUpdate();
+            entityManager.createNativeQuery("TRUNCATE TABLE posiciones_actuales").executeUpdate();
+            entityManager.createNativeQuery("TRUNCATE TABLE resumen_historico").executeUpdate();
+            entityManager.createNativeQuery("TRUNCATE TABLE grupos_costeo").executeUpdate();
             entityManager.createNativeQuery("TRUNCATE TABLE transacciones").executeUpdate();
             entityManager.createNativeQuery("TRUNCATE TABLE saldos_diarios").executeUpdate();
             entityManager.createNativeQuery("TRUNCATE TABLE saldos").executeUpdate();
+            entityManager.createNativeQuery("TRUNCATE TABLE saldos_mensuales").executeUpdate();
             entityManager.createNativeQuery("TRUNCATE TABLE carga_transacciones").executeUpdate();
+            entityManager.createNativeQuery("TRUNCATE TABLE lotes_carga").executeUpdate();
+
+            // La carga inicial limpia desde su primer trabajo: los trabajos en cola o en curso se conservan
+            entityManager.createNativeQuery("DELETE FROM carga_jobs WHERE estado IN ('COMPLETADO', 'FALLIDO')").executeUpdate();
 
         } finally {
             // Es CRUCIAL volver a activar la revisión de llaves foráneas.
@@ -51,6 +66,7 @@ public class BorrarContenidoTablasService {
             entityManager.createNativeQuery("SET FOREIGN_KEY_CHECKS = 1;").executeUpdate();
         }
 
+        eventPublisher.publishEvent(new DatosReporteModificadosEvent("limpieza de tablas"));
         logger.info("Limpieza de tablas completada exitosamente.");
     }
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.portafolio.ui.service;
 
 import com.portafolio.model.dto.ConfrontaSaldoDto;
 import com.portafolio.persistence.repositorio.ConfrontaRepository;
+import com.portafolio.ui.service.cache.ReporteCache;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,10 +22,12 @@ public class ConfrontaService {
     private static final Logger logger = LoggerFactory.getLogger(ConfrontaService.class);
 
     private final ConfrontaRepository confrontaRepository;
+    private final ReporteCache reporteCache;
 
     /**
      * Obtiene las diferencias de saldos para la fecha de corte más reciente.
      * La anotación @Transactional(readOnly = true) optimiza la consulta.
+     * El resultado se guarda en el caché de reportes hasta la próxima carga o costeo.
      *
      * @return Lista de diferencias de saldos, o lista vacía si no hay datos o hay un error.
      */
@@ -32,7 +35,8 @@ public class ConfrontaService {
     public List<ConfrontaSaldoDto> obtenerDiferenciasDeSaldos() {
         try {
             // La lógica ahora es una simple llamada al método del repositorio.
-            List<ConfrontaSaldoDto> diferencias = confrontaRepository.obtenerDiferenciasDeSaldos();
+            List<ConfrontaSaldoDto> diferencias = reporteCache.obtener("confronta",
+                    confrontaRepository::obtenerDiferenciasDeSaldos);
             logger.info("Se encontraron {} diferencias de saldos.", diferencias.size());
             return diferencias;
         } catch (Exception e) {
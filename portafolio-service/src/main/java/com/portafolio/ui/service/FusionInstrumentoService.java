@@ -1,11 +1,14 @@
 package com.portafolio.ui.service;
 
+import com.portafolio.masterdata.event.InstrumentoFusionadoEvent;
+import com.portafolio.masterdata.event.MaestroModificadoEvent;
 import com.portafolio.model.entities.InstrumentoEntity;
 import com.portafolio.persistence.repositorio.*;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,6 +27,7 @@ public class FusionInstrumentoService {
     private final DetalleCosteoRepository detalleCosteoRepository;
     private final KardexRepository kardexRepository;
     private final SaldosDiariosRepository saldosDiariosRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Fusiona dos instrumentos y prepara todas las transacciones para recosteo.
@@ -73,6 +77,8 @@ public class FusionInstrumentoService {
         // 5. ELIMINAR EL INSTRUMENTO ANTIGUO
         logger.info("Eliminando el instrumento antiguo (ID: {})...", idInstrumentoAntiguo);
         instrumentoRepository.delete(instrumentoAntiguo);
+        eventPublisher.publishEvent(new MaestroModificadoEvent(InstrumentoEntity.class, idInstrumentoAntiguo));
+        eventPublisher.publishEvent(new InstrumentoFusionadoEvent(idInstrumentoAntiguo, idInstrumentoNuevo));
 
         logger.info("Fusión y preparación para recosteo completada con éxito.");
     }
@@ -1,13 +1,109 @@
-/*
- * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
- * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
- */
 package com.portafolio.ui.service;
 
+import com.portafolio.model.dto.CursorKeyset;
+import com.portafolio.model.dto.KardexReporteDto;
+import com.portafolio.model.dto.PaginaKeyset;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
 /**
- *
- * @author maxbesser
+ * Movimientos de kardex de un grupo para la grilla de kardex, leídos de kardex_reporte.
+ * La grilla pide páginas por (fecha_tran, id) a medida que se desplaza, de modo que abrir
+ * un grupo con cientos de miles de movimientos no trae todas las filas a memoria.
  */
+@Service
 public class KardexService {
-    
+
+    private static final String SQL_MOVIMIENTOS = """
+        SELECT r.id, r.fecha_tran, r.tipo_oper, r.nemo, r.cant_compra, r.precio_compra, r.monto_compra,
+               r.total_fact, r.cant_usada, r.fecha_compra, r.costo_fifo, r.precio_venta, r.costo_oper,
+               r.margen, r.utilidad, r.saldo_cantidad, r.saldo_valor
+        FROM kardex_reporte r
+        WHERE r.empresa_id = :empresaId
+          AND r.custodio_id = :custodioId
+          AND r.cuenta = :cuenta
+          AND r.nemo_id = :instrumentoId
+          %s
+        ORDER BY r.fecha_tran, r.id
+        %s
+        """;
+
+    // El índice idx_kardex_reporte_grupo termina en fecha_tran y lleva el id implícito
+    private static final String FILTRO_CURSOR =
+            "AND (r.fecha_tran > :fecha OR (r.fecha_tran = :fecha AND r.id > :id))";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Todos los movimientos del grupo, en orden de fecha.
+     */
+    @Transactional(readOnly = true)
+    public List<KardexReporteDto> obtenerMovimientosPorGrupo(Long empresaId, Long custodioId, String cuenta, Long instrumentoId) {
+        return consultar(empresaId, custodioId, cuenta, instrumentoId, null, null);
+    }
+
+    /**
+     * Página de movimientos del grupo posteriores al cursor ({@code null} para la primera).
+     */
+    @Transactional(readOnly = true)
+    public PaginaKeyset<KardexReporteDto> obtenerPaginaMovimientos(Long empresaId, Long custodioId, String cuenta,
+                                                                  Long instrumentoId, CursorKeyset despues, int tamano) {
+        return PaginaKeyset.desde(consultar(empresaId, custodioId, cuenta, instrumentoId, despues, tamano + 1), tamano,
+                fila -> new CursorKeyset(fila.getFechaTran(), fila.getId()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<KardexReporteDto> consultar(Long empresaId, Long custodioId, String cuenta, Long instrumentoId,
+                                             CursorKeyset despues, Integer limite) {
+        String sql = SQL_MOVIMIENTOS.formatted(
+                despues != null ? FILTRO_CURSOR : "",
+                limite != null ? "LIMIT " + limite : "");
+        Query query = entityManager.createNativeQuery(sql)
+                .setParameter("empresaId", empresaId)
+                .setParameter("custodioId", custodioId)
+                .setParameter("cuenta", cuenta)
+                .setParameter("instrumentoId", instrumentoId);
+        if (despues != null) {
+            query.setParameter("fecha", Date.valueOf(despues.fecha()))
+                    .setParameter("id", despues.id());
+        }
+        List<Object[]> filas = query.getResultList();
+        return filas.stream().map(this::aDto).toList();
+    }
+
+    private KardexReporteDto aDto(Object[] fila) {
+        return KardexReporteDto.builder()
+                .id(((Number) fila[0]).longValue())
+                .fechaTran(aLocalDate(fila[1]))
+                .tipoOper((String) fila[2])
+                .nemo((String) fila[3])
+                .cantCompra((BigDecimal) fila[4])
+                .precioCompra((BigDecimal) fila[5])
+                .montoCompra((BigDecimal) fila[6])
+                .totalFact((BigDecimal) fila[7])
+                .cantUsada((BigDecimal) fila[8])
+                .fechaCompra(aLocalDate(fila[9]))
+                .costoFifo((BigDecimal) fila[10])
+                .precioVenta((BigDecimal) fila[11])
+                .costoOper((BigDecimal) fila[12])
+                .margen((BigDecimal) fila[13])
+                .utilidad((BigDecimal) fila[14])
+                .saldoCantidad((BigDecimal) fila[15])
+                .saldoValor((BigDecimal) fila[16])
+                .build();
+    }
+
+    private LocalDate aLocalDate(Object valor) {
+        if (valor == null) return null;
+        return valor instanceof Date fecha ? fecha.toLocalDate() : (LocalDate) valor;
+    }
 }
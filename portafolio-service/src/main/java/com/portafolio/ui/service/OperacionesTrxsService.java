@@ -1,13 +1,67 @@
-/*
- * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
- * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
- */
 package com.portafolio.ui.service;
 
+import com.portafolio.model.dto.CursorKeyset;
+import com.portafolio.model.dto.OperacionesTrxsDto;
+import com.portafolio.model.dto.PaginaKeyset;
+import com.portafolio.model.enums.TipoEnumsCosteo;
+import com.portafolio.ui.service.query.QueryRepository;
+import com.portafolio.ui.service.query.QueryRepository.OperacionesQueries;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
 /**
- *
- * @author maxbesser
+ * Transacciones de un grupo (uno o dos instrumentos, para comparar antes de fusionar)
+ * para la grilla de operaciones, en orden de fecha e id.
  */
+@Service
 public class OperacionesTrxsService {
-    
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Todas las transacciones del grupo.
+     */
+    @Transactional(readOnly = true)
+    public List<OperacionesTrxsDto> obtenerTransaccionesPorGrupo(Long empresaId, Long custodioId, String cuenta,
+                                                                 List<Long> instrumentoIds) {
+        return consultar(empresaId, custodioId, cuenta, instrumentoIds, null)
+                .getResultList();
+    }
+
+    /**
+     * Página de transacciones del grupo posteriores al cursor ({@code null} para la primera).
+     */
+    @Transactional(readOnly = true)
+    public PaginaKeyset<OperacionesTrxsDto> obtenerPaginaTransacciones(Long empresaId, Long custodioId, String cuenta,
+                                                                      List<Long> instrumentoIds,
+                                                                      CursorKeyset despues, int tamano) {
+        List<OperacionesTrxsDto> filas = consultar(empresaId, custodioId, cuenta, instrumentoIds, despues)
+                .setMaxResults(tamano + 1)
+                .getResultList();
+        return PaginaKeyset.desde(filas, tamano, fila -> new CursorKeyset(fila.getFecha(), fila.getId()));
+    }
+
+    private TypedQuery<OperacionesTrxsDto> consultar(Long empresaId, Long custodioId, String cuenta,
+                                                     List<Long> instrumentoIds, CursorKeyset despues) {
+        String jpql = QueryRepository.getOperacionesQuery(OperacionesQueries.OPERACIONES_QUERY)
+                .formatted(despues != null ? QueryRepository.FILTRO_CURSOR_TRANSACCION : "");
+        TypedQuery<OperacionesTrxsDto> query = entityManager.createQuery(jpql, OperacionesTrxsDto.class)
+                .setParameter("empresaId", empresaId)
+                .setParameter("custodioId", custodioId)
+                .setParameter("cuenta", cuenta)
+                .setParameter("instrumentoIds", instrumentoIds)
+                .setParameter("tipoIngreso", TipoEnumsCosteo.INGRESO)
+                .setParameter("tipoEgreso", TipoEnumsCosteo.EGRESO);
+        if (despues != null) {
+            query.setParameter("fecha", despues.fecha())
+                    .setParameter("id", despues.id());
+        }
+        return query;
+    }
 }
@@ -1,13 +1,60 @@
-/*
- * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
- * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
- */
 package com.portafolio.ui.service;
 
+import com.portafolio.model.dto.CursorKeyset;
+import com.portafolio.model.dto.PaginaKeyset;
+import com.portafolio.model.dto.ProblemasTrxsDto;
+import com.portafolio.model.enums.TipoEnumsCosteo;
+import com.portafolio.ui.service.query.QueryRepository;
+import com.portafolio.ui.service.query.QueryRepository.ProblemasQueries;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
 /**
- *
- * @author maxbesser
+ * Transacciones marcadas para revisión de una empresa y custodio, en orden de fecha e id.
  */
+@Service
 public class ProblemasTrxsService {
-    
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Todas las transacciones para revisión.
+     */
+    @Transactional(readOnly = true)
+    public List<ProblemasTrxsDto> obtenerTransaccionesConProblemas(String razonSocial, String nombreCustodio) {
+        return consultar(razonSocial, nombreCustodio, null).getResultList();
+    }
+
+    /**
+     * Página de transacciones para revisión posteriores al cursor ({@code null} para la primera).
+     */
+    @Transactional(readOnly = true)
+    public PaginaKeyset<ProblemasTrxsDto> obtenerPaginaTransaccionesConProblemas(String razonSocial, String nombreCustodio,
+                                                                                CursorKeyset despues, int tamano) {
+        List<ProblemasTrxsDto> filas = consultar(razonSocial, nombreCustodio, despues)
+                .setMaxResults(tamano + 1)
+                .getResultList();
+        return PaginaKeyset.desde(filas, tamano, fila -> new CursorKeyset(fila.getFecha(), fila.getId()));
+    }
+
+    private TypedQuery<ProblemasTrxsDto> consultar(String razonSocial, String nombreCustodio, CursorKeyset despues) {
+        String jpql = QueryRepository.getProblemasQuery(ProblemasQueries.PROBLEMAS_QUERY)
+                .formatted(despues != null ? QueryRepository.FILTRO_CURSOR_TRANSACCION : "");
+        TypedQuery<ProblemasTrxsDto> query = entityManager.createQuery(jpql, ProblemasTrxsDto.class)
+                .setParameter("empresa", razonSocial)
+                .setParameter("custodio", nombreCustodio)
+                .setParameter("tipoIngreso", TipoEnumsCosteo.INGRESO)
+                .setParameter("tipoEgreso", TipoEnumsCosteo.EGRESO);
+        if (despues != null) {
+            query.setParameter("fecha", despues.fecha())
+                    .setParameter("id", despues.id());
+        }
+        return query;
+    }
 }
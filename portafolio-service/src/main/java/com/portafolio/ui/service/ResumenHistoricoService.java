@@ -1,13 +1,65 @@
-/*
- * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
- * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
- */
 package com.portafolio.ui.service;
 
+import com.portafolio.model.dto.ResumenHistoricoDto;
+import com.portafolio.ui.service.cache.ReporteCache;
+import com.portafolio.ui.service.query.QueryRepository;
+import com.portafolio.ui.service.query.QueryRepository.ResumenHistoricoQueries;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+
 /**
- *
- * @author maxbesser
+ * Resumen histórico de resultados realizados por instrumento de una empresa, custodio y
+ * cuenta. Lee el agregado precalculado resumen_historico.
  */
+@Service
+@RequiredArgsConstructor
 public class ResumenHistoricoService {
-    
+
+    private final ReporteCache reporteCache;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Una fila por instrumento con posición cerrada o con dividendos. Se guarda en el
+     * caché de reportes hasta la próxima carga o costeo.
+     */
+    @Transactional(readOnly = true)
+    public List<ResumenHistoricoDto> generarReporte(Long empresaId, Long custodioId, String cuenta) {
+        return reporteCache.obtener("resumenHistorico",
+                () -> consultar(empresaId, custodioId, cuenta), empresaId, custodioId, cuenta);
+    }
+
+    private List<ResumenHistoricoDto> consultar(Long empresaId, Long custodioId, String cuenta) {
+        List<Object[]> filas = entityManager.createNativeQuery(
+                        QueryRepository.getResumenHistoricoQuery(ResumenHistoricoQueries.RESUMEN_HISTORICO_QUERY), Object[].class)
+                .setParameter("empresaId", empresaId)
+                .setParameter("custodioId", custodioId)
+                .setParameter("cuenta", cuenta)
+                .getResultList();
+
+        return filas.stream()
+                .map(fila -> ResumenHistoricoDto.builder()
+                        .instrumentoId(((Number) fila[0]).longValue())
+                        .nemo((String) fila[1])
+                        .nombreInstrumento((String) fila[2])
+                        .totalCostoFifo(decimal(fila[3]))
+                        .totalGasto(decimal(fila[4]))
+                        .totalDividendo(decimal(fila[5]))
+                        .totalUtilidad(decimal(fila[6]))
+                        .totalTotal(decimal(fila[7]))
+                        .build())
+                .toList();
+    }
+
+    private BigDecimal decimal(Object valor) {
+        if (valor == null) return BigDecimal.ZERO;
+        return valor instanceof BigDecimal bd ? bd : new BigDecimal(valor.toString());
+    }
 }
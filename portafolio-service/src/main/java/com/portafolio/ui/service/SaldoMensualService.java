@@ -1,13 +1,133 @@
-/*
- * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
- * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
- */
 package com.portafolio.ui.service;
 
+import com.portafolio.masterdata.event.InstrumentoFusionadoEvent;
+import com.portafolio.model.dto.SaldoMensualDto;
+import com.portafolio.ui.service.cache.DatosReporteModificadosEvent;
+import com.portafolio.ui.service.cache.ReporteCache;
+import com.portafolio.ui.service.query.QueryRepository;
+import com.portafolio.ui.service.query.QueryRepository.SaldoMensualQueries;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
 /**
- *
- * @author maxbesser
+ * Saldos mensuales por instrumento. La grilla se lee de saldos_mensuales, una foto de
+ * fin de mes de la tabla saldos que se actualiza por mes al cargar saldos, en lugar de
+ * filtrar saldos con funciones de fecha y subconsultas en cada consulta.
  */
+@Slf4j
+@Service
+@RequiredArgsConstructor
 public class SaldoMensualService {
-    
+
+    private static final String SQL_FOTO_MENSUAL = """
+        INSERT INTO saldos_mensuales (empresa_id, custodio_id, cuenta, instrumento_id, anio, mes, fecha_corte,
+                                      cantidad, monto_clp, monto_usd, fecha_creacion, creado_por)
+        SELECT s.empresa_id, s.custodio_id, s.cuenta, s.instrumento_id, YEAR(c.fecha), MONTH(c.fecha), c.fecha,
+               SUM(s.cantidad), SUM(s.monto_clp), SUM(s.monto_usd), CURRENT_DATE, 'sistema'
+        FROM (
+            SELECT MAX(fecha) AS fecha
+            FROM saldos
+            WHERE fecha >= :desde
+            GROUP BY YEAR(fecha), MONTH(fecha)
+        ) c
+        JOIN saldos s ON s.fecha = c.fecha
+        GROUP BY s.empresa_id, s.custodio_id, s.cuenta, s.instrumento_id, c.fecha
+        """;
+
+    private final ReporteCache reporteCache;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Grilla de saldos de fin de mes del año, por instrumento. Se guarda en el caché de
+     * reportes hasta que cambien las fotos o los datos.
+     *
+     * @param razonSocial Empresa.
+     * @param nombreCustodio Custodio, o {@code null} para todos.
+     * @param anio Año.
+     * @param moneda "USD" o "CLP".
+     */
+    @Transactional(readOnly = true)
+    public List<SaldoMensualDto> obtenerSaldosMensuales(String razonSocial, String nombreCustodio, int anio, String moneda) {
+        return reporteCache.obtener("saldosMensuales",
+                () -> consultarSaldosMensuales(razonSocial, nombreCustodio, anio, moneda),
+                razonSocial, nombreCustodio, anio, moneda);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<SaldoMensualDto> consultarSaldosMensuales(String razonSocial, String nombreCustodio, int anio, String moneda) {
+        String columnaMonto = "USD".equalsIgnoreCase(moneda) ? "monto_usd" : "monto_clp";
+        String filtroCustodio = nombreCustodio != null ? "AND c.custodio = ?3" : "";
+        String sql = QueryRepository.getSaldoMensualQuery(SaldoMensualQueries.BASE_QUERY_TEMPLATE_QUERY)
+                .formatted(columnaMonto, filtroCustodio);
+
+        Query query = entityManager.createNativeQuery(sql, "SaldoMensualMapping")
+                .setParameter(1, razonSocial)
+                .setParameter(2, anio);
+        if (nombreCustodio != null) {
+            query.setParameter(3, nombreCustodio);
+        }
+        return query.getResultList();
+    }
+
+    /**
+     * Regenera las fotos de los meses desde el de {@code desde} (todos si es {@code null}).
+     * Quien cargue saldos debe invocarlo con la fecha más antigua cargada.
+     */
+    @Transactional
+    public void actualizarDesde(LocalDate desde) {
+        LocalDate inicioMes = desde != null ? desde.withDayOfMonth(1) : LocalDate.of(1900, 1, 1);
+        int eliminadas = entityManager.createNativeQuery("""
+                DELETE FROM saldos_mensuales
+                WHERE anio > :anio OR (anio = :anio AND mes >= :mes)
+                """)
+                .setParameter("anio", inicioMes.getYear())
+                .setParameter("mes", inicioMes.getMonthValue())
+                .executeUpdate();
+        int insertadas = entityManager.createNativeQuery(SQL_FOTO_MENSUAL)
+                .setParameter("desde", Date.valueOf(inicioMes))
+                .executeUpdate();
+        log.info("Fotos de saldos mensuales desde {}: {} filas reemplazadas por {}", inicioMes, eliminadas, insertadas);
+        eventPublisher.publishEvent(new DatosReporteModificadosEvent("saldos mensuales"));
+    }
+
+    /**
+     * Al iniciar se rehace desde el último mes con foto (que pudo quedar parcial) en adelante.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void inicializar() {
+        Object ultimaFoto = entityManager.createNativeQuery("SELECT MAX(fecha_corte) FROM saldos_mensuales").getSingleResult();
+        actualizarDesde(ultimaFoto != null ? aLocalDate(ultimaFoto) : null);
+    }
+
+    /**
+     * Una fusión de instrumentos reasigna saldos históricos: se rehacen todas las fotos.
+     * Editar un instrumento no cambia los saldos, así que no dispara la reconstrucción.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void alFusionarInstrumento(InstrumentoFusionadoEvent evento) {
+        actualizarDesde(null);
+    }
+
+    private LocalDate aLocalDate(Object valor) {
+        return valor instanceof Date fecha ? fecha.toLocalDate() : (LocalDate) valor;
+    }
 }
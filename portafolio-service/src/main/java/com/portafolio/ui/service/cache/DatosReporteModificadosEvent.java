@@ -0,0 +1,11 @@
+package com.portafolio.ui.service.cache;
+
+/**
+ * Se publica cuando una carga, una normalización, un costeo o una limpieza modifican
+ * los datos que leen los reportes, para descartar los resultados guardados en
+ * {@link ReporteCache}. Los oyentes lo reciben tras confirmarse la transacción.
+ *
+ * @param origen Proceso que modificó los datos (ej. "costeo"), solo para el log.
+ */
+public record DatosReporteModificadosEvent(String origen) {
+}
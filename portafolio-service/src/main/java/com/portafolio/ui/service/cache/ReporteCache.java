@@ -0,0 +1,131 @@
+package com.portafolio.ui.service.cache;
+
+import com.portafolio.masterdata.event.MaestroModificadoEvent;
+import com.portafolio.normalizar.event.CargaNormalizadaEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Caché de resultados de reportes, por nombre de reporte y parámetros. Los datos solo
+ * cambian tras una carga, una normalización, un costeo o una edición de maestros, de modo
+ * que reabrir una pestaña no vuelve a ejecutar la consulta. Cada entrada vence tras el TTL
+ * configurado, el total de entradas está acotado (se descarta la de uso más antiguo) y
+ * todo se invalida al recibir los eventos de modificación de datos.
+ * Los valores guardados se comparten entre llamadas: las listas se entregan no modificables.
+ */
+@Slf4j
+@Component
+public class ReporteCache {
+
+    private record Clave(String reporte, List<Object> parametros) {
+    }
+
+    private record Entrada(Object valor, long venceEn) {
+    }
+
+    private final long ttlMs;
+    private final Map<Clave, Entrada> entradas;
+
+    // Se incrementa en cada invalidación: un cálculo iniciado antes no se guarda
+    private long generacion;
+    private long aciertos;
+    private long fallos;
+
+    public ReporteCache(@Value("${portafolio.cache.reportes.ttl-minutos:10}") long ttlMinutos,
+                        @Value("${portafolio.cache.reportes.max-entradas:200}") int maxEntradas) {
+        this.ttlMs = Duration.ofMinutes(ttlMinutos).toMillis();
+        int limite = Math.max(1, maxEntradas);
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Clave, Entrada> mayor) {
+                return size() > limite;
+            }
+        };
+    }
+
+    /**
+     * Entrega el resultado guardado del reporte para esos parámetros o lo calcula y lo guarda.
+     * El cálculo se ejecuta fuera del candado; si entre tanto llegó una invalidación, el
+     * resultado se entrega pero no se guarda.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T obtener(String reporte, Supplier<T> calculo, Object... parametros) {
+        Clave clave = new Clave(reporte, Collections.unmodifiableList(Arrays.asList(parametros)));
+        long generacionInicial;
+        synchronized (this) {
+            Entrada entrada = entradas.get(clave);
+            if (entrada != null && entrada.venceEn() > System.currentTimeMillis()) {
+                aciertos++;
+                return (T) entrada.valor();
+            }
+            if (entrada != null) {
+                entradas.remove(clave);
+            }
+            fallos++;
+            generacionInicial = generacion;
+        }
+
+        T valor = calculo.get();
+        if (valor instanceof List<?> lista) {
+            valor = (T) Collections.unmodifiableList(new ArrayList<>(lista));
+        }
+        synchronized (this) {
+            if (generacion == generacionInicial) {
+                entradas.put(clave, new Entrada(valor, System.currentTimeMillis() + ttlMs));
+            }
+        }
+        return valor;
+    }
+
+    /**
+     * Descarta todas las entradas de un reporte.
+     */
+    public synchronized void invalidar(String reporte) {
+        generacion++;
+        entradas.keySet().removeIf(clave -> clave.reporte().equals(reporte));
+    }
+
+    /**
+     * Descarta todas las entradas.
+     */
+    public synchronized void invalidarTodo(String motivo) {
+        generacion++;
+        if (!entradas.isEmpty()) {
+            log.info("Caché de reportes invalidado ({}): {} entradas descartadas", motivo, entradas.size());
+            entradas.clear();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alModificarDatos(DatosReporteModificadosEvent evento) {
+        invalidarTodo(evento.origen());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alNormalizarCarga(CargaNormalizadaEvent evento) {
+        invalidarTodo("carga " + evento.loteId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alModificarMaestro(MaestroModificadoEvent evento) {
+        invalidarTodo("maestro " + evento.tipoEntidad().getSimpleName());
+    }
+
+    public synchronized Map<String, Object> obtenerEstadisticas() {
+        return Map.of(
+                "entradas", entradas.size(),
+                "aciertos", aciertos,
+                "fallos", fallos);
+    }
+}
@@ -0,0 +1,13 @@
+package com.portafolio.ui.service.export;
+
+import java.util.function.Function;
+
+/**
+ * Columna de un archivo exportado: título y cómo obtener el valor de cada fila.
+ */
+public record ColumnaExportacion<T>(String titulo, Function<T, ?> valor) {
+
+    public static <T> ColumnaExportacion<T> de(String titulo, Function<T, ?> valor) {
+        return new ColumnaExportacion<>(titulo, valor);
+    }
+}
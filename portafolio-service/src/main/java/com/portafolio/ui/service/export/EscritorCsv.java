@@ -0,0 +1,85 @@
+package com.portafolio.ui.service.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Escritor CSV en UTF-8 con BOM (para que Excel reconozca los acentos), separado por
+ * punto y coma. Los números se escriben sin notación científica y las fechas en ISO.
+ */
+final class EscritorCsv<T> implements EscritorTabla<T> {
+
+    private static final char SEPARADOR = ';';
+    private static final int TAMANO_BUFFER = 64 * 1024;
+
+    private final List<ColumnaExportacion<T>> columnas;
+    private final Writer salida;
+    private long filasEscritas;
+
+    EscritorCsv(Path destino, List<ColumnaExportacion<T>> columnas) throws IOException {
+        this.columnas = columnas;
+        this.salida = new BufferedWriter(
+                new OutputStreamWriter(Files.newOutputStream(destino), StandardCharsets.UTF_8), TAMANO_BUFFER);
+        salida.write('\uFEFF');
+        for (int i = 0; i < columnas.size(); i++) {
+            if (i > 0) {
+                salida.write(SEPARADOR);
+            }
+            escribirTexto(columnas.get(i).titulo());
+        }
+        salida.write("\r\n");
+    }
+
+    @Override
+    public void accept(T fila) {
+        try {
+            for (int i = 0; i < columnas.size(); i++) {
+                if (i > 0) {
+                    salida.write(SEPARADOR);
+                }
+                Object valor = columnas.get(i).valor().apply(fila);
+                if (valor instanceof BigDecimal numero) {
+                    salida.write(numero.toPlainString());
+                } else if (valor instanceof Number || valor instanceof Boolean) {
+                    salida.write(valor.toString());
+                } else if (valor != null) {
+                    escribirTexto(valor.toString());
+                }
+            }
+            salida.write("\r\n");
+            filasEscritas++;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public long filasEscritas() {
+        return filasEscritas;
+    }
+
+    @Override
+    public void close() throws IOException {
+        salida.close();
+    }
+
+    private void escribirTexto(String texto) throws IOException {
+        boolean requiereComillas = texto.indexOf(SEPARADOR) >= 0 || texto.indexOf('"') >= 0
+                || texto.indexOf('\n') >= 0 || texto.indexOf('\r') >= 0;
+        if (!requiereComillas) {
+            salida.write(texto);
+            return;
+        }
+        salida.write('"');
+        salida.write(texto.replace("\"", "\"\""));
+        salida.write('"');
+    }
+}
@@ -0,0 +1,32 @@
+package com.portafolio.ui.service.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Escribe filas en un archivo a medida que llegan, sin retenerlas: se usa como
+ * consumidor de un cursor de base de datos. El encabezado se escribe al abrir.
+ * Los errores de escritura durante {@link #accept} se lanzan como {@link UncheckedIOException}.
+ */
+public interface EscritorTabla<T> extends Consumer<T>, Closeable {
+
+    /**
+     * Filas escritas hasta ahora (sin contar encabezados).
+     */
+    long filasEscritas();
+
+    /**
+     * Abre el escritor del formato indicado sobre el archivo destino.
+     */
+    static <T> EscritorTabla<T> abrir(Path destino, FormatoExportacion formato, String hoja,
+                                      List<ColumnaExportacion<T>> columnas) throws IOException {
+        return switch (formato) {
+            case XLSX -> new EscritorXlsx<>(destino, hoja, columnas);
+            case CSV -> new EscritorCsv<>(destino, columnas);
+        };
+    }
+}
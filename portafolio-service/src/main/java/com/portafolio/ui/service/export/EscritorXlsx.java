@@ -0,0 +1,120 @@
+package com.portafolio.ui.service.export;
+
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Escritor XLSX con SXSSF: solo las últimas {@value #VENTANA_FILAS} filas quedan en memoria,
+ * el resto se vuelca comprimido a un temporal. Al llenar una hoja (límite de Excel)
+ * continúa en una nueva con el mismo encabezado.
+ */
+final class EscritorXlsx<T> implements EscritorTabla<T> {
+
+    private static final int VENTANA_FILAS = 200;
+    private static final int MAX_FILAS_HOJA = SpreadsheetVersion.EXCEL2007.getMaxRows();
+
+    private final Path destino;
+    private final String nombreHoja;
+    private final List<ColumnaExportacion<T>> columnas;
+    private final SXSSFWorkbook libro;
+    private final CellStyle estiloFecha;
+    private final CellStyle estiloEncabezado;
+
+    private Sheet hoja;
+    private int numeroHoja;
+    private int filaActual;
+    private long filasEscritas;
+
+    EscritorXlsx(Path destino, String nombreHoja, List<ColumnaExportacion<T>> columnas) {
+        this.destino = destino;
+        this.nombreHoja = nombreHoja;
+        this.columnas = columnas;
+        this.libro = new SXSSFWorkbook(VENTANA_FILAS);
+        this.libro.setCompressTempFiles(true);
+
+        this.estiloFecha = libro.createCellStyle();
+        this.estiloFecha.setDataFormat(libro.getCreationHelper().createDataFormat().getFormat("dd/mm/yyyy"));
+        Font negrita = libro.createFont();
+        negrita.setBold(true);
+        this.estiloEncabezado = libro.createCellStyle();
+        this.estiloEncabezado.setFont(negrita);
+
+        nuevaHoja();
+    }
+
+    @Override
+    public void accept(T fila) {
+        if (filaActual == MAX_FILAS_HOJA) {
+            nuevaHoja();
+        }
+        Row row = hoja.createRow(filaActual++);
+        for (int i = 0; i < columnas.size(); i++) {
+            Object valor = columnas.get(i).valor().apply(fila);
+            if (valor != null) {
+                escribirCelda(row.createCell(i), valor);
+            }
+        }
+        filasEscritas++;
+    }
+
+    @Override
+    public long filasEscritas() {
+        return filasEscritas;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try (OutputStream salida = Files.newOutputStream(destino)) {
+            libro.write(salida);
+        } finally {
+            libro.dispose();
+            libro.close();
+        }
+    }
+
+    private void nuevaHoja() {
+        numeroHoja++;
+        hoja = libro.createSheet(numeroHoja == 1 ? nombreHoja : nombreHoja + " (" + numeroHoja + ")");
+        Row encabezado = hoja.createRow(0);
+        for (int i = 0; i < columnas.size(); i++) {
+            Cell celda = encabezado.createCell(i);
+            celda.setCellValue(columnas.get(i).titulo());
+            celda.setCellStyle(estiloEncabezado);
+        }
+        ((SXSSFSheet) hoja).createFreezePane(0, 1);
+        filaActual = 1;
+    }
+
+    private void escribirCelda(Cell celda, Object valor) {
+        if (valor instanceof BigDecimal numero) {
+            celda.setCellValue(numero.doubleValue());
+        } else if (valor instanceof Number numero) {
+            celda.setCellValue(numero.doubleValue());
+        } else if (valor instanceof LocalDate fecha) {
+            celda.setCellValue(fecha);
+            celda.setCellStyle(estiloFecha);
+        } else if (valor instanceof LocalDateTime fechaHora) {
+            celda.setCellValue(fechaHora);
+            celda.setCellStyle(estiloFecha);
+        } else if (valor instanceof Boolean logico) {
+            celda.setCellValue(logico);
+        } else {
+            celda.setCellValue(valor.toString());
+        }
+    }
+}
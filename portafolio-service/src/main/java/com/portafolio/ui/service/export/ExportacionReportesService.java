@@ -0,0 +1,152 @@
+package com.portafolio.ui.service.export;
+
+import com.portafolio.costing.service.CostingReportsService;
+import com.portafolio.costing.service.CostingReportsService.VentaDetalle;
+import com.portafolio.model.dto.ConfrontaSaldoDto;
+import com.portafolio.ui.service.ConfrontaService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Exporta reportes a XLSX o CSV (según la extensión del archivo) leyendo las filas con
+ * un cursor y escribiéndolas a medida que llegan, con memoria constante: permite exportar
+ * el kardex de varios años de todos los grupos de una empresa.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExportacionReportesService {
+
+    /**
+     * Con el driver de MySQL, un fetch size de Integer.MIN_VALUE entrega las filas una a
+     * una en lugar de traer el resultado completo al cliente.
+     */
+    public static final int FETCH_STREAMING = Integer.MIN_VALUE;
+
+    private static final String SQL_KARDEX_EMPRESA = """
+        SELECT c.custodio, r.cuenta, r.nemo, r.fecha_tran, r.tipo_oper, r.cant_compra, r.precio_compra,
+               r.monto_compra, r.total_fact, r.cant_usada, r.fecha_compra, r.costo_fifo, r.precio_venta,
+               r.costo_oper, r.margen, r.utilidad, r.saldo_cantidad, r.saldo_valor
+        FROM kardex_reporte r
+        JOIN custodios c ON r.custodio_id = c.id
+        WHERE r.empresa_id = :empresaId
+          AND r.fecha_tran BETWEEN :fechaDesde AND :fechaHasta
+        ORDER BY r.custodio_id, r.cuenta, r.nemo_id, r.fecha_tran, r.id
+        """;
+
+    private static final List<ColumnaExportacion<Object[]>> COLUMNAS_KARDEX = List.of(
+            columna("Custodio", 0), columna("Cuenta", 1), columna("Nemo", 2), columna("Fecha", 3),
+            columna("Tipo", 4), columna("Cant. compra", 5), columna("Precio compra", 6),
+            columna("Monto compra", 7), columna("Total factura", 8), columna("Cant. usada", 9),
+            columna("Fecha compra", 10), columna("Costo FIFO", 11), columna("Precio venta", 12),
+            columna("Costo operación", 13), columna("Margen", 14), columna("Utilidad", 15),
+            columna("Saldo cantidad", 16), columna("Saldo valor", 17));
+
+    private static final List<ColumnaExportacion<VentaDetalle>> COLUMNAS_UTILIDADES = List.of(
+            ColumnaExportacion.de("Fecha", VentaDetalle::fecha),
+            ColumnaExportacion.de("Nemo", VentaDetalle::instrumentoNemo),
+            ColumnaExportacion.de("Cuenta", VentaDetalle::cuenta),
+            ColumnaExportacion.de("Custodio", VentaDetalle::custodio),
+            ColumnaExportacion.de("Cantidad", VentaDetalle::cantidad),
+            ColumnaExportacion.de("Precio venta", VentaDetalle::precioVenta),
+            ColumnaExportacion.de("Monto venta", VentaDetalle::montoVenta),
+            ColumnaExportacion.de("Costo FIFO", VentaDetalle::costoFIFO),
+            ColumnaExportacion.de("Utilidad", VentaDetalle::utilidad),
+            ColumnaExportacion.de("Margen %", VentaDetalle::margenPorcentaje));
+
+    private static final List<ColumnaExportacion<ConfrontaSaldoDto>> COLUMNAS_CONFRONTA = List.of(
+            ColumnaExportacion.de("Empresa", ConfrontaSaldoDto::getEmpresaNombre),
+            ColumnaExportacion.de("Custodio", ConfrontaSaldoDto::getCustodioNombre),
+            ColumnaExportacion.de("Nemo", ConfrontaSaldoDto::getInstrumentoNemo),
+            ColumnaExportacion.de("Cuenta", ConfrontaSaldoDto::getCuenta),
+            ColumnaExportacion.de("Fecha kardex", ConfrontaSaldoDto::getUltimaFechaKardex),
+            ColumnaExportacion.de("Cantidad kardex", ConfrontaSaldoDto::getCantidadKardex),
+            ColumnaExportacion.de("Valor kardex", ConfrontaSaldoDto::getValorKardex),
+            ColumnaExportacion.de("Fecha saldos", ConfrontaSaldoDto::getUltimaFechaSaldos),
+            ColumnaExportacion.de("Cantidad mercado", ConfrontaSaldoDto::getCantidadMercado),
+            ColumnaExportacion.de("Valor mercado", ConfrontaSaldoDto::getValorMercado),
+            ColumnaExportacion.de("Diferencia cantidad", ConfrontaSaldoDto::getDiferenciaCantidad),
+            ColumnaExportacion.de("Precio mercado", ConfrontaSaldoDto::getPrecioMercado));
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final CostingReportsService reportsService;
+    private final ConfrontaService confrontaService;
+
+    /**
+     * Exporta el kardex de todos los grupos de la empresa entre las fechas indicadas,
+     * ordenado por grupo y fecha.
+     *
+     * @return filas exportadas
+     */
+    @Transactional(readOnly = true)
+    @SuppressWarnings("unchecked")
+    public long exportarKardexEmpresa(Long empresaId, LocalDate fechaDesde, LocalDate fechaHasta, Path destino)
+            throws IOException {
+        long inicio = System.currentTimeMillis();
+        try (EscritorTabla<Object[]> escritor = abrir(destino, "Kardex", COLUMNAS_KARDEX);
+             Stream<Object[]> filas = entityManager.createNativeQuery(SQL_KARDEX_EMPRESA)
+                     .setParameter("empresaId", empresaId)
+                     .setParameter("fechaDesde", Date.valueOf(fechaDesde))
+                     .setParameter("fechaHasta", Date.valueOf(fechaHasta))
+                     .setHint(HibernateHints.HINT_FETCH_SIZE, FETCH_STREAMING)
+                     .getResultStream()) {
+            filas.forEach(escritor);
+            log.info("Kardex de empresa {} exportado a {}: {} filas en {}ms",
+                    empresaId, destino, escritor.filasEscritas(), System.currentTimeMillis() - inicio);
+            return escritor.filasEscritas();
+        }
+    }
+
+    /**
+     * Exporta el detalle de ventas con su costo FIFO y utilidad del período.
+     *
+     * @return filas exportadas
+     */
+    @Transactional(readOnly = true)
+    public long exportarUtilidades(Long empresaId, LocalDate fechaInicio, LocalDate fechaFin, Path destino)
+            throws IOException {
+        try (EscritorTabla<VentaDetalle> escritor = abrir(destino, "Utilidades", COLUMNAS_UTILIDADES)) {
+            reportsService.recorrerVentas(empresaId, fechaInicio, fechaFin, escritor);
+            log.info("Utilidades de empresa {} exportadas a {}: {} filas", empresaId, destino, escritor.filasEscritas());
+            return escritor.filasEscritas();
+        }
+    }
+
+    /**
+     * Exporta las diferencias entre kardex y saldos de mercado de la última fecha de corte.
+     *
+     * @return filas exportadas
+     */
+    public long exportarConfronta(Path destino) throws IOException {
+        try (EscritorTabla<ConfrontaSaldoDto> escritor = abrir(destino, "Confronta", COLUMNAS_CONFRONTA)) {
+            confrontaService.obtenerDiferenciasDeSaldos().forEach(escritor);
+            log.info("Confronta exportada a {}: {} filas", destino, escritor.filasEscritas());
+            return escritor.filasEscritas();
+        }
+    }
+
+    // ===== MÉTODOS PRIVADOS =====
+
+    private static <T> EscritorTabla<T> abrir(Path destino, String hoja, List<ColumnaExportacion<T>> columnas)
+            throws IOException {
+        return EscritorTabla.abrir(destino, FormatoExportacion.desdeArchivo(destino), hoja, columnas);
+    }
+
+    private static ColumnaExportacion<Object[]> columna(String titulo, int indice) {
+        return ColumnaExportacion.de(titulo, fila -> fila[indice] instanceof Date fecha ? fecha.toLocalDate() : fila[indice]);
+    }
+}
@@ -0,0 +1,19 @@
+package com.portafolio.ui.service.export;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Formatos de archivo de exportación de reportes.
+ */
+public enum FormatoExportacion {
+    XLSX, CSV;
+
+    /**
+     * Formato según la extensión del archivo destino; sin extensión reconocida se usa XLSX.
+     */
+    public static FormatoExportacion desdeArchivo(Path archivo) {
+        String nombre = archivo.getFileName().toString().toLowerCase(Locale.ROOT);
+        return nombre.endsWith(".csv") ? CSV : XLSX;
+    }
+}
@@ -167,28 +167,31 @@ public class QueryRepository {
 
     }
 
+    /**
+     * Las consultas de grilla se paginan por (fecha, id): el {@code %s} recibe el filtro
+     * de cursor de {@link #FILTRO_CURSOR_TRANSACCION} o queda vacío en la primera página.
+     */
+    public static final String FILTRO_CURSOR_TRANSACCION =
+            "AND (t.fechaTransaccion > :fecha OR (t.fechaTransaccion = :fecha AND t.id > :id))";
+
     public enum OperacionesQueries {
         OPERACIONES_QUERY("""
-            SELECT new com.app.dto.OperacionesTrxsDto(
-                t.id, t.fecha, t.folio, tm.tipoMovimiento, mc.tipoContable,
+            SELECT new com.portafolio.model.dto.OperacionesTrxsDto(
+                t.id, t.fechaTransaccion, t.folio, tm.tipoMovimiento, mc.tipoContable,
                 CASE WHEN mc.tipoContable = :tipoIngreso THEN t.cantidad ELSE null END,
                 CASE WHEN mc.tipoContable = :tipoEgreso THEN t.cantidad ELSE null END,
                 t.precio,
-                t.total,
+                t.montoTotal,
                 t.costeado, t.paraRevision, t.ignorarEnCosteo
             )
             FROM TransaccionEntity t
-            JOIN t.empresa e JOIN t.custodio c JOIN t.instrumento i
             JOIN t.tipoMovimiento tm JOIN tm.movimientoContable mc
-            WHERE e.razonSocial = :empresa
-              AND c.nombreCustodio = :custodio
+            WHERE t.empresa.id = :empresaId
+              AND t.custodio.id = :custodioId
               AND t.cuenta = :cuenta
-              AND i.instrumentoNemo IN (:nemos)
-            ORDER BY
-                t.fecha ASC,
-                CASE WHEN tm.esSaldoInicial = true THEN 0 ELSE 1 END ASC,
-                CASE WHEN mc.tipoContable = :tipoIngreso THEN 2 ELSE 3 END ASC,
-                t.id ASC
+              AND t.instrumento.id IN (:instrumentoIds)
+              %s
+            ORDER BY t.fechaTransaccion ASC, t.id ASC
                     """);
 
         private final String sql;
@@ -204,15 +207,16 @@ public class QueryRepository {
 
     public enum ProblemasQueries {
         PROBLEMAS_QUERY("""
-            SELECT new com.app.dto.ProblemasTrxsDto(
-                t.fecha,
+            SELECT new com.portafolio.model.dto.ProblemasTrxsDto(
+                t.id,
+                t.fechaTransaccion,
                 t.folio,
                 tm.tipoMovimiento,
                 i.instrumentoNemo,
                 CASE WHEN mc.tipoContable = :tipoIngreso THEN t.cantidad ELSE null END,
                 CASE WHEN mc.tipoContable = :tipoEgreso THEN t.cantidad ELSE null END,
                 t.precio,
-                -t.total,
+                -t.montoTotal,
                 t.costeado
             )
             FROM TransaccionEntity t
@@ -224,7 +228,8 @@ public class QueryRepository {
             WHERE t.paraRevision = true
               AND e.razonSocial = :empresa
               AND c.nombreCustodio = :custodio
-            ORDER BY t.fecha ASC, t.id ASC
+              %s
+            ORDER BY t.fechaTransaccion ASC, t.id ASC
             """);
 
         private final String sql;
@@ -347,91 +352,30 @@ public class QueryRepository {
 
     public enum ResumenHistoricoQueries {
         RESUMEN_HISTORICO_QUERY("""
-            WITH 
-            saldos_activos_calculados AS (
-                SELECT
-                    t.instrumento_id AS nemo_id
-                FROM
-                    kardex k
-                    JOIN transacciones t ON k.transaccion_id = t.id
-                    JOIN tipo_movimientos tm ON t.movimiento_id = tm.id
-                    JOIN tipos_contables tc ON tm.movimiento_contable_id = tc.id
-                WHERE
-                    t.empresa_id = :empresaId
-                    AND t.custodio_id = :custodioId
-                    AND t.cuenta = :cuenta
-                GROUP BY
-                    t.instrumento_id
-                HAVING
-                    SUM(CASE WHEN tc.tipo_contable = 'INGRESO' THEN k.cantidad ELSE -k.cantidad END) > 0
-            ),
-            operaciones_base AS (
-                SELECT
-                    t.instrumento_id AS nemo_id,
-                    i.nemo,
-                    i.instrumento,
-                    (ti.precio * dc.cantidad_usada) AS costo_fifo,
-                    ((t.precio - ti.precio) * dc.cantidad_usada) AS utilidad,
-                    (coalesce(t.gasto, 0) + coalesce(t.comision, 0) + coalesce(t.iva, 0)) AS gasto
-                FROM
-                    transacciones t
-                    JOIN instrumentos i ON t.instrumento_id = i.id
-                    JOIN tipo_movimientos tm ON t.movimiento_id = tm.id
-                    JOIN detalle_costeos dc ON t.id = dc.egreso_id
-                    JOIN transacciones ti ON dc.ingreso_id = ti.id
-                WHERE
-                    t.empresa_id = :empresaId
-                    AND t.custodio_id = :custodioId
-                    AND t.cuenta = :cuenta
-                    AND tm.movimiento_contable_id = (SELECT id FROM tipos_contables WHERE tipo_contable = 'EGRESO')
-            ),
-            operaciones_cerradas AS (
-                SELECT 
-                    nemo_id, nemo, instrumento, costo_fifo, utilidad, gasto, NULL AS dividendo
-                FROM operaciones_base op
-                WHERE NOT EXISTS (
-                    SELECT 1 FROM saldos_activos_calculados sac WHERE sac.nemo_id = op.nemo_id
-                )
-            ),
-            dividendos_transacciones AS (
-                SELECT
-                    i.id AS nemo_id,
-                    i.nemo,
-                    i.instrumento,
-                    NULL AS costo_fifo,
-                    NULL AS utilidad,
-                    NULL AS gasto,
-                    t.monto_clp AS dividendo
-                FROM
-                    transacciones t
-                    JOIN tipo_movimientos tm ON t.movimiento_id = tm.id
-                    JOIN instrumentos i ON t.instrumento_id = i.id
-                WHERE
-                    t.empresa_id = :empresaId
-                    AND t.custodio_id = :custodioId
-                    AND t.cuenta = :cuenta
-                    AND tm.tipo_movimiento LIKE '%Dividendo%'
-            )
             SELECT
-                nemo,
-                instrumento,
-                SUM(coalesce(costo_fifo, 0)) AS costo_fifo,
-                SUM(coalesce(gasto, 0)) AS gasto,
-                SUM(coalesce(dividendo, 0)) AS dividendo,
-                SUM(coalesce(utilidad, 0)) AS utilidad,
-                SUM(coalesce(utilidad, 0)) + SUM(coalesce(dividendo, 0)) - SUM(coalesce(gasto, 0)) AS total
-            FROM (
-                SELECT * FROM operaciones_cerradas
-                UNION ALL
-                SELECT * FROM dividendos_transacciones
-            ) AS resultados_finales
+                r.instrumento_id,
+                i.nemo,
+                i.instrumento,
+                SUM(CASE WHEN r.saldo_cantidad > 0 THEN 0 ELSE r.costo_fifo END) AS costo_fifo,
+                SUM(CASE WHEN r.saldo_cantidad > 0 THEN 0 ELSE r.gasto END) AS gasto,
+                SUM(r.dividendo) AS dividendo,
+                SUM(CASE WHEN r.saldo_cantidad > 0 THEN 0 ELSE r.utilidad END) AS utilidad,
+                SUM(CASE WHEN r.saldo_cantidad > 0 THEN 0 ELSE r.utilidad - r.gasto END) + SUM(r.dividendo) AS total
+            FROM
+                resumen_historico r
+                JOIN instrumentos i ON r.instrumento_id = i.id
+            WHERE
+                r.empresa_id = :empresaId
+                AND r.custodio_id = :custodioId
+                AND r.cuenta = :cuenta
             GROUP BY
-                nemo,
-                instrumento
+                r.instrumento_id,
+                i.nemo,
+                i.instrumento
             HAVING
                 total <> 0 OR costo_fifo <> 0
             ORDER BY
-                nemo
+                i.nemo
                     """);
 
         private final String sql;
@@ -477,26 +421,25 @@ public class QueryRepository {
         SELECT
             i.nemo,
             CASE WHEN i.instrumento = '--' THEN 'Caja' ELSE i.instrumento END AS instrumento_nemo,
-            SUM(CASE WHEN MONTH(s.fecha) = 1 THEN %s ELSE 0 END) AS Enero,
-            SUM(CASE WHEN MONTH(s.fecha) = 2 THEN %s ELSE 0 END) AS Febrero,
-            SUM(CASE WHEN MONTH(s.fecha) = 3 THEN %s ELSE 0 END) AS Marzo,
-            SUM(CASE WHEN MONTH(s.fecha) = 4 THEN %s ELSE 0 END) AS Abril,
-            SUM(CASE WHEN MONTH(s.fecha) = 5 THEN %s ELSE 0 END) AS Mayo,
-            SUM(CASE WHEN MONTH(s.fecha) = 6 THEN %s ELSE 0 END) AS Junio,
-            SUM(CASE WHEN MONTH(s.fecha) = 7 THEN %s ELSE 0 END) AS Julio,
-            SUM(CASE WHEN MONTH(s.fecha) = 8 THEN %s ELSE 0 END) AS Agosto,
-            SUM(CASE WHEN MONTH(s.fecha) = 9 THEN %s ELSE 0 END) AS Septiembre,
-            SUM(CASE WHEN MONTH(s.fecha) = 10 THEN %s ELSE 0 END) AS Octubre,
-            SUM(CASE WHEN MONTH(s.fecha) = 11 THEN %s ELSE 0 END) AS Noviembre,
-            SUM(CASE WHEN MONTH(s.fecha) = 12 THEN %s ELSE 0 END) AS Diciembre
-        FROM saldos s
-        JOIN instrumentos i ON s.instrumento_id = i.id
-        JOIN empresas e ON s.empresa_id = e.id
-        JOIN custodios c ON s.custodio_id = c.id
+            SUM(CASE WHEN m.mes = 1 THEN m.%1$s ELSE 0 END) AS Enero,
+            SUM(CASE WHEN m.mes = 2 THEN m.%1$s ELSE 0 END) AS Febrero,
+            SUM(CASE WHEN m.mes = 3 THEN m.%1$s ELSE 0 END) AS Marzo,
+            SUM(CASE WHEN m.mes = 4 THEN m.%1$s ELSE 0 END) AS Abril,
+            SUM(CASE WHEN m.mes = 5 THEN m.%1$s ELSE 0 END) AS Mayo,
+            SUM(CASE WHEN m.mes = 6 THEN m.%1$s ELSE 0 END) AS Junio,
+            SUM(CASE WHEN m.mes = 7 THEN m.%1$s ELSE 0 END) AS Julio,
+            SUM(CASE WHEN m.mes = 8 THEN m.%1$s ELSE 0 END) AS Agosto,
+            SUM(CASE WHEN m.mes = 9 THEN m.%1$s ELSE 0 END) AS Septiembre,
+            SUM(CASE WHEN m.mes = 10 THEN m.%1$s ELSE 0 END) AS Octubre,
+            SUM(CASE WHEN m.mes = 11 THEN m.%1$s ELSE 0 END) AS Noviembre,
+            SUM(CASE WHEN m.mes = 12 THEN m.%1$s ELSE 0 END) AS Diciembre
+        FROM saldos_mensuales m
+        JOIN instrumentos i ON m.instrumento_id = i.id
+        JOIN empresas e ON m.empresa_id = e.id
+        JOIN custodios c ON m.custodio_id = c.id
         WHERE e.razonsocial = ?1
-          AND YEAR(s.fecha) = ?2
-          AND s.fecha IN (SELECT DISTINCT MAX(fecha) FROM saldos WHERE year(fecha) = ?2 GROUP BY month(fecha))
-        %s
+          AND m.anio = ?2
+        %2$s
         GROUP BY i.nemo, i.instrumento 
         ORDER BY i.nemo
                     """);
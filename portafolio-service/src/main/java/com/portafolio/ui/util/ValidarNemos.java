@@ -1,10 +1,17 @@
 package com.portafolio.ui.util;
 
+import com.portafolio.normalizar.processor.IndiceInstrumentos;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 @Component
+@RequiredArgsConstructor
 public class ValidarNemos {
 
+    private final IndiceInstrumentos indiceInstrumentos;
+
     public String normalizarInstrumentoNemo(String nemo, String tipoClase) {
         if (nemo == null || nemo.trim().equals("--")) {
             if ("C".equals(tipoClase) || "S".equals(tipoClase) || "T".equals(tipoClase)) {
@@ -13,4 +20,17 @@ public class ValidarNemos {
         }
         return nemo;
     }
+
+    /**
+     * Nemónicos existentes parecidos al indicado (mismo nemónico normalizado o similitud
+     * por trigramas), para sugerir un instrumento antes de crear uno nuevo.
+     */
+    public List<String> sugerirNemos(String nemo, int maximo) {
+        return indiceInstrumentos.buscar(nemo)
+                .filter(c -> c.tipo() != IndiceInstrumentos.TipoCoincidencia.SIMILAR)
+                .map(c -> List.of(c.nemo()))
+                .orElseGet(() -> indiceInstrumentos.sugerencias(nemo, maximo).stream()
+                        .map(IndiceInstrumentos.Coincidencia::nemo)
+                        .toList());
+    }
 }
\ No newline at end of file
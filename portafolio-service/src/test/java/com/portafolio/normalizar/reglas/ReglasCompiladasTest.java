@@ -0,0 +1,51 @@
+package com.portafolio.normalizar.reglas;
+
+import com.portafolio.model.entities.ReglaNormalizacionEntity;
+import com.portafolio.model.enums.TipoReglaNormalizacion;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class ReglasCompiladasTest {
+
+    @Test
+    void reglaConOrigenVacioSeDescartaSinBloquearElReemplazo() {
+        ReglasCompiladas reglas = new ReglasCompiladas(List.of(
+                regla(TipoReglaNormalizacion.CORRECCION_CUSTODIO, "", "X"),
+                regla(TipoReglaNormalizacion.CORRECCION_CUSTODIO, "   ", "X"),
+                regla(TipoReglaNormalizacion.CORRECCION_CUSTODIO, "Peshing", "Pershing")));
+
+        String custodio = assertTimeoutPreemptively(Duration.ofSeconds(1), () -> reglas.custodio("Peshing LLC"));
+
+        assertEquals("Pershing LLC", custodio);
+        assertEquals(1, reglas.getCantidad());
+        assertEquals(2, reglas.getDescartadas());
+    }
+
+    @Test
+    void sinonimoConOrigenVacioNoCalzaConNemoEnBlanco() {
+        ReglasCompiladas reglas = new ReglasCompiladas(List.of(
+                regla(TipoReglaNormalizacion.SINONIMO_NEMO, " ", "CASH")));
+
+        assertEquals("", reglas.nemo("  "));
+    }
+
+    @Test
+    void matcherRechazaPatronVacio() {
+        assertThrows(IllegalArgumentException.class, () -> new MatcherAhoCorasick(Map.of("", "X")));
+    }
+
+    private static ReglaNormalizacionEntity regla(TipoReglaNormalizacion tipo, String origen, String destino) {
+        return ReglaNormalizacionEntity.builder()
+                .tipo(tipo)
+                .valorOrigen(origen)
+                .valorDestino(destino)
+                .build();
+    }
+}
@@ -1,26 +1,50 @@
 package com.portafolio.ui.controller;
 
+import com.portafolio.model.dto.DuplicadoSospechosoDto;
 import com.portafolio.model.dto.ResultadoCargaDto;
-import com.portafolio.model.enums.ListaEnumsCustodios;
+import com.portafolio.model.entities.CargaJobEntity;
+import com.portafolio.model.entities.LoteCargaEntity;
+import com.portafolio.model.enums.EstadoCargaJob;
+import com.portafolio.model.enums.TipoCargaJob;
+import com.portafolio.normalizar.processor.IndiceInstrumentos.SimilarPendiente;
 import com.portafolio.ui.factory.ServiceResult;
 import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.collections.FXCollections;
 import javafx.concurrent.Task;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.scene.control.Alert;
+import javafx.scene.control.ButtonBar;
 import javafx.scene.control.ButtonType;
 import javafx.scene.control.ChoiceDialog;
+import javafx.scene.control.DatePicker;
 import javafx.scene.control.Dialog;
+import javafx.scene.control.SelectionMode;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
 import javafx.scene.layout.BorderPane;
 import javafx.stage.FileChooser;
 
 import java.io.File;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.ResourceBundle;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 public class AppController extends BaseController {
 
+    private static final long INTERVALO_SONDEO_MS = 1000;
+    private static final DateTimeFormatter FORMATO_FECHA_LOTE = DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm");
+
     @FXML
     private BorderPane mainPane;
 
@@ -67,54 +91,25 @@ public class AppController extends BaseController {
     // --- MANEJADORES DE PROCESOS ---
     @FXML
     private void handleCargarArchivos(ActionEvent event) {
-        Optional<ListaEnumsCustodios> custodioOpt = pedirCustodio("Selecciona el custodio para la carga.");
+        Optional<String> custodioOpt = pedirCustodio("Selecciona el custodio para la carga.");
         if (custodioOpt.isEmpty()) { return; }
 
-        List<File> archivos = pedirArchivosExcel("Selecciona uno o más archivos para cargar");
+        List<File> archivos = pedirArchivosCartola("Selecciona uno o más archivos para cargar");
         if (archivos == null || archivos.isEmpty()) { return; }
 
-        Task<ServiceResult<ResultadoCargaDto>> task = new Task<>() {
-            @Override
-            protected ServiceResult<ResultadoCargaDto> call() {
-                ServiceResult<ResultadoCargaDto> resultadoFinal = null;
-                for (File archivo : archivos) {
-                    updateMessage("Procesando: " + archivo.getName());
-                    resultadoFinal = facade.ejecutarCargaDiaria(custodioOpt.get(), archivo);
-                    if (resultadoFinal.isError()) {
-                        updateMessage("Error procesando " + archivo.getName() + ". Abortando.");
-                        break;
-                    }
-                }
-                return resultadoFinal;
-            }
-        };
-        ejecutarTareaConDialogo(task, "Carga de Archivos");
+        encolarYSeguir(custodioOpt.get(), archivos, TipoCargaJob.DIARIA, "Carga de Archivos");
     }
 
     @FXML
     private void handleCargaInicial(ActionEvent event) {
-        Optional<ListaEnumsCustodios> custodioOpt = pedirCustodio("Selecciona custodio para carga inicial.");
+        Optional<String> custodioOpt = pedirCustodio("Selecciona custodio para carga inicial.");
         if (custodioOpt.isEmpty()) { return; }
 
-        List<File> archivos = pedirArchivosExcel("Selecciona archivos para carga inicial");
+        List<File> archivos = pedirArchivosCartola("Selecciona archivos para carga inicial");
         if (archivos == null || archivos.isEmpty()) { return; }
 
         if (confirmarProcesoDestructivo()) {
-            Task<ServiceResult<ResultadoCargaDto>> task = new Task<>() {
-                @Override
-                protected ServiceResult<ResultadoCargaDto> call() {
-                    ServiceResult<ResultadoCargaDto> resultadoFinal = null;
-                    for (File archivo : archivos) {
-                        updateMessage("Procesando: " + archivo.getName());
-                        resultadoFinal = facade.ejecutarCargaInicial(custodioOpt.get(), archivo);
-                        if (resultadoFinal.isError()) {
-                            break;
-                        }
-                    }
-                    return resultadoFinal;
-                }
-            };
-            ejecutarTareaConDialogo(task, "Carga Inicial Completa");
+            encolarYSeguir(custodioOpt.get(), archivos, TipoCargaJob.INICIAL, "Carga Inicial Completa");
         }
     }
 
@@ -144,7 +139,214 @@ public class AppController extends BaseController {
         }
     }
 
+    @FXML
+    private void handleReprocesarLoteCarga(ActionEvent event) {
+        Optional<Long> loteId = pedirLoteCarga("Selecciona el lote de carga a reprocesar.");
+        if (loteId.isEmpty() || !confirmarReprocesoLote()) { return; }
+
+        Task<ServiceResult<ResultadoCargaDto>> task = new Task<>() {
+            @Override
+            protected ServiceResult<ResultadoCargaDto> call() {
+                updateMessage("Reprocesando lote de carga " + loteId.get() + "...");
+                return facade.reprocesarLoteCarga(loteId.get());
+            }
+        };
+        ejecutarTareaConDialogo(task, "Reprocesamiento de Lote de Carga");
+    }
+
+    @FXML
+    private void handlePurgarLoteCarga(ActionEvent event) {
+        Optional<Long> loteId = pedirLoteCarga("Selecciona el lote de carga cuyas filas de staging se eliminarán.");
+        if (loteId.isEmpty()) { return; }
+
+        Task<ServiceResult<Integer>> task = new Task<>() {
+            @Override
+            protected ServiceResult<Integer> call() {
+                updateMessage("Purgando lote de carga " + loteId.get() + "...");
+                return facade.purgarLoteCarga(loteId.get());
+            }
+        };
+        ejecutarTareaConDialogo(task, "Purga de Lote de Carga");
+    }
+
+    @FXML
+    private void handlePurgarLotesAntiguos(ActionEvent event) {
+        Optional<LocalDate> fecha = pedirFecha("Purgar Lotes de Carga",
+                "Se eliminarán las filas de staging de los lotes cargados antes de la fecha\n"
+                        + "que ya fueron normalizados por completo.");
+        if (fecha.isEmpty()) { return; }
+
+        Task<ServiceResult<Integer>> task = new Task<>() {
+            @Override
+            protected ServiceResult<Integer> call() {
+                updateMessage("Purgando lotes de carga anteriores a " + fecha.get() + "...");
+                return facade.purgarLotesCargaAnterioresA(fecha.get());
+            }
+        };
+        ejecutarTareaConDialogo(task, "Purga de Lotes de Carga");
+    }
+
+    @FXML
+    private void handleInstrumentosSimilares(ActionEvent event) {
+        ServiceResult<List<SimilarPendiente>> pendientes = facade.obtenerInstrumentosSimilaresPendientes();
+        if (pendientes.isError()) {
+            showError("Instrumentos Parecidos", pendientes.getMessage());
+            return;
+        }
+        if (pendientes.getData().isEmpty()) {
+            showSuccess("No hay instrumentos nuevos pendientes de confirmar.");
+            return;
+        }
+
+        Map<String, SimilarPendiente> opciones = new LinkedHashMap<>();
+        for (SimilarPendiente pendiente : pendientes.getData()) {
+            String sugerido = pendiente.sugerido().nemo() != null ? pendiente.sugerido().nemo() : "(eliminado)";
+            opciones.put(String.format(Locale.ROOT, "%s  parecido a  %s (%.2f)", pendiente.nemo(), sugerido,
+                    pendiente.sugerido().similitud()), pendiente);
+        }
+        ChoiceDialog<String> dialogo = new ChoiceDialog<>(opciones.keySet().iterator().next(), opciones.keySet());
+        dialogo.setTitle("Instrumentos Parecidos");
+        dialogo.setHeaderText("Sus transacciones no se costean hasta confirmarlos como nuevos.\n"
+                + "Si es el mismo instrumento, fusiónalo desde Transacciones.");
+        dialogo.initOwner(mainPane.getScene().getWindow());
+        Optional<SimilarPendiente> seleccionado = dialogo.showAndWait().map(opciones::get);
+        if (seleccionado.isEmpty() || !confirmarInstrumentoNuevo(seleccionado.get())) { return; }
+
+        ServiceResult<Void> resultado = facade.confirmarInstrumentoNuevo(seleccionado.get().instrumentoId());
+        resultado.ifSuccess(data -> showSuccess("Instrumento " + seleccionado.get().nemo()
+                        + " confirmado como nuevo; sus transacciones quedan pendientes de costeo."))
+                .ifError(errMsg -> showError("Instrumentos Parecidos", errMsg));
+    }
+
+    @FXML
+    private void handleDuplicadosSospechosos(ActionEvent event) {
+        ServiceResult<List<DuplicadoSospechosoDto>> duplicados = facade.obtenerDuplicadosSospechosos();
+        if (duplicados.isError()) {
+            showError("Duplicados Sospechosos", duplicados.getMessage());
+            return;
+        }
+        if (duplicados.getData().isEmpty()) {
+            showSuccess("No hay transacciones marcadas como posible duplicado.");
+            return;
+        }
+
+        TableView<DuplicadoSospechosoDto> tabla = crearTablaDuplicados(duplicados.getData());
+        ButtonType descartar = new ButtonType("Descartar Sospecha", ButtonBar.ButtonData.OK_DONE);
+        Dialog<ButtonType> dialogo = new Dialog<>();
+        dialogo.setTitle("Duplicados Sospechosos");
+        dialogo.setHeaderText("Movimientos con la misma huella cargados más de una vez; las copias marcadas no se costean.\n"
+                + "Si un movimiento es legítimo, selecciónalo y descarta la sospecha.");
+        dialogo.initOwner(mainPane.getScene().getWindow());
+        dialogo.setResizable(true);
+        dialogo.getDialogPane().setContent(tabla);
+        dialogo.getDialogPane().getButtonTypes().addAll(descartar, ButtonType.CLOSE);
+        dialogo.getDialogPane().lookupButton(descartar).disableProperty()
+                .bind(tabla.getSelectionModel().selectedItemProperty().isNull());
+        if (dialogo.showAndWait().filter(b -> b == descartar).isEmpty()) { return; }
+
+        List<Long> ids = tabla.getSelectionModel().getSelectedItems().stream()
+                .flatMap(d -> d.getIdsSospechosos().stream())
+                .toList();
+        if (!confirmarDescarteDuplicados(ids.size())) { return; }
+
+        Task<ServiceResult<Integer>> task = new Task<>() {
+            @Override
+            protected ServiceResult<Integer> call() {
+                updateMessage("Descartando la sospecha en " + ids.size() + " transacciones...");
+                return facade.descartarSospechaDuplicado(ids);
+            }
+        };
+        ejecutarTareaConDialogo(task, "Descarte de Duplicados Sospechosos");
+    }
+
     // --- MÉTODOS DE AYUDA (HELPERS) ---
+
+    private TableView<DuplicadoSospechosoDto> crearTablaDuplicados(List<DuplicadoSospechosoDto> duplicados) {
+        TableView<DuplicadoSospechosoDto> tabla = new TableView<>(FXCollections.observableArrayList(duplicados));
+        tabla.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        tabla.setPrefSize(950, 420);
+        tabla.getColumns().addAll(List.of(
+                columna("Fecha", DuplicadoSospechosoDto::getFecha),
+                columna("Empresa", DuplicadoSospechosoDto::getRazonSocial),
+                columna("Custodio", DuplicadoSospechosoDto::getCustodio),
+                columna("Cuenta", DuplicadoSospechosoDto::getCuenta),
+                columna("Nemo", DuplicadoSospechosoDto::getInstrumentoNemo),
+                columna("Folio", DuplicadoSospechosoDto::getFolio),
+                columna("Cantidad", DuplicadoSospechosoDto::getCantidad),
+                columna("Monto", DuplicadoSospechosoDto::getMonto),
+                columna("Copias", d -> d.getOcurrencias() + " (" + d.getIdsSospechosos().size() + " marcadas)"),
+                columna("Lotes", d -> d.getLotes().stream().map(String::valueOf).collect(Collectors.joining(", ")))));
+        return tabla;
+    }
+
+    private static <T> TableColumn<DuplicadoSospechosoDto, T> columna(String titulo, Function<DuplicadoSospechosoDto, T> valor) {
+        TableColumn<DuplicadoSospechosoDto, T> columna = new TableColumn<>(titulo);
+        columna.setCellValueFactory(celda -> new ReadOnlyObjectWrapper<>(valor.apply(celda.getValue())));
+        return columna;
+    }
+
+    /**
+     * Encola los archivos en la cola de carga y sigue su avance. La carga la ejecutan
+     * los workers de ingesta; esta tarea solo consulta el estado de los trabajos.
+     */
+    private void encolarYSeguir(String custodio, List<File> archivos, TipoCargaJob tipoCarga, String nombreProceso) {
+        String tipoHoja = null;
+        if (archivos.stream().anyMatch(f -> f.getName().toLowerCase().endsWith(".csv"))) {
+            Optional<String> tipo = pedirTipoRegistroCsv();
+            if (tipo.isEmpty()) { return; }
+            tipoHoja = tipo.get();
+        }
+        ServiceResult<List<CargaJobEntity>> encolados = facade.encolarCarga(custodio, archivos, tipoCarga, tipoHoja);
+        if (encolados.isError()) {
+            showError("Error en Proceso", encolados.getMessage());
+            return;
+        }
+        List<Long> ids = encolados.getData().stream().map(CargaJobEntity::getId).toList();
+
+        Task<ServiceResult<ResultadoCargaDto>> task = new Task<>() {
+            @Override
+            protected ServiceResult<ResultadoCargaDto> call() throws InterruptedException {
+                long inicio = System.currentTimeMillis();
+                while (true) {
+                    ServiceResult<List<CargaJobEntity>> consulta = facade.consultarCargas(ids);
+                    if (consulta.isError()) {
+                        return ServiceResult.error(consulta.getMessage(), consulta.getException());
+                    }
+                    List<CargaJobEntity> jobs = consulta.getData();
+                    updateMessage(describirAvance(jobs));
+                    if (jobs.stream().allMatch(j -> j.getEstado().isTerminal())) {
+                        return resumirCargas(jobs, Duration.ofMillis(System.currentTimeMillis() - inicio));
+                    }
+                    Thread.sleep(INTERVALO_SONDEO_MS);
+                }
+            }
+        };
+        ejecutarTareaConDialogo(task, nombreProceso);
+    }
+
+    private String describirAvance(List<CargaJobEntity> jobs) {
+        StringBuilder sb = new StringBuilder();
+        for (CargaJobEntity job : jobs) {
+            sb.append(Path.of(job.getArchivo()).getFileName())
+              .append(": ").append(job.getEstado())
+              .append(" (").append(job.getProgreso()).append("%)\n");
+        }
+        return sb.toString().trim();
+    }
+
+    private ServiceResult<ResultadoCargaDto> resumirCargas(List<CargaJobEntity> jobs, Duration duracion) {
+        List<String> fallidos = jobs.stream()
+                .filter(j -> j.getEstado() == EstadoCargaJob.FALLIDO)
+                .map(j -> Path.of(j.getArchivo()).getFileName() + ": " + j.getMensaje())
+                .toList();
+        if (!fallidos.isEmpty()) {
+            return ServiceResult.error(String.join("\n", fallidos), null);
+        }
+        int filas = jobs.stream().mapToInt(j -> j.getFilasProcesadas() == null ? 0 : j.getFilasProcesadas()).sum();
+        return ServiceResult.success(ResultadoCargaDto.exitoso(filas, duracion,
+                jobs.size() + " archivo(s) cargados, " + filas + " filas procesadas."));
+    }
+
     private boolean confirmarProcesoDestructivo() {
         Alert confirmacion = new Alert(Alert.AlertType.CONFIRMATION);
         confirmacion.setTitle("Confirmar Proceso Irreversible");
@@ -160,21 +362,111 @@ public class AppController extends BaseController {
         return confirmacion.showAndWait().filter(b -> b == ButtonType.YES).isPresent();
     }
 
-    private Optional<ListaEnumsCustodios> pedirCustodio(String headerText) {
-        ChoiceDialog<ListaEnumsCustodios> dialogo = new ChoiceDialog<>(ListaEnumsCustodios.Fynsa, ListaEnumsCustodios.values());
+    private boolean confirmarReprocesoLote() {
+        Alert confirmacion = new Alert(Alert.AlertType.CONFIRMATION, "¿Deseas continuar?", ButtonType.YES, ButtonType.NO);
+        confirmacion.setTitle("Confirmar Reprocesamiento de Lote");
+        confirmacion.setHeaderText("Se eliminarán las transacciones y el kárdex generados por el lote\n"
+                + "y sus filas se volverán a normalizar. Los grupos afectados quedarán pendientes de costeo.");
+        return confirmacion.showAndWait().filter(b -> b == ButtonType.YES).isPresent();
+    }
+
+    private boolean confirmarInstrumentoNuevo(SimilarPendiente pendiente) {
+        Alert confirmacion = new Alert(Alert.AlertType.CONFIRMATION, "¿Deseas continuar?", ButtonType.YES, ButtonType.NO);
+        confirmacion.setTitle("Confirmar Instrumento Nuevo");
+        confirmacion.setHeaderText(pendiente.nemo() + " se tratará como un instrumento distinto y sus\n"
+                + "transacciones entrarán al próximo costeo.");
+        return confirmacion.showAndWait().filter(b -> b == ButtonType.YES).isPresent();
+    }
+
+    private boolean confirmarDescarteDuplicados(int transacciones) {
+        Alert confirmacion = new Alert(Alert.AlertType.CONFIRMATION, "¿Deseas continuar?", ButtonType.YES, ButtonType.NO);
+        confirmacion.setTitle("Confirmar Descarte de Sospecha");
+        confirmacion.setHeaderText(transacciones + " transacciones dejarán de considerarse duplicadas y\n"
+                + "entrarán al próximo costeo.");
+        return confirmacion.showAndWait().filter(b -> b == ButtonType.YES).isPresent();
+    }
+
+    private Optional<Long> pedirLoteCarga(String headerText) {
+        ServiceResult<List<LoteCargaEntity>> lotes = facade.obtenerLotesCarga();
+        if (lotes.isError()) {
+            showError("Lotes de Carga", lotes.getMessage());
+            return Optional.empty();
+        }
+        if (lotes.getData().isEmpty()) {
+            showError("Lotes de Carga", "No hay lotes de carga con filas en staging.");
+            return Optional.empty();
+        }
+
+        Map<String, Long> opciones = new LinkedHashMap<>();
+        for (LoteCargaEntity lote : lotes.getData()) {
+            String archivo = lote.getOrigen() != null ? Path.of(lote.getOrigen()).getFileName().toString() : "";
+            opciones.put(String.format("#%d  %s  %s  %s (%d filas)", lote.getId(), lote.getCustodio(),
+                    lote.getFechaCarga().format(FORMATO_FECHA_LOTE), archivo,
+                    lote.getFilas() == null ? 0 : lote.getFilas()), lote.getId());
+        }
+        ChoiceDialog<String> dialogo = new ChoiceDialog<>(opciones.keySet().iterator().next(), opciones.keySet());
+        dialogo.setTitle("Selección de Lote de Carga");
+        dialogo.setHeaderText(headerText);
+        dialogo.initOwner(mainPane.getScene().getWindow());
+        return dialogo.showAndWait().map(opciones::get);
+    }
+
+    private Optional<LocalDate> pedirFecha(String titulo, String headerText) {
+        DatePicker selector = new DatePicker(LocalDate.now().minusMonths(3));
+        Dialog<LocalDate> dialogo = new Dialog<>();
+        dialogo.setTitle(titulo);
+        dialogo.setHeaderText(headerText);
+        dialogo.initOwner(mainPane.getScene().getWindow());
+        dialogo.getDialogPane().setContent(selector);
+        dialogo.getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
+        dialogo.setResultConverter(boton -> boton == ButtonType.OK ? selector.getValue() : null);
+        return dialogo.showAndWait();
+    }
+
+    /**
+     * Ofrece los custodios con adaptador registrado, por lo que uno nuevo aparece sin cambios en la UI.
+     */
+    private Optional<String> pedirCustodio(String headerText) {
+        ServiceResult<List<String>> custodios = facade.obtenerCustodiosConAdaptador();
+        if (custodios.isError()) {
+            showError("Selección de Custodio", custodios.getMessage());
+            return Optional.empty();
+        }
+        if (custodios.getData().isEmpty()) {
+            showError("Selección de Custodio", "No hay custodios con adaptador registrado.");
+            return Optional.empty();
+        }
+        ChoiceDialog<String> dialogo = new ChoiceDialog<>(custodios.getData().get(0), custodios.getData());
         dialogo.setTitle("Selección de Custodio");
         dialogo.setHeaderText(headerText);
         dialogo.initOwner(mainPane.getScene().getWindow());
         return dialogo.showAndWait();
     }
 
-    private List<File> pedirArchivosExcel(String title) {
+    private List<File> pedirArchivosCartola(String title) {
         FileChooser fileChooser = new FileChooser();
         fileChooser.setTitle(title);
-        FileChooser.ExtensionFilter extFilter = new FileChooser.ExtensionFilter("Archivos Excel (*.xlsx, *.xls)", "*.xlsx", "*.xls");
-        fileChooser.getExtensionFilters().add(extFilter);
+        fileChooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("Cartolas (*.xlsx, *.xls, *.csv)", "*.xlsx", "*.xls", "*.csv"),
+                new FileChooser.ExtensionFilter("Archivos Excel (*.xlsx, *.xls)", "*.xlsx", "*.xls"),
+                new FileChooser.ExtensionFilter("Archivos CSV (*.csv)", "*.csv"));
         return fileChooser.showOpenMultipleDialog(mainPane.getScene().getWindow());
     }
+
+    /**
+     * Un CSV trae un solo tipo de registro, a diferencia del libro Excel que lo indica por hoja.
+     */
+    private Optional<String> pedirTipoRegistroCsv() {
+        Map<String, String> opciones = new LinkedHashMap<>();
+        opciones.put("Saldos (S)", "S");
+        opciones.put("Transacciones (T)", "T");
+        opciones.put("Movimientos de caja (C)", "C");
+        ChoiceDialog<String> dialogo = new ChoiceDialog<>("Transacciones (T)", opciones.keySet());
+        dialogo.setTitle("Tipo de Registro CSV");
+        dialogo.setHeaderText("Indica qué tipo de registro contienen los archivos CSV seleccionados.");
+        dialogo.initOwner(mainPane.getScene().getWindow());
+        return dialogo.showAndWait().map(opciones::get);
+    }
     
     private void ejecutarTareaConDialogo(Task<? extends ServiceResult<?>> task, String nombreProceso) {
         Dialog<Void> dialogoEspera = new Dialog<>();
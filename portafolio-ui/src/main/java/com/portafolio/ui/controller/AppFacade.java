@@ -1,5 +1,8 @@
 package com.portafolio.ui.controller;
 
+import com.portafolio.etl.service.ColaCargaService;
+import com.portafolio.etl.service.EtlService;
+import com.portafolio.etl.service.LoteCargaService;
 import com.portafolio.masterdata.implement.TipoMovimientoServiceImpl;
 import com.portafolio.masterdata.implement.UsuarioService;
 import com.portafolio.masterdata.implement.UsuarioService.UserRegistrationResult;
@@ -10,6 +13,11 @@ import com.portafolio.masterdata.interfaces.TransaccionService;
 import com.portafolio.model.dto.*;
 import com.portafolio.model.entities.*;
 import com.portafolio.model.enums.*;
+import com.portafolio.normalizar.processor.IndiceInstrumentos;
+import com.portafolio.normalizar.processor.IndiceInstrumentos.SimilarPendiente;
+import com.portafolio.normalizar.service.DuplicadosService;
+import com.portafolio.normalizar.service.NormalizationService;
+import com.portafolio.normalizar.service.NormalizationService.NormalizationResult;
 import com.portafolio.ui.factory.ServiceResult;
 import com.portafolio.ui.service.AuthenticationService;
 import com.portafolio.ui.service.ConfrontaService;
@@ -29,11 +37,14 @@ import com.portafolio.ui.service.ResumenPortafolioService;
 import com.portafolio.ui.service.ResumenSaldoEmpresaService;
 import com.portafolio.ui.service.SaldoActualService;
 import com.portafolio.ui.service.SaldoMensualService;
+import com.portafolio.ui.util.ValidarNemos;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -150,6 +161,29 @@ public class AppFacade {
         );
     }
 
+    public ServiceResult<List<CargaJobEntity>> encolarCarga(String claveCustodio, List<File> archivos,
+                                                            TipoCargaJob tipoCarga, String tipoHoja) {
+        return executeServiceCall(
+                () -> container.getService(ColaCargaService.class).encolar(claveCustodio,
+                        archivos.stream().map(File::toPath).toList(), tipoCarga, tipoHoja),
+                "Error al encolar la carga."
+        );
+    }
+
+    public ServiceResult<List<String>> obtenerCustodiosConAdaptador() {
+        return executeServiceCall(
+                () -> container.getService(EtlService.class).obtenerCustodiosConAdaptador().stream().sorted().toList(),
+                "Error al obtener los custodios disponibles."
+        );
+    }
+
+    public ServiceResult<List<CargaJobEntity>> consultarCargas(List<Long> ids) {
+        return executeServiceCall(
+                () -> container.getService(ColaCargaService.class).consultar(ids),
+                "Error al consultar el avance de la carga."
+        );
+    }
+
     public ServiceResult<ResultadoCargaDto> reprocesarNormalizacion() {
         return executeServiceCall(
                 () -> container.getService(NormalizarService.class).ejecutar(),
@@ -157,6 +191,54 @@ public class AppFacade {
         );
     }
 
+    // --- LOTES DE CARGA ---
+    public ServiceResult<List<LoteCargaEntity>> obtenerLotesCarga() {
+        return executeServiceCall(
+                () -> container.getService(LoteCargaService.class).listarVigentes(),
+                "Error al obtener los lotes de carga."
+        );
+    }
+
+    public ServiceResult<ResultadoCargaDto> reprocesarLoteCarga(Long loteId) {
+        return executeServiceCall(() -> {
+            NormalizationResult resultado = container.getService(NormalizationService.class).reiniciarProcesamiento(loteId);
+            if (resultado.isError()) {
+                return ResultadoCargaDto.fallido(resultado.getMensaje());
+            }
+            return ResultadoCargaDto.exitoso(resultado.getExitosos(), Duration.ofMillis(resultado.getDuracionMs()),
+                    "Lote " + loteId + " reprocesado. " + resultado.getMensaje());
+        }, "Error al reprocesar el lote de carga.");
+    }
+
+    public ServiceResult<Integer> purgarLoteCarga(Long loteId) {
+        return executeServiceCall(
+                () -> container.getService(LoteCargaService.class).purgar(loteId),
+                "Error al purgar el lote de carga."
+        );
+    }
+
+    public ServiceResult<Integer> purgarLotesCargaAnterioresA(LocalDate fecha) {
+        return executeServiceCall(
+                () -> container.getService(NormalizationService.class).limpiarRegistrosAntiguos(fecha),
+                "Error al purgar los lotes de carga antiguos."
+        );
+    }
+
+    // --- DUPLICADOS SOSPECHOSOS ---
+    public ServiceResult<List<DuplicadoSospechosoDto>> obtenerDuplicadosSospechosos() {
+        return executeServiceCall(
+                () -> container.getService(DuplicadosService.class).obtenerDuplicadosSospechosos(),
+                "Error al obtener los duplicados sospechosos."
+        );
+    }
+
+    public ServiceResult<Integer> descartarSospechaDuplicado(List<Long> transaccionIds) {
+        return executeServiceCall(
+                () -> container.getService(DuplicadosService.class).descartarSospecha(transaccionIds),
+                "Error al descartar la sospecha de duplicado."
+        );
+    }
+
     // --- COSTEO ---
     public ServiceResult<Void> iniciarCosteoCompleto() {
         return executeServiceCall(
@@ -289,6 +371,27 @@ public class AppFacade {
         );
     }
 
+    public ServiceResult<List<SimilarPendiente>> obtenerInstrumentosSimilaresPendientes() {
+        return executeServiceCall(
+                () -> container.getService(IndiceInstrumentos.class).getSimilaresPendientes(),
+                "Error al obtener los instrumentos pendientes de confirmar."
+        );
+    }
+
+    public ServiceResult<Void> confirmarInstrumentoNuevo(Long instrumentoId) {
+        return executeServiceCall(
+                () -> container.getService(IndiceInstrumentos.class).confirmarNuevo(instrumentoId),
+                "Error al confirmar el instrumento como nuevo."
+        );
+    }
+
+    public ServiceResult<List<String>> sugerirNemos(String nemo, int maximo) {
+        return executeServiceCall(
+                () -> container.getService(ValidarNemos.class).sugerirNemos(nemo, maximo),
+                "Error al buscar nemónicos parecidos."
+        );
+    }
+
     public ServiceResult<Void> fusionarInstrumentos(Long idInstrumentoAntiguo, Long idInstrumentoNuevo) {
         return executeServiceCall(
                 () -> container.getService(FusionInstrumentoService.class).fusionarYPrepararRecosteo(idInstrumentoAntiguo, idInstrumentoNuevo),
@@ -322,20 +425,12 @@ public class AppFacade {
     public ServiceResult<List<OperacionesTrxsDto>> obtenerOperacionesPorGrupo(
             Long empresaId, Long custodioId, String cuenta, Long instrumentoId, Long instrumentoNuevoId) {
         return executeServiceCall(() -> {
-            EmpresaService empresaService = container.getService(EmpresaService.class);
-            CustodioService custodioService = container.getService(CustodioService.class);
-            InstrumentoService instrumentoService = container.getService(InstrumentoService.class);
-            
-            String razonSocial = empresaService.obtenerPorId(empresaId).getRazonSocial();
-            String nombreCustodio = custodioService.obtenerPorId(custodioId).getNombreCustodio();
-            
-            List<String> nemos = new ArrayList<>();
-            nemos.add(instrumentoService.obtenerPorId(instrumentoId).getInstrumentoNemo());
+            List<Long> instrumentoIds = new ArrayList<>();
+            instrumentoIds.add(instrumentoId);
             if (instrumentoNuevoId != null && !instrumentoNuevoId.equals(instrumentoId)) {
-                nemos.add(instrumentoService.obtenerPorId(instrumentoNuevoId).getInstrumentoNemo());
+                instrumentoIds.add(instrumentoNuevoId);
             }
-            
-            return container.getService(OperacionesTrxsService.class).obtenerTransaccionesPorGrupo(razonSocial, nombreCustodio, cuenta, nemos);
+            return container.getService(OperacionesTrxsService.class).obtenerTransaccionesPorGrupo(empresaId, custodioId, cuenta, instrumentoIds);
         }, "No se pudieron cargar las operaciones.");
     }
 
@@ -1,6 +1,8 @@
 package com.portafolio.ui.controller;
 
 import com.portafolio.model.dto.ConfrontaSaldoDto;
+import com.portafolio.ui.factory.AppFacade;
+import com.portafolio.ui.factory.BaseController;
 import com.portafolio.ui.service.ConfrontaService;
 import javafx.concurrent.Task;
 import javafx.fxml.FXML;
@@ -12,8 +14,9 @@ import java.text.NumberFormat;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Locale;
+import java.util.ResourceBundle;
 
-public class ConfrontaSaldosController {
+public class ConfrontaSaldosController extends BaseController {
 
     private final ConfrontaService confrontaService;
 
@@ -49,7 +52,8 @@ public class ConfrontaSaldosController {
     @FXML
     private TableColumn<ConfrontaSaldoDto, BigDecimal> colDifCantidad;
 
-    public ConfrontaSaldosController(ConfrontaService confrontaService) {
+    public ConfrontaSaldosController(ConfrontaService confrontaService, AppFacade facade, ResourceBundle bundle) {
+        super(facade, bundle);
         this.confrontaService = confrontaService;
     }
 
@@ -110,6 +114,15 @@ public class ConfrontaSaldosController {
         new Thread(task).start();
     }
 
+    /**
+     * Exporta las diferencias de la última fecha de corte, sin depender de lo cargado en la tabla.
+     */
+    @FXML
+    private void handleExportar() {
+        pedirArchivoExportacion(tablaDiferencias.getScene().getWindow(), "confronta_saldos")
+                .ifPresent(archivo -> exportarEnSegundoPlano(archivo, () -> facade.exportarConfronta(archivo)));
+    }
+
     // --- Métodos de ayuda ---
     private void mostrarAlerta(Alert.AlertType tipo, String titulo, String contenido) {
         Alert alert = new Alert(tipo);
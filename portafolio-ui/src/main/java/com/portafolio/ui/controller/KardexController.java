@@ -4,19 +4,18 @@ import com.portafolio.model.dto.KardexReporteDto;
 import com.portafolio.ui.factory.AppFacade;
 import com.portafolio.ui.factory.BaseController;
 import com.portafolio.ui.util.MainPaneAware;
-import javafx.collections.FXCollections;
-import javafx.concurrent.Task;
+import com.portafolio.ui.util.PaginadorKeyset;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.BorderPane;
+import javafx.stage.Window;
 import javafx.util.Callback;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.util.List;
 import java.util.ResourceBundle;
 
 import static com.portafolio.ui.util.FormatUtils.createNumericCellFactory;
@@ -25,6 +24,7 @@ public class KardexController extends BaseController implements MainPaneAware {
 
     private BorderPane mainPane;
     private NavigatorService navigatorService;
+    private PaginadorKeyset<KardexReporteDto> paginador;
 
     // --- Componentes FXML ---
     @FXML private FiltroGrupo filtroGrupo;
@@ -109,6 +109,7 @@ public class KardexController extends BaseController implements MainPaneAware {
             if (newVal != null) {
                 handleBuscar();
             } else {
+                detenerPaginador();
                 tablaKardex.getItems().clear();
             }
         });
@@ -123,26 +124,19 @@ public class KardexController extends BaseController implements MainPaneAware {
 
         if (instrumentoId == null) { return; }
 
-        Task<List<KardexReporteDto>> buscarTask = new Task<>() {
-            @Override
-            protected List<KardexReporteDto> call() throws Exception {
-                return facade.obtenerMovimientosKardex(empresaId, custodioId, cuentaSeleccionada, instrumentoId)
-                             .getData();
-            }
-        };
-
-        progressIndicator.visibleProperty().bind(buscarTask.runningProperty());
-        tablaKardex.getItems().clear();
-
-        buscarTask.setOnSucceeded(e -> {
-            tablaKardex.setItems(FXCollections.observableArrayList(buscarTask.getValue()));
-        });
-
-        buscarTask.setOnFailed(e -> {
-            showError("Error al Consultar", "Ocurrió un error al consultar el Kardex.", buscarTask.getException());
-        });
+        // El kardex se trae por páginas a medida que se desplaza la tabla
+        detenerPaginador();
+        paginador = new PaginadorKeyset<>(tablaKardex, progressIndicator, UIConstants.Paginacion.TAMANO_PAGINA,
+                (despues, tamano) -> facade.obtenerPaginaKardex(empresaId, custodioId, cuentaSeleccionada, instrumentoId, despues, tamano)
+                                           .getData());
+        paginador.iniciar();
+    }
 
-        new Thread(buscarTask).start();
+    private void detenerPaginador() {
+        if (paginador != null) {
+            paginador.detener();
+            paginador = null;
+        }
     }
 
     @FXML
@@ -155,11 +149,29 @@ public class KardexController extends BaseController implements MainPaneAware {
         }
     }
     
+    /**
+     * Exporta el kardex de todos los grupos de la empresa seleccionada en el período que indique el usuario.
+     */
+    @FXML
+    private void handleExportar(ActionEvent event) {
+        final Long empresaId = filtroGrupo.getEmpresaId();
+        if (empresaId == null) {
+            showError("Exportar Kardex", "Seleccione una empresa para exportar su kardex.");
+            return;
+        }
+        Window owner = tablaKardex.getScene().getWindow();
+        pedirRangoFechas(owner, "Exportar Kardex").ifPresent(rango ->
+                pedirArchivoExportacion(owner, "kardex").ifPresent(archivo ->
+                        exportarEnSegundoPlano(archivo,
+                                () -> facade.exportarKardexEmpresa(empresaId, rango.desde(), rango.hasta(), archivo))));
+    }
+
     @Override
     public void setMainPane(BorderPane mainPane) { this.mainPane = mainPane; }
 
     @FXML
     private void handleCerrar(ActionEvent event) {
+        detenerPaginador();
         if (mainPane != null) { mainPane.setCenter(null); }
     }
 
@@ -8,6 +8,7 @@ import com.portafolio.ui.factory.AppFacade;
 import com.portafolio.ui.factory.BaseController;
 import com.portafolio.ui.util.Alertas;
 import com.portafolio.ui.util.MainPaneAware;
+import com.portafolio.ui.util.PaginadorKeyset;
 import javafx.beans.binding.Bindings;
 import javafx.beans.binding.BooleanBinding;
 import javafx.collections.FXCollections;
@@ -23,7 +24,6 @@ import java.time.LocalDate;
 import java.util.ResourceBundle;
 
 import static com.portafolio.ui.util.FormatUtils.createNumericCellFactory;
-import java.util.List;
 
 public class OperacionesTrxsController extends BaseController implements MainPaneAware {
 
@@ -38,6 +38,7 @@ public class OperacionesTrxsController extends BaseController implements MainPan
     private ProgressIndicator progressIndicator;
     @FXML
     private TableView<OperacionesTrxsDto> tablaTransacciones;
+    private PaginadorKeyset<OperacionesTrxsDto> paginador;
 
     // --- Columnas ---
     @FXML
@@ -113,6 +114,9 @@ public class OperacionesTrxsController extends BaseController implements MainPan
             if (n != null) {
                 handleBuscar();
             } else {
+                if (paginador != null) {
+                    paginador.detener();
+                }
                 tablaTransacciones.getItems().clear();
             }
         });
@@ -124,17 +128,20 @@ public class OperacionesTrxsController extends BaseController implements MainPan
             return;
         }
 
-        Task<List<OperacionesTrxsDto>> task = new Task<>() {
-            @Override
-            protected List<OperacionesTrxsDto> call() throws Exception {
-                Long instrumentoNuevoId = (cmbNemoNuevo.getValue() != null) ? cmbNemoNuevo.getValue().getId() : null;
-                return facade.obtenerOperacionesPorGrupo(filtroGrupo.getEmpresaId(), filtroGrupo.getCustodioId(), filtroGrupo.getCuenta(), filtroGrupo.getInstrumentoId(), instrumentoNuevoId).getData();
-            }
-        };
-        progressIndicator.visibleProperty().bind(task.runningProperty());
-        task.setOnSucceeded(e -> tablaTransacciones.setItems(FXCollections.observableArrayList(task.getValue())));
-        task.setOnFailed(e -> showError("Error de Búsqueda", "No se pudieron cargar las transacciones.", task.getException()));
-        new Thread(task).start();
+        Long empresaId = filtroGrupo.getEmpresaId();
+        Long custodioId = filtroGrupo.getCustodioId();
+        String cuenta = filtroGrupo.getCuenta();
+        Long instrumentoId = filtroGrupo.getInstrumentoId();
+        Long instrumentoNuevoId = (cmbNemoNuevo.getValue() != null) ? cmbNemoNuevo.getValue().getId() : null;
+
+        // Las transacciones se traen por páginas a medida que se desplaza la tabla
+        if (paginador != null) {
+            paginador.detener();
+        }
+        paginador = new PaginadorKeyset<>(tablaTransacciones, progressIndicator, UIConstants.Paginacion.TAMANO_PAGINA,
+                (despues, tamano) -> facade.obtenerPaginaOperaciones(empresaId, custodioId, cuenta, instrumentoId, instrumentoNuevoId, despues, tamano)
+                                           .getData());
+        paginador.iniciar();
     }
 
     @FXML
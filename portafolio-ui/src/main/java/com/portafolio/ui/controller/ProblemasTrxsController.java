@@ -7,6 +7,7 @@ import com.portafolio.masterdata.implement.CustodioServiceImpl;
 import com.portafolio.masterdata.implement.EmpresaServiceImpl;
 import com.portafolio.ui.service.ProblemasTrxsService;
 import com.portafolio.ui.util.MainPaneAware;
+import com.portafolio.ui.util.PaginadorKeyset;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
@@ -16,12 +17,9 @@ import javafx.scene.layout.BorderPane;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.util.List;
-import java.util.function.Supplier;
 
 import static com.portafolio.ui.util.FormatUtils.createComboBoxCellFactory;
 import static com.portafolio.ui.util.FormatUtils.createNumericCellFactory;
-import com.portafolio.ui.util.ReportTask;
 
 public class ProblemasTrxsController implements MainPaneAware {
 
@@ -29,6 +27,7 @@ public class ProblemasTrxsController implements MainPaneAware {
     private final ProblemasTrxsService problemasService;
     private final EmpresaServiceImpl empresaService;
     private final CustodioServiceImpl custodioService;
+    private PaginadorKeyset<ProblemasTrxsDto> paginador;
 
     // --- Componentes FXML ---
     @FXML
@@ -124,10 +123,14 @@ public class ProblemasTrxsController implements MainPaneAware {
             return;
         }
 
-        Supplier<List<ProblemasTrxsDto>> servicio = () -> problemasService.obtenerTransaccionesConProblemas(empresa.getRazonSocial(), custodio.getNombreCustodio());
-
-        ReportTask<ProblemasTrxsDto> task = new ReportTask<>(tablaTransacciones, progressIndicator, null, servicio);
-        new Thread(task).start();
+        // Las transacciones se traen por páginas a medida que se desplaza la tabla
+        if (paginador != null) {
+            paginador.detener();
+        }
+        paginador = new PaginadorKeyset<>(tablaTransacciones, progressIndicator, UIConstants.Paginacion.TAMANO_PAGINA,
+                (despues, tamano) -> problemasService.obtenerPaginaTransaccionesConProblemas(
+                        empresa.getRazonSocial(), custodio.getNombreCustodio(), despues, tamano));
+        paginador.iniciar();
     }
 
     @Override
@@ -11,6 +11,7 @@ import javafx.fxml.Initializable;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.paint.Color;
+import javafx.stage.Window;
 
 import java.math.BigDecimal;
 import java.net.URL;
@@ -145,6 +146,23 @@ public class ResultadoInstrumentoController extends BaseController implements In
         new Thread(task).start();
     }
 
+    /**
+     * Exporta las ventas con su costo FIFO y utilidad de la empresa seleccionada en el período indicado.
+     */
+    @FXML
+    private void handleExportarUtilidades() {
+        final Long empresaId = filtroGrupo.getEmpresaId();
+        if (empresaId == null) {
+            showError("Exportar Utilidades", "Seleccione una empresa para exportar sus utilidades.");
+            return;
+        }
+        Window owner = tablaResultados.getScene().getWindow();
+        pedirRangoFechas(owner, "Exportar Utilidades").ifPresent(rango ->
+                pedirArchivoExportacion(owner, "utilidades").ifPresent(archivo ->
+                        exportarEnSegundoPlano(archivo,
+                                () -> facade.exportarUtilidades(empresaId, rango.desde(), rango.hasta(), archivo))));
+    }
+
     private void actualizarLabelUtilidadTotal(List<ResultadoInstrumentoDto> resultados) {
         resultados.stream()
                 .filter(dto -> "TOTALES".equals(dto.getTipoMovimiento()))
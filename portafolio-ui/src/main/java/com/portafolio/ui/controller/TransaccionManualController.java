@@ -11,6 +11,7 @@ import com.portafolio.model.entities.EmpresaEntity;
 import com.portafolio.model.entities.InstrumentoEntity;
 import com.portafolio.model.entities.TipoMovimientoEntity;
 import com.portafolio.ui.util.Alertas;
+import com.portafolio.ui.util.ValidarNemos;
 import javafx.collections.FXCollections;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
@@ -34,6 +35,7 @@ public class TransaccionManualController implements Initializable {
     private final InstrumentoServiceImpl instrumentoService;
     private final EmpresaServiceImpl empresaService;
     private final CustodioServiceImpl custodioService;
+    private final ValidarNemos validarNemos;
 
     // --- Contexto ---
     private Long empresaId;
@@ -90,13 +92,15 @@ public class TransaccionManualController implements Initializable {
             TipoMovimientoServiceImpl tipoMovimientosService,
             InstrumentoServiceImpl instrumentoService,
             EmpresaServiceImpl empresaService,
-            CustodioServiceImpl custodioService
+            CustodioServiceImpl custodioService,
+            ValidarNemos validarNemos
     ) {
         this.transaccionService = transaccionService;
         this.tipoMovimientosService = tipoMovimientosService;
         this.instrumentoService = instrumentoService;
         this.empresaService = empresaService;
         this.custodioService = custodioService;
+        this.validarNemos = validarNemos;
     }
 
     @FXML
@@ -177,6 +181,9 @@ public class TransaccionManualController implements Initializable {
                     Alertas.mostrarAlertaAdvertencia("Datos Incompletos", "Debe especificar el Nemo y el Nombre del nuevo instrumento.");
                     return;
                 }
+                if (!confirmarNemoNuevo(nemo.trim())) {
+                    return;
+                }
                 instrumentoSeleccionado = instrumentoService.buscarOCrear(nemo, nombre);
             } else {
                 instrumentoSeleccionado = cmbInstrumento.getValue();
@@ -233,6 +240,19 @@ public class TransaccionManualController implements Initializable {
     }
 
     // --- Métodos de ayuda ---
+
+    /**
+     * Si ya existen nemónicos parecidos, pide confirmar antes de crear otro instrumento.
+     */
+    private boolean confirmarNemoNuevo(String nemo) {
+        List<String> parecidos = validarNemos.sugerirNemos(nemo, 5);
+        if (parecidos.isEmpty() || parecidos.contains(nemo)) {
+            return true;
+        }
+        return Alertas.mostrarConfirmacion("Instrumentos Parecidos",
+                "Ya existen instrumentos parecidos a " + nemo + ": " + String.join(", ", parecidos)
+                        + ".\n¿Crear de todos modos un instrumento nuevo?").isPresent();
+    }
     private void validarInputNumerico(TextField textField) {
         textField.textProperty().addListener((observable, oldValue, newValue) -> {
             if (!newValue.matches("\\d*(\\.\\d*)?")) {
@@ -39,6 +39,11 @@ public final class UIConstants {
         public static final String DATE = "dd/MM/yyyy";
     }
     
+    // --- Grillas paginadas ---
+    public static final class Paginacion {
+        public static final int TAMANO_PAGINA = 500;
+    }
+    
     // --- Claves de i18n comunes ---
     public static final class I18nKeys {
         public static final String ERROR_TITULO = "error.titulo";
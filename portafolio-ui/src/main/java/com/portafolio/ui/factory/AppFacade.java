@@ -4,6 +4,7 @@ import com.portafolio.model.dto.*;
 import com.portafolio.model.entities.*;
 import com.portafolio.model.enums.*;
 import com.portafolio.costing.api.CostingApi;
+import com.portafolio.etl.service.EtlService;
 import com.portafolio.masterdata.implement.UsuarioService;
 import com.portafolio.masterdata.interfaces.CustodioService;
 import com.portafolio.masterdata.interfaces.EmpresaService;
@@ -18,10 +19,14 @@ import com.portafolio.ui.service.KardexService;
 import com.portafolio.ui.service.OperacionesTrxsService;
 import com.portafolio.ui.service.ProcesoCargaDiariaService;
 import com.portafolio.ui.service.SaldoActualService;
+import com.portafolio.ui.service.export.ExportacionReportesService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.time.LocalDate;
 import java.util.List;
 
 @Service
@@ -33,6 +38,7 @@ public class AppFacade {
     private final ProcesoCargaDiariaService procesoDiarioOrchestrator;
     private final BorrarContenidoTablasService limpiezaService;
     private final NormalizationService normalizationService;
+    private final EtlService etlService;
     private final CostingApi costingApi;
     private final FiltroService filtroService;
     private final EmpresaService empresaService;
@@ -43,6 +49,7 @@ public class AppFacade {
     private final OperacionesTrxsService operacionesTrxsService;
     private final KardexService kardexApi;
     private final SaldoActualService saldoActualService;
+    private final ExportacionReportesService exportacionService;
 
     // Métodos de autenticación y usuarios
     public ServiceResult<Boolean> autenticarUsuario(String usuario, String contrasena) {
@@ -68,6 +75,26 @@ public class AppFacade {
         });
     }
 
+    public ServiceResult<ResultadoCargaDto> ejecutarCargaInicialMasiva(ListaEnumsCustodios custodio, File file) {
+        return execute(() -> {
+            limpiezaService.limpiarDatosDeNegocio();
+            ResultadoCargaDto resultado;
+            try (InputStream is = new FileInputStream(file)) {
+                resultado = etlService.procesarArchivoMasivo(is, custodio);
+            }
+            if (!resultado.isExitoso()) {
+                return resultado;
+            }
+            NormalizationService.NormalizationResult normalizacion = normalizationService.ejecutarCargaInicialMasiva();
+            if (normalizacion.isError()) {
+                return ResultadoCargaDto.fallido(normalizacion.getMensaje());
+            }
+            return ResultadoCargaDto.exitoso(normalizacion.getExitosos(),
+                    resultado.getDuracion().plusMillis(normalizacion.getDuracionMs()),
+                    resultado.getMensaje() + " " + normalizacion.getMensaje());
+        });
+    }
+
     public ServiceResult<ResultadoCargaDto> reprocesarNormalizacion() {
         return execute(normalizationService::ejecutarNormalizacion);
     }
@@ -95,6 +122,37 @@ public class AppFacade {
         return execute(() -> filtroService.obtenerInstrumentosConTransacciones(empresaId, custodioId, cuenta));
     }
 
+    // Grillas paginadas por (fecha, id)
+
+    public ServiceResult<PaginaKeyset<KardexReporteDto>> obtenerPaginaKardex(
+            Long empresaId, Long custodioId, String cuenta, Long instrumentoId, CursorKeyset despues, int tamano) {
+        return execute(() -> kardexApi.obtenerPaginaMovimientos(empresaId, custodioId, cuenta, instrumentoId, despues, tamano));
+    }
+
+    public ServiceResult<PaginaKeyset<OperacionesTrxsDto>> obtenerPaginaOperaciones(
+            Long empresaId, Long custodioId, String cuenta, Long instrumentoId, Long instrumentoNuevoId,
+            CursorKeyset despues, int tamano) {
+        List<Long> instrumentoIds = (instrumentoNuevoId != null && !instrumentoNuevoId.equals(instrumentoId))
+                ? List.of(instrumentoId, instrumentoNuevoId)
+                : List.of(instrumentoId);
+        return execute(() -> operacionesTrxsService.obtenerPaginaTransacciones(
+                empresaId, custodioId, cuenta, instrumentoIds, despues, tamano));
+    }
+
+    // Exportación a XLSX/CSV según la extensión del archivo; devuelven las filas escritas
+
+    public ServiceResult<Long> exportarKardexEmpresa(Long empresaId, LocalDate fechaDesde, LocalDate fechaHasta, File archivo) {
+        return execute(() -> exportacionService.exportarKardexEmpresa(empresaId, fechaDesde, fechaHasta, archivo.toPath()));
+    }
+
+    public ServiceResult<Long> exportarUtilidades(Long empresaId, LocalDate fechaInicio, LocalDate fechaFin, File archivo) {
+        return execute(() -> exportacionService.exportarUtilidades(empresaId, fechaInicio, fechaFin, archivo.toPath()));
+    }
+
+    public ServiceResult<Long> exportarConfronta(File archivo) {
+        return execute(() -> exportacionService.exportarConfronta(archivo.toPath()));
+    }
+
     // Helper para encapsular llamadas a servicio
 
     private <T> ServiceResult<T> execute(ServiceCallable<T> callable) {
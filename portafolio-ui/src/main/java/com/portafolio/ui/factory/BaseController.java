@@ -1,9 +1,22 @@
 package com.portafolio.ui.factory;
 
 import com.portafolio.ui.util.Alertas;
+import javafx.concurrent.Task;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.DatePicker;
+import javafx.scene.control.Dialog;
+import javafx.scene.control.Label;
+import javafx.scene.layout.GridPane;
+import javafx.stage.FileChooser;
+import javafx.stage.Window;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.time.LocalDate;
+import java.util.Optional;
 import java.util.ResourceBundle;
+import java.util.function.Supplier;
 
 public abstract class BaseController {
     protected final Logger logger = LoggerFactory.getLogger(getClass());
@@ -24,4 +37,77 @@ public abstract class BaseController {
     protected void showSuccess(String message) {
         Alertas.mostrarAlertaExito("Éxito", message);
     }
-}
\ No newline at end of file
+
+    /**
+     * Período de un reporte; ambas fechas inclusive.
+     */
+    protected record RangoFechas(LocalDate desde, LocalDate hasta) {
+    }
+
+    /**
+     * Pide el período a exportar. Por defecto propone el año en curso.
+     */
+    protected Optional<RangoFechas> pedirRangoFechas(Window owner, String titulo) {
+        DatePicker desde = new DatePicker(LocalDate.now().withDayOfYear(1));
+        DatePicker hasta = new DatePicker(LocalDate.now());
+        GridPane grid = new GridPane();
+        grid.setHgap(10);
+        grid.setVgap(10);
+        grid.addRow(0, new Label("Desde:"), desde);
+        grid.addRow(1, new Label("Hasta:"), hasta);
+
+        Dialog<RangoFechas> dialogo = new Dialog<>();
+        dialogo.setTitle(titulo);
+        dialogo.setHeaderText("Seleccione el período a exportar");
+        dialogo.initOwner(owner);
+        dialogo.getDialogPane().setContent(grid);
+        dialogo.getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
+        dialogo.getDialogPane().lookupButton(ButtonType.OK).disableProperty().bind(
+                desde.valueProperty().isNull().or(hasta.valueProperty().isNull()));
+        dialogo.setResultConverter(boton -> boton == ButtonType.OK
+                ? new RangoFechas(desde.getValue(), hasta.getValue()) : null);
+        return dialogo.showAndWait()
+                .filter(rango -> {
+                    if (rango.desde().isAfter(rango.hasta())) {
+                        showError("Período inválido", "La fecha inicial es posterior a la final.");
+                        return false;
+                    }
+                    return true;
+                });
+    }
+
+    /**
+     * Pide el archivo de destino; el formato (XLSX o CSV) lo define la extensión elegida.
+     */
+    protected Optional<File> pedirArchivoExportacion(Window owner, String nombreSugerido) {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Exportar Reporte");
+        fileChooser.setInitialFileName(nombreSugerido + ".xlsx");
+        fileChooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("Libro Excel (*.xlsx)", "*.xlsx"),
+                new FileChooser.ExtensionFilter("Archivo CSV (*.csv)", "*.csv"));
+        return Optional.ofNullable(fileChooser.showSaveDialog(owner));
+    }
+
+    /**
+     * Ejecuta la exportación en un hilo de fondo e informa las filas escritas al terminar.
+     */
+    protected void exportarEnSegundoPlano(File archivo, Supplier<ServiceResult<Long>> exportacion) {
+        Task<Long> task = new Task<>() {
+            @Override
+            protected Long call() {
+                ServiceResult<Long> resultado = exportacion.get();
+                if (!resultado.isSuccess()) {
+                    throw new IllegalStateException(resultado.getErrorMessage());
+                }
+                return resultado.getData();
+            }
+        };
+        task.setOnSucceeded(e -> showSuccess(String.format("Se exportaron %,d filas a %s", task.getValue(), archivo.getName())));
+        task.setOnFailed(e -> showError("Error de Exportación", task.getException().getMessage(), task.getException()));
+
+        Thread hilo = new Thread(task, "exportacion-reporte");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+}
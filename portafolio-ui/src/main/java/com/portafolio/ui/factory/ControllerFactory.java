@@ -6,6 +6,7 @@ import com.portafolio.masterdata.interfaces.TipoMovimientoService;
 import com.portafolio.masterdata.interfaces.InstrumentoService;
 import com.portafolio.masterdata.interfaces.EmpresaService;
 import com.portafolio.ui.controller.*;
+import com.portafolio.ui.util.ValidarNemos;
 import org.springframework.context.ApplicationContext;
 
 import java.util.HashMap;
@@ -49,12 +50,12 @@ public class ControllerFactory {
         // Controladores que usan servicios específicos (obtenidos de Spring)
         controllerRegistry.put(SaldoMensualController.class, () -> new SaldoMensualController(springContext.getBean(SaldoMensualService.class), springContext.getBean(EmpresaService.class), springContext.getBean(CustodioService.class)));
         controllerRegistry.put(ResumenSaldosController.class, () -> new ResumenSaldosController(springContext.getBean(ResumenSaldoEmpresaService.class)));
-        controllerRegistry.put(ConfrontaSaldosController.class, () -> new ConfrontaSaldosController(springContext.getBean(ConfrontaService.class)));
+        controllerRegistry.put(ConfrontaSaldosController.class, () -> new ConfrontaSaldosController(springContext.getBean(ConfrontaService.class), appFacade, bundle));
         controllerRegistry.put(ProblemasTrxsController.class, () -> new ProblemasTrxsController(springContext.getBean(ProblemasTrxsService.class), springContext.getBean(EmpresaService.class), springContext.getBean(CustodioService.class)));
         controllerRegistry.put(TipoMovimientosController.class, () -> new TipoMovimientosController(springContext.getBean(TipoMovimientoService.class)));
         controllerRegistry.put(AdminUsuariosController.class, () -> new AdminUsuariosController(springContext.getBean(UsuarioService.class), springContext.getBean(PerfilService.class)));
         controllerRegistry.put(CrearUsuarioController.class, () -> new CrearUsuarioController(springContext.getBean(UsuarioService.class)));
-        controllerRegistry.put(TransaccionManualController.class, () -> new TransaccionManualController(springContext.getBean(TransaccionService.class), springContext.getBean(TipoMovimientoService.class), springContext.getBean(InstrumentoService.class), springContext.getBean(EmpresaService.class), springContext.getBean(CustodioService.class)));
+        controllerRegistry.put(TransaccionManualController.class, () -> new TransaccionManualController(springContext.getBean(TransaccionService.class), springContext.getBean(TipoMovimientoService.class), springContext.getBean(InstrumentoService.class), springContext.getBean(EmpresaService.class), springContext.getBean(CustodioService.class), springContext.getBean(ValidarNemos.class)));
 
         // Controladores simples
         controllerRegistry.put(AjusteManualController.class, AjusteManualController::new);
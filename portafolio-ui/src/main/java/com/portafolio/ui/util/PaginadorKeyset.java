@@ -0,0 +1,155 @@
+package com.portafolio.ui.util;
+
+import com.portafolio.model.dto.CursorKeyset;
+import com.portafolio.model.dto.PaginaKeyset;
+import javafx.application.Platform;
+import javafx.beans.value.ChangeListener;
+import javafx.concurrent.Task;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
+import javafx.scene.control.Alert;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.control.TableView;
+
+/**
+ * Carga perezosa de una TableView desde una consulta paginada por (fecha, id).
+ * Trae la primera página y pide la siguiente cuando el usuario se acerca al final de la
+ * barra de desplazamiento (o cuando la página cargada no alcanza a llenar la tabla).
+ * La TableView ya virtualiza las celdas; así tampoco se trae a memoria el resultado
+ * completo de una vez.
+ * Cada búsqueda usa un paginador nuevo; {@link #detener()} descarta el anterior.
+ *
+ * @param <T> El tipo de fila de la tabla.
+ */
+public class PaginadorKeyset<T> {
+
+    /** Fracción de la barra de desplazamiento desde la que se pide la página siguiente. */
+    private static final double UMBRAL_DESPLAZAMIENTO = 0.9;
+
+    /**
+     * Consulta de una página: filas posteriores al cursor ({@code null} para la primera).
+     * Se ejecuta fuera del hilo de JavaFX.
+     */
+    @FunctionalInterface
+    public interface ProveedorPagina<T> {
+        PaginaKeyset<T> obtener(CursorKeyset despues, int tamano) throws Exception;
+    }
+
+    private final TableView<T> tableView;
+    private final ProgressIndicator progressIndicator; // Puede ser null
+    private final int tamanoPagina;
+    private final ProveedorPagina<T> proveedor;
+    private final ChangeListener<Number> oyenteDesplazamiento = (obs, anterior, valor) -> revisarDesplazamiento();
+
+    private ScrollBar barraVertical;
+    private CursorKeyset cursor;
+    private boolean hayMas = true;
+    private boolean cargando;
+    private boolean detenido;
+
+    public PaginadorKeyset(TableView<T> tableView, ProgressIndicator progressIndicator,
+                           int tamanoPagina, ProveedorPagina<T> proveedor) {
+        this.tableView = tableView;
+        this.progressIndicator = progressIndicator;
+        this.tamanoPagina = tamanoPagina;
+        this.proveedor = proveedor;
+    }
+
+    /**
+     * Limpia la tabla y carga la primera página. Debe llamarse desde el hilo de JavaFX.
+     */
+    public void iniciar() {
+        tableView.getItems().clear();
+        cargarSiguiente();
+    }
+
+    /**
+     * Deja de pedir páginas; una página en curso se descarta al llegar.
+     */
+    public void detener() {
+        detenido = true;
+        if (barraVertical != null) {
+            barraVertical.valueProperty().removeListener(oyenteDesplazamiento);
+        }
+    }
+
+    private void cargarSiguiente() {
+        if (detenido || cargando || !hayMas) {
+            return;
+        }
+        cargando = true;
+        mostrarProgreso(true);
+        CursorKeyset despues = cursor;
+
+        Task<PaginaKeyset<T>> task = new Task<>() {
+            @Override
+            protected PaginaKeyset<T> call() throws Exception {
+                return proveedor.obtener(despues, tamanoPagina);
+            }
+        };
+        task.setOnSucceeded(e -> {
+            cargando = false;
+            mostrarProgreso(false);
+            if (detenido) {
+                return;
+            }
+            PaginaKeyset<T> pagina = task.getValue();
+            tableView.getItems().addAll(pagina.filas());
+            cursor = pagina.siguiente();
+            hayMas = pagina.hayMas();
+            // Esperar el layout para saber si la tabla ya tiene barra de desplazamiento
+            Platform.runLater(this::revisarDesplazamiento);
+        });
+        task.setOnFailed(e -> {
+            cargando = false;
+            mostrarProgreso(false);
+            if (detenido) {
+                return;
+            }
+            new Alert(Alert.AlertType.ERROR, "Error al cargar los datos: " + task.getException().getMessage()).show();
+            task.getException().printStackTrace();
+        });
+
+        Thread hilo = new Thread(task, "paginador-tabla");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    private void revisarDesplazamiento() {
+        if (detenido || cargando || !hayMas) {
+            return;
+        }
+        ScrollBar barra = barraVertical();
+        if (barra == null) {
+            return;
+        }
+        if (!barra.isVisible()
+                || barra.getValue() >= barra.getMin() + (barra.getMax() - barra.getMin()) * UMBRAL_DESPLAZAMIENTO) {
+            cargarSiguiente();
+        }
+    }
+
+    /**
+     * La barra vertical la crea el skin de la tabla: se busca al primer uso.
+     */
+    private ScrollBar barraVertical() {
+        if (barraVertical == null) {
+            for (Node nodo : tableView.lookupAll(".scroll-bar")) {
+                if (nodo instanceof ScrollBar barra && barra.getOrientation() == Orientation.VERTICAL) {
+                    barraVertical = barra;
+                    barraVertical.valueProperty().addListener(oyenteDesplazamiento);
+                    break;
+                }
+            }
+        }
+        return barraVertical;
+    }
+
+    private void mostrarProgreso(boolean visible) {
+        if (progressIndicator != null) {
+            progressIndicator.visibleProperty().unbind();
+            progressIndicator.setVisible(visible);
+        }
+    }
+}